@@ -0,0 +1,20 @@
+package cfml.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point for the benchmarks jar. Takes the usual JMH command line, and always adds the gc profiler so that
+ * allocation rate is reported next to throughput.
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws Exception {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+		final Options options = new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build();
+		new Runner(options).run();
+	}
+}
@@ -0,0 +1,59 @@
+package cfml.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import cfml.parsing.CFMLSource;
+
+/**
+ * The .cfm/.cfc test corpus of cfml.parsing, split into script components and tag based files.
+ *
+ * The corpus is found relative to the working directory, which is the repository root for both the Maven jar and
+ * the Gradle task. Set the cfml.benchmarks.corpus system property to benchmark another directory.
+ */
+final class Corpus {
+
+	static final String CORPUS_PROPERTY = "cfml.benchmarks.corpus";
+	static final String DEFAULT_CORPUS = "cfml.parsing/src/test/resources/cfml/tests";
+
+	final List<String> scripts = new ArrayList<String>();
+	final List<String> tagFiles = new ArrayList<String>();
+
+	private Corpus() {
+	}
+
+	static Corpus load() throws IOException {
+		final File root = new File(System.getProperty(CORPUS_PROPERTY, DEFAULT_CORPUS));
+		if (!root.isDirectory()) {
+			throw new IOException("Benchmark corpus " + root.getAbsolutePath() + " not found. Run from the "
+					+ "repository root or set -D" + CORPUS_PROPERTY);
+		}
+		final Corpus corpus = new Corpus();
+		corpus.collect(root);
+		return corpus;
+	}
+
+	private void collect(File dir) throws IOException {
+		final File[] children = dir.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			final String name = child.getName().toLowerCase();
+			if (child.isDirectory()) {
+				collect(child);
+			} else if (name.endsWith(".cfc") || name.endsWith(".cfm")) {
+				final String contents = new String(Files.readAllBytes(child.toPath()), Charset.defaultCharset());
+				if (new CFMLSource(contents).getChildElements().isEmpty()) {
+					scripts.add(contents);
+				} else {
+					tagFiles.add(contents);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package cfml.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.cfscript.Decompiler;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+
+/**
+ * Decompile against Decompiler over every script component in the test corpus, parsed beforehand. One operation is one
+ * pass over the whole corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecompileBenchmark {
+
+	private final List<CFScriptStatement> statements = new ArrayList<CFScriptStatement>();
+	private final Decompiler decompiler = new Decompiler();
+	private final StringBuilder out = new StringBuilder();
+
+	@Setup
+	public void setUp() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		for (String script : Corpus.load().scripts) {
+			final CFScriptStatement statement = parser.parseScript(script);
+			if (statement == null) {
+				continue;
+			}
+			try {
+				// bodies of function declarations are parsed up front, not in the first iteration
+				statement.Decompile(0);
+			} catch (RuntimeException e) {
+				// a statement Decompile rejects, such as a try without a catch
+				continue;
+			}
+			statements.add(statement);
+		}
+	}
+
+	@Benchmark
+	public void decompile(Blackhole blackhole) {
+		for (CFScriptStatement statement : statements) {
+			blackhole.consume(statement.Decompile(0));
+		}
+	}
+
+	@Benchmark
+	public void decompiler(Blackhole blackhole) throws Exception {
+		for (CFScriptStatement statement : statements) {
+			out.setLength(0);
+			decompiler.decompile(statement, 0, out);
+			blackhole.consume(out.length());
+		}
+	}
+}
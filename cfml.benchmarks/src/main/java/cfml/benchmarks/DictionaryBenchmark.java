@@ -0,0 +1,67 @@
+package cfml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cfml.dictionary.DictionaryManager;
+import cfml.dictionary.SyntaxDictionary;
+import cfml.dictionary.preferences.DictionaryPreferences;
+
+/**
+ * DictionaryManager.initDictionaries, which every CFMLParser constructor calls.
+ *
+ * DictionaryManager loads once per JVM and short-circuits after that. The switch benchmark alternates between two
+ * CF dictionary versions, which once both are cached is a swap of snapshots, and the load benchmark forces a full
+ * load of one version on every call. The initialized benchmark measures the short circuit that every parser after
+ * the first one pays.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DictionaryBenchmark {
+
+	private DictionaryPreferences cf9;
+	private DictionaryPreferences cf11;
+	private boolean flip;
+
+	@Setup
+	public void setUp() {
+		cf9 = new DictionaryPreferences();
+		cf9.setCFDictionary("ColdFusion9");
+		cf11 = new DictionaryPreferences();
+		cf11.setCFDictionary("cf11");
+		DictionaryManager.initDictionaries(cf9);
+	}
+
+	@Benchmark
+	public SyntaxDictionary initDictionariesSwitch() {
+		flip = !flip;
+		DictionaryManager.initDictionaries(flip ? cf11 : cf9);
+		return DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY);
+	}
+
+	@Benchmark
+	public SyntaxDictionary loadDictionaryByVersion() {
+		DictionaryManager.loadDictionaryByVersion("cf11");
+		return (SyntaxDictionary) DictionaryManager.getDictionariesCache().get("cf11");
+	}
+
+	@Benchmark
+	public SyntaxDictionary initDictionariesInitialized() {
+		DictionaryManager.initDictionaries();
+		return DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY);
+	}
+}
@@ -0,0 +1,61 @@
+package cfml.benchmarks;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.reporting.ArrayErrorListener;
+
+/**
+ * CFMLParser.parseCFMLExpression on the kind of short expressions found in cfset and cfif tags.
+ *
+ * The cold benchmark makes every expression unique, so each call misses the expression tree cache and pays for the
+ * full lex and parse (against an already warmed DFA). The cache hit benchmark repeats one expression, so only the
+ * visit over the cached tree is measured.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExpressionBenchmark {
+
+	@Param({ "local.result = structNew()", "isDefined('url.id') AND url.id GT 0 AND len(trim(url.id))",
+			"x = foo(bar, baz).qux[1] & 'suffix' & arrayLen(items) * 2" })
+	public String expression;
+
+	private CFMLParser parser;
+	private ArrayErrorListener errors;
+	private long counter;
+
+	@Setup
+	public void setUp() throws Exception {
+		parser = new CFMLParser();
+		errors = new ArrayErrorListener(new ArrayList<String>());
+		parser.parseCFMLExpression(expression, errors);
+	}
+
+	@Benchmark
+	public CFExpression parseCold() throws Exception {
+		return parser.parseCFMLExpression(expression + " + " + counter++, errors);
+	}
+
+	@Benchmark
+	public CFExpression parseCacheHit() throws Exception {
+		return parser.parseCFMLExpression(expression, errors);
+	}
+}
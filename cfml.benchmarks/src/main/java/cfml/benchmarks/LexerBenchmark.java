@@ -0,0 +1,49 @@
+package cfml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cfml.CFSCRIPTLexer;
+
+/**
+ * CFSCRIPTLexer alone, with no parser, over every script component in the test corpus. One operation is one pass
+ * over the whole corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LexerBenchmark {
+
+	private Corpus corpus;
+
+	@Setup
+	public void setUp() throws Exception {
+		corpus = Corpus.load();
+	}
+
+	@Benchmark
+	public void lexScript(Blackhole blackhole) {
+		for (String script : corpus.scripts) {
+			final CFSCRIPTLexer lexer = new CFSCRIPTLexer(CharStreams.fromString(script));
+			for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+				blackhole.consume(token);
+			}
+		}
+	}
+}
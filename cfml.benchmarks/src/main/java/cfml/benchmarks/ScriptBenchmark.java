@@ -0,0 +1,46 @@
+package cfml.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cfml.parsing.CFMLParser;
+
+/**
+ * CFMLParser.parseScript over every script component in the test corpus. One operation is one pass over the whole
+ * corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScriptBenchmark {
+
+	private CFMLParser parser;
+	private Corpus corpus;
+
+	@Setup
+	public void setUp() throws Exception {
+		parser = new CFMLParser();
+		corpus = Corpus.load();
+	}
+
+	@Benchmark
+	public void parseScript(Blackhole blackhole) throws Exception {
+		for (String script : corpus.scripts) {
+			blackhole.consume(parser.parseScript(script));
+		}
+	}
+}
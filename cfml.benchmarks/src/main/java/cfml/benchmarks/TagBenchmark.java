@@ -0,0 +1,152 @@
+package cfml.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.CFMLSource;
+import cfml.parsing.cfml.CFMLGrammarScanner;
+import cfml.parsing.cfml.CFMLScanHandler;
+import cfml.parsing.cfml.CFMLTagScanner;
+import cfml.parsing.cfml.CFMLVisitor;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import net.htmlparser.jericho.Element;
+
+/**
+ * The tag side of the parser over every tag based file in the test corpus: building a CFMLSource, and walking its
+ * elements with CFMLParser.visit. The visit benchmark reuses sources built during setup, so it measures only the
+ * walk and the expression and cfscript parsing it triggers. The scan benchmarks find the same tags with the hand
+ * written and the grammar based tag scanners, for comparison with building a CFMLSource. One operation is one pass
+ * over the whole corpus.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TagBenchmark {
+
+	private CFMLParser parser;
+	private Corpus corpus;
+	private List<CFMLSource> sources;
+
+	@Setup
+	public void setUp() throws Exception {
+		parser = new CFMLParser();
+		corpus = Corpus.load();
+		sources = new ArrayList<CFMLSource>();
+		for (String contents : corpus.tagFiles) {
+			final CFMLSource source = new CFMLSource(contents);
+			// Jericho builds its element cache lazily, so force it here rather than in the first measured visit.
+			source.getChildElements();
+			sources.add(source);
+		}
+	}
+
+	@Benchmark
+	public void constructSource(Blackhole blackhole) {
+		for (String contents : corpus.tagFiles) {
+			final CFMLSource source = new CFMLSource(contents);
+			blackhole.consume(source.getChildElements());
+		}
+	}
+
+	@Benchmark
+	public void visit(Blackhole blackhole) throws Exception {
+		final ConsumingVisitor visitor = new ConsumingVisitor(blackhole);
+		for (CFMLSource source : sources) {
+			for (Element element : source.getChildElements()) {
+				parser.visit(element, 0, visitor);
+			}
+		}
+	}
+
+	@Benchmark
+	public void scanTags(Blackhole blackhole) throws Exception {
+		scan(new CFMLTagScanner(), blackhole);
+	}
+
+	@Benchmark
+	public void scanTagsWithGrammar(Blackhole blackhole) throws Exception {
+		scan(new CFMLGrammarScanner(), blackhole);
+	}
+
+	private void scan(CFMLTagScanner scanner, Blackhole blackhole) throws Exception {
+		final ConsumingHandler handler = new ConsumingHandler(blackhole);
+		for (String contents : corpus.tagFiles) {
+			scanner.scan(contents, handler);
+		}
+	}
+
+	private static final class ConsumingHandler extends CFMLScanHandler {
+
+		private final Blackhole blackhole;
+
+		ConsumingHandler(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void startTag(CharSequence source, int begin, int nameEnd) {
+			blackhole.consume(nameEnd);
+		}
+
+		@Override
+		public void attribute(CharSequence source, int nameBegin, int nameEnd, int valueBegin, int valueEnd) {
+			blackhole.consume(valueEnd);
+		}
+
+		@Override
+		public void expression(CharSequence source, int begin, int end) {
+			blackhole.consume(end);
+		}
+
+		@Override
+		public void script(CharSequence source, int begin, int end) {
+			blackhole.consume(end);
+		}
+	}
+
+	private static final class ConsumingVisitor extends CFMLVisitor {
+
+		private final Blackhole blackhole;
+
+		ConsumingVisitor(Blackhole blackhole) {
+			this.blackhole = blackhole;
+		}
+
+		@Override
+		public void visitElementStart(Element elem) {
+			blackhole.consume(elem);
+		}
+
+		@Override
+		public void visitElementEnd(Element elem) {
+		}
+
+		@Override
+		public void visitExpression(String context, CFExpression expression) {
+			blackhole.consume(expression);
+		}
+
+		@Override
+		public void visitScript(CFScriptStatement scriptStatement) {
+			blackhole.consume(scriptStatement);
+		}
+	}
+}
@@ -0,0 +1,594 @@
+package cfml.dictionary;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A precompiled form of one XML dictionary, so loading it needs no XML parse.
+ *
+ * The file starts with {@link #MAGIC} and {@link #VERSION}, then a string table: every distinct string once, as UTF-8,
+ * located by an offset array. Records after it refer to strings by their index in the table, -1 being null, so each
+ * name, type and category is stored and decoded once however many tags share it, and a string is only decoded the first
+ * time a record asks for it. Then come the tags, functions, components, scope vars and scopes, each record a fixed run
+ * of ints and bytes followed by its variable length lists (parameters, values, triggers and so on).
+ *
+ * The help and parameters of a tag, function or component are written after their length, and skipped when the file
+ * is loaded: each procedure reads its own from the file the first time they are asked for, so a dictionary only
+ * builds the parts it is actually asked about.
+ *
+ * A binary dictionary holds what parsing its XML file into empty maps gives, and {@link #load(URL, Map, Map, Map, Map)}
+ * puts that into the dictionary's maps just as the parse would have. The files are written at build time by
+ * {@link DictionaryCompiler}, next to the XML they came from.
+ */
+final class BinaryDictionary {
+
+	static final int MAGIC = 0x43464443; // "CFDC"
+	/** bumped whenever the layout changes, so that old files are ignored rather than misread */
+	static final int VERSION = 2;
+	/** the extension of a binary dictionary, which replaces the .xml of its source */
+	static final String EXTENSION = ".dict";
+
+	private static final int SCOPEVAR = 0;
+	private static final int COMPONENT = 1;
+
+	private static final int SINGLE = 0x1;
+	private static final int XMLSTYLE = 0x2;
+	private static final int HYBRID = 0x4;
+	private static final int ANYATTRIBUTE = 0x8;
+	private static final int ENDTAGREQUIRED = 0x10;
+
+	private BinaryDictionary() {
+	}
+
+	/**
+	 * @return where the binary form of the XML dictionary at xml would be, or null if xml is not an .xml file
+	 */
+	static URL binaryURL(URL xml) throws IOException {
+		final String spec = xml.toString();
+		if (!spec.toLowerCase().endsWith(".xml")) {
+			return null;
+		}
+		return new URL(spec.substring(0, spec.length() - 4) + EXTENSION);
+	}
+
+	/**
+	 * Loads the binary form of the XML dictionary at xml into the maps, if there is one and it is usable. Nothing is
+	 * put into the maps unless the whole file reads correctly, though the details of each procedure are only checked to
+	 * lie within the file until they are read.
+	 *
+	 * @return true if the dictionary was loaded, false if the caller should parse the XML instead
+	 */
+	static boolean load(URL xml, Map tags, Map functions, Map scopeVars, Map scopes) {
+		final ByteBuffer buffer;
+		try {
+			final URL url = binaryURL(xml);
+			if (url == null) {
+				return false;
+			}
+			buffer = open(xml, url);
+		} catch (IOException e) {
+			return false;
+		}
+		if (buffer == null || buffer.remaining() < 8 || buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+			return false;
+		}
+
+		final Map readTags = new HashMap();
+		final Map readFunctions = new HashMap();
+		final Map readScopeVars = new HashMap();
+		final Map readScopes = new HashMap();
+		try {
+			new Reader(buffer).read(readTags, readFunctions, readScopeVars, readScopes);
+		} catch (RuntimeException e) {
+			System.err.println("Ignoring damaged binary dictionary for " + xml + ": " + e);
+			return false;
+		}
+		tags.putAll(readTags);
+		functions.putAll(readFunctions);
+		scopeVars.putAll(readScopeVars);
+		scopes.putAll(readScopes);
+		return true;
+	}
+
+	/**
+	 * Maps a binary dictionary file into memory, or reads one from any other kind of URL.
+	 *
+	 * @return the contents, or null if a file is older than the XML next to it
+	 */
+	private static ByteBuffer open(URL xml, URL url) throws IOException {
+		if ("file".equals(url.getProtocol())) {
+			final File file;
+			final File source;
+			try {
+				file = new File(url.toURI());
+				source = new File(xml.toURI());
+			} catch (URISyntaxException | IllegalArgumentException e) {
+				throw new IOException(e);
+			}
+			if (!file.isFile() || (source.isFile() && source.lastModified() > file.lastModified())) {
+				return null;
+			}
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				return channel.map(MapMode.READ_ONLY, 0, channel.size());
+			}
+		}
+		try (InputStream in = url.openStream()) {
+			return ByteBuffer.wrap(in.readAllBytes());
+		}
+	}
+
+	/**
+	 * Writes the contents of the maps, as filled by {@link DictionaryContentHandler}, in binary form.
+	 */
+	static void write(Map<String, Tag> tags, Map<String, Function> functions, Map<String, ?> scopeVars,
+			Map<String, ?> scopes, OutputStream out) throws IOException {
+		new Writer(tags, functions, scopeVars, scopes).write(new DataOutputStream(out));
+	}
+
+	private static final class Writer {
+		private final Map<String, Tag> tags;
+		private final Map<String, Function> functions;
+		private final Map<String, ?> scopeVars;
+		private final Map<String, ?> scopes;
+
+		private final Map<String, Integer> stringIndex = new HashMap<String, Integer>();
+		private final List<String> strings = new ArrayList<String>();
+		/** components in the order written, a component being shared by the scope vars of each of its scopes */
+		private final Map<Component, Integer> components = new IdentityHashMap<Component, Integer>();
+
+		Writer(Map<String, Tag> tags, Map<String, Function> functions, Map<String, ?> scopeVars,
+				Map<String, ?> scopes) {
+			this.tags = tags;
+			this.functions = functions;
+			this.scopeVars = scopeVars;
+			this.scopes = scopes;
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			// The records go to a buffer first, as the string table ahead of them is only complete once they are done.
+			final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+			final DataOutputStream records = new DataOutputStream(recordBytes);
+			writeRecords(records);
+			records.flush();
+
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			writeStrings(out);
+			recordBytes.writeTo(out);
+			out.flush();
+		}
+
+		private void writeStrings(DataOutputStream out) throws IOException {
+			final byte[][] encoded = new byte[strings.size()][];
+			out.writeInt(strings.size());
+			int offset = 0;
+			for (int i = 0; i < encoded.length; i++) {
+				encoded[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+				out.writeInt(offset);
+				offset += encoded[i].length;
+			}
+			out.writeInt(offset);
+			for (byte[] bytes : encoded) {
+				out.write(bytes);
+			}
+		}
+
+		private void writeRecords(DataOutputStream out) throws IOException {
+			out.writeInt(tags.size());
+			for (Map.Entry<String, Tag> entry : tags.entrySet()) {
+				writeString(out, entry.getKey());
+				writeTag(out, entry.getValue());
+			}
+
+			out.writeInt(functions.size());
+			for (Map.Entry<String, Function> entry : functions.entrySet()) {
+				writeString(out, entry.getKey());
+				writeFunction(out, entry.getValue());
+			}
+
+			for (Object item : scopeVars.values()) {
+				if (item instanceof Component && !components.containsKey(item)) {
+					components.put((Component) item, components.size());
+				}
+			}
+			out.writeInt(components.size());
+			for (Component component : components.keySet()) {
+				writeComponent(out, component);
+			}
+
+			out.writeInt(scopeVars.size());
+			for (Map.Entry<String, ?> entry : scopeVars.entrySet()) {
+				writeString(out, entry.getKey());
+				if (entry.getValue() instanceof Component) {
+					out.writeByte(COMPONENT);
+					out.writeInt(components.get(entry.getValue()));
+				} else {
+					out.writeByte(SCOPEVAR);
+					writeScopeVar(out, scopeVar(entry.getValue()));
+				}
+			}
+
+			out.writeInt(scopes.size());
+			for (Map.Entry<String, ?> entry : scopes.entrySet()) {
+				writeString(out, entry.getKey());
+				writeScopeVar(out, scopeVar(entry.getValue()));
+			}
+		}
+
+		private static ScopeVar scopeVar(Object item) {
+			if (!(item instanceof ScopeVar)) {
+				throw new IllegalArgumentException("Cannot store " + item + " in a binary dictionary");
+			}
+			return (ScopeVar) item;
+		}
+
+		private void writeTag(DataOutputStream out, Tag tag) throws IOException {
+			writeString(out, tag.name);
+			out.writeByte(tag.creator);
+			out.writeByte((tag.single ? SINGLE : 0) | (tag.xmlstyle ? XMLSTYLE : 0) | (tag.hybrid ? HYBRID : 0)
+					| (tag.anyAttribute ? ANYATTRIBUTE : 0) | (tag.endtagrequired ? ENDTAGREQUIRED : 0));
+			writeDetails(out, tag);
+			out.writeInt(tag.returns.size());
+			for (Return r : tag.returns) {
+				writeString(out, r.parameterName);
+				writeString(out, r.type);
+			}
+		}
+
+		private void writeFunction(DataOutputStream out, Function function) throws IOException {
+			writeString(out, function.name);
+			out.writeByte(function.creator);
+			writeString(out, function.returns);
+			writeDetails(out, function);
+		}
+
+		private void writeComponent(DataOutputStream out, Component component) throws IOException {
+			writeString(out, component.name);
+			out.writeByte(component.creator);
+			writeString(out, component.path);
+			writeString(out, component.framework);
+			writeDetails(out, component);
+			writeStrings(out, component.scopes);
+			if (component.methods == null) {
+				out.writeInt(-1);
+			} else {
+				out.writeInt(component.methods.size());
+				for (Object method : component.methods) {
+					writeFunction(out, (Function) method);
+				}
+			}
+		}
+
+		/**
+		 * Writes the help and parameters of a procedure after their length in bytes, so that a reader can skip them.
+		 */
+		private void writeDetails(DataOutputStream out, Procedure procedure) throws IOException {
+			final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			final DataOutputStream details = new DataOutputStream(bytes);
+			writeString(details, procedure.getHelp());
+			final Set<Parameter> parameters = procedure.getParameters();
+			if (parameters == null) {
+				details.writeInt(-1);
+			} else {
+				details.writeInt(parameters.size());
+				for (Parameter parameter : parameters) {
+					writeParameter(details, parameter);
+				}
+			}
+			details.flush();
+			out.writeInt(bytes.size());
+			bytes.writeTo(out);
+		}
+
+		private void writeParameter(DataOutputStream out, Parameter parameter) throws IOException {
+			writeString(out, parameter.name);
+			writeString(out, parameter.type);
+			writeString(out, parameter.help);
+			writeString(out, parameter.defaultValue);
+			writeString(out, parameter.category);
+			writeString(out, parameter.returnVarType);
+			out.writeBoolean(parameter.required);
+
+			if (parameter.values == null) {
+				out.writeInt(-1);
+			} else {
+				out.writeInt(parameter.values.size());
+				for (Object item : parameter.values) {
+					final Value value = (Value) item;
+					writeString(out, value.value);
+					writeString(out, value.help);
+				}
+			}
+
+			out.writeInt(parameter.triggers.size());
+			for (Object item : parameter.triggers) {
+				final Trigger trigger = (Trigger) item;
+				out.writeBoolean(trigger.isRequired);
+				out.writeInt(trigger.index);
+				out.writeInt(trigger.triggerParams.size());
+				for (Iterator it = trigger.triggerParams.entrySet().iterator(); it.hasNext();) {
+					final Map.Entry param = (Map.Entry) it.next();
+					writeString(out, (String) param.getKey());
+					writeString(out, (String) param.getValue());
+				}
+			}
+		}
+
+		private void writeScopeVar(DataOutputStream out, ScopeVar scopeVar) throws IOException {
+			writeString(out, scopeVar.type);
+			writeString(out, scopeVar.name);
+			writeString(out, scopeVar.help);
+		}
+
+		private void writeStrings(DataOutputStream out, Set set) throws IOException {
+			if (set == null) {
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(set.size());
+			for (Object s : set) {
+				writeString(out, (String) s);
+			}
+		}
+
+		private void writeString(DataOutputStream out, String s) throws IOException {
+			if (s == null) {
+				out.writeInt(-1);
+				return;
+			}
+			Integer index = stringIndex.get(s);
+			if (index == null) {
+				index = strings.size();
+				strings.add(s);
+				stringIndex.put(s, index);
+			}
+			out.writeInt(index);
+		}
+	}
+
+	/**
+	 * Reads the details of a procedure from where they were skipped at load.
+	 */
+	private static final class DeferredDetails implements Procedure.Details {
+		private final Reader reader;
+		private final int position;
+
+		DeferredDetails(Reader reader, int position) {
+			this.reader = reader;
+			this.position = position;
+		}
+
+		@Override
+		public void load(Procedure procedure) {
+			reader.at(position).readDetails(procedure);
+		}
+	}
+
+	private static final class Reader {
+		private final ByteBuffer in;
+		private final int[] offsets;
+		private final int stringsStart;
+		private final String[] strings;
+
+		Reader(ByteBuffer buffer) {
+			in = buffer.duplicate();
+			in.position(8);
+			final int count = in.getInt();
+			if (count < 0) {
+				throw new IllegalArgumentException("bad string count " + count);
+			}
+			offsets = new int[count + 1];
+			for (int i = 0; i <= count; i++) {
+				offsets[i] = in.getInt();
+			}
+			stringsStart = in.position();
+			strings = new String[count];
+			in.position(stringsStart + offsets[count]);
+		}
+
+		private Reader(Reader reader, int position) {
+			in = reader.in.duplicate();
+			in.position(position);
+			offsets = reader.offsets;
+			stringsStart = reader.stringsStart;
+			// Strings are immutable, so threads filling in this cache at once can only repeat each other's work.
+			strings = reader.strings;
+		}
+
+		void read(Map tags, Map functions, Map scopeVars, Map scopes) {
+			for (int i = count(); i > 0; i--) {
+				final String key = readString();
+				tags.put(key, readTag());
+			}
+
+			for (int i = count(); i > 0; i--) {
+				final String key = readString();
+				functions.put(key, readFunction());
+			}
+
+			final Component[] components = new Component[count()];
+			for (int i = 0; i < components.length; i++) {
+				components[i] = readComponent();
+			}
+
+			for (int i = count(); i > 0; i--) {
+				final String key = readString();
+				final int kind = in.get();
+				if (kind == COMPONENT) {
+					scopeVars.put(key, components[in.getInt()]);
+				} else if (kind == SCOPEVAR) {
+					scopeVars.put(key, readScopeVar());
+				} else {
+					throw new IllegalArgumentException("bad scope var kind " + kind);
+				}
+			}
+
+			for (int i = count(); i > 0; i--) {
+				final String key = readString();
+				scopes.put(key, readScopeVar());
+			}
+		}
+
+		private Tag readTag() {
+			final String name = readString();
+			final byte creator = in.get();
+			final int flags = in.get();
+			final Tag tag = new Tag(name, (flags & SINGLE) != 0, (flags & XMLSTYLE) != 0, creator,
+					(flags & HYBRID) != 0, (flags & ANYATTRIBUTE) != 0, (flags & ENDTAGREQUIRED) != 0);
+			skipDetails(tag);
+			for (int i = count(); i > 0; i--) {
+				tag.getReturns().add(new Return(readString(), readString()));
+			}
+			return tag;
+		}
+
+		private Function readFunction() {
+			final String name = readString();
+			final byte creator = in.get();
+			final Function function = new Function(name, readString(), creator);
+			skipDetails(function);
+			return function;
+		}
+
+		private Component readComponent() {
+			final String name = readString();
+			final byte creator = in.get();
+			final Component component = new Component(name, readString(), readString(), creator);
+			skipDetails(component);
+			for (int i = optionalCount(); i > 0; i--) {
+				component.addScope(readString());
+			}
+			final int methods = optionalCount();
+			for (int i = methods; i > 0; i--) {
+				component.addMethod(readFunction());
+			}
+			return component;
+		}
+
+		/**
+		 * Leaves the help and parameters of a procedure to be read when it first needs them.
+		 */
+		private void skipDetails(Procedure procedure) {
+			final int length = in.getInt();
+			final int start = in.position();
+			if (length < 0 || length > in.remaining()) {
+				throw new IllegalArgumentException("bad details length " + length);
+			}
+			procedure.setDetails(new DeferredDetails(this, start));
+			in.position(start + length);
+		}
+
+		/**
+		 * Reads the help and parameters of a procedure into its fields, keeping the parameters in the kind of set
+		 * addParameter() would have made.
+		 */
+		void readDetails(Procedure procedure) {
+			procedure.help = readString();
+			final int count = in.getInt();
+			if (count >= 0) {
+				final Set<Parameter> parameters = procedure instanceof Function ? new LinkedHashSet<Parameter>()
+						: new HashSet<Parameter>();
+				for (int i = 0; i < count; i++) {
+					parameters.add(readParameter());
+				}
+				procedure.parameters = parameters;
+			}
+		}
+
+		/**
+		 * @return a reader of the same dictionary positioned at position, that can be used alongside this one
+		 */
+		Reader at(int position) {
+			return new Reader(this, position);
+		}
+
+		private Parameter readParameter() {
+			final String name = readString();
+			final String type = readString();
+			final String help = readString();
+			final String defaultValue = readString();
+			final String category = readString();
+			final String returnVarType = readString();
+			final Parameter parameter = new Parameter(name, type, in.get() != 0, defaultValue, category,
+					returnVarType);
+			parameter.help = help;
+
+			final int values = in.getInt();
+			if (values >= 0) {
+				parameter.values = new HashSet(values * 2);
+				for (int i = 0; i < values; i++) {
+					final Value value = new Value(readString());
+					value.help = readString();
+					parameter.values.add(value);
+				}
+			}
+
+			for (int i = count(); i > 0; i--) {
+				final boolean required = in.get() != 0;
+				final int index = in.getInt();
+				final HashMap params = new HashMap();
+				for (int j = count(); j > 0; j--) {
+					params.put(readString(), readString());
+				}
+				parameter.addTrigger(new Trigger(params, required, index));
+			}
+			return parameter;
+		}
+
+		private ScopeVar readScopeVar() {
+			final ScopeVar scopeVar = new ScopeVar(readString(), readString());
+			scopeVar.help = readString();
+			return scopeVar;
+		}
+
+		private int count() {
+			final int count = in.getInt();
+			if (count < 0) {
+				throw new IllegalArgumentException("bad count " + count);
+			}
+			return count;
+		}
+
+		/** a count that is -1 for a collection that was null */
+		private int optionalCount() {
+			return Math.max(in.getInt(), 0);
+		}
+
+		private String readString() {
+			final int index = in.getInt();
+			if (index == -1) {
+				return null;
+			}
+			String s = strings[index];
+			if (s == null) {
+				final int start = stringsStart + offsets[index];
+				final int length = offsets[index + 1] - offsets[index];
+				final byte[] bytes = new byte[length];
+				in.get(start, bytes);
+				s = new String(bytes, StandardCharsets.UTF_8);
+				strings[index] = s;
+			}
+			return s;
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package cfml.dictionary;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+/**
+ * Precompiles the XML dictionaries named in a dictionaryconfig.xml into {@link BinaryDictionary} files, so that
+ * loading them at runtime needs no XML parse. Run by the build after the resources are copied:
+ *
+ * <pre>
+ * java cfml.dictionary.DictionaryCompiler &lt;dictionary dir&gt; &lt;output dir&gt;
+ * </pre>
+ *
+ * Each grammar.xml in the dictionary dir becomes grammar.dict in the output dir. Grammars that are not XML, like the
+ * SQL keyword list, are skipped.
+ */
+public final class DictionaryCompiler {
+
+	private DictionaryCompiler() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			throw new IllegalArgumentException("usage: DictionaryCompiler <dictionary dir> <output dir>");
+		}
+		final File sourceDir = new File(args[0]);
+		final File outputDir = new File(args[1]);
+		for (String location : grammarLocations(new File(sourceDir, "dictionaryconfig.xml"))) {
+			final File output = new File(outputDir,
+					location.substring(0, location.length() - 4) + BinaryDictionary.EXTENSION);
+			compile(new File(sourceDir, location), output);
+		}
+	}
+
+	/**
+	 * @return the location of every XML grammar in the config, each once
+	 */
+	static Set<String> grammarLocations(File config) throws Exception {
+		final DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setValidating(false);
+		final Document document = factory.newDocumentBuilder().parse(config);
+		final NodeList grammars = document.getElementsByTagName("grammar");
+		final Set<String> locations = new LinkedHashSet<String>();
+		for (int i = 0; i < grammars.getLength(); i++) {
+			final String location = ((Element) grammars.item(i)).getAttribute("location").trim();
+			if (location.toLowerCase().endsWith(".xml")) {
+				locations.add(location);
+			}
+		}
+		return locations;
+	}
+
+	/**
+	 * Parses one XML dictionary and writes its binary form.
+	 */
+	static void compile(File source, File output) throws Exception {
+		final Map<String, Tag> tags = new HashMap<String, Tag>();
+		final Map<String, Function> functions = new HashMap<String, Function>();
+		final Map<String, Object> scopeVars = new HashMap<String, Object>();
+		final Map<String, Object> scopes = new HashMap<String, Object>();
+		SyntaxDictionary.parseDictionary(source.toURI().toURL(), tags, functions, scopeVars, scopes);
+
+		final File dir = output.getParentFile();
+		if (dir != null && !dir.isDirectory() && !dir.mkdirs()) {
+			throw new IOException("Could not create " + dir);
+		}
+		try (OutputStream out = new BufferedOutputStream(new FileOutputStream(output))) {
+			BinaryDictionary.write(tags, functions, scopeVars, scopes, out);
+		}
+	}
+}
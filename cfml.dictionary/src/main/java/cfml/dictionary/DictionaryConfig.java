@@ -0,0 +1,129 @@
+package cfml.dictionary;
+
+import java.io.File;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * The dictionaries, versions and grammars listed in a dictionaryconfig.xml.
+ *
+ * It is read once and never changed, so unlike the DOM it is read from it can be shared between threads.
+ */
+final class DictionaryConfig {
+
+	/**
+	 * One version of a dictionary, such as cf11 of the CF dictionary.
+	 */
+	static final class Version {
+		final String key;
+		final String label;
+		/** the id of the dictionary the version belongs to, e.g. {@link DictionaryManager#CFDIC_KEY} */
+		final String dictionary;
+		/** the locations of its grammar files, in the order they are loaded */
+		final List<String> grammars;
+
+		Version(String key, String label, String dictionary, List<String> grammars) {
+			this.key = key;
+			this.label = label;
+			this.dictionary = dictionary;
+			this.grammars = Collections.unmodifiableList(grammars);
+		}
+	}
+
+	/** dictionary id to its versions, in the order they are listed */
+	private final Map<String, List<Version>> dictionaries;
+	/** version key to version */
+	private final Map<String, Version> versions;
+
+	private DictionaryConfig(Map<String, List<Version>> dictionaries, Map<String, Version> versions) {
+		this.dictionaries = dictionaries;
+		this.versions = versions;
+	}
+
+	static DictionaryConfig parse(InputStream in) throws Exception {
+		return of(newBuilder().parse(in));
+	}
+
+	static DictionaryConfig parse(File file) throws Exception {
+		return of(newBuilder().parse(file));
+	}
+
+	private static DocumentBuilder newBuilder() throws Exception {
+		DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+		factory.setIgnoringComments(true);
+		factory.setIgnoringElementContentWhitespace(true);
+		factory.setCoalescing(true);
+		return factory.newDocumentBuilder();
+	}
+
+	private static DictionaryConfig of(Document document) {
+		final Map<String, List<Version>> dictionaries = new LinkedHashMap<String, List<Version>>();
+		final Map<String, Version> versions = new HashMap<String, Version>();
+		for (Element dictionary : children(document.getDocumentElement(), "dictionary")) {
+			final String id = dictionary.getAttribute("id");
+			final List<Version> dictionaryVersions = new ArrayList<Version>();
+			for (Element version : children(dictionary, "version")) {
+				final List<String> grammars = new ArrayList<String>();
+				for (Element grammar : children(version, "grammar")) {
+					grammars.add(grammar.getAttribute("location").trim());
+				}
+				final Version v = new Version(version.getAttribute("key"), version.getAttribute("label"), id,
+						grammars);
+				dictionaryVersions.add(v);
+				// keys are XML IDs, so the first wins should a config repeat one
+				if (!versions.containsKey(v.key)) {
+					versions.put(v.key, v);
+				}
+			}
+			if (!dictionaries.containsKey(id)) {
+				dictionaries.put(id, Collections.unmodifiableList(dictionaryVersions));
+			}
+		}
+		return new DictionaryConfig(dictionaries, versions);
+	}
+
+	private static List<Element> children(Element parent, String name) {
+		final List<Element> children = new ArrayList<Element>();
+		for (Node n = parent.getFirstChild(); n != null; n = n.getNextSibling()) {
+			if (n instanceof Element && n.getNodeName().equals(name)) {
+				children.add((Element) n);
+			}
+		}
+		return children;
+	}
+
+	/**
+	 * @return the versions of a dictionary, empty if there is no such dictionary
+	 */
+	List<Version> getVersions(String dictionary) {
+		final List<Version> list = dictionaries.get(dictionary);
+		return list == null ? Collections.<Version> emptyList() : list;
+	}
+
+	/**
+	 * @return the version with the given key, or null
+	 */
+	Version getVersion(String key) {
+		return versions.get(key);
+	}
+
+	/**
+	 * @return the key of the first version of a dictionary, or null if it has none
+	 */
+	String getFirstVersion(String dictionary) {
+		final List<Version> list = getVersions(dictionary);
+		return list.isEmpty() ? null : list.get(0).key;
+	}
+}
@@ -29,18 +29,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.jdom2.Element;
 import org.jdom2.JDOMException;
 import org.jdom2.input.SAXBuilder;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 import cfml.dictionary.preferences.DictionaryPreferenceConstants;
 import cfml.dictionary.preferences.DictionaryPreferences;
@@ -53,12 +51,16 @@ import cfml.dictionary.syntax.SQLSyntaxDictionary;
  * 
  *         This class loads all the dictionaries and can be used to get specific dictionaries. This (hopefully) well
  *         help in abstracting the dictionaries not intended to be instantiated
+ * 
+ *         Everything loaded is held in an immutable snapshot. Readers take the current snapshot without locking, and
+ *         changes build a new snapshot and swap it in, one change at a time. Versions stay cached side by side, so
+ *         switching between versions that were loaded before is a single swap.
  */
 public class DictionaryManager {
-	
+
 	/** the coldfusion dictionaries folder */
-	public static String DICTIONARY_DIR = "";
-	public static String CF_DICTIONARY;
+	public static volatile String DICTIONARY_DIR = "";
+	public static volatile String CF_DICTIONARY;
 	/** the coldfusion dictionary */
 	public static final String CFDIC_KEY = DictionaryPreferenceConstants.CFDIC_KEY;
 	/** the javascript dictionary */
@@ -67,27 +69,73 @@ public class DictionaryManager {
 	public static final String SQLDIC_KEY = DictionaryPreferenceConstants.SQLDIC_KEY;
 	/** the (yet to be made) html dictionary */
 	public static final String HTDIC_KEY = DictionaryPreferenceConstants.HTDIC_KEY;
-	/** all the dictionaries */
-	private static Map dictionaries = new HashMap();
-	/** the dictionary cache - for swtiching between grammars */
-	private static Map dictionariesCache = new HashMap();
-	
-	/** map of versions, might be a replication of the above */
-	private static Map dictionaryVersionCache = new HashMap();
-	
-	/** the dictionary config file in DOM form */
-	private static Document dictionaryConfig = null;
-	private static DictionaryPreferences fPrefs;
-	private static String fBuiltInDictionaryPath;
 
-	private static boolean initialized;
+	/**
+	 * What has been loaded so far. A snapshot is never changed once published, only replaced.
+	 */
+	private static final class Snapshot {
+		/** the preferences the dictionaries were loaded with, null before the first load */
+		final DictionaryPreferences prefs;
+		/** signature of prefs once the dictionaries for them are loaded, null before */
+		final String prefsSignature;
+		/** the dictionary config file, null before the first load */
+		final DictionaryConfig config;
+		/** all the live dictionaries */
+		final Map<String, SyntaxDictionary> dictionaries;
+		/** the dictionary cache - for swtiching between grammars */
+		final Map<String, SyntaxDictionary> cache;
+		/** live dictionary key to the version to load it from when it is first asked for (lazy loading only) */
+		final Map<String, String> pending;
+
+		Snapshot(DictionaryPreferences prefs, String prefsSignature, DictionaryConfig config,
+				Map<String, SyntaxDictionary> dictionaries, Map<String, SyntaxDictionary> cache,
+				Map<String, String> pending) {
+			this.prefs = prefs;
+			this.prefsSignature = prefsSignature;
+			this.config = config;
+			this.dictionaries = Collections.unmodifiableMap(new HashMap<String, SyntaxDictionary>(dictionaries));
+			this.cache = Collections.unmodifiableMap(new HashMap<String, SyntaxDictionary>(cache));
+			this.pending = Collections.unmodifiableMap(new HashMap<String, String>(pending));
+		}
+
+		Snapshot withDictionary(String key, SyntaxDictionary sd) {
+			final Map<String, SyntaxDictionary> live = new HashMap<String, SyntaxDictionary>(dictionaries);
+			final Map<String, String> stillPending = new HashMap<String, String>(pending);
+			live.put(key, sd);
+			stillPending.remove(key);
+			return new Snapshot(prefs, prefsSignature, config, live, cache, stillPending);
+		}
+
+		Snapshot withCache(Map<String, SyntaxDictionary> newCache) {
+			return new Snapshot(prefs, prefsSignature, config, dictionaries, newCache, pending);
+		}
+
+		Snapshot withCached(String key, SyntaxDictionary sd) {
+			final Map<String, SyntaxDictionary> newCache = new HashMap<String, SyntaxDictionary>(cache);
+			newCache.put(key, sd);
+			return withCache(newCache);
+		}
+	}
+
+	private static final Snapshot EMPTY = new Snapshot(null, null, null, Collections.<String, SyntaxDictionary> emptyMap(),
+			Collections.<String, SyntaxDictionary> emptyMap(), Collections.<String, String> emptyMap());
+
+	/** the current snapshot, read without locking */
+	private static final AtomicReference<Snapshot> state = new AtomicReference<Snapshot>(EMPTY);
+	/** held while a new snapshot is built, so that changes are made one at a time; readers never take it */
+	private static final Object writeLock = new Object();
+
+	/** map of versions, might be a replication of the above */
+	private static final Map dictionaryVersionCache = new ConcurrentHashMap();
 
 	/**
-	 * Signature of the preferences the currently loaded dictionaries were built from, so that a later
-	 * initDictionaries(DictionaryPreferences) call with different preferences knows it has to reload
-	 * rather than short-circuit on the initialized flag.
+	 * System property that turns on lazy loading when set to true, see {@link #setLazyLoading(boolean)}. It is read
+	 * when this class is initialized, so it also decides what the static initializer loads.
 	 */
-	private static String initializedPrefsSignature;
+	public static final String LAZY_LOADING_PROPERTY = "cfml.dictionary.lazy";
+	private static volatile boolean lazyLoading = Boolean.getBoolean(LAZY_LOADING_PROPERTY);
+
+	private static volatile String fBuiltInDictionaryPath;
 
 	static {
 		// Trigger the default dictionary load (built-in classpath resources only, via the
@@ -100,6 +148,8 @@ public class DictionaryManager {
 		// becomes ExceptionInInitializerError, and every later use of DictionaryManager then fails
 		// with NoClassDefFoundError. Callers are still able to recover by supplying their own
 		// preferences via initDictionaries(DictionaryPreferences), so log and carry on.
+		//
+		// With lazy loading on only the config is read here, and each dictionary on first use.
 		try {
 			initDictionaries();
 		} catch (Throwable t) {
@@ -107,12 +157,13 @@ public class DictionaryManager {
 		}
 	}
 
-	private DictionaryManager(DictionaryPreferences prefs) {
-		fPrefs = prefs;
-		init();
+	private DictionaryManager() {
 	}
 
 	static private void init() {
+		if (fBuiltInDictionaryPath != null) {
+			return;
+		}
 		try {
 			fBuiltInDictionaryPath = "jar:"
 					+ DictionaryManager.class.getClassLoader()
@@ -122,41 +173,27 @@ public class DictionaryManager {
 			fBuiltInDictionaryPath = "jar:file:" + DictionaryManager.class.getResource("/dictionaries.zip").getFile()
 					+ "!/org.cfeclipse.cfml/dictionary/";
 		}
-		DICTIONARY_DIR = fPrefs.getDictionaryDir();
-		CF_DICTIONARY = fPrefs.getCFDictionary();
 	}
 
 	/**
 	 * Loads the dictionary config file. The config file lists all the dictionary files that are available to the system
+	 *
+	 * @param prefs dictionary preferences naming the dictionary dir
+	 * @return the config, or null if it could not be read
 	 */
-	private static void loadDictionaryConfig() {
+	private static DictionaryConfig loadDictionaryConfig(DictionaryPreferences prefs) {
 		try {
-			if (fPrefs == null) {
-				fPrefs = new DictionaryPreferences();
-				init();
+			init();
+			if (prefs.getDictionaryDir().length() != 0) {
+				return DictionaryConfig.parse(new File(prefs.getDictionaryDir() + "/dictionaryconfig.xml"));
 			}
-			DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-			factory.setIgnoringComments(true);
-			factory.setIgnoringElementContentWhitespace(true);
-			factory.setCoalescing(true);
-			DocumentBuilder builder = factory.newDocumentBuilder();
-			if (fPrefs.getDictionaryDir().length() != 0) {
-				dictionaryConfig = builder.parse(new File(fPrefs.getDictionaryDir() + "/dictionaryconfig.xml"));
-			} else {
-				// System.out.println("u->" + fBuiltInDictionaryPath + "dictionaryconfig.xml");
-				// URL dc = new URL(fBuiltInDictionaryPath + "dictionaryconfig.xml");
-				// System.out.println("url->" + dc);
-				// dictionaryConfig = builder.parse(dc.openStream());
-				dictionaryConfig = builder.parse(DictionaryManager.class
-						.getResourceAsStream("/org.cfeclipse.cfml/dictionary/dictionaryconfig.xml"));
+			try (InputStream in = DictionaryManager.class
+					.getResourceAsStream("/org.cfeclipse.cfml/dictionary/dictionaryconfig.xml")) {
+				return DictionaryConfig.parse(in);
 			}
-			// URL configurl = DictionaryManager.class.getResource("/dictionary/dictionaryconfig.xml");
-			// URL configurl = new URL(dictionaryConfigURL + "/dictionaryconfig.xml");
-			// System.err.println(configurl.getPath());
-			// System.err.println(configurl.getFile().toString());
-			// dictionaryConfig = builder.parse(configurl.getFile());
 		} catch (Exception e) {
 			e.printStackTrace(System.err);
+			return null;
 		}
 	}
 
@@ -164,59 +201,118 @@ public class DictionaryManager {
 	 * Tell the dictionaries to load based on the config file
 	 */
 	public static void initDictionaries() {
-		if (initialized) {
+		if (state.get().prefsSignature != null) {
+			return;
+		}
+		synchronized (writeLock) {
+			final Snapshot current = state.get();
+			if (current.prefsSignature == null) {
+				load(current.prefs != null ? current.prefs : new DictionaryPreferences());
+			}
+		}
+	}
+
+	/**
+	 * Tell the dictionaries to load based on the config file
+	 * @param prefs dictionary preferences
+	 */
+	public static void initDictionaries(DictionaryPreferences prefs) {
+		// The dictionaries are eagerly loaded from the built-in defaults during class
+		// initialization, so by the time anyone can call this they are already loaded.
+		// Honour the incoming preferences by loading whenever they select something other
+		// than what is currently loaded; identical preferences still short-circuit as before.
+		final String signature = prefsSignature(prefs);
+		if (signature.equals(state.get().prefsSignature)) {
 			return;
 		}
+		synchronized (writeLock) {
+			if (!signature.equals(state.get().prefsSignature)) {
+				load(prefs);
+			}
+		}
+	}
+
+	/**
+	 * Builds the snapshot for the given preferences and publishes it. Versions already in the cache are reused, so
+	 * switching back to a version loaded before loads nothing. If anything fails the current snapshot stays.
+	 *
+	 * @param prefs dictionary preferences
+	 */
+	private static void load(DictionaryPreferences prefs) {
 		// long time = System.currentTimeMillis();
 		// System.out.println("Dictionaries initialized start");
-		
-		// get the dictionary config file into a DOM
-		loadDictionaryConfig();
-		String cfdictversion = getInitialDictVersion();
-		if (dictionaryConfig == null)
+		final Snapshot current = state.get();
+
+		final DictionaryConfig config = loadDictionaryConfig(prefs);
+		if (config == null)
 			throw new IllegalArgumentException("Problem loading dictionaryconfig.xml");
-		
+
 		// load the default dictionaries into the cache
 		// this is kind of weak but it'll do pig... it'll do...
+		String cfdictversion = prefs.getCFDictionary();
 		if (cfdictversion.trim().length() == 0) {
-			cfdictversion = getFirstVersion(CFDIC_KEY);
+			cfdictversion = config.getFirstVersion(CFDIC_KEY);
+		}
+		final String htdictversion = config.getFirstVersion(HTDIC_KEY);
+		final String jsdictversion = config.getFirstVersion(JSDIC_KEY);
+		final String[][] live = { { CFDIC_KEY, cfdictversion }, { SQLDIC_KEY, cfdictversion },
+				{ HTDIC_KEY, htdictversion }, { JSDIC_KEY, jsdictversion } };
+
+		// versions are cached by key alone, so keys from another dictionary dir must not hit the cache
+		final boolean sameDir = current.prefs != null && current.prefs.getDictionaryDir().equals(prefs.getDictionaryDir());
+		final Map<String, SyntaxDictionary> cache = new HashMap<String, SyntaxDictionary>(
+				sameDir ? current.cache : Collections.<String, SyntaxDictionary> emptyMap());
+		final Map<String, SyntaxDictionary> dictionaries = new HashMap<String, SyntaxDictionary>(current.dictionaries);
+		final Map<String, String> pending = new HashMap<String, String>(current.pending);
+
+		for (String[] entry : live) {
+			if (lazyLoading) {
+				// just note which version each live dictionary comes from, getDictionary() loads it
+				dictionaries.remove(entry[0]);
+				pending.put(entry[0], entry[1]);
+			} else {
+				SyntaxDictionary dic = cache.get(entry[1]);
+				if (dic == null) {
+					dic = loadVersion(config, prefs, entry[1]);
+					if (dic == null) {
+						throw new IllegalArgumentException("Problem loading version node " + entry[1]
+								+ " from dictionaryconfig.xml");
+					}
+					cache.put(entry[1], dic);
+				}
+				dictionaries.put(entry[0], dic);
+				pending.remove(entry[0]);
+			}
 		}
-		String htdictversion = getFirstVersion(HTDIC_KEY);
-		String jsdictversion = getFirstVersion(JSDIC_KEY);
-		
-		// load the dictionary into the cache
-		loadDictionaryByVersion(cfdictversion);
-		loadDictionaryByVersion(htdictversion);
-		loadDictionaryByVersion(jsdictversion);
-		
-		// load from the cache to the live
-		loadDictionaryFromCache(cfdictversion, CFDIC_KEY);
-		loadDictionaryFromCache(cfdictversion, SQLDIC_KEY);
-		loadDictionaryFromCache(htdictversion, HTDIC_KEY);
-		loadDictionaryFromCache(jsdictversion, JSDIC_KEY);
-		
+
 		// System.out.println("Dictionaries initialized in " +
 		// (System.currentTimeMillis() - time) + " ms");
 
-		initialized = true;
-		initializedPrefsSignature = prefsSignature(fPrefs);
+		DICTIONARY_DIR = prefs.getDictionaryDir();
+		CF_DICTIONARY = prefs.getCFDictionary();
+		state.set(new Snapshot(prefs, prefsSignature(prefs), config, dictionaries, cache, pending));
 	}
-	
+
 	/**
-	 * Tell the dictionaries to load based on the config file
-	 * @param prefs dictionary preferences
+	 * Turns lazy loading on or off for dictionaries initialized from now on. It is off unless the
+	 * {@value #LAZY_LOADING_PROPERTY} system property is true.
+	 *
+	 * Lazily, {@link #initDictionaries()} only reads the dictionary config. Each live dictionary is loaded the first
+	 * time {@link #getDictionary(String)} asks for it, so only the versions actually used are read. Eagerly, every
+	 * configured dictionary is loaded up front. Either way {@link #getDictionaryByVersion(String)} loads a version
+	 * once and hands out the cached copy after that.
+	 *
+	 * @param lazy true to load dictionaries on first use
 	 */
-	public static void initDictionaries(DictionaryPreferences prefs) {
-		fPrefs = prefs;
-		init();
-		// The dictionaries are eagerly loaded from the built-in defaults during class
-		// initialization, so by the time anyone can call this the initialized flag is already set.
-		// Honour the incoming preferences by forcing a reload whenever they select something other
-		// than what is currently loaded; identical preferences still short-circuit as before.
-		if (!prefsSignature(prefs).equals(initializedPrefsSignature)) {
-			initialized = false;
-		}
-		initDictionaries();
+	public static void setLazyLoading(boolean lazy) {
+		lazyLoading = lazy;
+	}
+
+	/**
+	 * @return true if dictionaries are loaded on first use, see {@link #setLazyLoading(boolean)}
+	 */
+	public static boolean isLazyLoading() {
+		return lazyLoading;
 	}
 
 	/**
@@ -233,59 +329,50 @@ public class DictionaryManager {
 		return prefs.getDictionaryDir() + '\n' + prefs.getCFDictionary() + '\n' + prefs.getHTMLDictionary() + '\n'
 				+ prefs.getJSDictionary() + '\n' + prefs.getSQLDictionary();
 	}
-	
+
 	/**
-	 * Retrieves the first version key for the specified dictionary.
-	 *
-	 * @param forDictionary The dictionary key to retrieve the version for.
-	 * @return The first version key for the dictionary.
+	 * @return the config of the current snapshot
+	 * @throws IllegalArgumentException if no config has been loaded
 	 */
-	private static String getInitialDictVersion() {
-		// return
-		// propertyManager.getCurrentDictionary(fInput.getFile().getProject());
-		return CF_DICTIONARY;
+	private static DictionaryConfig config(Snapshot snapshot) {
+		if (snapshot.config == null)
+			throw new IllegalArgumentException("Problem loading dictionaryconfig.xml");
+		return snapshot.config;
 	}
-	
+
 	/**
 	 * Gets the first version set in the dictionaryconfig file for the given dictionary. This is useful when hitting an
-	 * error and wanting to get a fall back dictionary. This might error if there are no versions defined for the given
-	 * dictionary (or if the document is not valid)
-	 * 
+	 * error and wanting to get a fall back dictionary.
+	 *
 	 * @param forDictionary the dictionary key to retrieve the version for
-	 * @return the first version key for the dictionary
+	 * @return the first version key for the dictionary, or null if it has no versions
 	 */
 	public static String getFirstVersion(String forDictionary) {
-		return dictionaryConfig.getElementById(forDictionary).getFirstChild().getAttributes().getNamedItem("key")
-				.getNodeValue();
+		return config(state.get()).getFirstVersion(forDictionary);
 	}
-	
+
 	/**
 	 * This gets a string array of supported types. This is mostly used in the radio display on the project settings. It
 	 * builds a string array from the key and label attributes in the dictionary config file
-	 * 
+	 *
 	 * @return {key, label} array
 	 */
 	public static String[][] getConfiguredDictionaries() {
-		NodeList cfmltypes = dictionaryConfig.getElementById(CFDIC_KEY).getChildNodes();
-		
-		byte typeslen = (byte) cfmltypes.getLength();
-		
-		String[][] options = new String[typeslen][2];
-		
-		for (byte z = 0; z < typeslen; z++) {
-			String key = cfmltypes.item(z).getAttributes().getNamedItem("key").getNodeValue();
-			String label = cfmltypes.item(z).getAttributes().getNamedItem("label").getNodeValue();
-			
-			options[z][0] = label;
-			options[z][1] = key;
+		final List<DictionaryConfig.Version> cfmltypes = config(state.get()).getVersions(CFDIC_KEY);
+
+		String[][] options = new String[cfmltypes.size()][2];
+
+		for (int z = 0; z < options.length; z++) {
+			options[z][0] = cfmltypes.get(z).label;
+			options[z][1] = cfmltypes.get(z).key;
 		}
-		
+
 		return options;
 	}
-	
+
 	/**
 	 * Loads a syntax file into the cache by the key defined in the dictionary config file. for example
-	 * 
+	 *
 	 * <pre>
 	 * ...
 	 * &lt;version key="cfmx701" label="Coldfusion 7.0"&gt;
@@ -294,49 +381,53 @@ public class DictionaryManager {
 	 * &lt;/version&gt;
 	 * ...
 	 * </pre>
-	 * 
-	 * "key" is the version key you would pass in here to load the Coldfusion 7.0 grammar
-	 * 
+	 *
+	 * "key" is the version key you would pass in here to load the Coldfusion 7.0 grammar. The version is read again
+	 * even if it is cached already; live dictionaries keep the copy they have.
+	 *
 	 * @param versionkey The version key used to load the grammar.
 	 */
 	public static void loadDictionaryByVersion(String versionkey) {
-		SyntaxDictionary dic = getDictionaryByVersion(versionkey);
-		
-		if (dic == null) {
-			throw new IllegalArgumentException("Problem loading version node " + versionkey
-					+ " from dictionaryconfig.xml");
+		synchronized (writeLock) {
+			final Snapshot current = state.get();
+			SyntaxDictionary dic = loadVersion(config(current), current.prefs, versionkey);
+
+			if (dic == null) {
+				throw new IllegalArgumentException("Problem loading version node " + versionkey
+						+ " from dictionaryconfig.xml");
+			}
+			// add finally add them to the cache
+			state.set(current.withCached(versionkey, dic));
 		}
-		// add finally add them to the cache
-		addDictionaryToCache(versionkey, dic);
 	}
-	
+
 	/**
 	 * Alternate version using JDOM
-	 * 
+	 *
 	 * @param versionkey version for cache
 	 * @return syntaxDictionary
 	 */
 	public static SyntaxDictionary getDictionaryByVersionAlt(String versionkey) {
-		
+
 		if (dictionaryVersionCache.containsKey(versionkey)) {
 			return (SyntaxDictionary) dictionaryVersionCache.get(versionkey);
 		} else {
 			SAXBuilder builder = new SAXBuilder();
 			SyntaxDictionary dic = new SQLSyntaxDictionary();
 			URL dictionaryConfigURL = null;
-			
+
 			try {
 				dictionaryConfigURL = new URL(DICTIONARY_DIR);
 				URL configurl = new URL(dictionaryConfigURL, "dictionaryconfig.xml");
 				org.jdom2.Document document = builder.build(configurl);
-				
+
 				org.jdom2.xpath.XPathFactory xFactory = org.jdom2.xpath.XPathFactory.instance();
 				org.jdom2.xpath.XPathExpression<Element> x = xFactory.compile("//dictionary[@id='CF_DICTIONARY']/version[@key='" + versionkey
 						+ "']/grammar[1]", org.jdom2.filter.Filters.element());
-				
+
 				Element grammerElement = x.evaluateFirst(document);
 				dic = new SQLSyntaxDictionary();
-				dic.loadDictionary(getDictionaryLocation(grammerElement.getAttributeValue("location")));
+				dic.loadDictionary(getDictionaryLocation(state.get().prefs, grammerElement.getAttributeValue("location")));
 				dictionaryVersionCache.put(versionkey, dic);
 			} catch (MalformedURLException e) {
 				// Auto-generated catch block
@@ -348,37 +439,65 @@ public class DictionaryManager {
 				// Auto-generated catch block
 				e.printStackTrace();
 			}
-			
+
 		}
 		return (SyntaxDictionary) dictionaryVersionCache.get(versionkey);
 	}
-	
+
+	/**
+	 * Gets a version from the cache, loading it into the cache the first time it is asked for. Any number of versions
+	 * can be cached side by side.
+	 *
+	 * @param versionkey the version key from the dictionary config file
+	 * @return the dictionary, or null if there is no such version
+	 */
 	public static SyntaxDictionary getDictionaryByVersion(String versionkey) {
-		if (dictionaryConfig == null)
-			throw new IllegalArgumentException("Problem loading dictionaryconfig.xml");
-		
+		SyntaxDictionary dic = state.get().cache.get(versionkey);
+		if (dic != null) {
+			return dic;
+		}
+		synchronized (writeLock) {
+			final Snapshot current = state.get();
+			dic = current.cache.get(versionkey);
+			if (dic == null) {
+				dic = loadVersion(config(current), current.prefs, versionkey);
+				if (dic != null) {
+					state.set(current.withCached(versionkey, dic));
+				}
+			}
+			return dic;
+		}
+	}
+
+	/**
+	 * Loads every grammar of a version into a new dictionary
+	 *
+	 * @param config the dictionary config
+	 * @param prefs dictionary preferences naming the dictionary dir
+	 * @param versionkey the version key from the dictionary config file
+	 * @return the dictionary, or null if there is no such version
+	 */
+	private static SyntaxDictionary loadVersion(DictionaryConfig config, DictionaryPreferences prefs,
+			String versionkey) {
 		// grab the cfml dictionary
-		// Node n = dictionaryConfig.getElementById(CFDIC).getFirstChild();
-		Node versionNode = dictionaryConfig.getElementById(versionkey);
-		if (versionNode == null) {
+		DictionaryConfig.Version version = config.getVersion(versionkey);
+		if (version == null) {
 			return null;
-			//
 		}
-		
+
 		// get the dictype from the parent node
-		String dicttype = versionNode.getParentNode().getAttributes().getNamedItem("id").getNodeValue();
-		
+		String dicttype = version.dictionary;
+
 		// now, make and load the dictionary based on the type
 		SyntaxDictionary dic = null;
-		
+
 		if (dicttype.equals(CFDIC_KEY)) {
 			// load the sql keywords into the cache
 			dic = new SQLSyntaxDictionary();
 			// TODO: make this not a hack
-			String sqlwords = dictionaryConfig.getElementById(SQLDIC_KEY).getFirstChild().getFirstChild()
-					.getAttributes().getNamedItem("location").getNodeValue();
+			String sqlwords = config.getVersion(config.getFirstVersion(SQLDIC_KEY)).grammars.get(0);
 			try {
-				((SQLSyntaxDictionary) dic).loadKeywords(new URL(getDictionaryLocation(sqlwords)));
+				((SQLSyntaxDictionary) dic).loadKeywords(new URL(getDictionaryLocation(prefs, sqlwords)));
 			} catch (MalformedURLException e) {
 				throw new IllegalArgumentException("Problem loading version node " + sqlwords
 						+ " from dictionaryconfig.xml");
@@ -388,30 +507,25 @@ public class DictionaryManager {
 		} else if (dicttype.equals(HTDIC_KEY)) {
 			dic = new HTMLSyntaxDictionary();
 		}
-		
-		// get a list of all the grammars to load
-		NodeList grammars = versionNode.getChildNodes();
-		byte nlen = (byte) grammars.getLength();
-		
+
 		// loop over the grammars and add them to the dictionaries
-		Node n = null;
-		for (byte z = 0; z < nlen; z++) {
-			n = grammars.item(z);
-			String filename = n.getAttributes().getNamedItem("location").getNodeValue().trim();
-			dic.loadDictionary(getDictionaryLocation(filename));
+		for (String filename : version.grammars) {
+			dic.loadDictionary(getDictionaryLocation(prefs, filename));
 		}
 		return dic;
 	}
-	
-	private static String getDictionaryLocation(String path) {
-		if (fPrefs.getDictionaryDir().length() == 0) {
-			path = DictionaryManager.class.getResource("/org.cfeclipse.cfml/dictionary/" + path).toString();
-			if (path == null) {
+
+	private static String getDictionaryLocation(DictionaryPreferences prefs, String path) {
+		if (prefs.getDictionaryDir().length() == 0) {
+			URL resource = DictionaryManager.class.getResource("/org.cfeclipse.cfml/dictionary/" + path);
+			if (resource == null) {
 				path = fBuiltInDictionaryPath + path;
+			} else {
+				path = resource.toString();
 			}
 		} else {
 			if (path.startsWith("http")) {
-				File dictFile = new File(fPrefs.getDictionaryDir() + path);
+				File dictFile = new File(prefs.getDictionaryDir() + path);
 				if (!dictFile.exists()) {
 					try {
 						URL url = new URL(path);
@@ -426,113 +540,126 @@ public class DictionaryManager {
 				}
 				// download the file to dictDir
 			} else {
-				File dictDir = new File(fPrefs.getDictionaryDir());
+				File dictDir = new File(prefs.getDictionaryDir());
 				path = "file:" + dictDir.getAbsolutePath() + "/" + path;
 			}
 		}
 		return path;
 	}
-	
+
 	/**
-	 * Takes a Syntax dictionary from the cache and puts it into the live dictionary
-	 * 
+	 * Takes a Syntax dictionary from the cache and puts it into the live dictionary, loading it into the cache first
+	 * if it is not there
+	 *
 	 * @param cachekey cache key string
 	 * @param livekey live key string
 	 */
-	public static synchronized void loadDictionaryFromCache(String cachekey, String livekey) {
-		
-		loadDictionaryFromCache(cachekey, livekey, false);
+	public static void loadDictionaryFromCache(String cachekey, String livekey) {
+		synchronized (writeLock) {
+			SyntaxDictionary dic = state.get().cache.get(cachekey);
+			if (dic == null) {
+				if (cachekey == null || cachekey.length() == 0) {
+					throw new IllegalArgumentException("Cache key: " + cachekey + " is not in the cache"
+							+ state.get().cache.keySet().toString());
+				}
+				// the dictionary is not in the cache, lets try to load it...
+				dic = getDictionaryByVersion(cachekey);
+				if (dic == null) {
+					System.out
+							.println("Error! Dictionary "
+									+ cachekey
+									+ " could not be loaded.\n This may cause CFEclipse to work unpredictably or, in some cases, not at all.\n\nTry closing Eclipse and starting it from the command line with -clean as a command line argument.");
+					throw new IllegalArgumentException("Problem loading version node " + cachekey
+							+ " from dictionaryconfig.xml");
+				}
+			}
+			state.set(state.get().withDictionary(livekey, dic));
+		}
 	}
-	
+
 	/**
-	 * Takes a Syntax dictionary from the cache and puts it into the live dictionary. Doesn't try to load dictionary if
-	 * retry is true.
-	 * 
-	 * @param cachekey
-	 * @param livekey
-	 * @param retry
-	 *            - Indicates if we have already tried to load the dictionary into the cache.
+	 * Loads a live dictionary that lazy loading left pending
+	 *
+	 * @param livekey live key string
+	 * @return the dictionary, or null if it was never pending
 	 */
-	private static synchronized void loadDictionaryFromCache(String cachekey, String livekey, boolean retry) {
-		
-		if (dictionariesCache.containsKey(cachekey) && dictionaries.containsKey(livekey)) {
-			// Object tdic = dictionaries.get(livekey);
-			Object tdic = dictionariesCache.get(cachekey);
-			
-			dictionaries.put(livekey, tdic);
-		} else if (dictionariesCache.containsKey(cachekey)) {
-			dictionaries.put(livekey, dictionariesCache.get(cachekey));
-		} else if (!dictionariesCache.containsKey(cachekey) && cachekey != null && cachekey.length() > 0) {
-			if (retry) {
-				// We've already tried to load the dictionary, so something must
-				// be broken.
-				System.out
-						.println("Error! Dictionary "
-								+ cachekey
-								+ " could not be loaded.\n This may cause CFEclipse to work unpredictably or, in some cases, not at all.\n\nTry closing Eclipse and starting it from the command line with -clean as a command line argument.");
-				throw new IllegalArgumentException("Problem loading version node " + cachekey
-						+ " from dictionaryconfig.xml");
+	private static SyntaxDictionary loadPendingDictionary(String livekey) {
+		synchronized (writeLock) {
+			String cachekey = state.get().pending.get(livekey);
+			if (cachekey != null) {
+				loadDictionaryFromCache(cachekey, livekey);
 			}
-			// the dictionary is not in the cache, lets try to load it...
-			loadDictionaryByVersion(cachekey);
-			// try again..
-			loadDictionaryFromCache(cachekey, livekey, true);
-		} else if (cachekey != null && cachekey.length() > 0) {
-			return;
-		} else {
-			throw new IllegalArgumentException("Cache key: " + cachekey + " is not in the cache"
-					+ dictionariesCache.keySet().toString());
+			return state.get().dictionaries.get(livekey);
 		}
 	}
-	
+
 	/**
 	 * Adds a SyntaxDictionary to the cache
-	 * 
+	 *
 	 * @param key cache key string
 	 * @param sd syntax dictionary to add to cache
 	 */
 	public static void addDictionaryToCache(String key, SyntaxDictionary sd) {
-		dictionariesCache.put(key, sd);
+		synchronized (writeLock) {
+			state.set(state.get().withCached(key, sd));
+		}
 	}
-	
+
 	/**
 	 * Add a dictionary to the manager
-	 * 
+	 *
 	 * @param key
 	 *            the key to be used to get the dictionary
 	 * @param sd
 	 *            the dictionary
 	 */
 	public static void addDictionary(String key, SyntaxDictionary sd) {
-		dictionaries.put(key, sd);
+		synchronized (writeLock) {
+			state.set(state.get().withDictionary(key, sd));
+		}
 	}
-	
+
 	/**
 	 * Get a dictionary from the live dictionaries
-	 * 
+	 *
 	 * @param key
 	 *            the dictionary's key (often one of the statics above)
 	 * @return the dictionary
 	 */
 	public static SyntaxDictionary getDictionary(String key) {
 		// System.out.println("Getting dictionary " + key);
-		SyntaxDictionary dict = (SyntaxDictionary) dictionaries.get(key);
+		final Snapshot current = state.get();
+		SyntaxDictionary dict = current.dictionaries.get(key);
+		if (dict == null && current.pending.containsKey(key)) {
+			dict = loadPendingDictionary(key);
+		}
 		// System.out.println("GOT: " + dict);
 		return dict;
 	}
-	
+
 	/**
-	 * @return Returns the live dictionaries.
+	 * @return Returns a read-only snapshot of the live dictionaries. With lazy loading, those not yet asked for are
+	 *         missing.
 	 */
 	public static Map getDictionaries() {
-		return DictionaryManager.dictionaries;
+		return state.get().dictionaries;
 	}
-	
+
+	/**
+	 * @return Returns a read-only snapshot of the dictionary cache
+	 */
 	public static Map getDictionariesCache() {
-		return dictionariesCache;
+		return state.get().cache;
 	}
-	
+
+	/**
+	 * Replaces the dictionary cache with a copy of the given map
+	 *
+	 * @param dictionariesCache version key to syntax dictionary
+	 */
 	public static void setDictionariesCache(Map dictionariesCache) {
-		DictionaryManager.dictionariesCache = dictionariesCache;
+		synchronized (writeLock) {
+			state.set(state.get().withCache(dictionariesCache));
+		}
 	}
 }
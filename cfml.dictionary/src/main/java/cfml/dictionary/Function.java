@@ -58,6 +58,7 @@ public class Function extends Procedure {
 	 * Function needs to override because param order is important (makes parameters a LinkedHashSet)
 	 */
 	public void addParameter(Parameter param) {
+		loadDetails();
 		if (parameters == null)
 			parameters = new LinkedHashSet();
 			
@@ -80,6 +81,7 @@ public class Function extends Procedure {
 	 * override toString to auto format the function
 	 */
 	public String toString() {
+		loadDetails();
 		StringBuffer sb = new StringBuffer();
 		if (this.name != null) {
 			// to lowercase for the createobject hack
@@ -113,6 +115,7 @@ public class Function extends Procedure {
 	 * @return the formatted string for insertion
 	 */
 	public String getInsertion() {
+		loadDetails();
 		StringBuffer sb = new StringBuffer();
 		if (this.name != null) {
 			// sb.append(this.returns + " ");
@@ -0,0 +1,196 @@
+package cfml.dictionary;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Case insensitive, sorted index of dictionary items by name, so that exact and prefix lookups are a binary search
+ * rather than a scan of every item.
+ *
+ * Names are kept as they are and compared char by char, folding case the way {@link String#equalsIgnoreCase(String)}
+ * does, so a lookup allocates nothing. An index is immutable; its owner builds a new one when the items it was built
+ * from change, which {@link #isStale(int)} detects by their count.
+ */
+final class NameIndex<T> {
+
+	private final String[] names;
+	private final T[] items;
+	private final int sourceSize;
+
+	@SuppressWarnings("unchecked")
+	private NameIndex(Entry[] entries, int sourceSize) {
+		Arrays.sort(entries, (a, b) -> compareNames(a.name, b.name));
+		this.names = new String[entries.length];
+		this.items = (T[]) new Object[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			names[i] = entries[i].name;
+			items[i] = (T) entries[i].item;
+		}
+		this.sourceSize = sourceSize;
+	}
+
+	/**
+	 * Indexes the values of a map by their keys.
+	 */
+	static <T> NameIndex<T> ofMap(Map<String, ? extends T> map) {
+		final Entry[] entries = new Entry[map.size()];
+		int i = 0;
+		for (Map.Entry<String, ? extends T> entry : map.entrySet()) {
+			entries[i++] = new Entry(entry.getKey(), entry.getValue());
+		}
+		return new NameIndex<T>(entries, map.size());
+	}
+
+	/**
+	 * Indexes items by {@link #nameOf(Object)}.
+	 *
+	 * @param items the items, or null for an empty index
+	 */
+	static <T> NameIndex<T> of(Collection<? extends T> items) {
+		final int size = items == null ? 0 : items.size();
+		final Entry[] entries = new Entry[size];
+		if (items != null) {
+			int i = 0;
+			for (T item : items) {
+				entries[i++] = new Entry(nameOf(item), item);
+			}
+		}
+		return new NameIndex<T>(entries, size);
+	}
+
+	/**
+	 * The name an item is filtered by, as in {@link SyntaxDictionary#limitSet(java.util.Set, String)}.
+	 */
+	static String nameOf(Object item) {
+		if (item instanceof String) {
+			return (String) item;
+		} else if (item instanceof Procedure) {
+			return ((Procedure) item).getName();
+		} else if (item instanceof Parameter) {
+			return ((Parameter) item).getName();
+		} else if (item instanceof Value) {
+			return ((Value) item).getValue();
+		} else if (item instanceof ScopeVar) {
+			return ((ScopeVar) item).getName();
+		}
+		throw new IllegalArgumentException("The passed set must have only Strings, Procedures, or Parameters");
+	}
+
+	/**
+	 * @param currentSize how many items the owner now holds
+	 * @return true if the index was built from a different number of items
+	 */
+	boolean isStale(int currentSize) {
+		return currentSize != sourceSize;
+	}
+
+	int size() {
+		return names.length;
+	}
+
+	String name(int i) {
+		return names[i];
+	}
+
+	T item(int i) {
+		return items[i];
+	}
+
+	/**
+	 * @return the item named name, ignoring case, or null
+	 */
+	T get(String name) {
+		return get(name, name.length());
+	}
+
+	/**
+	 * @return the item named by the first length chars of name, ignoring case, or null
+	 */
+	T get(String name, int length) {
+		final int i = first(name, length);
+		return i < names.length && names[i].length() == length && comparePrefix(names[i], name, length) == 0 ? items[i]
+				: null;
+	}
+
+	/**
+	 * @return the position of the first item whose name starts with prefix, ignoring case, or of the item it would
+	 *         sort before
+	 */
+	int first(String prefix) {
+		return first(prefix, prefix.length());
+	}
+
+	/**
+	 * @return the position just past the last item whose name starts with prefix, ignoring case
+	 */
+	int end(String prefix) {
+		int low = first(prefix), high = names.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (comparePrefix(names[mid], prefix, prefix.length()) > 0) {
+				high = mid;
+			} else {
+				low = mid + 1;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Adds every item whose name starts with prefix, ignoring case.
+	 */
+	void addPrefixed(String prefix, Collection<Object> into) {
+		for (int i = first(prefix), end = end(prefix); i < end; i++) {
+			into.add(items[i]);
+		}
+	}
+
+	private int first(String prefix, int length) {
+		int low = 0, high = names.length;
+		while (low < high) {
+			final int mid = (low + high) >>> 1;
+			if (comparePrefix(names[mid], prefix, length) < 0) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Compares name with the first length chars of prefix: 0 if name starts with them, otherwise how name sorts
+	 * against them. Names sharing a prefix are therefore contiguous in the index.
+	 */
+	private static int comparePrefix(String name, String prefix, int length) {
+		final int n = Math.min(name.length(), length);
+		for (int i = 0; i < n; i++) {
+			final char a = fold(name.charAt(i));
+			final char b = fold(prefix.charAt(i));
+			if (a != b) {
+				return a - b;
+			}
+		}
+		return name.length() >= length ? 0 : -1;
+	}
+
+	private static char fold(char c) {
+		return Character.toLowerCase(Character.toUpperCase(c));
+	}
+
+	private static int compareNames(String a, String b) {
+		final int c = comparePrefix(a, b, Math.min(a.length(), b.length()));
+		return c != 0 ? c : a.length() - b.length();
+	}
+
+	private static final class Entry {
+		final String name;
+		final Object item;
+
+		Entry(String name, Object item) {
+			this.name = name;
+			this.item = item;
+		}
+	}
+}
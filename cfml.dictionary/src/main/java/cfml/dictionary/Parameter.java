@@ -171,6 +171,8 @@ public class Parameter implements Comparable {
 	protected String help = "";
 	protected String defaultValue = "";
 	protected Set values;
+	/** values by name, built on first use */
+	private volatile NameIndex<Object> valueIndex;
 	protected boolean required = false;
 	protected String category = "General";
 	protected String returnVarType;
@@ -256,6 +258,20 @@ public class Parameter implements Comparable {
 		return values;
 	}
 	
+	/**
+	 * Gets the values indexed by name, for prefix lookups without scanning them all.
+	 * 
+	 * @return the index, empty if there are no values
+	 */
+	NameIndex<Object> getValueIndex() {
+		NameIndex<Object> index = valueIndex;
+		if (index == null || index.isStale(values == null ? 0 : values.size())) {
+			index = NameIndex.of(values);
+			valueIndex = index;
+		}
+		return index;
+	}
+	
 	public String getName() {
 		return this.name;
 	}
@@ -75,6 +75,7 @@ public class Procedure implements Comparable {
 		 * 
 		 * If so it allocates whether it is required &amp; triggered or just triggered.
 		 */
+		loadDetails();
 		HashMap params2Return = new HashMap();
 		Iterator paramIter = this.parameters.iterator();
 		while (paramIter.hasNext()) {
@@ -143,6 +144,23 @@ public class Procedure implements Comparable {
 	/** The parameters that belong to this procedure (if any) */
 	protected Set<Parameter> parameters = null;
 	
+	/** parameters by name, built on first use */
+	private volatile NameIndex<Parameter> parameterIndex;
+	
+	/** where the help and parameters are read from if that has been put off, otherwise null */
+	private volatile Details details;
+	
+	/**
+	 * Reads the help and parameters of a procedure that was loaded without them, see
+	 * {@link Procedure#setDetails(Details)}.
+	 */
+	interface Details {
+		/**
+		 * Sets the help and parameters fields of procedure.
+		 */
+		void load(Procedure procedure);
+	}
+	
 	/**
 	 * Constructs the procedure with a name.
 	 * 
@@ -169,6 +187,7 @@ public class Procedure implements Comparable {
 	 * @return true/false, figure it out :)
 	 */
 	public boolean hasParameters() {
+		loadDetails();
 		if (parameters == null || parameters.size() < 1)
 			return false;
 		
@@ -182,6 +201,7 @@ public class Procedure implements Comparable {
 	 *            the parameter to add
 	 */
 	public void addParameter(Parameter param) {
+		loadDetails();
 		if (parameters == null)
 			parameters = new HashSet<Parameter>();
 		
@@ -193,6 +213,7 @@ public class Procedure implements Comparable {
 	 * 
 	 */
 	public void dumpParams() {
+		loadDetails();
 		Object[] params = parameters.toArray();
 		for (int i = 0; i < params.length; i++) {
 			System.err.println("Procedure::getParameters() - Param for \'" + name + "\' is \'"
@@ -206,9 +227,25 @@ public class Procedure implements Comparable {
 	 * @return Set of parameters belong to this procedure.
 	 */
 	public Set<Parameter> getParameters() {
+		loadDetails();
 		return parameters;
 	}
 	
+	/**
+	 * Gets the parameters indexed by name, for case insensitive lookups without scanning them all.
+	 * 
+	 * @return the index, empty if there are no parameters
+	 */
+	NameIndex<Parameter> getParameterIndex() {
+		loadDetails();
+		NameIndex<Parameter> index = parameterIndex;
+		if (index == null || index.isStale(parameters == null ? 0 : parameters.size())) {
+			index = NameIndex.of(parameters);
+			parameterIndex = index;
+		}
+		return index;
+	}
+	
 	/**
 	 * Gets the name of this procedure.
 	 * 
@@ -224,6 +261,7 @@ public class Procedure implements Comparable {
 	 * @param help the help text to set
 	 */
 	public void setHelp(String help) {
+		loadDetails();
 		this.help = help;
 	}
 	
@@ -233,10 +271,37 @@ public class Procedure implements Comparable {
 	 * @return the help text
 	 */
 	public String getHelp() {
+		loadDetails();
 		return help;
 	}
 	
+	/**
+	 * Puts off reading the help and parameters until something first asks for them, so that a dictionary only builds
+	 * the parts of the tags and functions that are actually used.
+	 * 
+	 * @param details reads them when needed
+	 */
+	void setDetails(Details details) {
+		this.details = details;
+	}
+	
+	/**
+	 * Reads the help and parameters if that was put off. Anything using those fields directly calls this first.
+	 */
+	protected final void loadDetails() {
+		if (details != null) {
+			synchronized (this) {
+				final Details pending = details;
+				if (pending != null) {
+					pending.load(this);
+					details = null;
+				}
+			}
+		}
+	}
+	
 	public String toString() {
+		loadDetails();
 		if (parameters != null) {
 			return name + ":" + parameters.size();
 		}
@@ -244,6 +309,7 @@ public class Procedure implements Comparable {
 	}
 	
 	public boolean equals(Object obj) {
+		loadDetails();
 		if (obj instanceof Procedure) {
 			// if it has the same name and number of parameters assume its
 			// the same (this may need to be adjusted in the future)
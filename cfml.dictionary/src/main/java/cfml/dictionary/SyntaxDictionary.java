@@ -66,6 +66,11 @@ public abstract class SyntaxDictionary {
 	/** the file name for this dictionary */
 	protected String dictionaryURL = null;
 	
+	/** the maps above indexed by name, rebuilt whenever a map changes size */
+	private volatile NameIndex<Tag> tagIndex;
+	private volatile NameIndex<Function> functionIndex;
+	private volatile NameIndex<Object> scopeVarIndex;
+	
 	public SyntaxDictionary() {
 		syntaxelements = new HashMap<String, Tag>();
 		functions = new HashMap<String, Function>();
@@ -197,17 +202,11 @@ public abstract class SyntaxDictionary {
 							+ start + "\'");
 		}
 		Set<Object> elements = new HashSet<Object>();
-		Set<String> keys = getAllElements();
-		if (keys == null) {
+		if (syntaxelements == null) {
 			return elements;
 		}
-		Iterator<String> it = keys.iterator();
-		while (it.hasNext()) {
-			elements.add(syntaxelements.get((String) it.next()));
-		}
-		
-		return limitSet(elements, start);
-		// return limitSet(getAllElements(),start);
+		addFiltered(tagIndex(), start, elements);
+		return elements;
 	}
 	
 	/**
@@ -218,8 +217,34 @@ public abstract class SyntaxDictionary {
 	 * @return A set of matching elements.
 	 */
 	public Set<Object> getFilteredScopeVars(String start) {
-		return limitSet(getAllScopeVars(), start);
-		// return limitSet(getAllElements(),start);
+		Set<Object> filterset = new HashSet<Object>();
+		NameIndex<Object> index = scopeVarIndex();
+		for (int i = index.first(start), end = index.end(start); i < end; i++) {
+			Object item = index.item(i);
+			if (item instanceof Component) {
+				// a component is listed under each of its scopes, offer the scope itself
+				ScopeVar val = new ScopeVar("componentscope", index.name(i));
+				val.setHelp(((Component) item).getHelp());
+				filterset.add(val);
+			} else {
+				filterset.add(item);
+			}
+		}
+		if (start.length() == 0) {
+			filterset.addAll(scopeVars.values());
+		} else if (start.endsWith(".")) {
+			// "scope." lists the methods of the component in that scope
+			Object item = index.get(start, start.length() - 1);
+			if (item instanceof Component) {
+				filterset.addAll(((Component) item).getMethods());
+			}
+		} else if (start.endsWith("(")) {
+			Object item = index.get(start, start.length() - 1);
+			if (item != null && !(item instanceof Component)) {
+				filterset.add(item);
+			}
+		}
+		return filterset;
 	}
 	
 	/**
@@ -230,24 +255,8 @@ public abstract class SyntaxDictionary {
 	 * @return A set of matching elements.
 	 */
 	public Set<Parameter> getFunctionParams(String functionName) {
-		Set<String> entries = functions.keySet();
-		Iterator<String> i = entries.iterator();
-		try {
-			while (i.hasNext()) {
-				Object o = i.next();
-				if (functions.get(o) instanceof Function) {
-					Function f = (Function) functions.get(o);
-					// System.out.println("Found function " + f.getName());
-					if (f.getName().equalsIgnoreCase(functionName)) {
-						return f.getParameters();
-					}
-				}
-			}
-		} catch (Exception e) {
-			e.printStackTrace();
-		}
-		return null;
-		
+		Function f = functionIndex().get(functionName);
+		return f == null ? null : f.getParameters();
 	}
 	
 	/**
@@ -301,21 +310,17 @@ public abstract class SyntaxDictionary {
 							+ tag + "\'");
 		}
 		
-		Set<Parameter> attribs = getElementAttributes(tag);
-		
-		if (attribs == null)
+		Tag t = tagIndex().get(tag);
+		if (t == null || t.getParameters() == null || t.getParameters().size() == 0)
 			return null;
-		else if (attribs.size() == 0)
+		
+		Parameter currParam = t.getParameterIndex().get(attribute);
+		if (currParam == null)
 			return null;
 		
-		Object[] tempArray = attribs.toArray();
-		for (int i = 0; i < tempArray.length; i++) {
-			Parameter currParam = (Parameter) tempArray[i];
-			// String currName = currParam.getName();
-			if (currParam.getName().compareToIgnoreCase(attribute) == 0)
-				return limitSet(currParam.getValues(), start);
-		}
-		return null;
+		Set<Object> filterset = new HashSet<Object>();
+		addFiltered(currParam.getValueIndex(), start, filterset);
+		return filterset;
 	}
 	
 	/**
@@ -341,7 +346,12 @@ public abstract class SyntaxDictionary {
 							+ tag + "\'");
 		}
 		
-		return limitSet(getElementAttributes(tag), start.toLowerCase());
+		Set<Object> filterset = new HashSet<Object>();
+		Tag t = tagIndex().get(tag);
+		if (t != null) {
+			addFiltered(t.getParameterIndex(), start, filterset);
+		}
+		return filterset;
 	}
 	
 	/**
@@ -471,11 +481,12 @@ public abstract class SyntaxDictionary {
 						
 						possible = (String) i.next();
 						// System.out.println("Checking " + possible + ":" + start);
-						if (possible.toUpperCase().startsWith(start.toUpperCase())) {
+						if (possible.regionMatches(true, 0, start, 0, start.length())) {
 							val = new ScopeVar("componentscope", possible);
 							val.setHelp(((Component) item).getHelp());
 							filterset.add(new ScopeVar("componentscope", possible));
-						} else if ((possible + ".").toUpperCase().equals(start.toUpperCase())) {
+						} else if (start.length() == possible.length() + 1 && start.endsWith(".")
+								&& possible.regionMatches(true, 0, start, 0, possible.length())) {
 							Iterator<?> j = ((Component) item).getMethods().iterator();
 							while (j.hasNext()) {
 								filterset.add(j.next());
@@ -491,7 +502,7 @@ public abstract class SyntaxDictionary {
 				// Strip out unnecessary entries if we are inside a function.
 				if (start.endsWith("(") && possible.equalsIgnoreCase(start.substring(0, start.length() - 1))) {
 					filterset.add(item);
-				} else if (possible.toUpperCase().startsWith(start.toUpperCase())) {
+				} else if (possible.regionMatches(true, 0, start, 0, start.length())) {
 					// System.out.println(possible);
 					filterset.add(item);
 				}
@@ -536,7 +547,8 @@ public abstract class SyntaxDictionary {
 	}
 	
 	/**
-	 * Loads and parses an cfeclipse xml dictionary into this dictionary object
+	 * Loads a cfeclipse xml dictionary into this dictionary object, from its precompiled binary form if there is an up
+	 * to date one next to it and by parsing the xml otherwise
 	 * 
 	 * @throws IOException
 	 * @throws SAXException
@@ -548,6 +560,24 @@ public abstract class SyntaxDictionary {
 			throw new IOException("Dictionary file name can not be null!");
 		
 		final URL url = new URL(this.dictionaryURL);
+		if (!BinaryDictionary.load(url, syntaxelements, functions, scopeVars, scopes)) {
+			parseDictionary(url, syntaxelements, functions, scopeVars, scopes);
+		}
+		
+		tagIndex = NameIndex.ofMap(syntaxelements);
+		functionIndex = NameIndex.ofMap(functions);
+		scopeVarIndex = NameIndex.ofMap(scopeVars);
+	}
+	
+	/**
+	 * Parses a cfeclipse xml dictionary into the given maps
+	 * 
+	 * @throws IOException
+	 * @throws SAXException
+	 * @throws ParserConfigurationException
+	 */
+	static void parseDictionary(URL url, Map tags, Map functions, Map scopeVars, Map scopes)
+			throws IOException, SAXException, ParserConfigurationException {
 		final InputSource input = new InputSource(new BufferedInputStream(url.openStream()));
 		input.setSystemId(url.toString());
 		
@@ -562,10 +592,51 @@ public abstract class SyntaxDictionary {
 		xmlReader.setProperty("http://www.oracle.com/xml/jaxp/properties/totalEntitySizeLimit", "10000000");
 
 		// setup the content handler and give it the maps for tags and functions
-		xmlReader.setContentHandler(new DictionaryContentHandler(syntaxelements, functions, scopeVars, scopes));
+		xmlReader.setContentHandler(new DictionaryContentHandler(tags, functions, scopeVars, scopes));
 		xmlReader.parse(input);
 	}
 	
+	/**
+	 * Adds the items of index whose name starts with start, ignoring case, as {@link #limitSet(Set, String)} would.
+	 * A start ending in "(" matches just the item named by the rest of it.
+	 */
+	private static void addFiltered(NameIndex<?> index, String start, Set<Object> filterset) {
+		if (start.endsWith("(")) {
+			Object item = index.get(start, start.length() - 1);
+			if (item != null) {
+				filterset.add(item);
+			}
+		}
+		index.addPrefixed(start, filterset);
+	}
+	
+	private NameIndex<Tag> tagIndex() {
+		NameIndex<Tag> index = tagIndex;
+		if (index == null || index.isStale(syntaxelements.size())) {
+			index = NameIndex.ofMap(syntaxelements);
+			tagIndex = index;
+		}
+		return index;
+	}
+	
+	private NameIndex<Function> functionIndex() {
+		NameIndex<Function> index = functionIndex;
+		if (index == null || index.isStale(functions.size())) {
+			index = NameIndex.ofMap(functions);
+			functionIndex = index;
+		}
+		return index;
+	}
+	
+	private NameIndex<Object> scopeVarIndex() {
+		NameIndex<Object> index = scopeVarIndex;
+		if (index == null || index.isStale(scopeVars.size())) {
+			index = NameIndex.ofMap(scopeVars);
+			scopeVarIndex = index;
+		}
+		return index;
+	}
+	
 	public Map<String, Tag> getSyntaxelements() {
 		return syntaxelements;
 	}
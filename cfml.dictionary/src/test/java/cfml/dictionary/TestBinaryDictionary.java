@@ -0,0 +1,268 @@
+package cfml.dictionary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestBinaryDictionary {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	/** The maps a dictionary is loaded into. */
+	static final class Maps {
+		final Map<String, Tag> tags = new HashMap<String, Tag>();
+		final Map<String, Function> functions = new HashMap<String, Function>();
+		final Map<String, Object> scopeVars = new HashMap<String, Object>();
+		final Map<String, Object> scopes = new HashMap<String, Object>();
+	}
+
+	private static URL resource(String name) {
+		final URL url = TestBinaryDictionary.class.getResource("/org.cfeclipse.cfml/dictionary/" + name);
+		assertNotNull(name, url);
+		return url;
+	}
+
+	private static Maps parse(URL url) throws Exception {
+		final Maps maps = new Maps();
+		SyntaxDictionary.parseDictionary(url, maps.tags, maps.functions, maps.scopeVars, maps.scopes);
+		return maps;
+	}
+
+	/**
+	 * Compiles a dictionary from the classpath into the temporary folder.
+	 *
+	 * @return the URL of the (absent) XML that the compiled dictionary stands for
+	 */
+	private URL compile(String name) throws Exception {
+		final File xml = new File(folder.getRoot(), name);
+		DictionaryCompiler.compile(new File(resource(name).toURI()),
+				new File(folder.getRoot(), name.replace(".xml", BinaryDictionary.EXTENSION)));
+		return xml.toURI().toURL();
+	}
+
+	private static Maps load(URL xml) {
+		final Maps maps = new Maps();
+		assertTrue(BinaryDictionary.load(xml, maps.tags, maps.functions, maps.scopeVars, maps.scopes));
+		return maps;
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		for (String name : new String[] { "cf11.xml", "lucee5.xml", "html.xml", "mxunit.xml" }) {
+			final Maps parsed = parse(resource(name));
+			final Maps loaded = load(compile(name));
+			assertFalse(name, parsed.tags.isEmpty() && parsed.functions.isEmpty());
+			assertEquals(name, describe(parsed), describe(loaded));
+		}
+	}
+
+	@Test
+	public void testComponentsAreShared() throws Exception {
+		final Maps loaded = load(compile("mxunit.xml"));
+		final Map<Component, Set<String>> scopesOf = new HashMap<Component, Set<String>>();
+		for (Object item : loaded.scopeVars.values()) {
+			if (item instanceof Component) {
+				scopesOf.put((Component) item, ((Component) item).getScopes());
+			}
+		}
+		for (Map.Entry<Component, Set<String>> entry : scopesOf.entrySet()) {
+			for (String scope : entry.getValue()) {
+				assertSame(scope, entry.getKey(), loaded.scopeVars.get(scope));
+			}
+		}
+	}
+
+	@Test
+	public void testDetailsAreReadOnce() throws Exception {
+		final Maps loaded = load(compile("cf11.xml"));
+		final Tag tag = loaded.tags.get("cfquery");
+		final Set<Parameter> parameters = tag.getParameters();
+		assertNotNull(parameters);
+		assertSame(parameters, tag.getParameters());
+		// adding to a procedure whose details were never read keeps the ones from the file
+		final Function function = loaded.functions.get("arrayAppend");
+		function.addParameter(new Parameter("zzextra", "string"));
+		assertEquals(parse(resource("cf11.xml")).functions.get("arrayAppend").getParameters().size() + 1,
+				function.getParameters().size());
+	}
+
+		@Test
+	public void testLoadMerges() throws Exception {
+		final Maps maps = new Maps();
+		final Tag existing = new Tag("cfzzexisting", true);
+		maps.tags.put(existing.getName(), existing);
+		assertTrue(BinaryDictionary.load(compile("cf11.xml"), maps.tags, maps.functions, maps.scopeVars, maps.scopes));
+		assertSame(existing, maps.tags.get("cfzzexisting"));
+		assertNotNull(maps.tags.get("cfquery"));
+	}
+
+	@Test
+	public void testMissingBinary() throws Exception {
+		final Maps maps = new Maps();
+		assertFalse(BinaryDictionary.load(new File(folder.getRoot(), "none.xml").toURI().toURL(), maps.tags,
+				maps.functions, maps.scopeVars, maps.scopes));
+		assertFalse(BinaryDictionary.load(new File(folder.getRoot(), "sqlkeywords.txt").toURI().toURL(), maps.tags,
+				maps.functions, maps.scopeVars, maps.scopes));
+	}
+
+	@Test
+	public void testStaleBinaryIsIgnored() throws Exception {
+		final URL xml = compile("mxunit.xml");
+		final File source = new File(xml.toURI());
+		assertTrue(source.createNewFile());
+		assertTrue(source.setLastModified(System.currentTimeMillis() + 60000));
+		final Maps maps = new Maps();
+		assertFalse(BinaryDictionary.load(xml, maps.tags, maps.functions, maps.scopeVars, maps.scopes));
+	}
+
+	@Test
+	public void testDamagedBinaryIsIgnored() throws Exception {
+		final URL xml = compile("cf11.xml");
+		final File binary = new File(folder.getRoot(), "cf11" + BinaryDictionary.EXTENSION);
+		try (RandomAccessFile file = new RandomAccessFile(binary, "rw")) {
+			file.setLength(file.length() / 2);
+		}
+		final Maps maps = new Maps();
+		assertFalse(BinaryDictionary.load(xml, maps.tags, maps.functions, maps.scopeVars, maps.scopes));
+		assertTrue(maps.tags.isEmpty());
+		assertTrue(maps.functions.isEmpty());
+	}
+
+	@Test
+	public void testOtherVersionIsIgnored() throws Exception {
+		final URL xml = compile("mxunit.xml");
+		try (RandomAccessFile file = new RandomAccessFile(
+				new File(folder.getRoot(), "mxunit" + BinaryDictionary.EXTENSION), "rw")) {
+			file.seek(4);
+			file.writeInt(BinaryDictionary.VERSION + 1);
+		}
+		final Maps maps = new Maps();
+		assertFalse(BinaryDictionary.load(xml, maps.tags, maps.functions, maps.scopeVars, maps.scopes));
+	}
+
+	@Test
+	public void testGrammarLocations() throws Exception {
+		final Set<String> locations = DictionaryCompiler
+				.grammarLocations(new File(resource("dictionaryconfig.xml").toURI()));
+		assertTrue(locations.contains("cf11.xml"));
+		assertFalse(locations.contains("sqlkeywords.txt"));
+	}
+
+	/**
+	 * Everything a dictionary holds, as sorted text, so two dictionaries can be compared with assertEquals.
+	 */
+	private static String describe(Maps maps) {
+		final List<String> lines = new ArrayList<String>();
+		for (Map.Entry<String, Tag> entry : maps.tags.entrySet()) {
+			final Tag tag = entry.getValue();
+			final StringBuilder sb = new StringBuilder("tag ").append(entry.getKey());
+			describeProcedure(sb, tag);
+			sb.append(' ').append(tag.isSingle()).append(tag.isXMLStyle()).append(tag.isHybrid())
+					.append(tag.allowsAnyAttribute()).append(tag.isEndtagrequired());
+			final List<String> returns = new ArrayList<String>();
+			for (Return r : tag.getReturns()) {
+				returns.add(r.getParameterName() + ":" + r.getType());
+			}
+			sb.append(' ').append(sorted(returns));
+			lines.add(sb.toString());
+		}
+		for (Map.Entry<String, Function> entry : maps.functions.entrySet()) {
+			final StringBuilder sb = new StringBuilder("function ").append(entry.getKey());
+			describeFunction(sb, entry.getValue());
+			lines.add(sb.toString());
+		}
+		for (Map.Entry<String, Object> entry : maps.scopeVars.entrySet()) {
+			final StringBuilder sb = new StringBuilder("scopevar ").append(entry.getKey());
+			if (entry.getValue() instanceof Component) {
+				final Component component = (Component) entry.getValue();
+				describeProcedure(sb, component);
+				sb.append(' ').append(component.path).append(' ').append(component.framework).append(' ')
+						.append(component.getScopes());
+				if (component.getMethods() != null) {
+					for (Object method : component.getMethods()) {
+						describeFunction(sb.append("\n  method "), (Function) method);
+					}
+				}
+			} else {
+				describeScopeVar(sb, (ScopeVar) entry.getValue());
+			}
+			lines.add(sb.toString());
+		}
+		for (Map.Entry<String, Object> entry : maps.scopes.entrySet()) {
+			final StringBuilder sb = new StringBuilder("scope ").append(entry.getKey());
+			describeScopeVar(sb, (ScopeVar) entry.getValue());
+			lines.add(sb.toString());
+		}
+		return String.join("\n", sorted(lines));
+	}
+
+	private static void describeFunction(StringBuilder sb, Function function) {
+		describeProcedure(sb, function);
+		sb.append(" returns ").append(function.returns);
+		if (function.getParameters() != null) {
+			// parameter order matters for functions
+			sb.append(" order");
+			for (Object parameter : function.getParameters()) {
+				sb.append(' ').append(((Parameter) parameter).getName());
+			}
+		}
+	}
+
+	private static void describeProcedure(StringBuilder sb, Procedure procedure) {
+		sb.append(' ').append(procedure.getName()).append(' ').append(procedure.getCreatorFlags()).append(' ')
+				.append(procedure.getHelp());
+		final Collection<?> parameters = procedure.getParameters();
+		if (parameters == null) {
+			sb.append(" noparams");
+			return;
+		}
+		final List<String> described = new ArrayList<String>();
+		for (Object item : parameters) {
+			final Parameter p = (Parameter) item;
+			final StringBuilder param = new StringBuilder(p.getName()).append(' ').append(p.getType()).append(' ')
+					.append(p.getHelp()).append(' ').append(p.getDefaultValue()).append(' ').append(p.getCategory())
+					.append(' ').append(p.getReturnVarType()).append(' ').append(p.isRequired());
+			if (p.getValues() != null) {
+				final List<String> values = new ArrayList<String>();
+				for (Object value : p.getValues()) {
+					values.add(((Value) value).getValue() + ":" + ((Value) value).getHelp());
+				}
+				param.append(" values ").append(sorted(values));
+			}
+			for (Object item2 : p.getTriggers()) {
+				final Trigger trigger = (Trigger) item2;
+				param.append(" trigger ").append(trigger.isRequired).append(trigger.index)
+						.append(trigger.triggerParams);
+			}
+			described.add(param.toString());
+		}
+		sb.append(' ').append(sorted(described));
+	}
+
+	private static void describeScopeVar(StringBuilder sb, ScopeVar scopeVar) {
+		sb.append(' ').append(scopeVar.getType()).append(' ').append(scopeVar.getName()).append(' ')
+				.append(scopeVar.getHelp());
+	}
+
+	private static List<String> sorted(List<String> list) {
+		list.sort(null);
+		return list;
+	}
+}
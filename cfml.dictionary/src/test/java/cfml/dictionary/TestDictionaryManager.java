@@ -1,6 +1,17 @@
 package cfml.dictionary;
 
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.junit.Before;
 import org.junit.Ignore;
@@ -76,6 +87,96 @@ public class TestDictionaryManager {
 				DictionaryManager.getDictionaryByVersion("awesomedic"));
 	}
 	
+	@Test
+	public void testLazyLoading() {
+		DictionaryPreferences dprefs = new DictionaryPreferences();
+		dprefs.setCFDictionary("cf11");
+		DictionaryManager.setLazyLoading(true);
+		try {
+			DictionaryManager.initDictionaries(dprefs);
+			assertFalse(DictionaryManager.getDictionaries().containsKey(DictionaryManager.CFDIC_KEY));
+			
+			SyntaxDictionary cf = DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY);
+			assertNotNull(cf);
+			assertNotNull(cf.getTag("cfquery"));
+			assertSame(cf, DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY));
+			assertSame(cf, DictionaryManager.getDictionaryByVersion("cf11"));
+			
+			SyntaxDictionary lucee = DictionaryManager.getDictionaryByVersion("lucee5");
+			assertNotNull(lucee);
+			assertSame(lucee, DictionaryManager.getDictionaryByVersion("lucee5"));
+			assertSame(cf, DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY));
+		} finally {
+			DictionaryManager.setLazyLoading(false);
+			DictionaryManager.initDictionaries(new DictionaryPreferences());
+		}
+	}
+	
+	@Test
+	public void testVersionsSideBySide() {
+		DictionaryPreferences lucee = new DictionaryPreferences();
+		lucee.setCFDictionary("lucee5");
+		DictionaryPreferences cf11 = new DictionaryPreferences();
+		cf11.setCFDictionary("cf11");
+		try {
+			DictionaryManager.initDictionaries(lucee);
+			SyntaxDictionary luceeDic = DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY);
+			assertSame(luceeDic, DictionaryManager.getDictionaryByVersion("lucee5"));
+			
+			DictionaryManager.initDictionaries(cf11);
+			SyntaxDictionary cfDic = DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY);
+			assertNotSame(luceeDic, cfDic);
+			assertSame(cfDic, DictionaryManager.getDictionaryByVersion("cf11"));
+			assertSame(luceeDic, DictionaryManager.getDictionaryByVersion("lucee5"));
+			
+			// switching back swaps in the cached version rather than loading it again
+			DictionaryManager.initDictionaries(lucee);
+			assertSame(luceeDic, DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY));
+		} finally {
+			DictionaryManager.initDictionaries(new DictionaryPreferences());
+		}
+	}
+	
+	@Test
+	public void testConcurrentInitialization() throws Exception {
+		final DictionaryPreferences lucee = new DictionaryPreferences();
+		lucee.setCFDictionary("lucee5");
+		final DictionaryPreferences cf11 = new DictionaryPreferences();
+		cf11.setCFDictionary("cf11");
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<Void>> results = new ArrayList<Future<Void>>();
+			for (int t = 0; t < 8; t++) {
+				final boolean even = t % 2 == 0;
+				results.add(pool.submit(new Callable<Void>() {
+					@Override
+					public Void call() {
+						for (int i = 0; i < 20; i++) {
+							DictionaryManager.initDictionaries((i % 2 == 0) == even ? lucee : cf11);
+							SyntaxDictionary live = DictionaryManager.getDictionary(DictionaryManager.CFDIC_KEY);
+							assertNotNull(live);
+							assertTrue(live == DictionaryManager.getDictionaryByVersion("lucee5")
+									|| live == DictionaryManager.getDictionaryByVersion("cf11"));
+						}
+						return null;
+					}
+				}));
+			}
+			for (Future<Void> result : results) {
+				result.get();
+			}
+		} finally {
+			pool.shutdown();
+			DictionaryManager.initDictionaries(new DictionaryPreferences());
+		}
+	}
+	
+	@Test(expected = UnsupportedOperationException.class)
+	public void testSnapshotIsReadOnly() {
+		DictionaryManager.initDictionaries();
+		DictionaryManager.getDictionaries().remove(DictionaryManager.CFDIC_KEY);
+	}
+	
 	@Test
 	public void testGetDicionaryByURL() {
 		DictionaryPreferences dprefs = new DictionaryPreferences();
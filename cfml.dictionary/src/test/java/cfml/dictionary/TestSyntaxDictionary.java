@@ -0,0 +1,104 @@
+package cfml.dictionary;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cfml.dictionary.preferences.DictionaryPreferenceConstants;
+
+/**
+ * The indexed lookups must return exactly what filtering every item with limitSet does.
+ */
+public class TestSyntaxDictionary {
+
+	private SyntaxDictionary dictionary;
+
+	@Before
+	public void setUp() throws Exception {
+		DictionaryManager.initDictionaries();
+		dictionary = DictionaryManager.getDictionary(DictionaryPreferenceConstants.CFDIC_KEY);
+		assertNotNull(dictionary);
+	}
+
+	@Test
+	public void testFilteredElements() {
+		for (String start : new String[] { "", "c", "cf", "CFQ", "cfquery", "cfquery(", "cfz", "nope" }) {
+			assertEquals(start, SyntaxDictionary.limitSet(dictionary.getAllTags(), start),
+					dictionary.getFilteredElements(start));
+		}
+		assertFalse(dictionary.getFilteredElements("cfou").isEmpty());
+	}
+
+	@Test
+	public void testFilteredAttributes() {
+		for (String start : new String[] { "", "d", "DATA", "datasource", "zzz" }) {
+			assertEquals(start, SyntaxDictionary.limitSet(dictionary.getElementAttributes("cfquery"), start),
+					dictionary.getFilteredAttributes("cfquery", start));
+		}
+		assertEquals(0, dictionary.getFilteredAttributes("cfnosuchtag", "").size());
+	}
+
+	@Test
+	public void testFilteredAttributeValues() {
+		Parameter output = null;
+		for (Parameter p : dictionary.getElementAttributes("cffunction")) {
+			if (p.getName().equalsIgnoreCase("output")) {
+				output = p;
+			}
+		}
+		assertNotNull(output);
+		for (String start : new String[] { "", "t", "TR", "false", "x" }) {
+			assertEquals(start, SyntaxDictionary.limitSet(output.getValues(), start),
+					dictionary.getFilteredAttributeValues("cffunction", "OUTPUT", start));
+		}
+		assertNull(dictionary.getFilteredAttributeValues("cffunction", "nosuchattribute", ""));
+		assertNull(dictionary.getFilteredAttributeValues("cfnosuchtag", "output", ""));
+	}
+
+	@Test
+	public void testFilteredScopeVars() {
+		for (String start : new String[] { "", "c", "CGI.", "cgi.s", "session", "form(", "zzz" }) {
+			assertEquals(start, SyntaxDictionary.limitSet(dictionary.getAllScopeVars(), start),
+					dictionary.getFilteredScopeVars(start));
+		}
+	}
+
+	@Test
+	public void testFunctionParamsIgnoreCase() {
+		Map<String, Integer> spellings = new HashMap<String, Integer>();
+		for (Function f : dictionary.getAllFunctions()) {
+			spellings.merge(f.getName().toLowerCase(), 1, Integer::sum);
+		}
+		for (Function f : dictionary.getAllFunctions()) {
+			// a few functions are defined twice with different case; either may be returned for those
+			if (spellings.get(f.getName().toLowerCase()) == 1) {
+				assertSame(f.getName(), f.getParameters(), dictionary.getFunctionParams(f.getName().toUpperCase()));
+			}
+		}
+		assertNull(dictionary.getFunctionParams("noSuchFunction"));
+	}
+
+	@Test
+	public void testIndexFollowsAddedItems() {
+		dictionary.getFilteredElements("cf");
+		Tag tag = new Tag("cfzzindextest", true, false, Procedure.MX, false, false, false);
+		dictionary.syntaxelements.put(tag.getName(), tag);
+		try {
+			Set<Object> found = dictionary.getFilteredElements("cfzzindex");
+			assertEquals(1, found.size());
+			assertSame(tag, found.iterator().next());
+		} finally {
+			dictionary.syntaxelements.remove(tag.getName());
+		}
+		assertEquals(0, dictionary.getFilteredElements("cfzzindex").size());
+	}
+}
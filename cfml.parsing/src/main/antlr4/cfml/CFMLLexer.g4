@@ -1,201 +1,253 @@
 lexer grammar CFMLLexer;
 
+// The tag level of a CFML document, for cfml.parsing.cfml.CFMLGrammarScanner. Only what the scanner reports is
+// tokenized: comments, tags with their attributes or expressions, and end tags. Text between tags, and the body of a
+// cfscript, are skipped. HTML comments are text, as the server still runs the CFML tags inside them.
+//
+// Every input lexes without error, so that a broken document still yields its tags: a '<' that opens nothing is
+// text, a string or comment that is never closed runs to the end, and a tag that is never closed ends at the end.
+
+options { caseInsensitive = true; }
+
+@members {
+	/** true from the '<cfscript' to the end of its start tag, after which the body is skipped */
+	private boolean script;
 
-HTML_COMMENT     
-    : '<!--' .*? '-->'
+	/**
+	 * Leaves the mode of a start tag at its '>', for that of a cfscript body if the tag is a cfscript.
+	 */
+	private void closeTag() {
+		popMode();
+		if (script) {
+			script = false;
+			pushMode(SCRIPT);
+		}
+	}
+}
+
+CFML_COMMENT
+    : '<!---' ( CFML_COMMENT | . )*? ( '--->' | EOF )
     ;
 
-CFML_COMMENT     
-    : '<!---' .*? '--->'
+// '<' and the name make one token, which the scanner splits. Of the rules that match the same name, the first wins.
+
+CFSCRIPT_OPEN
+    : '<cfscript' { script = true; } -> pushMode(CF_TAG)
     ;
 
-HTML_CONDITIONAL_COMMENT    
-    : '<![' .*? ']>'
+// the tags whose body is a CFML expression rather than attributes
+EXPRESSION_TAG_OPEN
+    : '<' ( 'cfset' | 'cfif' | 'cfelseif' | 'cfreturn' ) -> pushMode(EXPRESSION_MODE)
     ;
 
-XML_DECLARATION
-    : '<?xml' .*? '>' 
+CF_TAG_OPEN
+    : '<cf' TAG_NameChar+ -> pushMode(CF_TAG)
     ;
 
-CDATA       
-    : '<![CDATA[' .*? ']]>' 
+TAG_OPEN
+    : '<' TAG_NameStartChar TAG_NameChar* -> pushMode(TAG)
     ;
 
-DTD 
-    : '<!' .*? '>'
+END_TAG
+    : '</' TAG_NameStartChar TAG_NameChar* ~'>'* '>'?
     ;
 
-SCRIPTLET 
-    : '<?' .*? '?>'
-    | '<%' .*? '%>'
+HTML_TEXT
+    : ~'<'+ -> skip
     ;
 
-SEA_WS
-    :  (' '|'\t'|'\r'? '\n')+ 
+LESS_THAN
+    : '<' -> skip
     ;
 
-SCRIPT_OPEN
-    : '<script' .*? '>' ->pushMode(SCRIPT)
+fragment
+TAG_NameChar
+    : TAG_NameStartChar
+    | [\p{Nd}:.-]
     ;
 
-STYLE_OPEN
-    : '<style' .*? '>'  ->pushMode(STYLE)
+fragment
+TAG_NameStartChar
+    : [\p{L}_]
     ;
 
-TAG_OPEN
-    : '<' -> pushMode(TAG)
+fragment
+WS
+    : [ \t\r\n\f]
     ;
-            
-HTML_TEXT
-    : ~'<'+
-    ;   
-       
+
+// A string in a CFML tag, where a quote inside #...# belongs to the expression, as in value="#fn("x")#", and a
+// doubled quote or '#' is an escaped one. A '#' with nothing to close it is taken literally.
+fragment
+CF_STRING
+    : '"' CF_DQ_CHAR* '"'
+    | '\'' CF_SQ_CHAR* '\''
+    ;
+
+fragment
+CF_DQ_CHAR
+    : ~["#] | '""' | '##' | POUND_EXPRESSION | '#'
+    ;
+
+fragment
+CF_SQ_CHAR
+    : ~['#] | '\'\'' | '##' | POUND_EXPRESSION | '#'
+    ;
+
+// within a line, as the tag scanner has it
+fragment
+POUND_EXPRESSION
+    : '#' ( ~[#"'\n] | CF_STRING )* '#'
+    ;
+
+fragment
+HTML_STRING
+    : '"' ( ~'"' | '""' )* '"'?
+    | '\'' ( ~'\'' | '\'\'' )* '\''?
+    ;
+
+// an unquoted attribute value, which ends at white space, '>' or "/>"
+fragment
+UNQUOTED
+    : ( ~[ \t\r\n\f>/] | '/'+ ~[ \t\r\n\f>/] )+
+    ;
+
 //
-// tag declarations
+// the attributes of an HTML start tag
 //
 mode TAG;
 
-CFSET	: [cC][fF][sS][eE][tT]' ' -> pushMode(CFEXPRESSION_MODE);
-
-TAG_CLOSE      
+TAG_CLOSE
     : '>' -> popMode
     ;
 
-TAG_SLASH_CLOSE     
+TAG_SLASH_CLOSE
     : '/>' -> popMode
     ;
 
-TAG_SLASH      
-    : '/' 
+TAG_EQUALS
+    : '=' -> pushMode(ATTVALUE)
     ;
 
-//
-// lexing mode for attribute values
-//
-TAG_EQUALS     
-    : '=' -> pushMode(ATTVALUE)
+ATTRIBUTE_NAME
+    : ~[ \t\r\n\f=>/"']+
     ;
 
-TAG_NAME      
-    : TAG_NameStartChar TAG_NameChar* 
+// a value without a name, as in <cfinclude "x.cfm">
+TAG_STRING
+    : HTML_STRING -> skip
+    ;
+
+TAG_SLASH
+    : '/' -> skip
     ;
 
 TAG_WHITESPACE
-    : [ \t\r\n] -> skip 
+    : WS+ -> skip
     ;
 
-fragment
-HEXDIGIT        
-    : [a-fA-F0-9]
+//
+// the attributes of a CFML start tag, whose strings may hold #...#
+//
+mode CF_TAG;
+
+CF_TAG_CLOSE
+    : '>' { closeTag(); } -> type(TAG_CLOSE)
     ;
 
-fragment
-DIGIT           
-    : [0-9]
+CF_TAG_SLASH_CLOSE
+    : '/>' { script = false; } -> type(TAG_SLASH_CLOSE), popMode
     ;
 
-fragment
-TAG_NameChar        
-    : TAG_NameStartChar
-    | '-' 
-    | '_' 
-    | '.' 
-    | DIGIT 
-    |   '\u00B7'
-    |   '\u0300'..'\u036F'
-    |   '\u203F'..'\u2040'
+CF_TAG_EQUALS
+    : '=' -> type(TAG_EQUALS), pushMode(CF_ATTVALUE)
     ;
 
-fragment
-TAG_NameStartChar
-    :   [:a-zA-Z]
-    |   '\u2070'..'\u218F' 
-    |   '\u2C00'..'\u2FEF' 
-    |   '\u3001'..'\uD7FF' 
-    |   '\uF900'..'\uFDCF' 
-    |   '\uFDF0'..'\uFFFD'
+CF_ATTRIBUTE_NAME
+    : ~[ \t\r\n\f=>/"']+ -> type(ATTRIBUTE_NAME)
     ;
 
-//
-// <scripts>
-//
-mode SCRIPT;
+CF_TAG_STRING
+    : ( CF_STRING | '"' CF_DQ_CHAR* | '\'' CF_SQ_CHAR* ) -> skip
+    ;
 
-SCRIPT_BODY
-    : .*? '</script>' -> popMode
+CF_TAG_SLASH
+    : '/' -> skip
     ;
 
-SCRIPT_SHORT_BODY
-    : .*? '</>' -> popMode
+CF_TAG_WHITESPACE
+    : WS+ -> skip
     ;
 
 //
-// <styles>
+// the value after an '=' in an HTML start tag
 //
-mode STYLE;
+mode ATTVALUE;
+
+ATTRIBUTE_VALUE
+    : ( HTML_STRING | UNQUOTED | '/' ) -> popMode
+    ;
+
+ATTVALUE_CLOSE
+    : '>' -> type(TAG_CLOSE), popMode, popMode
+    ;
 
-STYLE_BODY
-    : .*? '</style>' -> popMode
+ATTVALUE_SLASH_CLOSE
+    : '/>' -> type(TAG_SLASH_CLOSE), popMode, popMode
     ;
 
-STYLE_SHORT_BODY
-    : .*? '</>' -> popMode
+ATTVALUE_WHITESPACE
+    : WS+ -> skip
     ;
 
 //
-// attribute values
+// the value after an '=' in a CFML start tag
 //
-mode ATTVALUE;
+mode CF_ATTVALUE;
 
-// an attribute value may have spaces b/t the '=' and the value
-ATTVALUE_VALUE
-    : [ ]* ATTRIBUTE -> popMode 
+CF_ATTRIBUTE_VALUE
+    : ( CF_STRING | '"' CF_DQ_CHAR* | '\'' CF_SQ_CHAR* | UNQUOTED | '/' ) -> type(ATTRIBUTE_VALUE), popMode
     ;
 
-ATTRIBUTE
-    : DOUBLE_QUOTE_STRING
-    | SINGLE_QUOTE_STRING
-    | ATTCHARS 
-    | HEXCHARS
-    | DECCHARS
+CF_ATTVALUE_CLOSE
+    : '>' { popMode(); closeTag(); } -> type(TAG_CLOSE)
     ;
 
-fragment ATTCHAR
-    : '-'
-    | '_'
-    | '.'
-    | '/'
-    | '+'
-    | ','
-    | '?'
-    | '='
-    | ':'
-    | ';'
-    | '#'
-    | [0-9a-zA-Z]
+CF_ATTVALUE_SLASH_CLOSE
+    : '/>' { script = false; } -> type(TAG_SLASH_CLOSE), popMode, popMode
     ;
 
-fragment ATTCHARS
-    : ATTCHAR+ ' '?
+CF_ATTVALUE_WHITESPACE
+    : WS+ -> skip
     ;
 
-fragment HEXCHARS
-    : '#' [0-9a-fA-F]+
-    ; 
+//
+// the expression of a cfset, cfif, cfelseif or cfreturn, up to the '>' that is not in a string or the <> operator.
+// A quote that opens no string is taken as it is.
+//
+mode EXPRESSION_MODE;
 
-fragment DECCHARS
-    : [0-9]+ '%'?
+EXPRESSION
+    : ( ~["'>] | '<>' | CF_STRING | ["'] )+
     ;
 
-fragment DOUBLE_QUOTE_STRING
-    : '"' ~[<"]* '"'
+EXPRESSION_CLOSE
+    : '>' -> type(TAG_CLOSE), popMode
     ;
 
-fragment SINGLE_QUOTE_STRING
-    : '\'' ~[<']* '\''
+//
+// the body of a cfscript, up to its end tag
+//
+mode SCRIPT;
+
+SCRIPT_END
+    : '</cfscript' ~'>'* '>'? -> type(END_TAG), popMode
     ;
 
-    
-mode CFEXPRESSION_MODE;
-EXPRESSION	: ~[/>]+ -> popMode;
+SCRIPT_TEXT
+    : ~'<'+ -> skip
+    ;
 
+SCRIPT_LESS_THAN
+    : '<' -> skip
+    ;
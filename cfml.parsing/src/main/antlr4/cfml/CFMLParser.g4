@@ -1,102 +1,49 @@
 parser grammar CFMLParser;
 
-options { tokenVocab=CFMLLexer; }
-
-htmlDocument    
-    : (scriptlet | SEA_WS)* xml? (scriptlet | SEA_WS)* dtd? (scriptlet | SEA_WS)* 
-    	( cfmlElement | htmlElements)*
-    ;
+// The tags of a CFML document in document order, for cfml.parsing.cfml.CFMLGrammarScanner, which reports them from a
+// parse listener as each rule ends. Start and end tags are not paired, as the tag scanner does not pair them either,
+// so that a document whose tags do not nest still parses. Everything the lexer can produce parses, without error.
+//
+// The parts a rule reports are labelled, as the scanner builds no parse tree to find them in.
 
-cfmlComment:
-    CFML_COMMENT;
-
-cfmlCloseTag:
-    TAG_OPEN TAG_SLASH htmlTagName TAG_CLOSE;
-
-htmlElements
-    : htmlMisc* htmlElement htmlMisc*
-    ; 
+options { tokenVocab=CFMLLexer; }
 
-htmlElement     
-    : cfmlCloseTag
-    | TAG_OPEN htmlTagName htmlAttribute* TAG_CLOSE htmlContent TAG_OPEN TAG_SLASH htmlTagName TAG_CLOSE
-    | TAG_OPEN htmlTagName htmlAttribute* TAG_SLASH_CLOSE
-    | TAG_OPEN htmlTagName htmlAttribute* TAG_CLOSE
-    
-    | scriptlet
-    | script
-    | style
+htmlDocument
+    : cfmlElement* EOF
     ;
 
 cfmlElement
     : cfmlComment
+    | cfscript
     | cfset
-    ;
-        
-cfset
-	: TAG_OPEN CFSET cfexpression (TAG_SLASH_CLOSE | TAG_CLOSE)
-	;  
-	 
-cfexpression
-	: EXPRESSION
-	; 
-
-htmlContent     
-    : htmlChardata? ((htmlElement | xhtmlCDATA | htmlComment) htmlChardata?)*
+    | tag
+    | endTag
     ;
 
-htmlAttribute   
-    : htmlAttributeName TAG_EQUALS htmlAttributeValue
-    | htmlAttributeName
+cfmlComment
+    : CFML_COMMENT
     ;
 
-htmlAttributeName
-    : TAG_NAME
+// the body is skipped by the lexer, and runs from the end of the start tag to the end tag that follows, if any
+cfscript
+    : open=CFSCRIPT_OPEN attribute* close=( TAG_CLOSE | TAG_SLASH_CLOSE )?
     ;
 
-htmlAttributeValue
-    : ATTVALUE_VALUE
-    ;
-
-htmlTagName
-    : TAG_NAME
-    ;
-
-htmlChardata    
-    : HTML_TEXT 
-    | SEA_WS
-    ;
-
-htmlMisc        
-    : htmlComment 
-    | SEA_WS
-    ;
-
-htmlComment
-    : HTML_COMMENT
-    | HTML_CONDITIONAL_COMMENT
-    ;
-
-xhtmlCDATA
-    : CDATA
-    ;
-
-dtd
-    : DTD
+// cfset, cfif, cfelseif or cfreturn
+cfset
+    : open=EXPRESSION_TAG_OPEN expression=EXPRESSION? close=TAG_CLOSE?
     ;
 
-xml
-    : XML_DECLARATION
+tag
+    : open=( CF_TAG_OPEN | TAG_OPEN ) attribute* close=( TAG_CLOSE | TAG_SLASH_CLOSE )?
     ;
 
-scriptlet
-    : SCRIPTLET
+// an '=' without a name before it is passed over, as the tag scanner does
+attribute
+    : name=ATTRIBUTE_NAME ( eq=TAG_EQUALS value=ATTRIBUTE_VALUE? )?
+    | eq=TAG_EQUALS value=ATTRIBUTE_VALUE?
     ;
 
-script
-    : SCRIPT_OPEN ( SCRIPT_BODY | SCRIPT_SHORT_BODY)
+endTag
+    : END_TAG
     ;
-
-style
-    : STYLE_OPEN ( STYLE_BODY | STYLE_SHORT_BODY)
-    ;
\ No newline at end of file
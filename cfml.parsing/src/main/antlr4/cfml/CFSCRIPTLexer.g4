@@ -1,5 +1,243 @@
 lexer grammar  CFSCRIPTLexer;
 
+// The keywords, see @members
+tokens {
+	BOOLEAN_LITERAL, PAGE_ENCODING, CONTAINS, CONTAIN, DOESNOTCONTAIN, INSTANCEOF, CT, NCT, IS,
+	IS_NOT, GT, GE, GTE, LTE, LT, LE, EQ, EQUAL, EQUALS, NOT_EQUALS, LESS, LESS_THAN, GREATER_THAN,
+	LESSTHANOREQUALTO, GREATERTHANOREQUALTO, GREATER, OR, TO, IMP, EQV, XOR, AND, NOT, MOD, VAR, NEW,
+	IF, ELSE, BREAK, CONTINUE, FUNCTION, RETURN, WHILE, DO, FOR, IN, TRY, CATCH, SWITCH, CASE,
+	DEFAULT, FINALLY, FINAL, ABSTRACT, STATIC, INCLUDE, IMPORT, ABORT, ADMIN, THROW, RETHROW, EXIT,
+	PARAM, PROPERTY, LOCK, THREAD, TRANSACTION, SAVECONTENT, HTTP, CFHTTP, FILE, DIRECTORY, LOOP,
+	CFLOOP, SETTING, QUERY, STRING, NUMERIC, BOOLEAN, ANY, ARRAY, STRUCT, PRIVATE, PUBLIC, REMOTE,
+	PACKAGE, REQUIRED, COMPONENT, INTERFACE, LOG, APPLICATION, CFAPPLICATION, APPLET, ASSOCIATE,
+	AUTHENTICATE, CACHE, COL, COLLECTION, CONTENT, COOKIE, ERROR, EXECUTE, FORM, FTP, GRID,
+	GRIDCOLUMN, GRIDROW, GRIDUPDATE, HEADER, HTMLHEAD, HTTPPARAM, CFHTTPPARAM, IMPERSONATE, INDEX,
+	INPUT, INSERT, LDAP, LOCATION, MAIL, MAILPARAM, MODULE, OBJECT, OUTPUT, POP, PROCESSINGDIRECTIVE,
+	PROCPARAM, PROCRESULT, QUERYPARAM, REGISTRY, REPORT, SCHEDULE, SCRIPT, SEARCH, SELECT, SERVLET,
+	SERVLETPARAM, SET, SILENT, SLIDER, STOREDPROC, TABLE, TEXTINPUT, TREE, TREEITEM, UPDATE, WDDX,
+	ZIP, CFSAVECONTENT, CFFILE, CFPROPERTY, CFDIRECTORY, CFSETTING, CFQUERY, CFLOG, CFAPPLET,
+	CFASSOCIATE, CFAUTHENTICATE, CFCACHE, CFCOL, CFCOLLECTION, CFCONTENT, CFCOOKIE, CFERROR,
+	CFEXECUTE, CFFORM, CFFTP, CFGRID, CFGRIDCOLUMN, CFGRIDROW, CFGRIDUPDATE, CFHEADER, CFHTMLHEAD,
+	CFIMPERSONATE, CFINDEX, CFINPUT, CFINSERT, CFLDAP, CFLOCATION, CFMAIL, CFMAILPARAM, CFMODULE,
+	CFOBJECT, CFOUTPUT, CFPOP, CFPROCESSINGDIRECTIVE, CFPROCPARAM, CFPROCRESULT, CFQUERYPARAM,
+	CFREGISTRY, CFREPORT, CFSCHEDULE, CFSEARCH, CFSELECT, CFSERVLET, CFSERVLETPARAM, CFSILENT,
+	CFSLIDER, CFSTOREDPROC, CFTABLE, CFTEXTINPUT, CFTREE, CFTREEITEM, CFUPDATE, CFWDDX, CFZIP,
+	CFCALENDAR, CFCHART, CFCHARTDATA, CFCHARTSERIES, CFCLIENT, CFCLIENTSETTINGS, CFDOCUMENT,
+	CFDOCUMENTITEM, CFDOCUMENTSECTION, CFDUMP, CFFILEUPLOAD, CFFLUSH, CFFORMGROUP, CFFORMITEM,
+	CFHTMLTOPDF, CFHTMLTOPDFITEM, CFINVOKE, CFINVOKEARGUMENT, CFLOGIN, CFLOGINUSER, CFLOGOUT,
+	CFMAILPART, CFMAP, CFMAPITEM, CFMEDIAPLAYER, CFMESSAGEBOX, CFNTAUTHENTICATE, CFOAUTH,
+	CFOBJECTCACHE, CFPROGRESSBAR, CFREPORTPARAM, CFSHAREPOINT, CFSPREADSHEET, CFTEXTAREA, CFTIMER,
+	CFTRACE, CFWEBSOCKET, CFXML, IMAP, CFIMAP, CFCUSTOM_IDENTIFIER
+}
+
+@members {
+	// Keywords, the operators spelled as words and the tags that can be called from script are not rules of their
+	// own. Spelled out a character class at a time, as [cC][oO][nN][tT][aA][iI][nN][sS], they made up most of the
+	// lexer ATN, and every identifier was told apart from all of them a character at a time. Instead a word is
+	// lexed once as an IDENTIFIER, and emit() looks it up, in any case, in the tables below. The token is the one
+	// the keyword rules gave: a keyword only matches a whole word, as the longest match had it, and an operator of
+	// several words (does not contain, less than or equal to) takes as many of its words as follow, separated by
+	// spaces.
+
+	private static final java.util.Map<String, Integer> KEYWORDS = new java.util.HashMap<String, Integer>();
+	private static final java.util.Map<String, java.util.List<Phrase>> PHRASES = new java.util.HashMap<String, java.util.List<Phrase>>();
+	private static int longestKeyword;
+
+	static {
+		keyword(BOOLEAN_LITERAL, "true", "false", "yes", "no");
+		keyword(PAGE_ENCODING, "pageencoding");
+		keywords(CONTAINS, CONTAIN, INSTANCEOF, CT, NCT, GT, GTE, LTE, LT, EQ, LESS, GREATER, OR, TO, IMP, EQV,
+				XOR, AND, NOT, MOD, VAR, NEW);
+		keyword(EQ, "is", "equal", "equals");
+		keyword(GTE, "ge", "le");
+		keyword(NEQ, "neq");
+		phrase(DOESNOTCONTAIN, "does", "not", "contain");
+		phrase(NEQ, "is", "not");
+		phrase(NEQ, "not", "equals");
+		phrase(LT, "less", "than");
+		phrase(GT, "greater", "than");
+		phrase(LTE, "less", "than", "or", "equal", "to");
+		phrase(GTE, "greater", "than", "or", "equal", "to");
+		// cfscript
+		keywords(IF, ELSE, BREAK, CONTINUE, FUNCTION, RETURN, WHILE, DO, FOR, IN, TRY, CATCH, SWITCH, CASE,
+				DEFAULT, FINALLY, FINAL, ABSTRACT, STATIC);
+		// tag operators
+		keywords(INCLUDE, IMPORT, ABORT, ADMIN, THROW, RETHROW, EXIT, PARAM, LOCK, THREAD, TRANSACTION, SCRIPT,
+				SET, HTTPPARAM, CFHTTPPARAM);
+		keyword(HTTP, "http", "https");
+		keyword(CFHTTP, "cfhttp", "cfhttps");
+		// types and function modifiers
+		keywords(STRING, NUMERIC, BOOLEAN, ANY, ARRAY, STRUCT, PRIVATE, PUBLIC, REMOTE, PACKAGE, REQUIRED,
+				COMPONENT, INTERFACE);
+		// tags that may be spelled with or without the cf prefix, cffile and file being the same tag
+		tags(SAVECONTENT, FILE, PROPERTY, DIRECTORY, LOOP, SETTING, QUERY, LOG, APPLICATION, APPLET, ASSOCIATE,
+				AUTHENTICATE, CACHE, COL, COLLECTION, CONTENT, COOKIE, ERROR, EXECUTE, FORM, FTP, GRID, GRIDCOLUMN,
+				GRIDROW, GRIDUPDATE, HEADER, HTMLHEAD, IMPERSONATE, INDEX, INPUT, INSERT, LDAP, LOCATION, MAIL,
+				MAILPARAM, MODULE, OBJECT, OUTPUT, POP, PROCESSINGDIRECTIVE, PROCPARAM, PROCRESULT, QUERYPARAM,
+				REGISTRY, REPORT, SCHEDULE, SEARCH, SELECT, SERVLET, SERVLETPARAM, SILENT, SLIDER, STOREDPROC,
+				TABLE, TEXTINPUT, TREE, TREEITEM, UPDATE, WDDX, ZIP, IMAP);
+		// tags that exist only in their cf-prefixed spelling
+		keywords(CFCALENDAR, CFCHART, CFCHARTDATA, CFCHARTSERIES, CFCLIENT, CFCLIENTSETTINGS, CFDOCUMENT,
+				CFDOCUMENTITEM, CFDOCUMENTSECTION, CFDUMP, CFFILEUPLOAD, CFFLUSH, CFFORMGROUP, CFFORMITEM,
+				CFHTMLTOPDF, CFHTMLTOPDFITEM, CFINVOKE, CFINVOKEARGUMENT, CFLOGIN, CFLOGINUSER, CFLOGOUT, CFMAILPART,
+				CFMAP, CFMAPITEM, CFMEDIAPLAYER, CFMESSAGEBOX, CFNTAUTHENTICATE, CFOAUTH, CFOBJECTCACHE, CFPROGRESSBAR,
+				CFREPORTPARAM, CFSHAREPOINT, CFSPREADSHEET, CFTEXTAREA, CFTIMER, CFTRACE, CFWEBSOCKET, CFXML);
+	}
+
+	private static void keyword(int type, String... words) {
+		for (String word : words) {
+			if (KEYWORDS.putIfAbsent(word, type) != null) {
+				throw new IllegalStateException("keyword " + word + " is defined twice");
+			}
+			longestKeyword = Math.max(longestKeyword, word.length());
+		}
+	}
+
+	/** keywords spelled as their token name */
+	private static void keywords(int... types) {
+		for (int type : types) {
+			keyword(type, VOCABULARY.getSymbolicName(type).toLowerCase(java.util.Locale.ENGLISH));
+		}
+	}
+
+	/** keywords spelled as their token name, with or without the cf prefix */
+	private static void tags(int... types) {
+		for (int type : types) {
+			final String word = VOCABULARY.getSymbolicName(type).toLowerCase(java.util.Locale.ENGLISH);
+			keyword(type, word, "cf" + word);
+		}
+	}
+
+	private static final class Phrase {
+		final int type;
+		final String[] words;
+
+		Phrase(int type, String[] words) {
+			this.type = type;
+			this.words = words;
+		}
+	}
+
+	private static void phrase(int type, String... words) {
+		PHRASES.computeIfAbsent(words[0], k -> new java.util.ArrayList<Phrase>()).add(new Phrase(type, words));
+	}
+
+	@Override
+	public Token emit() {
+		if (_type == IDENTIFIER) {
+			classifyWord();
+		}
+		return super.emit();
+	}
+
+	private void classifyWord() {
+		final String text = getText();
+		final String word = text.length() > longestKeyword ? null : asciiLowerCase(text);
+		if (word == null) {
+			if (isCustomTagName(text)) {
+				_type = CFCUSTOM_IDENTIFIER;
+			}
+			return;
+		}
+		final java.util.List<Phrase> phrases = PHRASES.get(word);
+		if (phrases != null) {
+			// the longest phrase that follows wins, as with any other token
+			int longest = 0;
+			Phrase match = null;
+			for (Phrase phrase : phrases) {
+				final int length = matchPhrase(phrase.words);
+				if (length > longest) {
+					longest = length;
+					match = phrase;
+				}
+			}
+			if (match != null) {
+				consume(longest);
+				_type = match.type;
+				return;
+			}
+		}
+		final Integer keyword = KEYWORDS.get(word);
+		if (keyword != null) {
+			_type = keyword;
+			if ((_type == HTTP || _type == CFHTTP) && _input.LA(1) == ':' && _input.LA(2) == '/'
+					&& _input.LA(3) == '/') {
+				consume(3);
+			}
+		} else if (isCustomTagName(text)) {
+			_type = CFCUSTOM_IDENTIFIER;
+		}
+	}
+
+	/**
+	 * @return the number of characters after the first word that the rest of the phrase takes up, or 0 if it does
+	 *         not follow
+	 */
+	private int matchPhrase(String[] words) {
+		int offset = 1;
+		for (int w = 1; w < words.length; w++) {
+			if (_input.LA(offset) != ' ') {
+				return 0;
+			}
+			while (_input.LA(offset) == ' ') {
+				offset++;
+			}
+			final String word = words[w];
+			for (int i = 0; i < word.length(); i++, offset++) {
+				int c = _input.LA(offset);
+				if (c >= 'A' && c <= 'Z') {
+					c += 'a' - 'A';
+				}
+				if (c != word.charAt(i)) {
+					return 0;
+				}
+			}
+		}
+		return offset - 1;
+	}
+
+	private void consume(int count) {
+		for (int i = 0; i < count; i++) {
+			getInterpreter().consume(_input);
+		}
+	}
+
+	/**
+	 * @return the word in lower case, or null if it is not plain ASCII and so cannot be a keyword
+	 */
+	private static String asciiLowerCase(String text) {
+		final char[] chars = new char[text.length()];
+		for (int i = 0; i < chars.length; i++) {
+			char c = text.charAt(i);
+			if (c >= 128) {
+				return null;
+			} else if (c >= 'A' && c <= 'Z') {
+				c += 'a' - 'A';
+			}
+			chars[i] = c;
+		}
+		return new String(chars);
+	}
+
+	/**
+	 * @return true for a custom tag called from script, cf_ followed by a name
+	 */
+	private static boolean isCustomTagName(String text) {
+		return text.length() > 3 && (text.charAt(0) == 'c' || text.charAt(0) == 'C')
+				&& (text.charAt(1) == 'f' || text.charAt(1) == 'F') && text.charAt(2) == '_' && isLetter(text.charAt(3));
+	}
+
+	/** the LETTER fragment */
+	private static boolean isLetter(char c) {
+		return c == '$' || c == '_' || (c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z')
+				|| (c >= '\u00c0' && c <= '\u00d6') || (c >= '\u00d8' && c <= '\u00f6')
+				|| (c >= '\u00f8' && c <= '\u00ff') || (c >= '\u0100' && c <= '\u1fff')
+				|| (c >= '\u3040' && c <= '\u318f') || (c >= '\u3300' && c <= '\u337f')
+				|| (c >= '\u3400' && c <= '\u3d2d') || (c >= '\u4e00' && c <= '\u9fff')
+				|| (c >= '\uf900' && c <= '\ufaff');
+	}
+}
+
 START:
   -> skip, pushMode(DefaultMode);
 
@@ -40,12 +278,6 @@ TAG_COMMENT
     :   '<!---' (.)*? '--->' -> channel(HIDDEN)
     ;
 
-BOOLEAN_LITERAL
-	:	[tT][rR][uU][eE]
-	|	[fF][aA][lL][sS][eE] 
-	|	[yY][eE][sS] 
-	|	[nN][oO] 
-	;
 OPEN_STRING
 	: '"'
 	-> pushMode(InDoubleQuotes)
@@ -103,70 +335,8 @@ fragment CF_DIGIT
 	| '\u0ed0'..'\u0ed9'
 	| '\u1040'..'\u1049';
 
-// define all the operators/reserved words before the identifier
-
-//DIRECTIVES
-PAGE_ENCODING: [pP][aA][gG][eE][eE][nN][cC][oO][dD][iI][nN][gG];
-
-// not sure why we'd need null, it is not an identifier for CFML, removing
-//NULL: 'NULL';
-// Operators
-CONTAINS:	[cC][oO][nN][tT][aA][iI][nN][sS];
-CONTAIN: [cC][oO][nN][tT][aA][iI][nN];
-DOESNOTCONTAIN: [dD][oO][eE][sS][ ]+[nN][oO][tT][ ]+[cC][oO][nN][tT][aA][iI][nN];
-INSTANCEOF: [iI][nN][sS][tT][aA][nN][cC][eE][oO][fF];
-// Railo/Lucee abbreviations for contains and does not contain.
-CT: [cC][tT];
-NCT: [nN][cC][tT];
-IS:	[iI][sS] -> type(EQ);
-IS_NOT:	[iI][sS][ ]+[nN][oO][tT] -> type(NEQ);
-GT: [gG][tT];
-GE: [gG][eE] -> type(GTE);
-GTE: [gG][tT][eE];
-LTE: [lL][tT][eE];
-LT: [lL][tT];
-LE: [lL][eE] -> type(GTE);
-EQ: [eE][qQ];
-EQUAL: [eE][qQ][uU][aA][lL] -> type(EQ);
-EQUALS: [eE][qQ][uU][aA][lL][sS] -> type(EQ);
-NOT_EQUALS: [nN][oO][tT][ ]+[eE][qQ][uU][aA][lL][sS] -> type(NEQ);
-NEQ: ([nN][eE][qQ] | '<>');
-LESS: [lL][eE][sS][sS];
-LESS_THAN : [lL][eE][sS][sS][ ]+[tT][hH][aA][nN] -> type(LT);
-GREATER_THAN : [gG][rR][eE][aA][tT][eE][rR][ ]+[tT][hH][aA][nN] -> type(GT);
-LESSTHANOREQUALTO : [lL][eE][sS][sS][ ]+[tT][hH][aA][nN][ ]+[oO][rR][ ]+[eE][qQ][uU][aA][lL][ ]+[tT][oO] -> type(LTE);
-GREATERTHANOREQUALTO : [gG][rR][eE][aA][tT][eE][rR][ ]+[tT][hH][aA][nN][ ]+[oO][rR][ ]+[eE][qQ][uU][aA][lL][ ]+[tT][oO] -> type(GTE);
-GREATER: [gG][rR][eE][aA][tT][eE][rR];
-OR: [oO][rR];
-TO: [tT][oO];
-IMP: [iI][mM][pP];
-EQV: [eE][qQ][vV];
-XOR: [xX][oO][rR];
-AND: [aA][nN][dD];
-NOT: [nN][oO][tT];
-MOD: [mM][oO][dD];
-VAR: [vV][aA][rR];
-NEW: [nN][eE][wW];
-// cfscript
-IF: [iI][fF];
-ELSE: [eE][lL][sS][eE];
-BREAK: [bB][rR][eE][aA][kK];
-CONTINUE: [cC][oO][nN][tT][iI][nN][uU][eE];
-FUNCTION: [fF][uU][nN][cC][tT][iI][oO][nN];
-RETURN: [rR][eE][tT][uU][rR][nN];
-WHILE: [wW][hH][iI][lL][eE];
-DO: [dD][oO];
-FOR: [fF][oO][rR];
-IN: [iI][nN];
-TRY: [tT][rR][yY];
-CATCH: [cC][aA][tT][cC][hH];
-SWITCH: [sS][wW][iI][tT][cC][hH];
-CASE: [cC][aA][sS][eE];
-DEFAULT: [dD][eE][fF][aA][uU][lL][tT];
-FINALLY: [fF][iI][nN][aA][lL][lL][yY];
-FINAL: [fF][iI][nN][aA][lL];
-ABSTRACT: [aA][Bb][sS][tT][Rr][aA][cC][tT];
-STATIC: [sS][tT][aA][tT][iI][cC];
+// Keywords are not rules of their own, see @members. '<>' is the one spelling of NEQ that is not a word.
+NEQ: '<>';
 SCRIPTOPEN: '<' [cC] [fF] [sS] [cC] [rR] [iI] [pP] [tT] '>';
 // Lucee's template block: ``` drops out of cfscript into template markup, the mirror of
 // <cfscript> dropping the other way. The body interpolates #...# like a string does.
@@ -211,227 +381,7 @@ LEFTCURLYBRACKET: '{';
 RIGHTCURLYBRACKET: '}';
 QUESTIONMARK: '?';
 DOUBLECOLUMN: '::';
-// tag operators
-INCLUDE: [iI][nN][cC][lL][uU][dD][eE];
-IMPORT: [iI][mM][pP][oO][rR][tT];
-ABORT: [aA][bB][oO][rR][tT];
-ADMIN: [aA][dD][mM][iI][nN];
-THROW: [tT][hH][rR][oO][wW];
-RETHROW: [rR][eE][tT][hH][rR][oO][wW];
-EXIT: [eE][xX][iI][tT];
-PARAM: [pP][aA][rR][aA][mM];
-PROPERTY: [pP][rR][oO][pP][eE][rR][tT][yY];
-LOCK: [lL][oO][cC][kK];
-THREAD: [tT][hH][rR][eE][aA][dD];
-TRANSACTION: [tT][rR][aA][nN][sS][aA][cC][tT][iI][oO][nN];
-// cfmlfunction (tags you can call from script)
-SAVECONTENT: [sS][aA][vV][eE][cC][oO][nN][tT][eE][nN][tT];
-HTTP: [hH][tT][tT][pP][sS]?([:][/][/])?;
-CFHTTP: [cC][fF] HTTP;
-FILE: [fF][iI][lL][eE];
-DIRECTORY: [dD][iI][rR][eE][cC][tT][oO][rR][yY];
-LOOP: [lL][oO][oO][pP]; 
-CFLOOP: [cC][fF] LOOP -> type(LOOP);
-SETTING: [sS][eE][tT][tT][iI][nN][gG];
-QUERY: [qQ][uU][eE][rR][yY];
-//types
-STRING: [sS][tT][rR][iI][nN][gG];
-NUMERIC: [nN][uU][mM][eE][rR][iI][cC];
-BOOLEAN: [bB][oO][oO][lL][eE][aA][nN];
-ANY: [aA][nN][yY];
-ARRAY: [aA][rR][rR][aA][yY];
-STRUCT: [sS][tT][rR][uU][cC][tT];
-// function related
-PRIVATE: [pP][rR][iI][vV][aA][tT][eE];
-PUBLIC: [pP][uU][bB][lL][iI][cC];
-REMOTE: [rR][eE][mM][oO][tT][eE];
-PACKAGE: [pP][aA][cC][kK][aA][gG][eE];
-REQUIRED: [rR][eE][qQ][uU][iI][rR][eE][dD];
-COMPONENT: [cC][oO][mM][pP][oO][nN][eE][nN][tT];
-INTERFACE: [iI][nN][tT][eE][rR][fF][aA][cC][eE];
-
-//SCOPE
-//    :   [tT][hH][iI][sS] DOT
-//    |   [lL][oO][cC][aA][lL] DOT
-//    |   [vV][aA][rR][iI][aA][bB][lL][eE][sS] DOT
-//    ;
-// -- tags as script
-LOG: [lL][oO][gG];
-//TEXT: [tT][eE][xX][tT];
-//TYPE: [tT][yY][pP][eE];
-APPLICATION: [aA][pP][pP][lL][iI][cC][aA][tT][iI][oO][nN];
-CFAPPLICATION: [cC][fF] APPLICATION -> type(APPLICATION);
-
-APPLET: [Aa][Pp][Pp][Ll][Ee][Tt];
-ASSOCIATE: [Aa][Ss][Ss][Oo][Cc][Ii][Aa][Tt][Ee];
-AUTHENTICATE: [Aa][Uu][Tt][Hh][Ee][Nn][Tt][Ii][Cc][Aa][Tt][Ee];
-CACHE: [Cc][Aa][Cc][Hh][Ee];
-COL: [Cc][Oo][Ll];
-COLLECTION: [Cc][Oo][Ll][Ll][Ee][Cc][Tt][Ii][Oo][Nn];
-CONTENT: [Cc][Oo][Nn][Tt][Ee][Nn][Tt];
-COOKIE: [Cc][Oo][Oo][Kk][Ii][Ee];
-ERROR: [Ee][Rr][Rr][Oo][Rr];
-EXECUTE: [Ee][Xx][Ee][Cc][Uu][Tt][Ee];
-FORM: [Ff][Oo][Rr][Mm];
-FTP: [Ff][Tt][Pp];
-GRID: [Gg][Rr][Ii][Dd];
-GRIDCOLUMN: [Gg][Rr][Ii][Dd][Cc][Oo][Ll][Uu][Mm][Nn];
-GRIDROW: [Gg][Rr][Ii][Dd][Rr][Oo][Ww];
-GRIDUPDATE: [Gg][Rr][Ii][Dd][Uu][Pp][Dd][Aa][Tt][Ee];
-HEADER: [Hh][Ee][Aa][Dd][Ee][Rr];
-HTMLHEAD: [Hh][Tt][Mm][Ll][Hh][Ee][Aa][Dd];
-HTTPPARAM: [Hh][Tt][Tt][Pp][Pp][Aa][Rr][Aa][Mm];
-CFHTTPPARAM: [cC][fF] HTTPPARAM;
-IMPERSONATE: [Ii][Mm][Pp][Ee][Rr][Ss][Oo][Nn][Aa][Tt][Ee];
-INDEX: [Ii][Nn][Dd][Ee][Xx];
-INPUT: [Ii][Nn][Pp][Uu][Tt];
-INSERT: [Ii][Nn][Ss][Ee][Rr][Tt];
-LDAP: [Ll][Dd][Aa][Pp];
-LOCATION: [Ll][Oo][Cc][Aa][Tt][Ii][Oo][Nn];
-MAIL: [Mm][Aa][Ii][Ll];
-MAILPARAM: [Mm][Aa][Ii][Ll][Pp][Aa][Rr][Aa][Mm];
-MODULE: [Mm][Oo][Dd][Uu][Ll][Ee];
-OBJECT: [Oo][Bb][Jj][Ee][Cc][Tt];
-OUTPUT: [Oo][Uu][Tt][Pp][Uu][Tt];
-POP: [Pp][Oo][Pp];
-PROCESSINGDIRECTIVE: [Pp][Rr][Oo][Cc][Ee][Ss][Ss][Ii][Nn][Gg][Dd][Ii][Rr][Ee][Cc][Tt][Ii][Vv][Ee];
-PROCPARAM: [Pp][Rr][Oo][Cc][Pp][Aa][Rr][Aa][Mm];
-PROCRESULT: [Pp][Rr][Oo][Cc][Rr][Ee][Ss][Uu][Ll][Tt];
-QUERYPARAM: [Qq][Uu][Ee][Rr][Yy][Pp][Aa][Rr][Aa][Mm];
-REGISTRY: [Rr][Ee][Gg][Ii][Ss][Tt][Rr][Yy];
-REPORT: [Rr][Ee][Pp][Oo][Rr][Tt];
-SCHEDULE: [Ss][Cc][Hh][Ee][Dd][Uu][Ll][Ee];
-SCRIPT: [Ss][Cc][Rr][Ii][Pp][Tt];
-SEARCH: [Ss][Ee][Aa][Rr][Cc][Hh];
-SELECT: [Ss][Ee][Ll][Ee][Cc][Tt];
-SERVLET: [Ss][Ee][Rr][Vv][Ll][Ee][Tt];
-SERVLETPARAM: [Ss][Ee][Rr][Vv][Ll][Ee][Tt][Pp][Aa][Rr][Aa][Mm];
-SET: [Ss][Ee][Tt];
-SILENT: [Ss][Ii][Ll][Ee][Nn][Tt];
-SLIDER: [Ss][Ll][Ii][Dd][Ee][Rr];
-STOREDPROC: [Ss][Tt][Oo][Rr][Ee][Dd][Pp][Rr][Oo][Cc];
-TABLE: [Tt][Aa][Bb][Ll][Ee];
-TEXTINPUT: [Tt][Ee][Xx][Tt][Ii][Nn][Pp][Uu][Tt];
-TREE: [Tt][Rr][Ee][Ee];
-TREEITEM: [Tt][Rr][Ee][Ee][Ii][Tt][Ee][Mm];
-UPDATE: [Uu][Pp][Dd][Aa][Tt][Ee];
-WDDX: [Ww][Dd][Dd][Xx];
-ZIP: [Zz][Ii][Pp];
-
-// The cf-prefixed spelling of every tag above. CFML accepts a script-syntax tag
-// either way -- cffile and file are the same tag -- so each maps onto the
-// unprefixed token and the parser needs no second list. CFLOOP above is the
-// pattern; CFHTTP and CFHTTPPARAM predate it and stayed distinct tokens.
-// cfscript and cfset are deliberately absent: <cfscript> is the script delimiter
-// itself and <cfset> is spelled as an assignment, so neither has a script-syntax
-// form to enable, and aliasing them would reserve the words for nothing.
-CFSAVECONTENT: [cC][fF] SAVECONTENT -> type(SAVECONTENT);
-CFFILE: [cC][fF] FILE -> type(FILE);
-CFPROPERTY: [cC][fF] PROPERTY -> type(PROPERTY);
-CFDIRECTORY: [cC][fF] DIRECTORY -> type(DIRECTORY);
-CFSETTING: [cC][fF] SETTING -> type(SETTING);
-CFQUERY: [cC][fF] QUERY -> type(QUERY);
-CFLOG: [cC][fF] LOG -> type(LOG);
-CFAPPLET: [cC][fF] APPLET -> type(APPLET);
-CFASSOCIATE: [cC][fF] ASSOCIATE -> type(ASSOCIATE);
-CFAUTHENTICATE: [cC][fF] AUTHENTICATE -> type(AUTHENTICATE);
-CFCACHE: [cC][fF] CACHE -> type(CACHE);
-CFCOL: [cC][fF] COL -> type(COL);
-CFCOLLECTION: [cC][fF] COLLECTION -> type(COLLECTION);
-CFCONTENT: [cC][fF] CONTENT -> type(CONTENT);
-CFCOOKIE: [cC][fF] COOKIE -> type(COOKIE);
-CFERROR: [cC][fF] ERROR -> type(ERROR);
-CFEXECUTE: [cC][fF] EXECUTE -> type(EXECUTE);
-CFFORM: [cC][fF] FORM -> type(FORM);
-CFFTP: [cC][fF] FTP -> type(FTP);
-CFGRID: [cC][fF] GRID -> type(GRID);
-CFGRIDCOLUMN: [cC][fF] GRIDCOLUMN -> type(GRIDCOLUMN);
-CFGRIDROW: [cC][fF] GRIDROW -> type(GRIDROW);
-CFGRIDUPDATE: [cC][fF] GRIDUPDATE -> type(GRIDUPDATE);
-CFHEADER: [cC][fF] HEADER -> type(HEADER);
-CFHTMLHEAD: [cC][fF] HTMLHEAD -> type(HTMLHEAD);
-CFIMPERSONATE: [cC][fF] IMPERSONATE -> type(IMPERSONATE);
-CFINDEX: [cC][fF] INDEX -> type(INDEX);
-CFINPUT: [cC][fF] INPUT -> type(INPUT);
-CFINSERT: [cC][fF] INSERT -> type(INSERT);
-CFLDAP: [cC][fF] LDAP -> type(LDAP);
-CFLOCATION: [cC][fF] LOCATION -> type(LOCATION);
-CFMAIL: [cC][fF] MAIL -> type(MAIL);
-CFMAILPARAM: [cC][fF] MAILPARAM -> type(MAILPARAM);
-CFMODULE: [cC][fF] MODULE -> type(MODULE);
-CFOBJECT: [cC][fF] OBJECT -> type(OBJECT);
-CFOUTPUT: [cC][fF] OUTPUT -> type(OUTPUT);
-CFPOP: [cC][fF] POP -> type(POP);
-CFPROCESSINGDIRECTIVE: [cC][fF] PROCESSINGDIRECTIVE -> type(PROCESSINGDIRECTIVE);
-CFPROCPARAM: [cC][fF] PROCPARAM -> type(PROCPARAM);
-CFPROCRESULT: [cC][fF] PROCRESULT -> type(PROCRESULT);
-CFQUERYPARAM: [cC][fF] QUERYPARAM -> type(QUERYPARAM);
-CFREGISTRY: [cC][fF] REGISTRY -> type(REGISTRY);
-CFREPORT: [cC][fF] REPORT -> type(REPORT);
-CFSCHEDULE: [cC][fF] SCHEDULE -> type(SCHEDULE);
-CFSEARCH: [cC][fF] SEARCH -> type(SEARCH);
-CFSELECT: [cC][fF] SELECT -> type(SELECT);
-CFSERVLET: [cC][fF] SERVLET -> type(SERVLET);
-CFSERVLETPARAM: [cC][fF] SERVLETPARAM -> type(SERVLETPARAM);
-CFSILENT: [cC][fF] SILENT -> type(SILENT);
-CFSLIDER: [cC][fF] SLIDER -> type(SLIDER);
-CFSTOREDPROC: [cC][fF] STOREDPROC -> type(STOREDPROC);
-CFTABLE: [cC][fF] TABLE -> type(TABLE);
-CFTEXTINPUT: [cC][fF] TEXTINPUT -> type(TEXTINPUT);
-CFTREE: [cC][fF] TREE -> type(TREE);
-CFTREEITEM: [cC][fF] TREEITEM -> type(TREEITEM);
-CFUPDATE: [cC][fF] UPDATE -> type(UPDATE);
-CFWDDX: [cC][fF] WDDX -> type(WDDX);
-CFZIP: [cC][fF] ZIP -> type(ZIP);
-
-// Tags that exist only in their cf-prefixed spelling here. The bare names -- dump, trace,
-// map, xml, flush -- are ordinary function and variable names in real code (dump( ) alone
-// appears in four fixtures), so minting bare tokens for them would reclassify working code.
-// The cf-prefixed form carries no such risk, and each is listed in identifier as well.
-CFCALENDAR: [cC][fF][cC][aA][lL][eE][nN][dD][aA][rR];
-CFCHART: [cC][fF][cC][hH][aA][rR][tT];
-CFCHARTDATA: [cC][fF][cC][hH][aA][rR][tT][dD][aA][tT][aA];
-CFCHARTSERIES: [cC][fF][cC][hH][aA][rR][tT][sS][eE][rR][iI][eE][sS];
-CFCLIENT: [cC][fF][cC][lL][iI][eE][nN][tT];
-CFCLIENTSETTINGS: [cC][fF][cC][lL][iI][eE][nN][tT][sS][eE][tT][tT][iI][nN][gG][sS];
-CFDOCUMENT: [cC][fF][dD][oO][cC][uU][mM][eE][nN][tT];
-CFDOCUMENTITEM: [cC][fF][dD][oO][cC][uU][mM][eE][nN][tT][iI][tT][eE][mM];
-CFDOCUMENTSECTION: [cC][fF][dD][oO][cC][uU][mM][eE][nN][tT][sS][eE][cC][tT][iI][oO][nN];
-CFDUMP: [cC][fF][dD][uU][mM][pP];
-CFFILEUPLOAD: [cC][fF][fF][iI][lL][eE][uU][pP][lL][oO][aA][dD];
-CFFLUSH: [cC][fF][fF][lL][uU][sS][hH];
-CFFORMGROUP: [cC][fF][fF][oO][rR][mM][gG][rR][oO][uU][pP];
-CFFORMITEM: [cC][fF][fF][oO][rR][mM][iI][tT][eE][mM];
-CFHTMLTOPDF: [cC][fF][hH][tT][mM][lL][tT][oO][pP][dD][fF];
-CFHTMLTOPDFITEM: [cC][fF][hH][tT][mM][lL][tT][oO][pP][dD][fF][iI][tT][eE][mM];
-CFINVOKE: [cC][fF][iI][nN][vV][oO][kK][eE];
-CFINVOKEARGUMENT: [cC][fF][iI][nN][vV][oO][kK][eE][aA][rR][gG][uU][mM][eE][nN][tT];
-CFLOGIN: [cC][fF][lL][oO][gG][iI][nN];
-CFLOGINUSER: [cC][fF][lL][oO][gG][iI][nN][uU][sS][eE][rR];
-CFLOGOUT: [cC][fF][lL][oO][gG][oO][uU][tT];
-CFMAILPART: [cC][fF][mM][aA][iI][lL][pP][aA][rR][tT];
-CFMAP: [cC][fF][mM][aA][pP];
-CFMAPITEM: [cC][fF][mM][aA][pP][iI][tT][eE][mM];
-CFMEDIAPLAYER: [cC][fF][mM][eE][dD][iI][aA][pP][lL][aA][yY][eE][rR];
-CFMESSAGEBOX: [cC][fF][mM][eE][sS][sS][aA][gG][eE][bB][oO][xX];
-CFNTAUTHENTICATE: [cC][fF][nN][tT][aA][uU][tT][hH][eE][nN][tT][iI][cC][aA][tT][eE];
-CFOAUTH: [cC][fF][oO][aA][uU][tT][hH];
-CFOBJECTCACHE: [cC][fF][oO][bB][jJ][eE][cC][tT][cC][aA][cC][hH][eE];
-CFPROGRESSBAR: [cC][fF][pP][rR][oO][gG][rR][eE][sS][sS][bB][aA][rR];
-CFREPORTPARAM: [cC][fF][rR][eE][pP][oO][rR][tT][pP][aA][rR][aA][mM];
-CFSHAREPOINT: [cC][fF][sS][hH][aA][rR][eE][pP][oO][iI][nN][tT];
-CFSPREADSHEET: [cC][fF][sS][pP][rR][eE][aA][dD][sS][hH][eE][eE][tT];
-CFTEXTAREA: [cC][fF][tT][eE][xX][tT][aA][rR][eE][aA];
-CFTIMER: [cC][fF][tT][iI][mM][eE][rR];
-CFTRACE: [cC][fF][tT][rR][aA][cC][eE];
-CFWEBSOCKET: [cC][fF][wW][eE][bB][sS][oO][cC][kK][eE][tT];
-CFXML: [cC][fF][xX][mM][lL];
-// imap is the one bare spelling the corpora actually use, so it gets both.
-IMAP: [iI][mM][aA][pP];
-CFIMAP: [cC][fF] IMAP -> type(IMAP);
-
-CFCUSTOM_IDENTIFIER: [cC][fF]'_' IDENTIFIER+;
-
+// every word, keyword or not, emit() tells them apart
 IDENTIFIER 
 	:	LETTER (LETTER|CF_DIGIT)*;
 	
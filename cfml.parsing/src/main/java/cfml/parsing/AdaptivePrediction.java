@@ -0,0 +1,155 @@
+package cfml.parsing;
+
+import java.util.BitSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.antlr.v4.runtime.BufferedTokenStream;
+import org.antlr.v4.runtime.Token;
+
+import cfml.CFSCRIPTLexer;
+
+/**
+ * Learns which inputs the two-stage parse in {@link CFMLParser} ends up redoing in full LL mode, so that they can skip
+ * the SLL pass that would fail anyway.
+ *
+ * Two kinds of signature are learned. A file whose SLL pass failed goes straight to LL the next time it is parsed,
+ * until an SLL pass of it succeeds again; at most {@link #DEFAULT_MAX_FILES} such files, or the number given, are
+ * remembered at a time, and a file that falls back once that many are remembered is left to the token types. For any
+ * input, each rule counts how often inputs holding each token type
+ * fell back; an input holding a token type that fell back in at least the threshold percentage of at least
+ * {@link #MIN_SAMPLES} parses goes straight to LL. One in {@link #PROBE_INTERVAL} inputs that would go straight to LL
+ * tries SLL anyway, so that what was learned keeps up with the code being parsed.
+ *
+ * Working out the token types means lexing the whole input before parsing it, which the parser would do anyway.
+ */
+public class AdaptivePrediction {
+
+	/** the fallbacks a token type needs before it sends inputs straight to LL */
+	static final int MIN_SAMPLES = 8;
+	/** one in this many inputs that would go straight to LL tries SLL anyway */
+	static final int PROBE_INTERVAL = 32;
+
+	public static final int DEFAULT_THRESHOLD_PERCENT = 90;
+	public static final int DEFAULT_MAX_FILES = 1024;
+
+	private final int thresholdPercent;
+	private final int maxFiles;
+	private final ConcurrentHashMap<String, TokenCounts> rules = new ConcurrentHashMap<String, TokenCounts>();
+	private final Set<String> fallbackFiles = ConcurrentHashMap.newKeySet();
+	private final AtomicLong routed = new AtomicLong();
+
+	public AdaptivePrediction() {
+		this(DEFAULT_THRESHOLD_PERCENT);
+	}
+
+	/**
+	 * @param thresholdPercent how often, in percent, inputs holding a token type must have fallen back for that token
+	 *            type to send inputs straight to LL
+	 */
+	public AdaptivePrediction(int thresholdPercent) {
+		this(thresholdPercent, DEFAULT_MAX_FILES);
+	}
+
+	/**
+	 * @param thresholdPercent how often, in percent, inputs holding a token type must have fallen back for that token
+	 *            type to send inputs straight to LL
+	 * @param maxFiles the most files whose SLL pass failed to remember at a time, or 0 for none
+	 */
+	public AdaptivePrediction(int thresholdPercent, int maxFiles) {
+		if (thresholdPercent < 1 || thresholdPercent > 100) {
+			throw new IllegalArgumentException("threshold must be between 1 and 100: " + thresholdPercent);
+		}
+		if (maxFiles < 0) {
+			throw new IllegalArgumentException("maxFiles must not be negative: " + maxFiles);
+		}
+		this.thresholdPercent = thresholdPercent;
+		this.maxFiles = maxFiles;
+	}
+
+	/**
+	 * @return the token types in the input, which is lexed to the end
+	 */
+	BitSet signature(BufferedTokenStream tokens) {
+		tokens.fill();
+		final BitSet types = new BitSet();
+		for (Token token : tokens.getTokens()) {
+			if (token.getType() >= 0) {
+				types.set(token.getType());
+			}
+		}
+		return types;
+	}
+
+	/**
+	 * @return true if the input should skip the SLL pass
+	 */
+	boolean prefersLL(String rule, String file, BitSet signature) {
+		boolean ll = file != null && fallbackFiles.contains(file);
+		if (!ll) {
+			final TokenCounts counts = rules.get(rule);
+			ll = counts != null && counts.risky(signature, thresholdPercent);
+		}
+		return ll && routed.incrementAndGet() % PROBE_INTERVAL != 0;
+	}
+
+	/**
+	 * Records how the SLL pass of an input went.
+	 */
+	void learn(String rule, String file, BitSet signature, boolean fellBack) {
+		rules.computeIfAbsent(rule, k -> new TokenCounts()).add(signature, fellBack);
+		if (file != null) {
+			if (!fellBack) {
+				fallbackFiles.remove(file);
+			} else if (!fallbackFiles.contains(file)) {
+				// under the lock, so that files falling back at once cannot take more than maxFiles places
+				synchronized (fallbackFiles) {
+					if (fallbackFiles.size() < maxFiles) {
+						fallbackFiles.add(file);
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Forgets everything learned so far.
+	 */
+	public void clear() {
+		rules.clear();
+		synchronized (fallbackFiles) {
+			fallbackFiles.clear();
+		}
+	}
+
+	/**
+	 * Per token type, the SLL passes of inputs holding it and how many of those failed.
+	 */
+	private static final class TokenCounts {
+		final AtomicLongArray seen = new AtomicLongArray(CFSCRIPTLexer.VOCABULARY.getMaxTokenType() + 1);
+		final AtomicLongArray fellBack = new AtomicLongArray(seen.length());
+
+		boolean risky(BitSet signature, int thresholdPercent) {
+			for (int type = signature.nextSetBit(0); type >= 0 && type < seen.length(); type = signature
+					.nextSetBit(type + 1)) {
+				final long failures = fellBack.get(type);
+				if (failures >= MIN_SAMPLES && failures * 100 >= seen.get(type) * thresholdPercent) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void add(BitSet signature, boolean failed) {
+			for (int type = signature.nextSetBit(0); type >= 0 && type < seen.length(); type = signature
+					.nextSetBit(type + 1)) {
+				seen.incrementAndGet(type);
+				if (failed) {
+					fellBack.incrementAndGet(type);
+				}
+			}
+		}
+	}
+}
@@ -1,17 +1,22 @@
 package cfml.parsing;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
 import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 
 import org.antlr.v4.runtime.ANTLRErrorListener;
 import org.antlr.v4.runtime.CharStreams;
@@ -20,9 +25,11 @@ import org.antlr.v4.runtime.BailErrorStrategy;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.DefaultErrorStrategy;
 import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Lexer;
 import org.antlr.v4.runtime.Parser;
 import org.antlr.v4.runtime.RecognitionException;
 import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.Token;
 import org.antlr.v4.runtime.atn.ATNConfigSet;
 import org.antlr.v4.runtime.atn.PredictionMode;
 import org.antlr.v4.runtime.dfa.DFA;
@@ -30,197 +37,275 @@ import org.antlr.v4.runtime.dfa.DFA;
 import cfml.CFSCRIPTLexer;
 import cfml.CFSCRIPTParser;
 import cfml.CFSCRIPTParser.CfmlExpressionContext;
+import cfml.CFSCRIPTParser.CompoundStatementContext;
 import cfml.CFSCRIPTParser.ExpressionContext;
 import cfml.CFSCRIPTParser.ScriptBlockContext;
 import cfml.dictionary.DictionaryManager;
 import cfml.dictionary.SyntaxDictionary;
 import cfml.dictionary.preferences.DictionaryPreferences;
+import cfml.parsing.cache.CachedParse;
+import cfml.parsing.cache.ExpressionTreeCache;
+import cfml.parsing.cache.ParseCache;
+import cfml.parsing.cfml.CFMLInterest;
+import cfml.parsing.cfml.CFMLScanHandler;
+import cfml.parsing.cfml.CFMLTagScanner;
 import cfml.parsing.cfml.CFMLVisitor;
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.CompactTree;
 import cfml.parsing.cfscript.script.CFScriptStatement;
 import cfml.parsing.cfscript.walker.CFExpressionVisitor;
 import cfml.parsing.cfscript.walker.CFScriptStatementVisitor;
 import cfml.parsing.reporting.IErrorReporter;
 import cfml.parsing.reporting.ParseException;
+import cfml.parsing.util.CFMLFileReader;
+import cfml.parsing.util.CharSequenceCharStream;
 import net.htmlparser.jericho.Element;
 import net.htmlparser.jericho.EndTag;
+import net.htmlparser.jericho.RowColumnVector;
+import net.htmlparser.jericho.Source;
 import net.htmlparser.jericho.StartTag;
 
+/**
+ * Parses CFML tag sources and cfscript/expression text.
+ *
+ * A single instance may be shared between threads. The dictionary, error reporter and parse tree
+ * cache are shared by every caller, while the lexer, parser, visitors and the element traversal
+ * position are held per thread (see {@link ParseState}), so worker threads never contend on - or
+ * corrupt - each other's in-flight parse. The generated CFSCRIPTLexer/CFSCRIPTParser keep their
+ * DFA caches in static fields, so a DFA warmed by one thread is used by all of them. They start
+ * out as the snapshot bundled by the build (see {@link DFASnapshot}) rather than empty.
+ */
 public class CFMLParser {
 	
-	private Map<String, CFMLSource> fCfmlSources = new HashMap<String, CFMLSource>();
+	static {
+		DFASnapshot.loadBundled();
+	}
+	
+	private Map<String, CFMLSource> fCfmlSources = new ConcurrentHashMap<String, CFMLSource>();
 	protected ArrayList<ParseMessage> messages = new ArrayList<ParseMessage>();
-	private boolean hadFatal;
+	private volatile boolean hadFatal;
 	/** Syntax dictionary for working out important things for the parser. */
-	private SyntaxDictionary cfdic;
+	private volatile SyntaxDictionary cfdic;
+	/** the version key of cfdic, which the parse cache is keyed on */
+	private volatile String cfdicVersion;
 	private DictionaryPreferences fDictPrefs = new DictionaryPreferences();
-	IErrorReporter errorReporter = new StdErrReporter();
-	CFExpressionVisitor expressionVisitor = new CFExpressionVisitor();
-	CFScriptStatementVisitor scriptVisitor = new CFScriptStatementVisitor();
-	CFSCRIPTLexer lexer = null;
-	CFSCRIPTParser parser = null;
+	volatile IErrorReporter errorReporter = new StdErrReporter();
+	private volatile ParseCache parseCache;
+
+	/**
+	 * The mutable state of one thread's parse. ANTLR lexers, parsers and our tree visitors all carry
+	 * per-parse state (input streams, listener lists, aggregation stacks), so none of them can be
+	 * used by two threads at once. They are cheap to keep around, and reusing them per thread
+	 * avoids re-allocating the recognizers for every expression.
+	 */
+	private static final class ParseState {
+		CFSCRIPTLexer lexer;
+		CFSCRIPTParser parser;
+		final CFExpressionVisitor expressionVisitor = new CFExpressionVisitor();
+		final CFScriptStatementVisitor scriptVisitor = new CFScriptStatementVisitor();
+		/** where {@link CFMLParser#visit(Element, int, CFMLVisitor)} is up to in skipping an unclosed cfscript */
+		final ScriptSkip scriptSkip = new ScriptSkip();
+		/** the file being parsed by {@link CFMLParser#parseScriptFile(String)}, for the prediction stats */
+		String file;
+	}
+
+	private final ThreadLocal<ParseState> parseState = ThreadLocal.withInitial(ParseState::new);
 
 	// Callers (e.g. CFLint scanning a file's <cfset>/<cfif> tags one at a time) frequently
 	// re-parse textually-identical short expressions many times over - common boilerplate like
-	// "var result = StructNew()" can repeat dozens of times in one file. Cache the parse tree by
-	// source text and re-run the (cheap) visitor on a hit, skipping the expensive lex/parse/ATN
-	// simulation. We deliberately do NOT cache/share the resulting CFExpression itself - it has
-	// mutable state (CFParsedStatement.setParent()) that callers rely on per-use, so every hit
-	// gets a fresh visit() over the cached (read-only) parse tree instead.
+	// "var result = StructNew()" can repeat dozens of times in one file, and across every file of a
+	// codebase. Cache the parse tree by source text and re-run the (cheap) visitor on a hit,
+	// skipping the expensive lex/parse/ATN simulation. We deliberately do NOT cache/share the
+	// resulting CFExpression itself - it has mutable state (CFParsedStatement.setParent()) that
+	// callers rely on per-use, so every hit gets a fresh visit() over the cached (read-only) parse
+	// tree instead. Visiting only reads the tree, so any number of threads and parsers can visit
+	// the same cached tree concurrently.
 	//
 	// Only expressions that parsed without a syntax error are cached. A cache hit returns before the
 	// error listeners are attached, so caching an expression that produced errors would report those
 	// errors on the first parse only and silently drop them for every later occurrence (including
 	// occurrences in other files, with a different listener attached).
 	//
-	// Each entry retains a parse tree along with its tokens and CharStream, so the cache is bounded
-	// and evicts least-recently-used entries. A long-lived parser walking a whole codebase sees a
-	// large number of distinct expressions, and an unbounded cache would grow for the lifetime of
-	// the parser. clearDFA() empties it outright for callers releasing memory.
-	//
-	// The limit is sized to hold a large source file's worth of distinct expressions: a real
-	// ~8,700-line .cfc measured while developing this cache produced 2,619 calls over 1,786
-	// distinct strings. A smaller limit still captures locally clustered repeats, but drops
-	// roughly half the hits when a file's repeats are spread across its whole length.
-	private static final int EXPR_TREE_CACHE_MAX_ENTRIES = 2000;
+	// By default every parser shares ExpressionTreeCache.shared(), which is bounded by the total
+	// token count of its trees; see ExpressionTreeCache for the eviction policy and counters.
+	private volatile ExpressionTreeCache exprTreeCache = ExpressionTreeCache.shared();
 
-	private final Map<String, CfmlExpressionContext> exprTreeCache = new LinkedHashMap<String, CfmlExpressionContext>(
-			16, 0.75f, true) {
+	// Every parse runs in SLL mode first and, should that fail, again from the start in full LL mode.
+	// The stats count how often that happens and what each stage costs. With adaptive prediction on,
+	// inputs it expects to fail in SLL go straight to LL instead. Nothing is counted unless stats are set.
+	private volatile PredictionStats predictionStats;
+	private volatile AdaptivePrediction adaptivePrediction;
 
-		private static final long serialVersionUID = 1L;
+	// The front end of scan(): the hand written scanner, or CFMLGrammarScanner, which reports the same events from the
+	// CFMLLexer and CFMLParser grammars.
+	private volatile CFMLTagScanner tagScanner = new CFMLTagScanner();
 
-		@Override
-		protected boolean removeEldestEntry(Map.Entry<String, CfmlExpressionContext> eldest) {
-			return size() > EXPR_TREE_CACHE_MAX_ENTRIES;
-		}
-	};
+	// With detached trees on, parsed scripts keep their tokens but not the token stream, lexer, input or parse tree
+	// they were built from; see setDetachedTrees.
+	private volatile boolean detachedTrees;
 
+	/**
+	 * Discards what parsing has added to the lexer and parser DFA caches, which go back to the
+	 * bundled snapshot, and the parse tree cache. The DFA caches are static in the generated
+	 * recognizers, and the parse tree cache is shared unless this parser was given its own, so this
+	 * affects every parser in the JVM, not only this one.
+	 */
 	public void clearDFA() {
-		if (parser != null)
-			parser.getInterpreter().clearDFA();
-		if (lexer != null)
-			lexer.getInterpreter().clearDFA();
-		exprTreeCache.clear();
+		// The simulators clear the shared arrays rather than anything of their own, so any
+		// recognizer will do - create this thread's if it has not parsed anything yet.
+		final ParseState state = parseState.get();
+		if (state.parser == null) {
+			prepare(state, CharStreams.fromString(""));
+		}
+		state.parser.getInterpreter().clearDFA();
+		state.lexer.getInterpreter().clearDFA();
+		DFASnapshot.loadBundled();
+		final ExpressionTreeCache cache = exprTreeCache;
+		if (cache != null) {
+			cache.clear();
+		}
+	}
+
+	/**
+	 * Points the calling thread's lexer and parser at the given input, creating them on first use.
+	 */
+	private CommonTokenStream prepare(final ParseState state, final CharStream input) {
+		if (state.lexer == null) {
+			state.lexer = new CFSCRIPTLexer(input);
+			state.lexer.removeErrorListeners();
+		} else {
+			state.lexer.setInputStream(input);
+		}
+		final CommonTokenStream tokens = new CommonTokenStream(state.lexer);
+		if (state.parser == null) {
+			state.parser = new CFSCRIPTParser(tokens);
+			state.parser.removeErrorListeners();
+		} else {
+			state.parser.setTokenStream(tokens);
+		}
+		return tokens;
 	}
 	
 	public CFExpression parseCFExpression(String _infix, ANTLRErrorListener errorReporter) throws Exception {
+		return parseCFExpression(CharStreams.fromString(_infix), 1, 0, errorReporter);
+	}
+	
+	/**
+	 * @param line the line the input starts on, from 1
+	 * @param column the column the input starts at, from 0
+	 */
+	private CFExpression parseCFExpression(CharStream input, int line, int column, ANTLRErrorListener errorReporter)
+			throws Exception {
 		if (errorReporter == null) {
 			errorReporter = this.errorReporter;
 		}
-		final CharStream input = CharStreams.fromString(_infix);
-		if (lexer == null) {
-			lexer = new CFSCRIPTLexer(input);
-			lexer.removeErrorListeners();
-		} else {
-			lexer.setInputStream(input);
-		}
-		
-		final CommonTokenStream tokens = new CommonTokenStream(lexer);
-		
-		// ScriptBlockContext scriptStatement = null;
-		if (parser == null) {
-			parser = new CFSCRIPTParser(tokens);
-			parser.removeErrorListeners();
-			if (errorReporter == null) {
-				lexer.addErrorListener(this.errorReporter);
-				parser.addErrorListener(this.errorReporter);
-			}
-		} else {
-			parser.setTokenStream(tokens);
-		}
+		final ParseState state = parseState.get();
+		final CommonTokenStream tokens = prepare(state, input);
+		final CFSCRIPTLexer lexer = state.lexer;
+		final CFSCRIPTParser parser = state.parser;
+		lexer.setLine(line);
+		lexer.setCharPositionInLine(column);
 		
-		if (errorReporter != null) {
-			lexer.addErrorListener(errorReporter);
-			parser.addErrorListener(errorReporter);
-		}
-		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		lexer.addErrorListener(errorReporter);
+		parser.addErrorListener(errorReporter);
 		parser.reset();
 		ExpressionContext expressionContext = null;
 		try {
-			expressionContext = parser.expression(); // Stage 1
+			expressionContext = parseTwoStage("expression", parser, tokens, CFSCRIPTParser::expression, null);
 			// TestUtils.showGUI(expressionContext, CFSCRIPTParser.ruleNames);
-			
-		} catch (Exception e) {
-			tokens.seek(0); // rewind input stream
-			parser.reset();
-			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
-			expressionContext = parser.expression(); // STAGE 2
 		} finally {
-			if (errorReporter != null) {
-				lexer.removeErrorListener(errorReporter);
-				parser.removeErrorListener(errorReporter);
-			}
+			lexer.removeErrorListener(errorReporter);
+			parser.removeErrorListener(errorReporter);
 		}
 		if (expressionContext != null) {
-			return expressionVisitor.visit(expressionContext);
+			return state.expressionVisitor.visit(expressionContext);
 		} else
 			return null;
 	}
 	
+	/**
+	 * Parses the expression between begin and end in a document, without copying it out. The expression's tokens have
+	 * the positions they have in the document: their start and stop indexes are offsets into the document, and their
+	 * lines and columns are the document's. The document must not change while the expression is in use, as tokens
+	 * read their text from it. The line and column of begin are found by counting lines from the start of the
+	 * document; a caller that knows them already should pass them in.
+	 * 
+	 * @param source the document
+	 * @param begin the offset of the expression
+	 * @param end the offset just past the expression
+	 * @param errorReporter receives syntax errors, or null for this parser's error reporter
+	 * @return the expression, or null if it could not be parsed
+	 */
+	public CFExpression parseCFExpression(CharSequence source, int begin, int end, ANTLRErrorListener errorReporter)
+			throws Exception {
+		int line = 1;
+		int lineBegin = 0;
+		for (int i = 0; i < begin; i++) {
+			if (source.charAt(i) == '\n') {
+				line++;
+				lineBegin = i + 1;
+			}
+		}
+		return parseCFExpression(source, begin, end, line, begin - lineBegin, errorReporter);
+	}
+	
+	/**
+	 * Parses the expression between begin and end in a document, as
+	 * {@link #parseCFExpression(CharSequence, int, int, ANTLRErrorListener)} does, given where begin is.
+	 * 
+	 * @param source the document
+	 * @param begin the offset of the expression
+	 * @param end the offset just past the expression
+	 * @param line the line of begin, from 1
+	 * @param column the column of begin, from 0
+	 * @param errorReporter receives syntax errors, or null for this parser's error reporter
+	 * @return the expression, or null if it could not be parsed
+	 */
+	public CFExpression parseCFExpression(CharSequence source, int begin, int end, int line, int column,
+			ANTLRErrorListener errorReporter) throws Exception {
+		return parseCFExpression(new CharSequenceCharStream(source, begin, end), line, column, errorReporter);
+	}
+	
 	public CFExpression parseCFMLExpression(String _infix, ANTLRErrorListener errorReporter) throws Exception {
 		if (errorReporter == null) {
 			errorReporter = this.errorReporter;
 		}
+		final ParseState state = parseState.get();
 
-		final CfmlExpressionContext cachedTree = exprTreeCache.get(_infix);
+		final ExpressionTreeCache cache = exprTreeCache;
+		final CfmlExpressionContext cachedTree = cache == null ? null : cache.get(_infix);
 		if (cachedTree != null) {
-			return expressionVisitor.visit(cachedTree);
+			return state.expressionVisitor.visit(cachedTree);
 		}
 
-		final CharStream input = CharStreams.fromString(_infix);
-		if (lexer == null) {
-			lexer = new CFSCRIPTLexer(input);
-			lexer.removeErrorListeners();
-		} else {
-			lexer.setInputStream(input);
-		}
-		
-		final CommonTokenStream tokens = new CommonTokenStream(lexer);
-		
-		// ScriptBlockContext scriptStatement = null;
-		if (parser == null) {
-			parser = new CFSCRIPTParser(tokens);
-			parser.removeErrorListeners();
-			if (errorReporter == null) {
-				lexer.addErrorListener(this.errorReporter);
-				parser.addErrorListener(this.errorReporter);
-			}
-		} else {
-			parser.setTokenStream(tokens);
-		}
+		final CommonTokenStream tokens = prepare(state, CharStreams.fromString(_infix));
+		final CFSCRIPTLexer lexer = state.lexer;
+		final CFSCRIPTParser parser = state.parser;
 		
-		if (errorReporter != null) {
-			lexer.addErrorListener(errorReporter);
-			parser.addErrorListener(errorReporter);
-		}
+		lexer.addErrorListener(errorReporter);
+		parser.addErrorListener(errorReporter);
 		final SyntaxErrorFlagger errorFlagger = new SyntaxErrorFlagger();
 		lexer.addErrorListener(errorFlagger);
 		parser.addErrorListener(errorFlagger);
-		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
 		parser.reset();
 		CfmlExpressionContext expressionContext = null;
 		try {
-			expressionContext = parser.cfmlExpression(); // Stage 1
+			expressionContext = parseTwoStage("cfmlExpression", parser, tokens, CFSCRIPTParser::cfmlExpression,
+					null);
 			// TestUtils.showGUI(expressionContext, CFSCRIPTParser.ruleNames);
-
-		} catch (Exception e) {
-			tokens.seek(0); // rewind input stream
-			parser.reset();
-			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
-			expressionContext = parser.cfmlExpression(); // STAGE 2
 		} finally {
 			lexer.removeErrorListener(errorFlagger);
 			parser.removeErrorListener(errorFlagger);
-			if (errorReporter != null) {
-				lexer.removeErrorListener(errorReporter);
-				parser.removeErrorListener(errorReporter);
-			}
+			lexer.removeErrorListener(errorReporter);
+			parser.removeErrorListener(errorReporter);
 		}
 		if (expressionContext != null) {
-			if (!errorFlagger.sawSyntaxError) {
-				exprTreeCache.put(_infix, expressionContext);
+			if (cache != null && !errorFlagger.sawSyntaxError) {
+				final int weight = expressionContext.getStop() == null ? 1
+						: expressionContext.getStop().getTokenIndex() + 1;
+				cache.put(_infix, expressionContext, Math.max(1, weight));
 			}
-			return expressionVisitor.visit(expressionContext);
+			return state.expressionVisitor.visit(expressionContext);
 		} else
 			return null;
 	}
@@ -256,74 +341,165 @@ public class CFMLParser {
 		}
 	}
 	
-	int skipToPosition = 0;
-	
+	/**
+	 * Visits an element and everything nested in it: visitElementStart, its expression or script, its children unless
+	 * the visitor's visitChildren says otherwise, then visitElementEnd. The tree is walked with a stack of its own
+	 * rather than by recursion, so however deeply a generated template nests its tags the thread's stack does not
+	 * overflow.
+	 * 
+	 * An unclosed cfscript runs to the next cfscript end tag, and the elements Jericho found inside it are skipped,
+	 * including those of the elements visited next by later calls on the same thread. A caller visiting a whole
+	 * document should use {@link #visit(Source, CFMLVisitor)}, which does not leave that behind for the next one.
+	 * 
+	 * Only what the visitor's {@link CFMLVisitor#getInterest() interest} asks for is reported or parsed.
+	 * 
+	 * @param elem the element
+	 * @param level unused, the nesting level of elem
+	 * @param visitor receives the elements, expressions and scripts, and their errors
+	 */
 	public void visit(final Element elem, final int level, CFMLVisitor visitor) throws Exception {
-		if (skipToPosition > elem.getBegin()) {
-			return;
+		visit(elem, visitor, parseState.get().scriptSkip);
+	}
+	
+	/**
+	 * Visits every element of a document, as {@link #visit(Element, int, CFMLVisitor)} does each. An unclosed cfscript
+	 * skips the elements inside it up to the end of the document, and no further.
+	 * 
+	 * @param source the document
+	 * @param visitor receives the elements, expressions and scripts, and their errors
+	 */
+	public void visit(final Source source, final CFMLVisitor visitor) throws Exception {
+		final ScriptSkip skip = new ScriptSkip();
+		for (Element element : source.getChildElements()) {
+			visit(element, visitor, skip);
+		}
+	}
+	
+	private void visit(final Element elem, final CFMLVisitor visitor, final ScriptSkip skip) throws Exception {
+		final CFMLInterest interest = visitor.getInterest();
+		final ArrayDeque<OpenElement> open = new ArrayDeque<OpenElement>();
+		Element next = elem;
+		while (next != null) {
+			if (skip.toPosition <= next.getBegin()) {
+				skip.toPosition = 0;
+				final boolean reported = interest.wantsTag(next.getName());
+				if (reported) {
+					visitor.visitElementStart(next);
+				}
+				visitContent(next, skip, visitor, interest);
+				List<Element> children = Collections.<Element> emptyList();
+				if (!reported || visitor.visitChildren(next)) {
+					children = next.getChildElements();
+					if (!interest.wantsFunctionBodies() && next.getName().equalsIgnoreCase("cffunction")) {
+						children = functionArguments(children);
+					}
+				}
+				open.push(new OpenElement(next, children, reported));
+			}
+			next = null;
+			while (next == null && !open.isEmpty()) {
+				final OpenElement top = open.peek();
+				if (top.nextChild < top.children.size()) {
+					next = top.children.get(top.nextChild++);
+				} else {
+					open.pop();
+					if (top.reported) {
+						visitor.visitElementEnd(top.element);
+					}
+				}
+			}
+		}
+	}
+	
+	/**
+	 * @return the cfargument elements of a function, which are the part of its children that is not its body
+	 */
+	private static List<Element> functionArguments(final List<Element> children) {
+		final List<Element> arguments = new ArrayList<Element>();
+		for (Element child : children) {
+			if (child.getName().equalsIgnoreCase("cfargument")) {
+				arguments.add(child);
+			}
 		}
-		skipToPosition = 0;
-		visitor.visitElementStart(elem);
+		return arguments;
+	}
+	
+	/**
+	 * The end of the last unclosed cfscript visited. Elements that begin before it are inside the script.
+	 */
+	private static final class ScriptSkip {
+		int toPosition;
+	}
+	
+	/**
+	 * An element of {@link #visit(Element, int, CFMLVisitor)} whose end is still to be visited.
+	 */
+	private static final class OpenElement {
+		final Element element;
+		final List<Element> children;
+		final boolean reported;
+		int nextChild;
+		
+		OpenElement(Element element, List<Element> children, boolean reported) {
+			this.element = element;
+			this.children = children;
+			this.reported = reported;
+		}
+	}
+	
+	/**
+	 * Parses the expression or script of an element, if the visitor is interested, and hands it to the visitor.
+	 */
+	private void visitContent(final Element elem, final ScriptSkip skip, final CFMLVisitor visitor,
+			final CFMLInterest interest) throws Exception {
+		// The expressions are read straight from the document, by offset, rather than out of copies of the tag text.
+		final Source source = elem.getSource();
+		final int elemBegin = elem.getBegin();
+		final int elemEnd = elem.getEnd();
 		if (elem.getName().equalsIgnoreCase("cfset") || elem.getName().equalsIgnoreCase("cfreturn")) {
+			if (!interest.wantsExpression(elem.getName())) {
+				return;
+			}
 			// Dropping the final '>' leaves the slash of a self-closing tag behind, so
 			// <cfset a = 1 /> would otherwise be parsed as the expression "a = 1 /".
 			// An expression can never legitimately end in '/' - division needs a right
 			// operand - so removing a trailing one is safe.
-			String cfscript = elem.toString().substring(elem.getName().length() + 1, elem.toString().length() - 1)
-					.trim();
-			if (cfscript.endsWith("/")) {
-				cfscript = cfscript.substring(0, cfscript.length() - 1).trim();
-			}
-			if (cfscript.length() > 0 && visitor.visitPreParseExpression("TAG", cfscript)) {
-				final CFExpression expression = parseCFExpression(cfscript, visitor);
-				
-				if (expression == null) {
-					throw new NullPointerException("expression is null, parsing error");
-				}
-				visitor.visitExpression("TAG", expression);
+			final int begin = skipWhitespace(source, elemBegin + elem.getName().length() + 1, elemEnd - 1);
+			int end = trimWhitespace(source, begin, elemEnd - 1);
+			if (end > begin && source.charAt(end - 1) == '/') {
+				end = trimWhitespace(source, begin, end - 1);
 			}
+			visitTagExpression(source, begin, end, visitor, interest);
 		} else if (elem.getName().equalsIgnoreCase("cfif") || elem.getName().equalsIgnoreCase("cfelseif")) {
-			// final Pattern p = Pattern.compile("<\\w+\\s(.*[^/])/?>", Pattern.MULTILINE | Pattern.DOTALL);
-			// final String expr = elem.getFirstStartTag().toString();
-			// final Matcher m = p.matcher(expr);
-			// if (m.matches()) {
-			
+			if (!interest.wantsExpression(elem.getName())) {
+				return;
+			}
 			// TODO if LUCEE?
-			// Jericho reports tag positions as absolute offsets into the whole document, but
-			// elem.toString() is indexed from the start of this element. Both have to be made
-			// element-relative before being used as string indices - otherwise the offset is
-			// added twice, reading past the end of the tag (and out of the string entirely once
-			// the element sits far enough into the file).
-			final int elemBegin = elem.getBegin();
-			final int uglyNotPos = elem.toString().lastIndexOf("<>");
-			int endPos = elem.getStartTag().getEnd() - 1 - elemBegin;
+			// Jericho reports tag positions as absolute offsets into the whole document, which is
+			// where the expression is read from. A '>' after the last "<>" in the element, and
+			// before its end tag, is taken to end the start tag, the "<>" being a not-equals
+			// operator that fooled Jericho.
+			final int uglyNotPos = lastIndexOf(source, "<>", elemBegin, elemEnd);
+			int endPos = elem.getStartTag().getEnd() - 1;
 
-			if (uglyNotPos > 0) {
-				final int nextPos = elem.toString().indexOf(">", uglyNotPos + 2);
+			if (uglyNotPos > elemBegin) {
+				final int nextPos = indexOf(source, '>', uglyNotPos + 2, elemEnd);
 				// An unclosed or self-closing tag has no end tag; fall back to the element's own
 				// extent rather than dereferencing null.
-				final int endTagBegin = elem.getEndTag() == null ? elem.toString().length()
-						: elem.getEndTag().getBegin() - elemBegin;
-				if (nextPos > 0 && nextPos < endTagBegin) {
+				final int endTagBegin = elem.getEndTag() == null ? elemEnd : elem.getEndTag().getBegin();
+				if (nextPos > elemBegin && nextPos < endTagBegin) {
 					endPos = nextPos;
 				}
 			}
 
-			final String cfscript = elem.toString().substring(elem.getName().length() + 1, endPos);
-			if (cfscript.length() > 0 && visitor.visitPreParseExpression("TAG", cfscript)) {
-				final CFExpression expression = parseCFExpression(cfscript, visitor);
-				
-				if (expression == null) {
-					throw new NullPointerException("expression is null, parsing error");
-				}
-				visitor.visitExpression("TAG", expression);
-			}
-			// }
+			visitTagExpression(source, elemBegin + elem.getName().length() + 1, endPos, visitor, interest);
 		} else if (elem.getName().equalsIgnoreCase("cfargument")) {
 		} else if (elem.getName().equalsIgnoreCase("cfscript")) {
 			if (elem.getEndTag() != null) {
-				final String cfscript = elem.getContent().toString();
-				visitor.visitScript(parseScript(cfscript));
+				if (interest.wantsScripts()) {
+					final String cfscript = elem.getContent().toString();
+					visitor.visitScript(parseScriptFor(cfscript, interest, visitor));
+				}
 			} else {
 				// Hack to fetch the entire cfscript text, if cfscript is a word in the content somewhere, and causes
 				// the jericho parser to fail
@@ -331,11 +507,14 @@ public class CFMLParser {
 				while (nextTag != null && !nextTag.getName().equalsIgnoreCase(elem.getName())) {
 					nextTag = elem.getSource().getNextEndTag(nextTag.getEnd());
 				}
-				if (nextTag.getName().equalsIgnoreCase(elem.getName())) {
-					final String cfscript = elem.getSource().subSequence(elem.getStartTag().getEnd(), nextTag.getBegin())
-							.toString();
-					visitor.visitScript(parseScript(cfscript));
-					skipToPosition = nextTag.getEnd();
+				if (nextTag != null) {
+					if (interest.wantsScripts()) {
+						final String cfscript = elem.getSource()
+								.subSequence(elem.getStartTag().getEnd(), nextTag.getBegin()).toString();
+						visitor.visitScript(parseScriptFor(cfscript, interest, visitor));
+					}
+					// skipped whether or not the script is wanted, as what Jericho found in it is not markup
+					skip.toPosition = nextTag.getEnd();
 				}
 			}
 		} else if (elem.getName().equalsIgnoreCase("cffunction")) {
@@ -344,24 +523,186 @@ public class CFMLParser {
 		} else if (elem.getName().equalsIgnoreCase("cfqueryparam")) {
 		} else {
 		}
-		for (Element child : elem.getChildElements()) {
-			visit(child, level + 1, visitor);
+	}
+	
+	/**
+	 * Parses the expression of a tag, from begin to end in the document, and hands it to the visitor. The expression
+	 * has the offsets, lines and columns it has in the document.
+	 */
+	private void visitTagExpression(final Source source, final int begin, final int end, final CFMLVisitor visitor,
+			final CFMLInterest interest) throws Exception {
+		if (end <= begin) {
+			return;
+		}
+		final boolean parse = interest.wantsPreParseText()
+				? visitor.visitPreParseExpression("TAG", source.subSequence(begin, end).toString())
+				: visitor.visitPreParseExpression("TAG", source, begin, end);
+		if (parse) {
+			final RowColumnVector position = source.getRowColumnVector(begin);
+			final CFExpression expression = parseCFExpression(source, begin, end, position.getRow(),
+					position.getColumn() - 1, visitor);
+			
+			if (expression == null) {
+				throw new NullPointerException("expression is null, parsing error");
+			}
+			visitor.visitExpression("TAG", expression);
+		}
+	}
+	
+	/**
+	 * @return the offset of the first char from begin on that is not whitespace, as String.trim() has it, or end
+	 */
+	private static int skipWhitespace(final CharSequence source, int begin, final int end) {
+		while (begin < end && source.charAt(begin) <= ' ') {
+			begin++;
 		}
-		visitor.visitElementEnd(elem);
+		return begin;
 	}
 	
-	private static String readFileAsString(String filePath) throws java.io.IOException {
-		StringBuffer fileData = new StringBuffer(1000);
-		BufferedReader reader = new BufferedReader(new FileReader(filePath));
-		char[] buf = new char[1024];
-		int numRead = 0;
-		while ((numRead = reader.read(buf)) != -1) {
-			String readData = String.valueOf(buf, 0, numRead);
-			fileData.append(readData);
-			buf = new char[1024];
+	/**
+	 * @return end, less the whitespace before it, as String.trim() has it
+	 */
+	private static int trimWhitespace(final CharSequence source, final int begin, int end) {
+		while (end > begin && source.charAt(end - 1) <= ' ') {
+			end--;
+		}
+		return end;
+	}
+	
+	/**
+	 * @return the offset of the last occurrence of text that lies between begin and end, or -1
+	 */
+	private static int lastIndexOf(final CharSequence source, final String text, final int begin, final int end) {
+		for (int i = end - text.length(); i >= begin; i--) {
+			int j = 0;
+			while (j < text.length() && source.charAt(i + j) == text.charAt(j)) {
+				j++;
+			}
+			if (j == text.length()) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * @return the offset of the first c from begin on, before end, or -1
+	 */
+	private static int indexOf(final CharSequence source, final char c, final int begin, final int end) {
+		for (int i = begin; i < end; i++) {
+			if (source.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+	
+	/**
+	 * Visits the expressions and cfscript blocks of a CFML document the way {@link #visit(Element, int, CFMLVisitor)}
+	 * does, but from the {@link #setTagScanner(CFMLTagScanner) tag scanner} instead of a {@link CFMLSource}. No
+	 * Jericho source is built, so memory use depends on the largest expression or script rather than on the size of
+	 * the document, which suits very large generated templates.
+	 * 
+	 * There are no Jericho elements, so the visitor's visitElementStart and visitElementEnd are not called; a visitor
+	 * that needs the tags themselves should use a {@link CFMLScanHandler} directly.
+	 * 
+	 * Expressions and scripts the visitor's {@link CFMLVisitor#getInterest() interest} leaves out are passed over
+	 * without being copied out of the document.
+	 * 
+	 * @param source the document
+	 * @param visitor receives the parsed expressions and scripts, and their errors
+	 * @throws Exception as {@link #visit(Element, int, CFMLVisitor)}
+	 */
+	public void scan(final CharSequence source, final CFMLVisitor visitor) throws Exception {
+		tagScanner.scan(source, new VisitorScanHandler(visitor));
+	}
+	
+	/**
+	 * Like {@link #scan(CharSequence, CFMLVisitor)}, reading the file through {@link CFMLFileReader} so that its
+	 * contents are never copied into a String.
+	 * 
+	 * @param file the document
+	 * @param visitor receives the parsed expressions and scripts, and their errors
+	 * @throws Exception if the file cannot be read, or as {@link #visit(Element, int, CFMLVisitor)}
+	 */
+	public void scan(final Path file, final CFMLVisitor visitor) throws Exception {
+		CFMLFileReader.read(file, Charset.defaultCharset(), chars -> scan(chars, visitor));
+	}
+	
+	private final class VisitorScanHandler extends CFMLScanHandler {
+		
+		private final CFMLVisitor visitor;
+		private final CFMLInterest interest;
+		/** the name of the start tag being scanned */
+		private int tagBegin;
+		private int tagEnd;
+		/** how many cffunction tags are open, when function bodies are not wanted */
+		private int functionDepth;
+		
+		VisitorScanHandler(CFMLVisitor visitor) {
+			this.visitor = visitor;
+			this.interest = visitor.getInterest();
+		}
+		
+		private boolean isFunction(CharSequence source, int nameBegin, int nameEnd) {
+			if (interest.wantsFunctionBodies() || nameEnd - nameBegin != "cffunction".length()) {
+				return false;
+			}
+			for (int i = 0; i < "cffunction".length(); i++) {
+				if (Character.toLowerCase(source.charAt(nameBegin + i)) != "cffunction".charAt(i)) {
+					return false;
+				}
+			}
+			return true;
+		}
+		
+		@Override
+		public void startTag(CharSequence source, int begin, int nameEnd) throws Exception {
+			tagBegin = begin + 1;
+			tagEnd = nameEnd;
+		}
+		
+		@Override
+		public void startTagEnd(CharSequence source, int begin, int end, boolean selfClosing) throws Exception {
+			if (!selfClosing && isFunction(source, tagBegin, tagEnd)) {
+				functionDepth++;
+			}
+		}
+		
+		@Override
+		public void endTag(CharSequence source, int begin, int nameEnd, int end) throws Exception {
+			if (functionDepth > 0 && isFunction(source, begin + 2, nameEnd)) {
+				functionDepth--;
+			}
 		}
-		reader.close();
-		return fileData.toString();
+		
+		@Override
+		public void expression(CharSequence source, int begin, int end) throws Exception {
+			if (functionDepth > 0 || !interest.wantsExpression(source, tagBegin, tagEnd)) {
+				return;
+			}
+			final String cfscript = source.subSequence(begin, end).toString().trim();
+			if (cfscript.length() > 0 && visitor.visitPreParseExpression("TAG", cfscript)) {
+				final CFExpression expression = parseCFExpression(cfscript, visitor);
+				
+				if (expression == null) {
+					throw new NullPointerException("expression is null, parsing error");
+				}
+				visitor.visitExpression("TAG", expression);
+			}
+		}
+		
+		@Override
+		public void script(CharSequence source, int begin, int end) throws Exception {
+			if (functionDepth > 0 || !interest.wantsScripts()) {
+				return;
+			}
+			visitor.visitScript(parseScriptFor(source.subSequence(begin, end).toString(), interest, visitor));
+		}
+	}
+	
+	private static String readFileAsString(String filePath) throws java.io.IOException {
+		return CFMLFileReader.readString(Paths.get(filePath));
 	}
 	
 	public CFMLParser() {
@@ -370,6 +711,7 @@ public class CFMLParser {
 		if (cfdic == null) {
 			throw new IllegalArgumentException("The syntax dictionary could not be loaded!");
 		}
+		cfdicVersion = fDictPrefs.getCFDictionary();
 	}
 	
 	public CFMLParser(String dictionariesPath, String dictionary) {
@@ -380,15 +722,18 @@ public class CFMLParser {
 		if (cfdic == null) {
 			throw new IllegalArgumentException("The syntax dictionary could not be loaded!");
 		}
+		cfdicVersion = dictionary;
 	}
 	
 	/**
-	 * Initialises the dictionary
+	 * Initialises the dictionary. Having no version key, it is told apart from others in the parse cache by identity,
+	 * so results parsed with it are only found again in this process.
 	 * 
 	 * @param newDict the dictionary to init with
 	 */
 	public void setDictionary(SyntaxDictionary newDict) {
 		cfdic = newDict;
+		cfdicVersion = newDict.getClass().getName() + '@' + Integer.toHexString(System.identityHashCode(newDict));
 	}
 	
 	/**
@@ -399,6 +744,13 @@ public class CFMLParser {
 		return cfdic;
 	}
 	
+	/**
+	 * @return what the parse cache tells the dictionary by
+	 */
+	String getDictionaryVersion() {
+		return cfdicVersion;
+	}
+	
 	public void addDictionary(String dictionary) {
 	}
 	
@@ -412,6 +764,10 @@ public class CFMLParser {
 		return addCFMLSource(cfmlsource.getPath(), readFileAsString(cfmlsource.getPath()));
 	}
 	
+	/**
+	 * Reads the source through Jericho, which works out its encoding from the stream as it always has; files are read
+	 * through {@link CFMLFileReader} only by the entry points that take a path.
+	 */
 	public CFMLSource addCFMLSource(URL url) throws IOException {
 		CFMLSource source = new CFMLSource(url);
 		fCfmlSources.put(url.getPath(), source);
@@ -475,7 +831,9 @@ public class CFMLParser {
 				hadFatal = true;
 		}
 		
-		messages.add(newMsg);
+		synchronized (messages) {
+			messages.add(newMsg);
+		}
 	}
 	
 	/**
@@ -493,18 +851,28 @@ public class CFMLParser {
 				if (((ParseError) currMsg).isFatal())
 					hadFatal = true;
 			}
-			messages.add(currMsg);
+			synchronized (messages) {
+				messages.add(currMsg);
+			}
 		}
 	}
 	
+	/**
+	 * Messages are added from whichever thread hit them. Callers reading the list while other threads
+	 * are still parsing must synchronize on it.
+	 * 
+	 * @return the messages reported so far
+	 */
 	public ArrayList<ParseMessage> getMessages() {
 		return messages;
 	}
 	
 	public String printMessages() {
 		String messagesText = "";
-		for (ParseMessage message : messages) {
-			messagesText = messagesText + message.toString() + "\n";
+		synchronized (messages) {
+			for (ParseMessage message : messages) {
+				messagesText = messagesText + message.toString() + "\n";
+			}
 		}
 		return messagesText;
 	}
@@ -623,19 +991,222 @@ public class CFMLParser {
 	}
 	
 	public CFScriptStatement parseScriptFile(String file) throws ParseException, IOException {
-		return parseScript(readFileAsString(file));
+		final ParseState state = parseState.get();
+		final String previous = state.file;
+		state.file = file;
+		try {
+			return parseScript(readFileAsString(file));
+		} finally {
+			state.file = previous;
+		}
 	}
 	
 	public CFScriptStatement parseScript(String cfscript) throws ParseException, IOException {
+		return parseScript(cfscript, null);
+	}
+	
+	/**
+	 * Parses a block of cfscript, reporting syntax errors to the given listener rather than this parser's error
+	 * reporter. Lets callers parsing several files at once keep each file's errors apart.
+	 * 
+	 * @param cfscript the script to parse
+	 * @param errorReporter listener for syntax errors, or null to use this parser's error reporter
+	 * @return the parsed statement, or null if nothing was parsed
+	 */
+	public CFScriptStatement parseScript(String cfscript, ANTLRErrorListener errorReporter)
+			throws ParseException, IOException {
+		final ParseCache cache = parseCache;
+		if (cache == null) {
+			return parseScriptUncached(cfscript, errorReporter);
+		}
+		if (errorReporter == null) {
+			errorReporter = this.errorReporter;
+		}
+		final String dictionary = cfdicVersion;
+		final CachedParse cached = cache.get(ParseCache.KIND_SCRIPT, dictionary, cfscript);
+		if (cached != null) {
+			// Report the errors the original parse did, so a hit looks the same to the caller as a parse.
+			for (ParseMessage message : cached.getMessages()) {
+				errorReporter.syntaxError(null, null, message.getLineNumber(), message.getColumn(),
+						message.getMessage(), null);
+			}
+			return cached.getScripts().isEmpty() ? null : cached.getScripts().get(0);
+		}
+		final MessageRecorder recorder = new MessageRecorder(errorReporter);
+		final CFScriptStatement result = parseScriptUncached(cfscript, recorder);
+		cache.put(ParseCache.KIND_SCRIPT, dictionary, cfscript,
+				new CachedParse(result == null ? Collections.<CFScriptStatement> emptyList()
+						: Collections.singletonList(result), Collections.<CFExpression> emptyList(), recorder.messages));
+		return result;
+	}
+	
+	/**
+	 * Parses a block of cfscript into a {@link CompactTree} rather than statements, for callers that hold the trees of
+	 * many files at once. The statements and the token stream are garbage once the tree is built, unless the parse
+	 * cache keeps the statements.
+	 * 
+	 * @param cfscript the script to parse
+	 * @param errorReporter listener for syntax errors, or null to use this parser's error reporter
+	 * @return the tree, or null if nothing was parsed
+	 */
+	public CompactTree parseScriptCompact(String cfscript, ANTLRErrorListener errorReporter)
+			throws ParseException, IOException {
+		return CompactTree.of(parseScript(cfscript, errorReporter));
+	}
+	
+	CFScriptStatement parseScriptUncached(String cfscript, ANTLRErrorListener errorReporter)
+			throws ParseException, IOException {
 		CommonTokenStream tokens = createTokenStream(cfscript);
-		ScriptBlockContext scriptBlockContext = parseScriptBlockContext(tokens);
-		CFScriptStatement result = scriptVisitor.visit(scriptBlockContext);
-		if (result != null)
+		final DetachableTokenFactory factory = detachableTokens(tokens);
+		ScriptBlockContext scriptBlockContext = parseScriptBlockContext(tokens, errorReporter);
+		CFScriptStatement result = parseState.get().scriptVisitor.visit(scriptBlockContext);
+		if (factory != null)
+			factory.detach();
+		else if (result != null)
 			result.setTokens(tokens);
 		return result;
 		
 	}
 	
+	/**
+	 * Has the lexer of the tokens make detachable ones, if trees are to be detached. Must come before any token is
+	 * read.
+	 * 
+	 * @return the factory to detach the tokens with once the statements are built, or null
+	 */
+	private DetachableTokenFactory detachableTokens(final CommonTokenStream tokens) {
+		if (!detachedTrees) {
+			return null;
+		}
+		final DetachableTokenFactory factory = new DetachableTokenFactory();
+		((Lexer) tokens.getTokenSource()).setTokenFactory(factory);
+		return factory;
+	}
+	
+	/**
+	 * Parses a script for its outline: the component, its properties and the signatures of its functions. The bodies
+	 * of named function declarations are not parsed with the rest; each is parsed, on its own, when
+	 * {@link cfml.parsing.cfscript.script.CFFuncDeclStatement#getBody()} is first called, with its errors reported
+	 * then. The tokens the result holds have the bodies on a channel of their own.
+	 * 
+	 * Telling where the bodies are is done on the tokens, and can go wrong where the parser would not. A script the
+	 * skeleton does not parse cleanly is parsed in full instead, as is one holding characters outside the basic
+	 * multilingual plane, whose token indexes do not line up with the offsets of its text. Skeletons are not cached.
+	 * 
+	 * @param cfscript the script to parse
+	 * @param errorReporter listener for syntax errors, or null to use this parser's error reporter
+	 * @return the parsed statement, or null if nothing was parsed
+	 */
+	public CFScriptStatement parseScriptSkeleton(String cfscript, ANTLRErrorListener errorReporter)
+			throws ParseException, IOException {
+		if (errorReporter == null) {
+			errorReporter = this.errorReporter;
+		}
+		if (cfscript.length() != cfscript.codePointCount(0, cfscript.length())) {
+			return parseScriptUncached(cfscript, errorReporter);
+		}
+		final CommonTokenStream tokens = createTokenStream(cfscript);
+		final DetachableTokenFactory factory = detachableTokens(tokens);
+		tokens.fill();
+		final Map<Integer, Token> bodies = FunctionBodies.hide(tokens.getTokens());
+		if (bodies.isEmpty()) {
+			return parseScriptUncached(cfscript, errorReporter);
+		}
+		final SyntaxErrorFlagger errorFlagger = new SyntaxErrorFlagger();
+		final ScriptBlockContext scriptBlockContext = parseScriptBlockContext(tokens, errorFlagger);
+		if (scriptBlockContext == null || errorFlagger.sawSyntaxError) {
+			return parseScriptUncached(cfscript, errorReporter);
+		}
+		final ANTLRErrorListener reporter = errorReporter;
+		final CFScriptStatement result = new CFScriptStatementVisitor(body -> {
+			// the body is parsed from its tokens alone, so that waiting on it does not pin the parse tree
+			final Token open = body.getStart();
+			final Token close = bodies.get(open.getTokenIndex());
+			return close == null ? null : () -> parseFunctionBody(cfscript, open, close, reporter);
+		}).visit(scriptBlockContext);
+		if (factory != null)
+			factory.detach();
+		else if (result != null)
+			result.setTokens(tokens);
+		return result;
+	}
+	
+	/**
+	 * Parses a script for a visitor, in full or, if it has no interest in function bodies, as a skeleton. Syntax errors
+	 * go to the visitor, as those of tag expressions do.
+	 */
+	private CFScriptStatement parseScriptFor(final String cfscript, final CFMLInterest interest,
+			final CFMLVisitor visitor) throws ParseException, IOException {
+		return interest.wantsFunctionBodies() ? parseScript(cfscript, visitor) : parseScriptSkeleton(cfscript, visitor);
+	}
+	
+	/**
+	 * Parses a function body the skeleton parse left out, where it sits in the script, so its positions are the same
+	 * as a full parse would have given it.
+	 */
+	private CFScriptStatement parseFunctionBody(final String cfscript, final Token open, final Token close,
+			final ANTLRErrorListener errorReporter) {
+		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(
+				new CharSequenceCharStream(cfscript, open.getStartIndex(), close.getStopIndex() + 1));
+		lexer.removeErrorListeners();
+		lexer.setLine(open.getLine());
+		lexer.setCharPositionInLine(open.getCharPositionInLine());
+		final CommonTokenStream tokens = new CommonTokenStream(lexer);
+		final DetachableTokenFactory factory = detachableTokens(tokens);
+		final CFSCRIPTParser parser = new CFSCRIPTParser(tokens);
+		parser.removeErrorListeners();
+		parser.setErrorHandler(new BailErrorStrategy());
+		final CompoundStatementContext body = parseTwoStage("compoundStatement", parser, tokens,
+				CFSCRIPTParser::compoundStatement, () -> {
+					parser.addErrorListener(errorReporter);
+					parser.setErrorHandler(new DefaultErrorStrategy());
+				});
+		final CFScriptStatement result = body == null ? null : new CFScriptStatementVisitor().visit(body);
+		if (factory != null)
+			factory.detach();
+		return result;
+	}
+	
+	/**
+	 * Passes everything on to another listener, keeping a copy of the syntax errors for the parse cache.
+	 */
+	static final class MessageRecorder implements ANTLRErrorListener {
+		
+		final ANTLRErrorListener delegate;
+		final List<ParseMessage> messages = new ArrayList<ParseMessage>();
+		
+		MessageRecorder(ANTLRErrorListener delegate) {
+			this.delegate = delegate;
+		}
+		
+		@Override
+		public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+				String msg, RecognitionException e) {
+			final ParseError error = new ParseError(line, charPositionInLine, charPositionInLine, msg, msg);
+			error.setColumn(charPositionInLine);
+			messages.add(error);
+			delegate.syntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, e);
+		}
+		
+		@Override
+		public void reportAmbiguity(Parser recognizer, DFA dfa, int startIndex, int stopIndex, boolean exact,
+				BitSet ambigAlts, ATNConfigSet configs) {
+			delegate.reportAmbiguity(recognizer, dfa, startIndex, stopIndex, exact, ambigAlts, configs);
+		}
+		
+		@Override
+		public void reportAttemptingFullContext(Parser recognizer, DFA dfa, int startIndex, int stopIndex,
+				BitSet conflictingAlts, ATNConfigSet configs) {
+			delegate.reportAttemptingFullContext(recognizer, dfa, startIndex, stopIndex, conflictingAlts, configs);
+		}
+		
+		@Override
+		public void reportContextSensitivity(Parser recognizer, DFA dfa, int startIndex, int stopIndex, int prediction,
+				ATNConfigSet configs) {
+			delegate.reportContextSensitivity(recognizer, dfa, startIndex, stopIndex, prediction, configs);
+		}
+	}
+	
 	public CommonTokenStream createTokenStream(String cfscript) throws ParseException, IOException {
 		final CharStream input = CharStreams.fromString(cfscript);
 		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(input);
@@ -649,7 +1220,14 @@ public class CFMLParser {
 	}
 	
 	public ScriptBlockContext parseScriptBlockContext(final CommonTokenStream tokens) throws ParseException, IOException {
-		
+		return parseScriptBlockContext(tokens, null);
+	}
+	
+	public ScriptBlockContext parseScriptBlockContext(final CommonTokenStream tokens, ANTLRErrorListener errorReporter)
+			throws ParseException, IOException {
+		if (errorReporter == null) {
+			errorReporter = this.errorReporter;
+		}
 		ScriptBlockContext scriptStatement = null;
 		CFSCRIPTParser parser = new CFSCRIPTParser(tokens);
 		parser.removeErrorListeners();
@@ -659,26 +1237,86 @@ public class CFMLParser {
 		}
 		parser.reset();
 		// parser.addErrorListener(errorReporter);
-		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
 		parser.setErrorHandler(new BailErrorStrategy());
+		final ANTLRErrorListener reporter = errorReporter;
+		// SLL bails on the first error, LL reports them and recovers
+		scriptStatement = parseTwoStage("scriptBlock", parser, tokens, CFSCRIPTParser::scriptBlock, () -> {
+			parser.addErrorListener(reporter);
+			parser.setErrorHandler(new DefaultErrorStrategy());
+		});
+		// TestUtils.showGUI(scriptStatement, CFSCRIPTParser.ruleNames);
+		return scriptStatement;
+	}
+	
+	/**
+	 * Runs a parser rule in SLL mode and, should that throw, again from the start of the input in full LL mode. Both
+	 * stages are counted in the prediction stats. With adaptive prediction on, an input it expects to fail in SLL
+	 * goes straight to LL.
+	 * 
+	 * @param rule the rule name, for the stats
+	 * @param parser a parser that has been reset
+	 * @param tokens the parser's token stream
+	 * @param start runs the rule
+	 * @param toLL prepares the parser for the LL stage, or null if there is nothing to do
+	 * @return what the rule returned
+	 */
+	private <T> T parseTwoStage(final String rule, final CFSCRIPTParser parser, final CommonTokenStream tokens,
+			final Function<CFSCRIPTParser, T> start, final Runnable toLL) {
+		final PredictionStats stats = predictionStats;
+		final AdaptivePrediction adaptive = adaptivePrediction;
+		final String file = parseState.get().file;
+		final BitSet signature = adaptive == null ? null : adaptive.signature(tokens);
+		
+		if (adaptive != null && adaptive.prefersLL(rule, file, signature)) {
+			if (toLL != null) {
+				toLL.run();
+			}
+			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+			final long begin = System.nanoTime();
+			try {
+				return start.apply(parser);
+			} finally {
+				if (stats != null) {
+					stats.recordLL(rule, file, System.nanoTime() - begin);
+				}
+			}
+		}
+		
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		final long begin = System.nanoTime();
 		try {
-			scriptStatement = parser.scriptBlock();
-			
+			final T result = start.apply(parser); // Stage 1
+			if (stats != null) {
+				stats.recordSLL(rule, file, System.nanoTime() - begin);
+			}
+			if (adaptive != null) {
+				adaptive.learn(rule, file, signature, false);
+			}
+			return result;
 		} catch (Exception e) {
 			/*
 			 * throw new ParseException(e.getOffendingToken(), "Unexpected \'" +
 			 * parser.getTokenErrorDisplay(e.getOffendingToken()) + "\' (" + e.getOffendingToken().getText() + ")");
 			 */
+			final long sllNanos = System.nanoTime() - begin;
+			if (adaptive != null) {
+				adaptive.learn(rule, file, signature, true);
+			}
 			tokens.seek(0); // rewind input stream
 			parser.reset();
-			parser.addErrorListener(errorReporter);
-			
-			parser.setErrorHandler(new DefaultErrorStrategy());
+			if (toLL != null) {
+				toLL.run();
+			}
 			parser.getInterpreter().setPredictionMode(PredictionMode.LL);
-			scriptStatement = parser.scriptBlock(); // STAGE 2
+			final long llBegin = System.nanoTime();
+			try {
+				return start.apply(parser); // STAGE 2
+			} finally {
+				if (stats != null) {
+					stats.recordFallback(rule, file, sllNanos, System.nanoTime() - llBegin);
+				}
+			}
 		}
-		// TestUtils.showGUI(scriptStatement, CFSCRIPTParser.ruleNames);
-		return scriptStatement;
 	}
 	
 	public void parse() {
@@ -693,12 +1331,103 @@ public class CFMLParser {
 		return cfmlSource;
 	}
 	
+	/**
+	 * Sets a persistent cache for {@link #parseScript(String)} results, or null (the default) for none. Statements
+	 * read back from the cache have no token stream.
+	 * 
+	 * @param parseCache the cache to use
+	 */
+	public void setParseCache(ParseCache parseCache) {
+		this.parseCache = parseCache;
+	}
+	
+	public ParseCache getParseCache() {
+		return parseCache;
+	}
+	
+	/**
+	 * Sets the expression parse tree cache used by {@link #parseCFMLExpression(String, ANTLRErrorListener)}, or null to
+	 * cache nothing. Parsers share {@link ExpressionTreeCache#shared()} by default.
+	 * 
+	 * @param exprTreeCache the cache to use
+	 */
+	public void setExpressionTreeCache(ExpressionTreeCache exprTreeCache) {
+		this.exprTreeCache = exprTreeCache;
+	}
+	
+	public ExpressionTreeCache getExpressionTreeCache() {
+		return exprTreeCache;
+	}
+	
+	/**
+	 * Sets the stats the SLL and LL stages of every parse are counted in, or null (the default) to count nothing.
+	 * 
+	 * @param predictionStats the stats to count in
+	 */
+	public void setPredictionStats(PredictionStats predictionStats) {
+		this.predictionStats = predictionStats;
+	}
+	
+	public PredictionStats getPredictionStats() {
+		return predictionStats;
+	}
+	
+	/**
+	 * Sets what learns which inputs to parse straight in LL mode, or null (the default) to always try SLL first.
+	 * Parsers may share one.
+	 * 
+	 * @param adaptivePrediction the learner to use
+	 */
+	public void setAdaptivePrediction(AdaptivePrediction adaptivePrediction) {
+		this.adaptivePrediction = adaptivePrediction;
+	}
+	
+	public AdaptivePrediction getAdaptivePrediction() {
+		return adaptivePrediction;
+	}
+	
+	/**
+	 * Sets the front end of {@link #scan(CharSequence, CFMLVisitor)}: a {@link CFMLTagScanner} (the default) or a
+	 * {@link cfml.parsing.cfml.CFMLGrammarScanner}. Scanners have no state, so parsers may share one.
+	 * 
+	 * @param tagScanner the scanner to use
+	 */
+	public void setTagScanner(CFMLTagScanner tagScanner) {
+		this.tagScanner = tagScanner;
+	}
+	
+	public CFMLTagScanner getTagScanner() {
+		return tagScanner;
+	}
+	
+	/**
+	 * Sets whether parsed scripts are detached from what they were parsed from (off by default). A detached statement
+	 * keeps its tokens, with their text and positions, but they no longer refer to the lexer or the input, and
+	 * {@link CFScriptStatement#getTokens()} is null, as it is for statements read back from the parse cache. The token
+	 * stream, lexer, input and parse tree are then garbage as soon as the parse returns, which matters to callers that
+	 * keep the statements of many files. Function bodies a skeleton parse leaves out are detached when they are parsed,
+	 * if trees are still detached then.
+	 * 
+	 * @param detachedTrees true to detach
+	 */
+	public void setDetachedTrees(boolean detachedTrees) {
+		this.detachedTrees = detachedTrees;
+	}
+	
+	public boolean isDetachedTrees() {
+		return detachedTrees;
+	}
+	
 	public void setErrorReporter(IErrorReporter errorReporter) {
 		this.errorReporter = errorReporter;
 	}
 	
+	/**
+	 * Clears the calling thread's visitor state.
+	 */
 	public void reset() {
-		expressionVisitor.clear();
-		scriptVisitor.clear();
+		final ParseState state = parseState.get();
+		state.expressionVisitor.clear();
+		state.scriptVisitor.clear();
 	}
 }
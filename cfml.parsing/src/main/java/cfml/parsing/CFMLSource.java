@@ -6,6 +6,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import cfml.parsing.cfmentat.tag.CFMLTagRegistry;
 import cfml.parsing.cfmentat.tag.CFMLTags;
 import cfml.parsing.preferences.ParserPreferences;
 import net.htmlparser.jericho.Element;
@@ -24,6 +25,7 @@ import net.htmlparser.jericho.Tag;
 public class CFMLSource implements Logger {
 	
 	private Source fSource;
+	private final CFMLTagRegistry fTags;
 	private List<String> messages = new ArrayList<String>();
 	
 	/**
@@ -32,15 +34,10 @@ public class CFMLSource implements Logger {
 	 * @param contents The contents to initialize the source.
 	 */
 	public CFMLSource(String contents) {
-		CFMLTags.register();
-		if (contents != null && contents.contains("<!---")) {
-			fSource = new Source(contents);
-		} else {
-			fSource = new Source(contents);
-		}
+		fTags = CFMLTags.register();
+		fSource = CFMLTags.newSource(contents, this);
 		// fSource.ignoreWhenParsing(fSource.getAllElements(CFMLTags.CFML_CONTENT));
 		// fSource.ignoreWhenParsing(fSource.getAllElements(CFMLTags.CFML_COMMENT));
-		fSource.setLogger(this);
 	}
 	
 	/**
@@ -50,10 +47,9 @@ public class CFMLSource implements Logger {
 	 * @param prefs The parser preferences to use.
 	 */
 	public CFMLSource(String contents, ParserPreferences prefs) {
-		CFMLTags.register(prefs);
-		fSource = new Source(contents);
+		fTags = CFMLTags.register(prefs);
+		fSource = CFMLTags.newSource(contents, this);
 		// fSource.ignoreWhenParsing(fSource.getAllElements(CFMLTags.CFML_CONTENT));
-		fSource.setLogger(this);
 	}
 	
 	/**
@@ -63,10 +59,9 @@ public class CFMLSource implements Logger {
 	 * @throws IOException If an error occurs while reading the URL.
 	 */
 	public CFMLSource(URL url) throws IOException {
-		CFMLTags.register();
-		fSource = new Source(url);
+		fTags = CFMLTags.register();
+		fSource = CFMLTags.newSource(url, this);
 		// fSource.ignoreWhenParsing(fSource.getAllElements(CFMLTags.CFML_CONTENT));
-		fSource.setLogger(this);
 	}
 	
 	/**
@@ -77,10 +72,9 @@ public class CFMLSource implements Logger {
 	 * @throws IOException If an error occurs while reading the URL.
 	 */
 	public CFMLSource(URL url, ParserPreferences prefs) throws IOException {
-		CFMLTags.register(prefs);
-		fSource = new Source(url);
+		fTags = CFMLTags.register(prefs);
+		fSource = CFMLTags.newSource(url, this);
 		// fSource.ignoreWhenParsing(fSource.getAllElements(CFMLTags.CFML_CONTENT));
-		fSource.setLogger(this);
 	}
 	
 	/**
@@ -154,6 +148,15 @@ public class CFMLSource implements Logger {
 		return fSource.getRow(begin);
 	}
 	
+	/**
+	 * Gets the tags of the dictionary this source was parsed with.
+	 *
+	 * @return The tag registry of the CF dictionary.
+	 */
+	public CFMLTagRegistry getTagRegistry() {
+		return fTags;
+	}
+	
 	public List<StartTag> getAllCFMLTags() {
 		// return fSource.getAllStartTags("cf");
 		return getTagsByName("cf");
@@ -0,0 +1,773 @@
+package cfml.parsing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Recognizer;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.ATNConfig;
+import org.antlr.v4.runtime.atn.ATNConfigSet;
+import org.antlr.v4.runtime.atn.ATNSimulator;
+import org.antlr.v4.runtime.atn.ATNState;
+import org.antlr.v4.runtime.atn.ArrayPredictionContext;
+import org.antlr.v4.runtime.atn.DecisionState;
+import org.antlr.v4.runtime.atn.LexerATNConfig;
+import org.antlr.v4.runtime.atn.LexerAction;
+import org.antlr.v4.runtime.atn.LexerActionExecutor;
+import org.antlr.v4.runtime.atn.LexerIndexedCustomAction;
+import org.antlr.v4.runtime.atn.OrderedATNConfigSet;
+import org.antlr.v4.runtime.atn.PredictionContext;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.atn.SemanticContext;
+import org.antlr.v4.runtime.atn.SingletonPredictionContext;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.dfa.DFAState;
+
+import cfml.CFSCRIPTLexer;
+import cfml.CFSCRIPTParser;
+import cfml.parsing.cfml.CFMLVisitor;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.util.CFMLFileReader;
+import net.htmlparser.jericho.Element;
+
+/**
+ * Saves the DFA caches of the cfscript lexer and parser, and loads them back into another process.
+ *
+ * ANTLR fills the DFA of each decision as it parses, so the first files a process parses run mostly on the much slower
+ * ATN simulation. The build trains the DFA on a corpus of CFML and bundles the result as {@value #RESOURCE}, which is
+ * loaded when {@link CFMLParser} is first used, so that short-lived processes like the command line start warm:
+ *
+ * <pre>
+ * java cfml.parsing.DFASnapshot &lt;corpus dir&gt; &lt;output file&gt;
+ * </pre>
+ *
+ * A snapshot only fits the grammar it was made from, which is checked when it is loaded; one that does not fit is
+ * ignored. States are only loaded into decisions whose DFA is still empty, so loading never disturbs a DFA that
+ * parsing has already started to fill.
+ */
+public final class DFASnapshot {
+
+	/** where the build puts the snapshot on the classpath */
+	public static final String RESOURCE = "cfml/parsing/cfscript.dfa";
+
+	private static final int MAGIC = 0x43464446;
+	private static final int VERSION = 1;
+
+	private static final int EMPTY = 0;
+	private static final int SINGLETON = 1;
+	private static final int ARRAY = 2;
+
+	private static final int NONE = 0;
+	private static final int PREDICATE = 1;
+	private static final int PRECEDENCE = 2;
+	private static final int AND = 3;
+	private static final int OR = 4;
+
+	private static final int INDEXED_ACTION = -1;
+
+	private static final int NO_STATE = -1;
+	private static final int ERROR_STATE = -2;
+
+	private static final Pattern CFML_TAG = Pattern.compile("<cf[a-z]", Pattern.CASE_INSENSITIVE);
+
+	private DFASnapshot() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		if (args.length != 2) {
+			throw new IllegalArgumentException("usage: DFASnapshot <corpus dir> <output file>");
+		}
+		final Path output = Paths.get(args[1]);
+		final CFMLParser parser = new CFMLParser();
+		parser.setExpressionTreeCache(null);
+		// start from nothing rather than from the snapshot of an earlier build
+		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(CharStreams.fromString(""));
+		lexer.getInterpreter().clearDFA();
+		new CFSCRIPTParser(new CommonTokenStream(lexer)).getInterpreter().clearDFA();
+		train(parser, Paths.get(args[0]));
+		if (output.getParent() != null) {
+			Files.createDirectories(output.getParent());
+		}
+		try (OutputStream out = Files.newOutputStream(output)) {
+			write(out);
+		}
+	}
+
+	/**
+	 * Parses every CFML file under the directory, to fill the DFA. Files that do not parse still count, as far as they
+	 * got.
+	 */
+	static void train(CFMLParser parser, Path corpus) throws IOException {
+		final List<Path> files;
+		try (Stream<Path> walk = Files.walk(corpus)) {
+			files = walk.filter(DFASnapshot::isCFML).sorted().collect(Collectors.toList());
+		}
+		final CFMLVisitor visitor = new TrainingVisitor();
+		for (Path file : files) {
+			try {
+				final String source = CFMLFileReader.readString(file);
+				if (CFML_TAG.matcher(source).find()) {
+					parser.scan(source, visitor);
+				} else {
+					parser.parseScript(source, visitor);
+				}
+			} catch (Exception e) {
+				// the corpus is there to exercise the grammar, broken files included
+			}
+		}
+	}
+
+	private static boolean isCFML(Path file) {
+		final String name = file.getFileName().toString().toLowerCase(Locale.ENGLISH);
+		return Files.isRegularFile(file) && (name.endsWith(".cfc") || name.endsWith(".cfm") || name.endsWith(".cfml"));
+	}
+
+	/**
+	 * Loads the snapshot bundled by the build, if there is one and it fits the grammar.
+	 *
+	 * @return true if the snapshot was loaded
+	 */
+	public static boolean loadBundled() {
+		try (InputStream in = DFASnapshot.class.getResourceAsStream("/" + RESOURCE)) {
+			return in != null && load(in);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the current DFA of the cfscript lexer and parser.
+	 */
+	public static void write(OutputStream out) throws IOException {
+		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(CharStreams.fromString(""));
+		write(out, lexer, new CFSCRIPTParser(new CommonTokenStream(lexer)));
+	}
+
+	/**
+	 * Loads a snapshot written by {@link #write(OutputStream)} into the DFA of the cfscript lexer and parser. Decisions
+	 * whose DFA already has states are left as they are.
+	 *
+	 * @return false if the snapshot was made from another grammar, in which case nothing was loaded
+	 */
+	public static boolean load(InputStream in) throws IOException {
+		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(CharStreams.fromString(""));
+		return load(in, lexer, new CFSCRIPTParser(new CommonTokenStream(lexer)));
+	}
+
+	static void write(OutputStream out, Lexer lexer, Parser parser) throws IOException {
+		final GZIPOutputStream gzip = new GZIPOutputStream(out);
+		final DataOutputStream data = new DataOutputStream(new BufferedOutputStream(gzip));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		new SectionWriter(lexer, lexer.getInterpreter().decisionToDFA, true).write(data);
+		new SectionWriter(parser, parser.getInterpreter().decisionToDFA, false).write(data);
+		data.flush();
+		gzip.finish();
+	}
+
+	static boolean load(InputStream in, Lexer lexer, Parser parser) throws IOException {
+		final DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(in)));
+		if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+			return false;
+		}
+		final DFA[] lexerDFA = lexer.getInterpreter().decisionToDFA;
+		final DFA[] parserDFA = parser.getInterpreter().decisionToDFA;
+		// read everything before installing anything, so that a snapshot that does not fit leaves no trace
+		final Decision[] lexerDecisions = new SectionReader(lexer, lexerDFA.length, true).read(data);
+		final Decision[] parserDecisions = lexerDecisions == null ? null
+				: new SectionReader(parser, parserDFA.length, false).read(data);
+		if (parserDecisions == null) {
+			return false;
+		}
+		install(lexerDecisions, lexerDFA);
+		install(parserDecisions, parserDFA);
+		return true;
+	}
+
+	private static void install(Decision[] decisions, DFA[] dfas) {
+		for (int i = 0; i < dfas.length; i++) {
+			final DFA dfa = dfas[i];
+			final Decision decision = decisions[i];
+			if (dfa.isPrecedenceDfa() != decision.precedence) {
+				continue;
+			}
+			synchronized (dfa.states) {
+				if (!dfa.states.isEmpty() || (!dfa.isPrecedenceDfa() && dfa.s0 != null)) {
+					continue;
+				}
+				for (DFAState state : decision.states) {
+					dfa.states.put(state, state);
+				}
+			}
+			// the start states go last, so a parser only ever starts from a complete DFA
+			if (decision.precedence) {
+				for (int precedence = 0; precedence < decision.starts.length; precedence++) {
+					if (decision.starts[precedence] != null) {
+						dfa.setPrecedenceStartState(precedence, decision.starts[precedence]);
+					}
+				}
+			} else {
+				dfa.s0 = decision.starts[0];
+			}
+		}
+	}
+
+	private static int atnHash(Recognizer<?, ?> recognizer) {
+		return recognizer.getSerializedATN().hashCode();
+	}
+
+	/**
+	 * Writes the DFA of one recognizer: the prediction and semantic contexts its configurations share, each once, then
+	 * the states and edges of every decision.
+	 */
+	private static final class SectionWriter {
+		private final ATN atn;
+		private final DFA[] dfas;
+		private final boolean lexer;
+		private final int atnHash;
+		private final PredictionContext emptyContext;
+		private final SemanticContext noSemantics;
+		private final List<LexerAction> lexerActions;
+		private final Map<PredictionContext, Integer> contexts = new IdentityHashMap<PredictionContext, Integer>();
+		private final List<PredictionContext> contextOrder = new ArrayList<PredictionContext>();
+		private final Map<SemanticContext, Integer> semantics = new IdentityHashMap<SemanticContext, Integer>();
+		private final List<SemanticContext> semanticOrder = new ArrayList<SemanticContext>();
+
+		SectionWriter(Recognizer<?, ?> recognizer, DFA[] dfas, boolean lexer) {
+			this.atn = recognizer.getATN();
+			this.dfas = dfas;
+			this.lexer = lexer;
+			this.atnHash = atnHash(recognizer);
+			this.emptyContext = PredictionContext.fromRuleContext(atn, ParserRuleContext.EMPTY);
+			this.noSemantics = new ATNConfig(atn.states.get(0), 1, emptyContext).semanticContext;
+			this.lexerActions = atn.lexerActions == null ? new ArrayList<LexerAction>() : Arrays.asList(atn.lexerActions);
+		}
+
+		void write(DataOutputStream out) throws IOException {
+			final List<List<DFAState>> decisions = new ArrayList<List<DFAState>>();
+			for (DFA dfa : dfas) {
+				final List<DFAState> states;
+				synchronized (dfa.states) {
+					states = new ArrayList<DFAState>(dfa.states.values());
+				}
+				states.sort(Comparator.comparingInt(state -> state.stateNumber));
+				for (DFAState state : states) {
+					for (ATNConfig config : state.configs) {
+						contextId(config.context);
+						semanticId(config.semanticContext);
+					}
+					if (state.predicates != null) {
+						for (DFAState.PredPrediction predicate : state.predicates) {
+							semanticId(predicate.pred);
+						}
+					}
+				}
+				decisions.add(states);
+			}
+
+			out.writeInt(atnHash);
+			out.writeInt(dfas.length);
+			writeContexts(out);
+			writeSemantics(out);
+			for (int i = 0; i < dfas.length; i++) {
+				writeDecision(out, dfas[i], decisions.get(i));
+			}
+		}
+
+		private int contextId(PredictionContext context) {
+			if (context == null) {
+				return -1;
+			}
+			final Integer id = contexts.get(context);
+			if (id != null) {
+				return id;
+			}
+			if (context != emptyContext) {
+				for (int i = 0; i < context.size(); i++) {
+					contextId(context.getParent(i));
+				}
+			}
+			contexts.put(context, contextOrder.size());
+			contextOrder.add(context);
+			return contextOrder.size() - 1;
+		}
+
+		private int semanticId(SemanticContext semantic) {
+			final Integer id = semantics.get(semantic);
+			if (id != null) {
+				return id;
+			}
+			if (semantic instanceof SemanticContext.AND) {
+				for (SemanticContext operand : ((SemanticContext.AND) semantic).opnds) {
+					semanticId(operand);
+				}
+			} else if (semantic instanceof SemanticContext.OR) {
+				for (SemanticContext operand : ((SemanticContext.OR) semantic).opnds) {
+					semanticId(operand);
+				}
+			}
+			semantics.put(semantic, semanticOrder.size());
+			semanticOrder.add(semantic);
+			return semanticOrder.size() - 1;
+		}
+
+		private void writeContexts(DataOutputStream out) throws IOException {
+			out.writeInt(contextOrder.size());
+			for (PredictionContext context : contextOrder) {
+				if (context == emptyContext) {
+					out.writeByte(EMPTY);
+				} else if (context instanceof SingletonPredictionContext) {
+					out.writeByte(SINGLETON);
+					out.writeInt(contextId(context.getParent(0)));
+					out.writeInt(context.getReturnState(0));
+				} else if (context instanceof ArrayPredictionContext) {
+					out.writeByte(ARRAY);
+					out.writeInt(context.size());
+					for (int i = 0; i < context.size(); i++) {
+						out.writeInt(contextId(context.getParent(i)));
+						out.writeInt(context.getReturnState(i));
+					}
+				} else {
+					throw new IllegalStateException("Cannot save prediction context " + context.getClass().getName());
+				}
+			}
+		}
+
+		private void writeSemantics(DataOutputStream out) throws IOException {
+			out.writeInt(semanticOrder.size());
+			for (SemanticContext semantic : semanticOrder) {
+				if (semantic == noSemantics) {
+					out.writeByte(NONE);
+				} else if (semantic instanceof SemanticContext.Predicate) {
+					final SemanticContext.Predicate predicate = (SemanticContext.Predicate) semantic;
+					out.writeByte(PREDICATE);
+					out.writeInt(predicate.ruleIndex);
+					out.writeInt(predicate.predIndex);
+					out.writeBoolean(predicate.isCtxDependent);
+				} else if (semantic instanceof SemanticContext.PrecedencePredicate) {
+					out.writeByte(PRECEDENCE);
+					out.writeInt(((SemanticContext.PrecedencePredicate) semantic).precedence);
+				} else if (semantic instanceof SemanticContext.AND) {
+					out.writeByte(AND);
+					writeOperands(out, ((SemanticContext.AND) semantic).opnds);
+				} else if (semantic instanceof SemanticContext.OR) {
+					out.writeByte(OR);
+					writeOperands(out, ((SemanticContext.OR) semantic).opnds);
+				} else {
+					throw new IllegalStateException("Cannot save semantic context " + semantic.getClass().getName());
+				}
+			}
+		}
+
+		private void writeOperands(DataOutputStream out, SemanticContext[] operands) throws IOException {
+			out.writeInt(operands.length);
+			for (SemanticContext operand : operands) {
+				out.writeInt(semanticId(operand));
+			}
+		}
+
+		private void writeDecision(DataOutputStream out, DFA dfa, List<DFAState> states) throws IOException {
+			final Map<DFAState, Integer> index = new IdentityHashMap<DFAState, Integer>();
+			for (DFAState state : states) {
+				index.put(state, index.size());
+			}
+			out.writeBoolean(dfa.isPrecedenceDfa());
+			out.writeInt(states.size());
+			for (DFAState state : states) {
+				writeState(out, state);
+			}
+			for (DFAState state : states) {
+				writeEdges(out, state.edges, index);
+			}
+			if (dfa.isPrecedenceDfa()) {
+				writeEdges(out, dfa.s0.edges, index);
+			} else {
+				out.writeInt(stateId(dfa.s0, index));
+			}
+		}
+
+		private void writeState(DataOutputStream out, DFAState state) throws IOException {
+			out.writeInt(state.stateNumber);
+			out.writeBoolean(state.isAcceptState);
+			out.writeInt(state.prediction);
+			out.writeBoolean(state.requiresFullContext);
+			writeActions(out, state.lexerActionExecutor);
+			writeConfigs(out, state.configs);
+			if (state.predicates == null) {
+				out.writeInt(-1);
+			} else {
+				out.writeInt(state.predicates.length);
+				for (DFAState.PredPrediction predicate : state.predicates) {
+					out.writeInt(semanticId(predicate.pred));
+					out.writeInt(predicate.alt);
+				}
+			}
+		}
+
+		private void writeConfigs(DataOutputStream out, ATNConfigSet configs) throws IOException {
+			out.writeBoolean(configs.fullCtx);
+			out.writeInt(configs.uniqueAlt);
+			out.writeBoolean(configs.hasSemanticContext);
+			out.writeBoolean(configs.dipsIntoOuterContext);
+			out.writeInt(configs.size());
+			for (ATNConfig config : configs) {
+				out.writeInt(config.state.stateNumber);
+				out.writeInt(config.alt);
+				out.writeInt(contextId(config.context));
+				out.writeInt(semanticId(config.semanticContext));
+				out.writeInt(config.reachesIntoOuterContext);
+				if (lexer) {
+					if (config.semanticContext != noSemantics) {
+						throw new IllegalStateException("Cannot save a lexer configuration with a semantic context");
+					}
+					final LexerATNConfig lexerConfig = (LexerATNConfig) config;
+					out.writeBoolean(lexerConfig.hasPassedThroughNonGreedyDecision());
+					writeActions(out, lexerConfig.getLexerActionExecutor());
+				}
+			}
+		}
+
+		private void writeActions(DataOutputStream out, LexerActionExecutor executor) throws IOException {
+			if (executor == null) {
+				out.writeInt(-1);
+				return;
+			}
+			final LexerAction[] actions = executor.getLexerActions();
+			out.writeInt(actions.length);
+			for (LexerAction action : actions) {
+				// position dependent (custom) actions are wrapped with the offset they run at, written before them
+				if (action instanceof LexerIndexedCustomAction) {
+					final LexerIndexedCustomAction indexed = (LexerIndexedCustomAction) action;
+					out.writeInt(INDEXED_ACTION);
+					out.writeInt(indexed.getOffset());
+					action = indexed.getAction();
+				}
+				final int id = lexerActions.indexOf(action);
+				if (id < 0) {
+					throw new IllegalStateException("Cannot save lexer action " + action);
+				}
+				out.writeInt(id);
+			}
+		}
+
+		private void writeEdges(DataOutputStream out, DFAState[] edges, Map<DFAState, Integer> index)
+				throws IOException {
+			if (edges == null) {
+				out.writeInt(-1);
+				return;
+			}
+			out.writeInt(edges.length);
+			for (DFAState target : edges) {
+				out.writeInt(stateId(target, index));
+			}
+		}
+
+		private int stateId(DFAState state, Map<DFAState, Integer> index) {
+			if (state == null) {
+				return NO_STATE;
+			} else if (state == ATNSimulator.ERROR) {
+				return ERROR_STATE;
+			}
+			// a state added while we were writing is left out, along with the edges to it
+			final Integer id = index.get(state);
+			return id == null ? NO_STATE : id;
+		}
+	}
+
+	/**
+	 * The states read for one decision, waiting to be installed.
+	 */
+	private static final class Decision {
+		boolean precedence;
+		DFAState[] states;
+		/** s0, or the start state for each precedence */
+		DFAState[] starts;
+	}
+
+	/**
+	 * Reads what a {@link SectionWriter} wrote, checking that it was written for the same grammar.
+	 */
+	private static final class SectionReader {
+		private final ATN atn;
+		private final int decisions;
+		private final boolean lexer;
+		private final int atnHash;
+		private final PredictionContext emptyContext;
+		private final DecisionState nonGreedy;
+		private PredictionContext[] contexts;
+		private SemanticContext[] semantics;
+
+		SectionReader(Recognizer<?, ?> recognizer, int decisions, boolean lexer) {
+			this.atn = recognizer.getATN();
+			this.decisions = decisions;
+			this.lexer = lexer;
+			this.atnHash = atnHash(recognizer);
+			this.emptyContext = PredictionContext.fromRuleContext(atn, ParserRuleContext.EMPTY);
+			DecisionState found = null;
+			for (ATNState state : atn.states) {
+				if (state instanceof DecisionState && ((DecisionState) state).nonGreedy) {
+					found = (DecisionState) state;
+					break;
+				}
+			}
+			this.nonGreedy = found;
+		}
+
+		/**
+		 * @return the decisions, or null if the section was written for another grammar
+		 */
+		Decision[] read(DataInputStream in) throws IOException {
+			if (in.readInt() != atnHash || in.readInt() != decisions) {
+				return null;
+			}
+			readContexts(in);
+			readSemantics(in);
+			final Decision[] result = new Decision[decisions];
+			for (int i = 0; i < decisions; i++) {
+				result[i] = readDecision(in);
+			}
+			return result;
+		}
+
+		private void readContexts(DataInputStream in) throws IOException {
+			contexts = new PredictionContext[in.readInt()];
+			for (int i = 0; i < contexts.length; i++) {
+				final int kind = in.readByte();
+				if (kind == EMPTY) {
+					contexts[i] = emptyContext;
+				} else if (kind == SINGLETON) {
+					final PredictionContext parent = context(in.readInt());
+					contexts[i] = SingletonPredictionContext.create(parent, in.readInt());
+				} else if (kind == ARRAY) {
+					final int size = in.readInt();
+					final PredictionContext[] parents = new PredictionContext[size];
+					final int[] returnStates = new int[size];
+					for (int j = 0; j < size; j++) {
+						parents[j] = context(in.readInt());
+						returnStates[j] = in.readInt();
+					}
+					contexts[i] = new ArrayPredictionContext(parents, returnStates);
+				} else {
+					throw new IOException("Corrupt DFA snapshot: prediction context kind " + kind);
+				}
+			}
+		}
+
+		private PredictionContext context(int id) {
+			return id < 0 ? null : contexts[id];
+		}
+
+		private void readSemantics(DataInputStream in) throws IOException {
+			final SemanticContext none = new ATNConfig(atn.states.get(0), 1, emptyContext).semanticContext;
+			semantics = new SemanticContext[in.readInt()];
+			for (int i = 0; i < semantics.length; i++) {
+				final int kind = in.readByte();
+				if (kind == NONE) {
+					semantics[i] = none;
+				} else if (kind == PREDICATE) {
+					semantics[i] = new SemanticContext.Predicate(in.readInt(), in.readInt(), in.readBoolean());
+				} else if (kind == PRECEDENCE) {
+					semantics[i] = new SemanticContext.PrecedencePredicate(in.readInt());
+				} else if (kind == AND || kind == OR) {
+					final SemanticContext[] operands = new SemanticContext[in.readInt()];
+					for (int j = 0; j < operands.length; j++) {
+						operands[j] = semantics[in.readInt()];
+					}
+					// the constructors flatten nested operands, so folding rebuilds the same operand set
+					SemanticContext semantic = operands[0];
+					for (int j = operands.length > 1 ? 1 : 0; j < operands.length; j++) {
+						semantic = kind == AND ? new SemanticContext.AND(semantic, operands[j])
+								: new SemanticContext.OR(semantic, operands[j]);
+					}
+					semantics[i] = semantic;
+				} else {
+					throw new IOException("Corrupt DFA snapshot: semantic context kind " + kind);
+				}
+			}
+		}
+
+		private Decision readDecision(DataInputStream in) throws IOException {
+			final Decision decision = new Decision();
+			decision.precedence = in.readBoolean();
+			decision.states = new DFAState[in.readInt()];
+			for (int i = 0; i < decision.states.length; i++) {
+				decision.states[i] = readState(in);
+			}
+			for (DFAState state : decision.states) {
+				state.edges = readEdges(in, decision.states);
+			}
+			if (decision.precedence) {
+				final DFAState[] starts = readEdges(in, decision.states);
+				decision.starts = starts == null ? new DFAState[0] : starts;
+			} else {
+				decision.starts = new DFAState[] { state(in.readInt(), decision.states) };
+			}
+			return decision;
+		}
+
+		private DFAState readState(DataInputStream in) throws IOException {
+			final int stateNumber = in.readInt();
+			final boolean accept = in.readBoolean();
+			final int prediction = in.readInt();
+			final boolean requiresFullContext = in.readBoolean();
+			final LexerActionExecutor executor = readActions(in);
+			final DFAState state = new DFAState(readConfigs(in, requiresFullContext));
+			state.stateNumber = stateNumber;
+			state.isAcceptState = accept;
+			state.prediction = prediction;
+			state.requiresFullContext = requiresFullContext;
+			state.lexerActionExecutor = executor;
+			final int predicates = in.readInt();
+			if (predicates >= 0) {
+				state.predicates = new DFAState.PredPrediction[predicates];
+				for (int i = 0; i < predicates; i++) {
+					final SemanticContext predicate = semantics[in.readInt()];
+					state.predicates[i] = new DFAState.PredPrediction(predicate, in.readInt());
+				}
+			}
+			return state;
+		}
+
+		private ATNConfigSet readConfigs(DataInputStream in, boolean requiresFullContext) throws IOException {
+			final boolean fullCtx = in.readBoolean();
+			final RestoredConfigSet parserConfigs = lexer ? null : new RestoredConfigSet(fullCtx);
+			final ATNConfigSet configs = lexer ? new OrderedATNConfigSet() : parserConfigs;
+			final int uniqueAlt = in.readInt();
+			final boolean hasSemanticContext = in.readBoolean();
+			final boolean dipsIntoOuterContext = in.readBoolean();
+			final int size = in.readInt();
+			for (int i = 0; i < size; i++) {
+				final ATNState state = atn.states.get(in.readInt());
+				final int alt = in.readInt();
+				final PredictionContext context = context(in.readInt());
+				final SemanticContext semantic = semantics[in.readInt()];
+				final int reachesIntoOuterContext = in.readInt();
+				final ATNConfig config;
+				if (lexer) {
+					final boolean passedThroughNonGreedy = in.readBoolean();
+					LexerATNConfig lexerConfig = new LexerATNConfig(state, alt, context, readActions(in));
+					if (passedThroughNonGreedy) {
+						// the flag can only be set by moving a configuration through a non-greedy decision
+						if (nonGreedy == null) {
+							throw new IOException("Corrupt DFA snapshot: the lexer has no non-greedy decision");
+						}
+						lexerConfig = new LexerATNConfig(new LexerATNConfig(lexerConfig, nonGreedy), state);
+					}
+					config = lexerConfig;
+				} else {
+					config = new ATNConfig(state, alt, context, semantic);
+				}
+				config.reachesIntoOuterContext = reachesIntoOuterContext;
+				configs.add(config);
+			}
+			configs.uniqueAlt = uniqueAlt;
+			configs.hasSemanticContext = hasSemanticContext;
+			configs.dipsIntoOuterContext = dipsIntoOuterContext;
+			if (parserConfigs != null && requiresFullContext) {
+				// the simulator works these out the same way when it finds an SLL conflict
+				parserConfigs.setConflictingAlts(
+						PredictionMode.getAlts(PredictionMode.getConflictingAltSubsets(parserConfigs)));
+			}
+			configs.setReadonly(true);
+			return configs;
+		}
+
+		private LexerActionExecutor readActions(DataInputStream in) throws IOException {
+			final int length = in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			final LexerAction[] actions = new LexerAction[length];
+			for (int i = 0; i < length; i++) {
+				final int id = in.readInt();
+				if (id == INDEXED_ACTION) {
+					final int offset = in.readInt();
+					actions[i] = new LexerIndexedCustomAction(offset, atn.lexerActions[in.readInt()]);
+				} else {
+					actions[i] = atn.lexerActions[id];
+				}
+			}
+			return new LexerActionExecutor(actions);
+		}
+
+		private DFAState[] readEdges(DataInputStream in, DFAState[] states) throws IOException {
+			final int length = in.readInt();
+			if (length < 0) {
+				return null;
+			}
+			final DFAState[] edges = new DFAState[length];
+			for (int i = 0; i < length; i++) {
+				edges[i] = state(in.readInt(), states);
+			}
+			return edges;
+		}
+
+		private static DFAState state(int id, DFAState[] states) {
+			if (id == ERROR_STATE) {
+				return ATNSimulator.ERROR;
+			}
+			return id == NO_STATE ? null : states[id];
+		}
+	}
+
+	/**
+	 * A parser configuration set that takes the conflicting alternatives the simulator would have set on it.
+	 */
+	private static final class RestoredConfigSet extends ATNConfigSet {
+		RestoredConfigSet(boolean fullCtx) {
+			super(fullCtx);
+		}
+
+		void setConflictingAlts(BitSet alts) {
+			conflictingAlts = alts;
+		}
+	}
+
+	/**
+	 * Parses everything and keeps nothing; only the DFA it leaves behind matters.
+	 */
+	private static final class TrainingVisitor extends CFMLVisitor {
+		@Override
+		public void visitElementStart(Element elem) {
+		}
+
+		@Override
+		public void visitElementEnd(Element elem) {
+		}
+
+		@Override
+		public void visitExpression(String context, CFExpression expression) {
+		}
+
+		@Override
+		public void visitScript(CFScriptStatement scriptStatement) {
+		}
+	}
+}
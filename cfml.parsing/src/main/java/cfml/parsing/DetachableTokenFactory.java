@@ -0,0 +1,71 @@
+package cfml.parsing;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenFactory;
+import org.antlr.v4.runtime.TokenSource;
+import org.antlr.v4.runtime.misc.Pair;
+
+/**
+ * Makes the tokens of one parse, so that once the statements have been built from them they can be cut loose from
+ * their lexer and input: {@link #detach()} gives each its text and drops its reference to both. A statement then pins
+ * only its own tokens, and the token stream, lexer, input and parse tree are garbage as soon as the parse returns.
+ *
+ * Only tokens on the default channel are detached, as those are the only ones the parser passes on to the statements.
+ * A factory is for one parse, and one thread.
+ */
+final class DetachableTokenFactory implements TokenFactory<CommonToken> {
+
+	private final List<DetachableToken> created = new ArrayList<DetachableToken>();
+
+	@Override
+	public CommonToken create(Pair<TokenSource, CharStream> source, int type, String text, int channel, int start,
+			int stop, int line, int charPositionInLine) {
+		final DetachableToken token = new DetachableToken(source, type, channel, start, stop);
+		token.setLine(line);
+		token.setCharPositionInLine(charPositionInLine);
+		if (text != null) {
+			token.setText(text);
+		}
+		if (channel == Token.DEFAULT_CHANNEL) {
+			created.add(token);
+		}
+		return token;
+	}
+
+	@Override
+	public CommonToken create(int type, String text) {
+		// has no lexer or input to begin with
+		return new CommonToken(type, text);
+	}
+
+	/**
+	 * Detaches every token on the default channel made so far, and forgets them.
+	 */
+	void detach() {
+		for (DetachableToken token : created) {
+			token.detach();
+		}
+		created.clear();
+	}
+
+	private static final class DetachableToken extends CommonToken {
+
+		private static final long serialVersionUID = 1L;
+
+		DetachableToken(Pair<TokenSource, CharStream> source, int type, int channel, int start, int stop) {
+			super(source, type, channel, start, stop);
+		}
+
+		void detach() {
+			if (text == null) {
+				text = getText();
+			}
+			source = EMPTY_SOURCE;
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package cfml.parsing;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.WritableToken;
+
+import cfml.CFSCRIPTLexer;
+
+/**
+ * Finds the bodies of the named function declarations in a lexed script and takes their tokens off the default
+ * channel, so that the parser sees an empty body, "{}", and does not parse what is in it. This is the skeleton parse
+ * of {@link CFMLParser#parseScriptSkeleton(String, org.antlr.v4.runtime.ANTLRErrorListener)}.
+ *
+ * A declaration is told from the tokens alone: FUNCTION, a name, a parameter list in parentheses, and the first '{'
+ * after it outside parentheses, up to its matching '}'. Anonymous functions, with no name, are left alone unless they
+ * sit in a body that is hidden.
+ */
+final class FunctionBodies {
+
+	/** the channel the tokens of a hidden body are moved to */
+	static final int SKIPPED_CHANNEL = 2;
+
+	private FunctionBodies() {
+	}
+
+	/**
+	 * @param tokens every token of the script, as a filled token stream has them
+	 * @return the '}' that closes each hidden body, by the token index of its '{'
+	 */
+	static Map<Integer, Token> hide(List<Token> tokens) {
+		final Map<Integer, Token> bodies = new HashMap<Integer, Token>();
+		int i = next(tokens, -1);
+		while (i < tokens.size()) {
+			if (tokens.get(i).getType() != CFSCRIPTLexer.FUNCTION) {
+				i = next(tokens, i);
+				continue;
+			}
+			final int name = next(tokens, i);
+			final int open = next(tokens, name);
+			if (name >= tokens.size() || tokens.get(name).getType() == CFSCRIPTLexer.LEFTPAREN
+					|| open >= tokens.size() || tokens.get(open).getType() != CFSCRIPTLexer.LEFTPAREN) {
+				i = next(tokens, i);
+				continue;
+			}
+			final int brace = bodyStart(tokens, open);
+			if (brace < 0) {
+				i = next(tokens, i);
+				continue;
+			}
+			final int close = matching(tokens, brace, CFSCRIPTLexer.LEFTCURLYBRACKET, CFSCRIPTLexer.RIGHTCURLYBRACKET);
+			if (close < 0) {
+				// an unclosed body is left for the parser to report
+				break;
+			}
+			for (int t = brace + 1; t < close; t++) {
+				final Token token = tokens.get(t);
+				if (token.getChannel() == Token.DEFAULT_CHANNEL && token instanceof WritableToken) {
+					((WritableToken) token).setChannel(SKIPPED_CHANNEL);
+				}
+			}
+			bodies.put(tokens.get(brace).getTokenIndex(), tokens.get(close));
+			i = next(tokens, close);
+		}
+		return bodies;
+	}
+
+	/**
+	 * @return the index of the '{' that opens the body of the declaration whose parameter list opens at paren, or -1
+	 *         if it has none
+	 */
+	private static int bodyStart(List<Token> tokens, int paren) {
+		final int parameterEnd = matching(tokens, paren, CFSCRIPTLexer.LEFTPAREN, CFSCRIPTLexer.RIGHTPAREN);
+		if (parameterEnd < 0) {
+			return -1;
+		}
+		// the attributes, as in output=false or hint="...", with parentheses only in a function call value
+		int depth = 0;
+		for (int i = next(tokens, parameterEnd); i < tokens.size(); i = next(tokens, i)) {
+			final int type = tokens.get(i).getType();
+			if (type == CFSCRIPTLexer.LEFTPAREN) {
+				depth++;
+			} else if (type == CFSCRIPTLexer.RIGHTPAREN) {
+				depth--;
+			} else if (depth == 0 && type == CFSCRIPTLexer.LEFTCURLYBRACKET) {
+				return i;
+			} else if (depth <= 0 && (type == CFSCRIPTLexer.SEMICOLON || type == CFSCRIPTLexer.RIGHTCURLYBRACKET
+					|| type == CFSCRIPTLexer.FUNCTION || type == Token.EOF)) {
+				return -1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the index of the token that closes the one at from, or -1 if it is never closed
+	 */
+	private static int matching(List<Token> tokens, int from, int open, int close) {
+		int depth = 0;
+		for (int i = from; i < tokens.size(); i = next(tokens, i)) {
+			final int type = tokens.get(i).getType();
+			if (type == open) {
+				depth++;
+			} else if (type == close && --depth == 0) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the index of the next token on the default channel after i, or the number of tokens if there is none
+	 */
+	private static int next(List<Token> tokens, int i) {
+		i++;
+		while (i < tokens.size() && tokens.get(i).getChannel() != Token.DEFAULT_CHANNEL) {
+			i++;
+		}
+		return i;
+	}
+}
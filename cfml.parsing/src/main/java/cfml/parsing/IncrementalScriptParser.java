@@ -0,0 +1,359 @@
+package cfml.parsing;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import cfml.CFSCRIPTLexer;
+import cfml.CFSCRIPTParser;
+import cfml.CFSCRIPTParser.ComponentGutsContext;
+import cfml.CFSCRIPTParser.ElementContext;
+import cfml.CFSCRIPTParser.FunctionDeclarationContext;
+import cfml.CFSCRIPTParser.ScriptBlockContext;
+import cfml.parsing.CFMLParser.MessageRecorder;
+import cfml.parsing.ScriptDocument.FunctionSpan;
+import cfml.parsing.cfscript.CFAssignmentExpression;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.CFFunctionExpression;
+import cfml.parsing.cfscript.CFLambdaExpression;
+import cfml.parsing.cfscript.CFTernaryExpression;
+import cfml.parsing.cfscript.HasToken;
+import cfml.parsing.cfscript.script.CFCase;
+import cfml.parsing.cfscript.script.CFCatchStatement;
+import cfml.parsing.cfscript.script.CFCompDeclStatement;
+import cfml.parsing.cfscript.script.CFCompoundStatement;
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFFunctionParameter;
+import cfml.parsing.cfscript.script.CFMLFunctionStatement;
+import cfml.parsing.cfscript.script.CFParsedStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptStatementVisitor;
+import cfml.parsing.cfscript.walker.CFScriptWalker;
+import cfml.parsing.reporting.ArrayErrorListener;
+import cfml.parsing.reporting.ParseException;
+
+/**
+ * Reparses a cfscript component after an edit, reparsing only the function the edit falls in when it can.
+ *
+ * An edit that lies wholly inside the body of one of the component's top level functions is handled by lexing and
+ * parsing just that function declaration, from where it starts in the new text, and splicing the new
+ * {@link CFFuncDeclStatement} into the component body in place of the old one. Every statement and expression after
+ * it is moved by the change in length and line count. Anything else - an edit spanning functions or touching a
+ * signature, a document that already had syntax errors, a function that no longer parses on its own or no longer ends
+ * where it should - falls back to parsing the whole text, so the result is always what a full parse would give.
+ *
+ * Moving the later statements walks every node of them, the cases of switches and the catches of tries included, and
+ * moves their tokens with them, those a node keeps besides the one of getToken() too.
+ */
+public class IncrementalScriptParser {
+
+	private final CFMLParser parser;
+
+	public IncrementalScriptParser(CFMLParser parser) {
+		this.parser = parser;
+	}
+
+	/**
+	 * Parses the whole text.
+	 *
+	 * @param text the cfscript to parse
+	 * @param errorListener listener for syntax errors, or null to use the parser's error reporter
+	 * @return the parsed document
+	 */
+	public ScriptDocument parse(String text, ANTLRErrorListener errorListener) throws ParseException, IOException {
+		final MessageRecorder recorder = new MessageRecorder(
+				errorListener != null ? errorListener : parser.errorReporter);
+		final CommonTokenStream tokens = parser.createTokenStream(text);
+		final ScriptBlockContext scriptBlock = parser.parseScriptBlockContext(tokens, recorder);
+		final CFScriptStatement statement = new CFScriptStatementVisitor().visit(scriptBlock);
+		if (statement != null) {
+			statement.setTokens(tokens);
+		}
+
+		final CFCompoundStatement container = functionContainer(statement);
+		final List<FunctionSpan> functions = new ArrayList<FunctionSpan>();
+		final ComponentGutsContext guts = scriptBlock == null ? null
+				: scriptBlock.componentDeclaration() != null ? scriptBlock.componentDeclaration().componentGuts()
+						: scriptBlock.interfaceDeclaration() != null
+								? scriptBlock.interfaceDeclaration().componentGuts() : null;
+		if (container != null && guts != null) {
+			final List<ElementContext> elements = guts.element();
+			for (int i = 0; i < elements.size(); i++) {
+				final FunctionDeclarationContext function = elements.get(i).functionDeclaration();
+				if (function == null || function.body == null) {
+					continue;
+				}
+				final CFFuncDeclStatement declaration = findDeclaration(container,
+						function.FUNCTION().getSymbol().getStartIndex());
+				if (declaration == null) {
+					continue;
+				}
+				final int nextLine = i + 1 < elements.size() ? elements.get(i + 1).getStart().getLine()
+						: guts.getStop().getLine();
+				functions.add(new FunctionSpan(function.getStart().getStartIndex(), function.getStart().getLine(),
+						function.getStart().getCharPositionInLine(), function.body.getStart().getStartIndex(),
+						function.body.getStop().getStopIndex(), function.body.getStop().getLine(), nextLine,
+						declaration));
+			}
+		}
+		return new ScriptDocument(text, statement, !recorder.messages.isEmpty(), false, container, functions);
+	}
+
+	/**
+	 * Applies an edit to a document and reparses it.
+	 *
+	 * @param previous the document before the edit; its statement tree is reused and must not be used afterwards
+	 * @param offset where the replaced text starts
+	 * @param length how many characters are replaced
+	 * @param replacement the new text
+	 * @param errorListener listener for syntax errors, or null to use the parser's error reporter
+	 * @return the document after the edit
+	 */
+	public ScriptDocument edit(ScriptDocument previous, int offset, int length, String replacement,
+			ANTLRErrorListener errorListener) throws ParseException, IOException {
+		final String oldText = previous.getText();
+		if (offset < 0 || length < 0 || offset + length > oldText.length()) {
+			throw new IndexOutOfBoundsException(
+					"Edit " + offset + "+" + length + " outside text of length " + oldText.length());
+		}
+		final String text = oldText.substring(0, offset) + replacement + oldText.substring(offset + length);
+		final ScriptDocument spliced = previous.hadErrors() ? null
+				: splice(previous, text, offset, length, replacement);
+		return spliced != null ? spliced : parse(text, errorListener);
+	}
+
+	/**
+	 * @return the spliced document, or null if the edit has to be handled by a full parse
+	 */
+	private ScriptDocument splice(ScriptDocument previous, String text, int offset, int length, String replacement) {
+		final List<FunctionSpan> functions = previous.functions;
+		int index = -1;
+		for (int i = 0; i < functions.size(); i++) {
+			final FunctionSpan span = functions.get(i);
+			if (offset > span.bodyStart && offset + length <= span.bodyStop) {
+				index = i;
+				break;
+			}
+		}
+		if (index < 0) {
+			return null;
+		}
+		final FunctionSpan span = functions.get(index);
+		// Whatever follows on the line of the closing brace would move sideways, and columns are not shifted.
+		if (span.nextLine == span.stopLine) {
+			return null;
+		}
+		final int offsetDelta = replacement.length() - length;
+		final int lineDelta = countLines(replacement)
+				- countLines(previous.getText().substring(offset, offset + length));
+
+		final CFFuncDeclStatement declaration = parseFunction(text, span, offsetDelta);
+		if (declaration == null) {
+			return null;
+		}
+		final List<CFScriptStatement> statements = previous.functionContainer.getStatements();
+		final int position = indexOf(statements, span.statement);
+		if (position < 0) {
+			return null;
+		}
+
+		final Shifter shifter = new Shifter(offsetDelta, lineDelta);
+		for (int i = position + 1; i < statements.size(); i++) {
+			shifter.shift(statements.get(i));
+		}
+		declaration.setParent(span.statement.getParent());
+		statements.set(position, declaration);
+
+		final List<FunctionSpan> newFunctions = new ArrayList<FunctionSpan>(functions.size());
+		newFunctions.addAll(functions.subList(0, index));
+		newFunctions.add(new FunctionSpan(span.start, span.startLine, span.startColumn, span.bodyStart,
+				span.bodyStop + offsetDelta, span.stopLine + lineDelta, span.nextLine + lineDelta, declaration));
+		for (FunctionSpan later : functions.subList(index + 1, functions.size())) {
+			newFunctions.add(later.shift(offsetDelta, lineDelta));
+		}
+
+		final CFScriptStatement statement = previous.getStatement();
+		// Lexed lazily, only if a caller asks for the tokens.
+		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(CharStreams.fromString(text));
+		lexer.removeErrorListeners();
+		statement.setTokens(new CommonTokenStream(lexer));
+		return new ScriptDocument(text, statement, false, true, previous.functionContainer, newFunctions);
+	}
+
+	/**
+	 * Lexes and parses the one function declaration starting at span.start in the new text.
+	 *
+	 * @return the declaration, or null if it did not parse cleanly or no longer ends where the edit says it should
+	 */
+	private CFFuncDeclStatement parseFunction(String text, FunctionSpan span, int offsetDelta) {
+		final CharStream input = CharStreams.fromString(text);
+		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(input);
+		lexer.removeErrorListeners();
+		input.seek(span.start);
+		lexer.setLine(span.startLine);
+		lexer.setCharPositionInLine(span.startColumn);
+		final List<String> errors = new ArrayList<String>();
+		lexer.addErrorListener(new ArrayErrorListener(errors));
+
+		final CommonTokenStream tokens = new CommonTokenStream(lexer);
+		final CFSCRIPTParser functionParser = new CFSCRIPTParser(tokens);
+		functionParser.removeErrorListeners();
+		functionParser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		functionParser.setErrorHandler(new BailErrorStrategy());
+		final FunctionDeclarationContext function;
+		try {
+			function = functionParser.functionDeclaration();
+		} catch (ParseCancellationException e) {
+			return null;
+		}
+		if (!errors.isEmpty() || function.body == null || function.getStart().getStartIndex() != span.start
+				|| function.getStop().getStopIndex() != span.bodyStop + offsetDelta) {
+			return null;
+		}
+		final CFScriptStatement statement = new CFScriptStatementVisitor().visit(function);
+		return statement instanceof CFFuncDeclStatement ? (CFFuncDeclStatement) statement : null;
+	}
+
+	private static CFCompoundStatement functionContainer(CFScriptStatement statement) {
+		CFCompDeclStatement component = null;
+		if (statement instanceof CFCompDeclStatement) {
+			component = (CFCompDeclStatement) statement;
+		} else if (statement instanceof CFCompoundStatement) {
+			// Import statements ahead of the component.
+			for (CFScriptStatement child : ((CFCompoundStatement) statement).getStatements()) {
+				if (child instanceof CFCompDeclStatement) {
+					component = (CFCompDeclStatement) child;
+				}
+			}
+		}
+		// A component with a single element has that element as its body, with nothing to splice into.
+		return component != null && component.getBody() instanceof CFCompoundStatement
+				? (CFCompoundStatement) component.getBody() : null;
+	}
+
+	private static CFFuncDeclStatement findDeclaration(CFCompoundStatement container, int functionTokenOffset) {
+		for (CFScriptStatement child : container.getStatements()) {
+			if (child instanceof CFFuncDeclStatement && child.getOffset() == functionTokenOffset) {
+				return (CFFuncDeclStatement) child;
+			}
+		}
+		return null;
+	}
+
+	private static int indexOf(List<CFScriptStatement> statements, CFScriptStatement statement) {
+		for (int i = 0; i < statements.size(); i++) {
+			if (statements.get(i) == statement) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int countLines(String text) {
+		int lines = 0;
+		for (int i = 0; i < text.length(); i++) {
+			if (text.charAt(i) == '\n') {
+				lines++;
+			}
+		}
+		return lines;
+	}
+
+	/**
+	 * Moves statements, expressions and their tokens by a fixed number of characters and lines. The nodes are those a
+	 * {@link CFScriptWalker} reaches, the cases of a switch and the catches of a try among them, and beside them the
+	 * named arguments of calls and the parameters of functions, and the tokens nodes keep besides their own. Nodes and
+	 * tokens can be reachable along more than one path, so each is moved only the first time it is seen.
+	 */
+	private static final class Shifter {
+
+		private final int offsetDelta;
+		private final int lineDelta;
+		private final Set<Object> seen = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		/** walkers not in use, as the names of named arguments are walked in the middle of another walk */
+		private final ArrayDeque<CFScriptWalker> walkers = new ArrayDeque<CFScriptWalker>();
+
+		Shifter(int offsetDelta, int lineDelta) {
+			this.offsetDelta = offsetDelta;
+			this.lineDelta = lineDelta;
+		}
+
+		void shift(HasToken root) {
+			if (root == null) {
+				return;
+			}
+			final CFScriptWalker walker = walkers.isEmpty() ? new CFScriptWalker() : walkers.pop();
+			walker.reset(root);
+			while (walker.next()) {
+				if (walker.isEntering()) {
+					shiftNode(walker.node());
+				}
+			}
+			walkers.push(walker);
+		}
+
+		private void shiftNode(HasToken node) {
+			if (!seen.add(node)) {
+				return;
+			}
+			if (node instanceof CFExpression) {
+				((CFExpression) node).shiftPosition(offsetDelta, lineDelta);
+			} else if (node instanceof CFParsedStatement) {
+				((CFParsedStatement) node).shiftPosition(offsetDelta, lineDelta);
+			} else if (node instanceof CFCase) {
+				((CFCase) node).shiftPosition(offsetDelta, lineDelta);
+			} else if (node instanceof CFCatchStatement) {
+				((CFCatchStatement) node).shiftPosition(offsetDelta, lineDelta);
+			}
+			shift(node.getToken());
+			if (node instanceof CFFuncDeclStatement) {
+				for (CFFunctionParameter formal : ((CFFuncDeclStatement) node).getFormals()) {
+					if (seen.add(formal)) {
+						formal.shiftPosition(offsetDelta, lineDelta);
+						shift(formal.getToken());
+					}
+				}
+			} else if (node instanceof CFFunctionExpression) {
+				// the walker only goes into the value of a named argument
+				for (CFExpression arg : ((CFFunctionExpression) node).getArgs()) {
+					if (arg instanceof CFAssignmentExpression && !(arg instanceof CFTernaryExpression)
+							&& seen.add(arg)) {
+						arg.shiftPosition(offsetDelta, lineDelta);
+						shift(arg.getToken());
+						shift(((CFAssignmentExpression) arg).getLeft());
+					}
+				}
+			} else if (node instanceof CFLambdaExpression) {
+				shift(((CFLambdaExpression) node).getOperator());
+			} else if (node instanceof CFMLFunctionStatement) {
+				shift(((CFMLFunctionStatement) node).getType());
+			}
+		}
+
+		void shift(Token token) {
+			if (!(token instanceof CommonToken) || token.getStartIndex() < 0 || !seen.add(token)) {
+				return;
+			}
+			final CommonToken commonToken = (CommonToken) token;
+			// The text is otherwise read from the old input by index, which is about to change.
+			commonToken.setText(commonToken.getText());
+			commonToken.setStartIndex(commonToken.getStartIndex() + offsetDelta);
+			commonToken.setStopIndex(commonToken.getStopIndex() + offsetDelta);
+			commonToken.setLine(commonToken.getLine() + lineDelta);
+		}
+	}
+}
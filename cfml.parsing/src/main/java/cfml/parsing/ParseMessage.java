@@ -30,7 +30,10 @@ package cfml.parsing;
  * 
  * @author Oliver
  */
-public class ParseMessage {
+public class ParseMessage implements java.io.Serializable {
+	
+	private static final long serialVersionUID = 1L;
+	
 	/**
 	 * The line number that the message should be reported for.
 	 */
@@ -55,6 +58,10 @@ public class ParseMessage {
 	 * Was the message fatal or not (should really be in ParseError!)
 	 */
 	protected boolean fatal = false;
+	/**
+	 * The column within the line, counted from 0 as ANTLR counts it, or -1 if the message was not given one.
+	 */
+	protected int column = -1;
 	
 	/**
 	 * Constructs a message that begins on a line number, starts at an offset within a document, ends at another offset
@@ -178,6 +185,21 @@ public class ParseMessage {
 		this.lineNumber = lineNumber;
 	}
 	
+	/**
+	 * @return Returns the column, or -1 if it is not known.
+	 */
+	public int getColumn() {
+		return column;
+	}
+	
+	/**
+	 * @param column
+	 *            The column to set, counted from 0.
+	 */
+	public void setColumn(int column) {
+		this.column = column;
+	}
+	
 	/**
 	 * @return Returns the message.
 	 */
@@ -0,0 +1,216 @@
+package cfml.parsing;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the two-stage parses {@link CFMLParser} runs, per parser rule and, if asked for, per file: how many there
+ * were, how many had to be redone in full LL mode after the SLL pass failed, how many went straight to LL on the advice
+ * of {@link AdaptivePrediction}, and the time spent in each stage. Parsers count nothing until they are given stats.
+ *
+ * Counting per file is off unless the stats are made with a file limit, and stops taking new files once that many have
+ * been seen; later files count only in the totals and per rule. Parses of text that did not come from a file, such as
+ * the expressions of a CFML tag, count only per rule.
+ */
+public class PredictionStats {
+
+	/**
+	 * The counts for one rule, one file or everything.
+	 */
+	public static final class Counters {
+		private final LongAdder parses = new LongAdder();
+		private final LongAdder fallbacks = new LongAdder();
+		private final LongAdder directLL = new LongAdder();
+		private final LongAdder sllNanos = new LongAdder();
+		private final LongAdder llNanos = new LongAdder();
+
+		/**
+		 * @return the number of parses
+		 */
+		public long getParseCount() {
+			return parses.sum();
+		}
+
+		/**
+		 * @return the number of parses whose SLL pass failed and that were parsed again in LL mode
+		 */
+		public long getFallbackCount() {
+			return fallbacks.sum();
+		}
+
+		/**
+		 * @return the number of parses that skipped the SLL pass
+		 */
+		public long getDirectLLCount() {
+			return directLL.sum();
+		}
+
+		/**
+		 * @return the time spent in SLL passes, including those that failed
+		 */
+		public long getSLLNanos() {
+			return sllNanos.sum();
+		}
+
+		/**
+		 * @return the time spent in LL passes
+		 */
+		public long getLLNanos() {
+			return llNanos.sum();
+		}
+
+		@Override
+		public String toString() {
+			return "parses=" + getParseCount() + " fallbacks=" + getFallbackCount() + " directLL="
+					+ getDirectLLCount() + " sll=" + TimeUnit.NANOSECONDS.toMillis(getSLLNanos()) + "ms ll="
+					+ TimeUnit.NANOSECONDS.toMillis(getLLNanos()) + "ms";
+		}
+	}
+
+	private final Counters totals = new Counters();
+	private final ConcurrentHashMap<String, Counters> rules = new ConcurrentHashMap<String, Counters>();
+	private final ConcurrentHashMap<String, Counters> files = new ConcurrentHashMap<String, Counters>();
+	private final int maxFiles;
+
+	/**
+	 * Makes stats that count per rule but not per file.
+	 */
+	public PredictionStats() {
+		this(0);
+	}
+
+	/**
+	 * Makes stats that also count per file, for the first {@code maxFiles} files seen.
+	 *
+	 * @param maxFiles the most files to count separately, or 0 for none
+	 */
+	public PredictionStats(int maxFiles) {
+		if (maxFiles < 0) {
+			throw new IllegalArgumentException("maxFiles must not be negative: " + maxFiles);
+		}
+		this.maxFiles = maxFiles;
+	}
+
+	/**
+	 * Records a parse that succeeded in SLL mode.
+	 */
+	void recordSLL(String rule, String file, long sllNanos) {
+		sll(totals, sllNanos);
+		sll(ruleCounters(rule), sllNanos);
+		final Counters counters = fileCounters(file);
+		if (counters != null) {
+			sll(counters, sllNanos);
+		}
+	}
+
+	/**
+	 * Records a parse whose SLL pass failed and that was parsed again in LL mode.
+	 */
+	void recordFallback(String rule, String file, long sllNanos, long llNanos) {
+		fallback(totals, sllNanos, llNanos);
+		fallback(ruleCounters(rule), sllNanos, llNanos);
+		final Counters counters = fileCounters(file);
+		if (counters != null) {
+			fallback(counters, sllNanos, llNanos);
+		}
+	}
+
+	/**
+	 * Records a parse that went straight to LL mode.
+	 */
+	void recordLL(String rule, String file, long llNanos) {
+		ll(totals, llNanos);
+		ll(ruleCounters(rule), llNanos);
+		final Counters counters = fileCounters(file);
+		if (counters != null) {
+			ll(counters, llNanos);
+		}
+	}
+
+	private static void sll(Counters counters, long sllNanos) {
+		counters.parses.increment();
+		counters.sllNanos.add(sllNanos);
+	}
+
+	private static void fallback(Counters counters, long sllNanos, long llNanos) {
+		counters.parses.increment();
+		counters.fallbacks.increment();
+		counters.sllNanos.add(sllNanos);
+		counters.llNanos.add(llNanos);
+	}
+
+	private static void ll(Counters counters, long llNanos) {
+		counters.parses.increment();
+		counters.directLL.increment();
+		counters.llNanos.add(llNanos);
+	}
+
+	private Counters ruleCounters(String rule) {
+		final Counters counters = rules.get(rule);
+		return counters != null ? counters : rules.computeIfAbsent(rule, k -> new Counters());
+	}
+
+	/**
+	 * @return the counters for the file, or null if it is not counted separately
+	 */
+	private Counters fileCounters(String file) {
+		if (file == null || maxFiles == 0) {
+			return null;
+		}
+		Counters counters = files.get(file);
+		if (counters == null) {
+			// Only the first sighting of a file gets here, so the lock keeps the limit exact at little cost
+			synchronized (files) {
+				counters = files.get(file);
+				if (counters == null && files.size() < maxFiles) {
+					counters = new Counters();
+					files.put(file, counters);
+				}
+			}
+		}
+		return counters;
+	}
+
+	/**
+	 * @return the counts over every rule and file
+	 */
+	public Counters getTotals() {
+		return totals;
+	}
+
+	/**
+	 * @return the counts by parser rule name
+	 */
+	public Map<String, Counters> getRuleStats() {
+		return Collections.unmodifiableMap(rules);
+	}
+
+	/**
+	 * @return the counts by file path, empty unless the stats were made with a file limit
+	 */
+	public Map<String, Counters> getFileStats() {
+		return Collections.unmodifiableMap(files);
+	}
+
+	/**
+	 * Forgets everything counted so far.
+	 */
+	public void reset() {
+		for (LongAdder adder : new LongAdder[] { totals.parses, totals.fallbacks, totals.directLL, totals.sllNanos,
+				totals.llNanos }) {
+			adder.reset();
+		}
+		rules.clear();
+		synchronized (files) {
+			files.clear();
+		}
+	}
+
+	@Override
+	public String toString() {
+		return "PredictionStats[" + totals + " rules=" + rules + "]";
+	}
+}
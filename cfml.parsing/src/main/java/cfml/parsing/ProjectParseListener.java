@@ -0,0 +1,18 @@
+package cfml.parsing;
+
+/**
+ * Receives the result of each file parsed by a {@link ProjectParser}.
+ * 
+ * Results are delivered from the pool's worker threads as soon as each file is done, so implementations must be
+ * thread-safe and should return quickly - a slow listener holds up the worker that called it.
+ */
+public interface ProjectParseListener {
+	
+	/**
+	 * Called once per file, whether or not the file parsed cleanly.
+	 * 
+	 * @param result the parsed file
+	 */
+	void fileParsed(ProjectParseResult result);
+	
+}
@@ -0,0 +1,87 @@
+package cfml.parsing;
+
+import java.io.File;
+import java.util.Collections;
+import java.util.List;
+
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+
+/**
+ * The outcome of parsing one file of a project with {@link ProjectParser}.
+ * 
+ * Tag based files have a {@link CFMLSource} plus the expressions and cfscript blocks found in their tags. Script only
+ * components have no tags, so their source is null and the whole component is the single entry in
+ * {@link #getScripts()}.
+ */
+public class ProjectParseResult {
+	
+	private final File file;
+	private final CFMLSource source;
+	private final List<CFExpression> expressions;
+	private final List<CFScriptStatement> scripts;
+	private final List<ParseMessage> messages;
+	private final long elapsedNanos;
+	private final Throwable error;
+	
+	ProjectParseResult(File file, CFMLSource source, List<CFExpression> expressions, List<CFScriptStatement> scripts,
+			List<ParseMessage> messages, long elapsedNanos, Throwable error) {
+		this.file = file;
+		this.source = source;
+		this.expressions = Collections.unmodifiableList(expressions);
+		this.scripts = Collections.unmodifiableList(scripts);
+		this.messages = Collections.unmodifiableList(messages);
+		this.elapsedNanos = elapsedNanos;
+		this.error = error;
+	}
+	
+	public File getFile() {
+		return file;
+	}
+	
+	/**
+	 * @return the tag source, or null for a script only component, a file that could not be read, or a result read
+	 *         from the parse cache
+	 */
+	public CFMLSource getSource() {
+		return source;
+	}
+	
+	public List<CFExpression> getExpressions() {
+		return expressions;
+	}
+	
+	public List<CFScriptStatement> getScripts() {
+		return scripts;
+	}
+	
+	/**
+	 * @return the syntax errors reported while parsing this file
+	 */
+	public List<ParseMessage> getMessages() {
+		return messages;
+	}
+	
+	/**
+	 * @return wall clock time spent reading and parsing this file
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+	
+	/**
+	 * @return the exception that stopped the parse, or null if the file was parsed to the end
+	 */
+	public Throwable getError() {
+		return error;
+	}
+	
+	public boolean hasErrors() {
+		return error != null || !messages.isEmpty();
+	}
+	
+	@Override
+	public String toString() {
+		return file.getPath() + " (" + messages.size() + " messages, " + (elapsedNanos / 1000000) + "ms)";
+	}
+}
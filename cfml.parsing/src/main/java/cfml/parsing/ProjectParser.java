@@ -0,0 +1,280 @@
+package cfml.parsing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.RecognitionException;
+import org.antlr.v4.runtime.Recognizer;
+
+import cfml.parsing.cache.CachedParse;
+import cfml.parsing.cache.ParseCache;
+import cfml.parsing.cfml.CFMLVisitor;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.util.CFMLFileReader;
+import net.htmlparser.jericho.Element;
+
+/**
+ * Parses every .cfm and .cfc file of a project on a work-stealing pool, handing each file's result to a
+ * {@link ProjectParseListener} as soon as it is done.
+ *
+ * All workers share one {@link CFMLParser}, and with it the dictionary, the warmed ANTLR DFA and the expression tree
+ * cache. Files are queued largest first: a big component picked up last would otherwise leave one worker parsing it
+ * while the rest sit idle, whereas the small files left at the end of a largest-first queue even out the finish.
+ *
+ * If the parser has a {@link ParseCache}, unchanged files are read back from it instead of being parsed. Results from
+ * the cache have no {@link CFMLSource}.
+ */
+public class ProjectParser implements AutoCloseable {
+
+	private final CFMLParser parser;
+	private final ForkJoinPool pool;
+
+	public ProjectParser(CFMLParser parser) {
+		this(parser, Runtime.getRuntime().availableProcessors());
+	}
+
+	public ProjectParser(CFMLParser parser, int parallelism) {
+		this.parser = parser;
+		this.pool = new ForkJoinPool(parallelism);
+	}
+
+	/**
+	 * Parses every .cfm and .cfc file under a directory.
+	 *
+	 * @param root directory to search, or a single file
+	 * @param listener receives each file's result
+	 * @throws IOException if the directory cannot be walked
+	 */
+	public void parse(File root, ProjectParseListener listener) throws IOException {
+		parse(findSources(root), listener);
+	}
+
+	/**
+	 * Parses the given files, returning once every file has been handed to the listener. A file that fails to read or
+	 * parse is still reported, with {@link ProjectParseResult#getError()} set.
+	 *
+	 * @param files the files to parse
+	 * @param listener receives each file's result
+	 */
+	public void parse(Collection<File> files, ProjectParseListener listener) {
+		final List<SizedFile> queue = new ArrayList<SizedFile>(files.size());
+		for (File file : files) {
+			queue.add(new SizedFile(file, file.length()));
+		}
+		queue.sort(Comparator.comparingLong((SizedFile sized) -> sized.length).reversed());
+
+		final List<ForkJoinTask<?>> tasks = new ArrayList<ForkJoinTask<?>>(queue.size());
+		for (final SizedFile sized : queue) {
+			tasks.add(pool.submit(() -> listener.fileParsed(parseFile(sized.file))));
+		}
+		for (ForkJoinTask<?> task : tasks) {
+			task.join();
+		}
+	}
+
+	/**
+	 * Parses one file on the calling thread.
+	 *
+	 * @param file the file to parse
+	 * @return the result, never null
+	 */
+	public ProjectParseResult parseFile(File file) {
+		final long start = System.nanoTime();
+		final ResultVisitor visitor = new ResultVisitor();
+		CFMLSource source = null;
+		Throwable error = null;
+		try {
+			final String contents = CFMLFileReader.readString(file.toPath());
+			final ParseCache cache = parser.getParseCache();
+			final String dictionary = parser.getDictionaryVersion();
+			final CachedParse cached = cache == null ? null : cache.get(ParseCache.KIND_FILE, dictionary, contents);
+			if (cached != null) {
+				return new ProjectParseResult(file, null, cached.getExpressions(), cached.getScripts(),
+						cached.getMessages(), System.nanoTime() - start, null);
+			}
+			if (isScriptComponent(file.getName(), contents)) {
+				final CFScriptStatement script = parser.parseScriptUncached(contents, visitor);
+				if (script != null) {
+					visitor.scripts.add(script);
+				}
+			} else {
+				source = new CFMLSource(contents);
+				// an unclosed cfscript in this file must not skip elements of the next one parsed on this thread
+				parser.visit(source, visitor);
+			}
+			if (cache != null) {
+				cache.put(ParseCache.KIND_FILE, dictionary, contents,
+						new CachedParse(visitor.scripts, visitor.expressions, visitor.messages));
+			}
+		} catch (Throwable e) {
+			error = e;
+		}
+		return new ProjectParseResult(file, source, visitor.expressions, visitor.scripts, visitor.messages,
+				System.nanoTime() - start, error);
+	}
+
+	/**
+	 * @param root directory to search, or a single file
+	 * @return every .cfm and .cfc file under root
+	 * @throws IOException if the directory cannot be walked
+	 */
+	public static List<File> findSources(File root) throws IOException {
+		try (Stream<Path> paths = Files.walk(root.toPath())) {
+			return paths.filter(Files::isRegularFile).filter(path -> isSource(path.getFileName().toString()))
+					.map(Path::toFile).collect(Collectors.toList());
+		}
+	}
+
+	private static boolean isSource(String name) {
+		final String lower = name.toLowerCase();
+		return lower.endsWith(".cfm") || lower.endsWith(".cfc");
+	}
+
+	/**
+	 * Tells a script component from a tag file by its start rather than by whether Jericho finds markup in it, which a
+	 * string such as "&lt;div&gt;" in a script would fool, as would a .cfm of plain text the other way.
+	 *
+	 * @param name the file name
+	 * @param contents the file's contents
+	 * @return true if the file is a .cfc whose first word, after comments, imports and a pageencoding, and any abstract
+	 *         or final, is component or interface
+	 */
+	static boolean isScriptComponent(String name, CharSequence contents) {
+		if (!name.toLowerCase().endsWith(".cfc")) {
+			return false;
+		}
+		int pos = 0;
+		while (true) {
+			pos = skipSpaceAndComments(contents, pos);
+			if (pos < 0) {
+				return false;
+			}
+			int end = pos;
+			while (end < contents.length() && Character.isJavaIdentifierPart(contents.charAt(end))) {
+				end++;
+			}
+			final String word = contents.subSequence(pos, end).toString().toLowerCase();
+			if (word.equals("component") || word.equals("interface")) {
+				return true;
+			} else if (word.equals("abstract") || word.equals("final")) {
+				pos = end;
+			} else if (word.equals("import") || word.equals("pageencoding")) {
+				final int semicolon = indexOf(contents, ';', end);
+				if (semicolon < 0) {
+					return false;
+				}
+				pos = semicolon + 1;
+			} else {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * @return the offset of the first char from pos on that is not whitespace or in a script comment, or -1 if a
+	 *         comment is not closed
+	 */
+	private static int skipSpaceAndComments(CharSequence contents, int pos) {
+		final int length = contents.length();
+		while (pos < length) {
+			final char c = contents.charAt(pos);
+			if (Character.isWhitespace(c) || c == '\uFEFF') {
+				pos++;
+			} else if (c == '/' && pos + 1 < length && contents.charAt(pos + 1) == '/') {
+				final int newline = indexOf(contents, '\n', pos);
+				pos = newline < 0 ? length : newline + 1;
+			} else if (c == '/' && pos + 1 < length && contents.charAt(pos + 1) == '*') {
+				int close = pos + 2;
+				while (close + 1 < length && !(contents.charAt(close) == '*' && contents.charAt(close + 1) == '/')) {
+					close++;
+				}
+				if (close + 1 >= length) {
+					return -1;
+				}
+				pos = close + 2;
+			} else {
+				break;
+			}
+		}
+		return pos;
+	}
+
+	private static int indexOf(CharSequence contents, char c, int from) {
+		for (int i = from; i < contents.length(); i++) {
+			if (contents.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Stops the pool, waiting for any parse still running.
+	 */
+	@Override
+	public void close() throws InterruptedException {
+		pool.shutdown();
+		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+	}
+
+	private static final class SizedFile {
+		final File file;
+		final long length;
+
+		SizedFile(File file, long length) {
+			this.file = file;
+			this.length = length;
+		}
+	}
+
+	/**
+	 * Collects one file's expressions, scripts and syntax errors. Each file gets its own, so it needs no locking.
+	 */
+	private static final class ResultVisitor extends CFMLVisitor {
+
+		final List<CFExpression> expressions = new ArrayList<CFExpression>();
+		final List<CFScriptStatement> scripts = new ArrayList<CFScriptStatement>();
+		final List<ParseMessage> messages = new ArrayList<ParseMessage>();
+
+		@Override
+		public void visitElementStart(Element elem) {
+		}
+
+		@Override
+		public void visitElementEnd(Element elem) {
+		}
+
+		@Override
+		public void visitExpression(String context, CFExpression expression) {
+			expressions.add(expression);
+		}
+
+		@Override
+		public void visitScript(CFScriptStatement scriptStatement) {
+			if (scriptStatement != null) {
+				scripts.add(scriptStatement);
+			}
+		}
+
+		@Override
+		public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine,
+				String msg, RecognitionException re) {
+			final ParseError error = new ParseError(line, charPositionInLine, charPositionInLine, msg, msg);
+			error.setColumn(charPositionInLine);
+			messages.add(error);
+			super.syntaxError(recognizer, offendingSymbol, line, charPositionInLine, msg, re);
+		}
+	}
+}
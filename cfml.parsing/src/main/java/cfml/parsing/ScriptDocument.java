@@ -0,0 +1,95 @@
+package cfml.parsing;
+
+import java.util.Collections;
+import java.util.List;
+
+import cfml.parsing.cfscript.script.CFCompoundStatement;
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+
+/**
+ * A cfscript source and its parsed statement, as produced by {@link IncrementalScriptParser}. Besides the statement
+ * tree it remembers where each of the component's functions sits in the text, which is what lets an edit inside one
+ * function body be reparsed on its own.
+ *
+ * An edit splices into the statement tree in place, so once a document has been passed to
+ * {@link IncrementalScriptParser#edit} only the document returned from that call should be used.
+ */
+public class ScriptDocument {
+
+	private final String text;
+	private final CFScriptStatement statement;
+	private final boolean hadErrors;
+	private final boolean incremental;
+	final CFCompoundStatement functionContainer;
+	final List<FunctionSpan> functions;
+
+	ScriptDocument(String text, CFScriptStatement statement, boolean hadErrors, boolean incremental,
+			CFCompoundStatement functionContainer, List<FunctionSpan> functions) {
+		this.text = text;
+		this.statement = statement;
+		this.hadErrors = hadErrors;
+		this.incremental = incremental;
+		this.functionContainer = functionContainer;
+		this.functions = functions == null ? Collections.<FunctionSpan> emptyList() : functions;
+	}
+
+	public String getText() {
+		return text;
+	}
+
+	public CFScriptStatement getStatement() {
+		return statement;
+	}
+
+	/**
+	 * @return true if the parse that produced this document reported a syntax error
+	 */
+	public boolean hadErrors() {
+		return hadErrors;
+	}
+
+	/**
+	 * @return true if this document was produced by reparsing a single function rather than the whole text
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Where a top level function declaration of the component sits in the text. Offsets are character indexes,
+	 * inclusive at both ends like ANTLR token indexes.
+	 */
+	static final class FunctionSpan {
+		/** First character of the declaration, including any modifiers. */
+		final int start;
+		/** First line and column of the declaration, to restart the lexer there. */
+		final int startLine;
+		final int startColumn;
+		/** The body's opening and closing braces. */
+		final int bodyStart;
+		final int bodyStop;
+		/** Line of the closing brace. */
+		final int stopLine;
+		/** Line on which whatever follows the function (the next element, or the component's brace) starts. */
+		final int nextLine;
+		final CFFuncDeclStatement statement;
+
+		FunctionSpan(int start, int startLine, int startColumn, int bodyStart, int bodyStop, int stopLine,
+				int nextLine, CFFuncDeclStatement statement) {
+			this.start = start;
+			this.startLine = startLine;
+			this.startColumn = startColumn;
+			this.bodyStart = bodyStart;
+			this.bodyStop = bodyStop;
+			this.stopLine = stopLine;
+			this.nextLine = nextLine;
+			this.statement = statement;
+		}
+
+		FunctionSpan shift(int offsetDelta, int lineDelta) {
+			return new FunctionSpan(start + offsetDelta, startLine + lineDelta, startColumn, bodyStart + offsetDelta,
+					bodyStop + offsetDelta, stopLine + lineDelta, nextLine + lineDelta, statement);
+		}
+	}
+}
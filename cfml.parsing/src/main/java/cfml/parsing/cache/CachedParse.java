@@ -0,0 +1,43 @@
+package cfml.parsing.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import cfml.parsing.ParseMessage;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+
+/**
+ * What a {@link ParseCache} stores for one source: the parsed statements and expressions, and the messages the parse
+ * reported.
+ *
+ * Token streams are not stored, so {@link CFScriptStatement#getTokens()} is null on anything read back from the
+ * cache. Tokens held by the nodes are stored detached from their lexer, and keep their text and position.
+ */
+public class CachedParse implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final ArrayList<CFScriptStatement> scripts;
+	private final ArrayList<CFExpression> expressions;
+	private final ArrayList<ParseMessage> messages;
+
+	public CachedParse(List<CFScriptStatement> scripts, List<CFExpression> expressions, List<ParseMessage> messages) {
+		this.scripts = new ArrayList<CFScriptStatement>(scripts);
+		this.expressions = new ArrayList<CFExpression>(expressions);
+		this.messages = new ArrayList<ParseMessage>(messages);
+	}
+
+	public List<CFScriptStatement> getScripts() {
+		return scripts;
+	}
+
+	public List<CFExpression> getExpressions() {
+		return expressions;
+	}
+
+	public List<ParseMessage> getMessages() {
+		return messages;
+	}
+}
@@ -0,0 +1,220 @@
+package cfml.parsing.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import cfml.CFSCRIPTParser.CfmlExpressionContext;
+
+/**
+ * Bounded cache of expression parse trees by source text, shared by every {@link cfml.parsing.CFMLParser} in the
+ * process unless a parser is given its own.
+ *
+ * The bound is a total weight, the number of tokens in the cached trees, rather than an entry count: a tree's memory
+ * (its tokens, nodes and CharStream) grows with its token count, so a long condition costs more room than a
+ * "var result = StructNew()". Entries are spread over independently locked stripes, each an access-ordered
+ * LinkedHashMap evicting its least recently used entries once it holds more than its share of the weight, so threads
+ * looking up different expressions rarely wait on each other.
+ *
+ * Trees are only ever read once cached, so the same tree may be visited by several threads at once.
+ */
+public class ExpressionTreeCache {
+
+	/**
+	 * Roughly a few thousand typical cfset/cfif expressions, which is what repeats across a large codebase.
+	 */
+	public static final long DEFAULT_MAX_WEIGHT = 100000;
+
+	private static final int DEFAULT_STRIPES = 16;
+
+	private static final ExpressionTreeCache SHARED = new ExpressionTreeCache(DEFAULT_MAX_WEIGHT);
+
+	private final Stripe[] stripes;
+	private volatile long maxWeight;
+
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	/**
+	 * @return the process-wide cache parsers use by default
+	 */
+	public static ExpressionTreeCache shared() {
+		return SHARED;
+	}
+
+	/**
+	 * @param maxWeight the most tokens the cache may hold across all its trees
+	 */
+	public ExpressionTreeCache(long maxWeight) {
+		this(maxWeight, DEFAULT_STRIPES);
+	}
+
+	ExpressionTreeCache(long maxWeight, int stripeCount) {
+		stripes = new Stripe[stripeCount];
+		for (int i = 0; i < stripeCount; i++) {
+			stripes[i] = new Stripe();
+		}
+		this.maxWeight = maxWeight;
+	}
+
+	/**
+	 * @param source the expression text
+	 * @return the cached tree, or null
+	 */
+	public CfmlExpressionContext get(String source) {
+		final Stripe stripe = stripeFor(source);
+		final Entry entry;
+		synchronized (stripe) {
+			entry = stripe.entries.get(source);
+		}
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+		hits.increment();
+		return entry.tree;
+	}
+
+	/**
+	 * Caches a tree, evicting least recently used trees from its stripe to make room. A tree heavier than a whole
+	 * stripe is not cached.
+	 *
+	 * @param source the expression text
+	 * @param tree the parsed tree, which must not be modified afterwards
+	 * @param weight the number of tokens in the tree
+	 */
+	public void put(String source, CfmlExpressionContext tree, int weight) {
+		final long stripeLimit = stripeLimit();
+		if (weight > stripeLimit) {
+			return;
+		}
+		final Stripe stripe = stripeFor(source);
+		synchronized (stripe) {
+			final Entry previous = stripe.entries.put(source, new Entry(tree, weight));
+			if (previous != null) {
+				stripe.weight -= previous.weight;
+			}
+			stripe.weight += weight;
+			evict(stripe, stripeLimit);
+		}
+	}
+
+	/**
+	 * Removes every tree. Hit, miss and eviction counts are kept.
+	 */
+	public void clear() {
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				stripe.entries.clear();
+				stripe.weight = 0;
+			}
+		}
+	}
+
+	public long getMaxWeight() {
+		return maxWeight;
+	}
+
+	/**
+	 * Changes the bound, evicting straight away if the cache now holds too much.
+	 *
+	 * @param maxWeight the most tokens the cache may hold across all its trees
+	 */
+	public void setMaxWeight(long maxWeight) {
+		this.maxWeight = maxWeight;
+		final long stripeLimit = stripeLimit();
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				evict(stripe, stripeLimit);
+			}
+		}
+	}
+
+	/**
+	 * @return the number of tokens currently held
+	 */
+	public long getWeight() {
+		long weight = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				weight += stripe.weight;
+			}
+		}
+		return weight;
+	}
+
+	/**
+	 * @return the number of trees currently held
+	 */
+	public int size() {
+		int size = 0;
+		for (Stripe stripe : stripes) {
+			synchronized (stripe) {
+				size += stripe.entries.size();
+			}
+		}
+		return size;
+	}
+
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * Zeroes the hit, miss and eviction counts.
+	 */
+	public void resetStats() {
+		hits.reset();
+		misses.reset();
+		evictions.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "ExpressionTreeCache[size=" + size() + ", weight=" + getWeight() + "/" + maxWeight + ", hits="
+				+ getHitCount() + ", misses=" + getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+
+	private long stripeLimit() {
+		return Math.max(1, maxWeight / stripes.length);
+	}
+
+	private Stripe stripeFor(String source) {
+		final int hash = source.hashCode();
+		return stripes[((hash ^ (hash >>> 16)) & 0x7fffffff) % stripes.length];
+	}
+
+	private void evict(Stripe stripe, long stripeLimit) {
+		final Iterator<Entry> eldest = stripe.entries.values().iterator();
+		while (stripe.weight > stripeLimit && eldest.hasNext()) {
+			stripe.weight -= eldest.next().weight;
+			eldest.remove();
+			evictions.increment();
+		}
+	}
+
+	private static final class Stripe {
+		final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+		long weight;
+	}
+
+	private static final class Entry {
+		final CfmlExpressionContext tree;
+		final int weight;
+
+		Entry(CfmlExpressionContext tree, int weight) {
+			this.tree = tree;
+			this.weight = weight;
+		}
+	}
+}
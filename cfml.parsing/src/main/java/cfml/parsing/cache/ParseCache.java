@@ -0,0 +1,264 @@
+package cfml.parsing.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.antlr.v4.runtime.CommonToken;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+
+import cfml.CFSCRIPTLexer;
+import cfml.CFSCRIPTParser;
+import cfml.parsing.Version;
+
+/**
+ * Persistent on-disk cache of parse results, so that files which have not changed since the last run are not lexed
+ * and parsed again.
+ *
+ * Entries are keyed by a SHA-256 of the source text together with the parser version, the cfscript grammar and the
+ * dictionary version, so changing any of them simply misses rather than returning stale trees. Each entry is a
+ * gzipped, serialized {@link CachedParse} in its own file. Writes go to a temporary file that is then moved into
+ * place, so several threads or processes can share one directory.
+ *
+ * The cache is best effort: an entry that cannot be read (corrupt, or written by incompatible node classes) is
+ * treated as a miss and removed, and a result that cannot be serialized is not cached. Entries are read back through
+ * a filter that admits only the classes a parse result is made of, so a file planted in a shared directory cannot
+ * have arbitrary classes deserialized.
+ */
+public class ParseCache {
+
+	/** Key kind for {@link cfml.parsing.CFMLParser#parseScript(String)} results. */
+	public static final String KIND_SCRIPT = "script";
+	/** Key kind for whole-file results of {@link cfml.parsing.ProjectParser}. */
+	public static final String KIND_FILE = "file";
+
+	private static final String SUFFIX = ".ser.gz";
+
+	/**
+	 * What an entry may hold: the result, its nodes, detached tokens and messages, and the collections and boxed values
+	 * they are built of. Only the collection classes the nodes are built with are listed; Map$Entry is there because
+	 * HashMap checks the size of its entry array against the filter. Deep expression chains nest deeply, but no parse
+	 * result comes near the limits.
+	 */
+	private static final ObjectInputFilter FILTER = ObjectInputFilter.Config.createFilter(
+			"maxdepth=10000;maxarray=1000000;"
+			+ "cfml.parsing.cache.CachedParse;cfml.parsing.cfscript.*;cfml.parsing.cfscript.script.*;"
+			+ "cfml.parsing.ParseMessage;cfml.parsing.ParseError;cfml.parsing.ParseWarning;"
+			+ "org.antlr.v4.runtime.CommonToken;org.antlr.v4.runtime.misc.Pair;"
+			+ "java.util.ArrayList;java.util.HashMap;java.util.LinkedHashMap;java.util.HashSet;java.util.Map$Entry;"
+			+ "java.lang.Object;java.lang.String;java.lang.Enum;java.lang.Number;java.lang.Boolean;"
+			+ "java.lang.Integer;java.lang.Long;java.lang.Double;java.lang.Character;!*");
+
+	/**
+	 * The version of this library, which is only known in a jar built by Maven, and the serialized ATN of the cfscript
+	 * lexer and parser, which changes with the grammar however the library was built.
+	 */
+	private static final String PARSER_VERSION = Version.getVersion() + '/'
+			+ Integer.toHexString(CFSCRIPTLexer._serializedATN.hashCode()) + '/'
+			+ Integer.toHexString(CFSCRIPTParser._serializedATN.hashCode());
+
+	private final File directory;
+	private final String dictionaryVersion;
+
+	/**
+	 * Creates a cache keyed on the dictionary of each parser that uses it.
+	 *
+	 * @param directory where entries are stored; created if missing
+	 */
+	public ParseCache(File directory) {
+		this(directory, null);
+	}
+
+	/**
+	 * @param directory where entries are stored; created if missing
+	 * @param dictionaryVersion the dictionary version results depend on, in place of that of the parser, or null for
+	 *            that of the parser
+	 */
+	public ParseCache(File directory, String dictionaryVersion) {
+		this.directory = directory;
+		this.dictionaryVersion = dictionaryVersion;
+	}
+
+	public File getDirectory() {
+		return directory;
+	}
+
+	/**
+	 * @param kind what was parsed, one of the KIND_ constants
+	 * @param source the source text
+	 * @return the cached result, or null on a miss
+	 */
+	public CachedParse get(String kind, String source) {
+		return get(kind, null, source);
+	}
+
+	/**
+	 * @param kind what was parsed, one of the KIND_ constants
+	 * @param dictionary the version of the dictionary the source is parsed with, unless the cache was given one
+	 * @param source the source text
+	 * @return the cached result, or null on a miss
+	 */
+	public CachedParse get(String kind, String dictionary, String source) {
+		final Path entry = entryPath(kind, dictionary, source);
+		if (!Files.isRegularFile(entry)) {
+			return null;
+		}
+		try (ObjectInputStream in = new ObjectInputStream(
+				new GZIPInputStream(new BufferedInputStream(Files.newInputStream(entry))))) {
+			in.setObjectInputFilter(FILTER);
+			return (CachedParse) in.readObject();
+		} catch (Exception e) {
+			try {
+				Files.deleteIfExists(entry);
+			} catch (IOException e1) {
+				// Another thread may be replacing it; either way it is a miss.
+			}
+			return null;
+		}
+	}
+
+	/**
+	 * Stores a result. Failures are ignored, leaving the source uncached.
+	 *
+	 * @param kind what was parsed, one of the KIND_ constants
+	 * @param source the source text
+	 * @param parse the result to store
+	 */
+	public void put(String kind, String source, CachedParse parse) {
+		put(kind, null, source, parse);
+	}
+
+	/**
+	 * Stores a result. Failures are ignored, leaving the source uncached.
+	 *
+	 * @param kind what was parsed, one of the KIND_ constants
+	 * @param dictionary the version of the dictionary the source was parsed with, unless the cache was given one
+	 * @param source the source text
+	 * @param parse the result to store
+	 */
+	public void put(String kind, String dictionary, String source, CachedParse parse) {
+		final Path entry = entryPath(kind, dictionary, source);
+		Path temp = null;
+		try {
+			Files.createDirectories(entry.getParent());
+			temp = Files.createTempFile(entry.getParent(), "entry", ".tmp");
+			try (ObjectOutputStream out = new DetachingObjectOutputStream(
+					new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp))))) {
+				out.writeObject(parse);
+			}
+			try {
+				Files.move(temp, entry, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, entry, StandardCopyOption.REPLACE_EXISTING);
+			}
+			temp = null;
+		} catch (IOException | RuntimeException e) {
+			// Typically a node holding something that is not serializable, or failing to write itself; just don't
+			// cache it.
+		} finally {
+			if (temp != null) {
+				try {
+					Files.deleteIfExists(temp);
+				} catch (IOException e) {
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes every entry.
+	 *
+	 * @throws IOException if the directory cannot be read
+	 */
+	public void clear() throws IOException {
+		final File[] buckets = directory.listFiles();
+		if (buckets == null) {
+			return;
+		}
+		for (File bucket : buckets) {
+			final File[] entries = bucket.listFiles();
+			if (entries != null) {
+				for (File entry : entries) {
+					if (entry.getName().endsWith(SUFFIX)) {
+						Files.deleteIfExists(entry.toPath());
+					}
+				}
+			}
+		}
+	}
+
+	String key(String kind, String dictionary, String source) {
+		final MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException e) {
+			// Every JRE is required to provide SHA-256.
+			throw new IllegalStateException(e);
+		}
+		digest.update(PARSER_VERSION.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+		digest.update(String.valueOf(dictionaryVersion != null ? dictionaryVersion : dictionary)
+				.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+		digest.update(kind.getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) '\n');
+		digest.update(source.getBytes(StandardCharsets.UTF_8));
+		final StringBuilder hex = new StringBuilder(64);
+		for (byte b : digest.digest()) {
+			hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+		}
+		return hex.toString();
+	}
+
+	private Path entryPath(String kind, String dictionary, String source) {
+		final String key = key(kind, dictionary, source);
+		// Bucket by the first two hex digits so no single directory grows to tens of thousands of files.
+		return new File(new File(directory, key.substring(0, 2)), key + SUFFIX).toPath();
+	}
+
+	/**
+	 * Writes tokens without their lexer and input stream, and drops token streams altogether. Neither is
+	 * serializable, and keeping them would drag the whole source text into every entry.
+	 */
+	private static final class DetachingObjectOutputStream extends ObjectOutputStream {
+
+		DetachingObjectOutputStream(OutputStream out) throws IOException {
+			super(out);
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (obj instanceof TokenStream) {
+				return null;
+			}
+			if (obj instanceof Token) {
+				final Token token = (Token) obj;
+				final CommonToken detached = new CommonToken(token.getType(), token.getText());
+				detached.setLine(token.getLine());
+				detached.setCharPositionInLine(token.getCharPositionInLine());
+				detached.setStartIndex(token.getStartIndex());
+				detached.setStopIndex(token.getStopIndex());
+				detached.setTokenIndex(token.getTokenIndex());
+				detached.setChannel(token.getChannel());
+				return detached;
+			}
+			return obj;
+		}
+	}
+}
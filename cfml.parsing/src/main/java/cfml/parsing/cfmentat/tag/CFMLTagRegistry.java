@@ -0,0 +1,86 @@
+package cfml.parsing.cfmentat.tag;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+import cfml.dictionary.SyntaxDictionary;
+import cfml.dictionary.Tag;
+import net.htmlparser.jericho.EndTagType;
+
+/**
+ * The CFML tags of one syntax dictionary as Jericho tag types. A registry is built once per dictionary and never
+ * changed, so any number of parsers and threads can share it. Get one from {@link CFMLTags#register(SyntaxDictionary)},
+ * which also makes sure Jericho knows its tags.
+ */
+public final class CFMLTagRegistry {
+
+	private final SyntaxDictionary dictionary;
+	private final List<CFMLStartTag> tagTypes;
+	private final Set<String> tagNames;
+	private final Set<String> endTagForbiddenNames;
+
+	CFMLTagRegistry(SyntaxDictionary dictionary) {
+		this.dictionary = dictionary;
+		final List<CFMLStartTag> types = new ArrayList<CFMLStartTag>();
+		final Set<String> names = new HashSet<String>();
+		final Set<String> endTagForbidden = new HashSet<String>();
+		for (Tag tag : dictionary.getAllTags()) {
+			names.add(tag.getName().toLowerCase(Locale.ENGLISH));
+			if (tag.isSingle() || !tag.isEndtagrequired()) {
+				endTagForbidden.add(tag.getName());
+			}
+			if (!tag.getName().equals("cfif") && !tag.getName().equals("cfcomment")) {
+				if (tag.isSingle()) {
+					types.add(new CFMLStartTag(tag.getHelp(), "<" + tag.getName(), ">", null, false,
+							tag.hasParameters(), tag.isXMLStyle()));
+				} else {
+					types.add(new CFMLStartTag(tag.getHelp(), "<" + tag.getName(), ">", EndTagType.NORMAL, false,
+							tag.hasParameters(), tag.isXMLStyle()));
+				}
+			}
+		}
+		this.tagTypes = Collections.unmodifiableList(types);
+		this.tagNames = Collections.unmodifiableSet(names);
+		this.endTagForbiddenNames = Collections.unmodifiableSet(endTagForbidden);
+	}
+
+	/**
+	 * @return the dictionary the tags come from
+	 */
+	public SyntaxDictionary getDictionary() {
+		return dictionary;
+	}
+
+	/**
+	 * @return the lower case names of all the tags in the dictionary
+	 */
+	public Set<String> getTagNames() {
+		return tagNames;
+	}
+
+	/**
+	 * @param name a tag name, in any case
+	 * @return true if the dictionary defines the tag
+	 */
+	public boolean isCFMLTag(String name) {
+		return tagNames.contains(name.toLowerCase(Locale.ENGLISH));
+	}
+
+	/**
+	 * @return the names of the tags that never have an end tag
+	 */
+	public Set<String> getEndTagForbiddenNames() {
+		return endTagForbiddenNames;
+	}
+
+	/**
+	 * @return a start tag type for every tag in the dictionary but cfif and cfcomment, which have their own
+	 */
+	List<CFMLStartTag> getTagTypes() {
+		return tagTypes;
+	}
+}
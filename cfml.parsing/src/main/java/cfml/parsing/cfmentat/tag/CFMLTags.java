@@ -1,14 +1,21 @@
 package cfml.parsing.cfmentat.tag;
 
+import java.io.IOException;
+import java.net.URL;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
 import cfml.dictionary.DictionaryManager;
 import cfml.dictionary.SyntaxDictionary;
-import cfml.dictionary.Tag;
 import cfml.dictionary.preferences.DictionaryPreferences;
 import cfml.parsing.preferences.ParserPreferences;
-import net.htmlparser.jericho.EndTagType;
 import net.htmlparser.jericho.HTMLElements;
+import net.htmlparser.jericho.Logger;
+import net.htmlparser.jericho.Source;
 import net.htmlparser.jericho.StartTagType;
 import net.htmlparser.jericho.TagType;
 
@@ -36,64 +43,145 @@ public class CFMLTags {
 	private static final TagType[] TAG_TYPES = { CFML_STANDARD, CFML_COMMENT, CFML_SET, CFML_IF, CFML_ELSE, CFML_ELSEIF,
 			CFML_FUNCTION, CFML_ARGUMENT, HTML_SCRIPT, CFML_SCRIPT, CFML_RETURN, CFML_MAIL, CFML_QUERY };
 	
-	static boolean registered = false;
+	/**
+	 * The registries whose tags Jericho knows, by dictionary. The map is replaced rather than changed, so looking a
+	 * dictionary up needs no lock.
+	 */
+	private static volatile Map<SyntaxDictionary, CFMLTagRegistry> registries = Collections.emptyMap();
+	private static final Object LOCK = new Object();
+	/**
+	 * Jericho reads its static tag registries without a lock. Installing tags takes the write lock, and building and
+	 * parsing a source the read lock, so no parse ever sees the registries change.
+	 */
+	private static final ReentrantReadWriteLock JERICHO = new ReentrantReadWriteLock();
 	
-	public static void register() {
-		if (registered)
-			return;
-		
+	/**
+	 * Registers the tags of the live CF dictionary
+	 * 
+	 * @return the registry of the live CF dictionary
+	 */
+	public static CFMLTagRegistry register() {
 		DictionaryManager.initDictionaries();
-		SyntaxDictionary cfdic = DictionaryManager.getDictionary("CF_DICTIONARY");
-		Set<Tag> cfTags = cfdic.getAllTags();
-		CFMLStartTag cftag;
-		for (Tag tag : cfTags) {
-			if (tag.isSingle() || !tag.isEndtagrequired()) {
-				HTMLElements.getEndTagForbiddenElementNames().add(tag.getName());
-			}
-			
-			if (!tag.getName().equals("cfif") && !tag.getName().equals("cfcomment")) {
-				if (tag.isSingle()) {
-					cftag = new CFMLStartTag(tag.getHelp(), "<" + tag.getName(), ">", null, false, tag.hasParameters(),
-							tag.isXMLStyle());
-				} else {
-					cftag = new CFMLStartTag(tag.getHelp(), "<" + tag.getName(), ">", EndTagType.NORMAL, false,
-							tag.hasParameters(), tag.isXMLStyle());
-				}
-				cftag.register();
-			}
-		}
-		// we register these last so they override anything in the syntax dictionary
-		for (TagType tagType : TAG_TYPES)
-			tagType.register();
-		registered = true;
+		return register(DictionaryManager.getDictionary("CF_DICTIONARY"));
 	}
 	
-	public static void register(ParserPreferences prefs) {
-		if (registered)
-			return;
+	/**
+	 * Registers the tags of the CF dictionary the preferences name
+	 * 
+	 * @param prefs parser preferences
+	 * @return the registry of the CF dictionary the preferences name
+	 */
+	public static CFMLTagRegistry register(ParserPreferences prefs) {
 		DictionaryPreferences dictPrefs = new DictionaryPreferences();
 		dictPrefs.setDictionaryDir(prefs.getDictionaryDir());
 		dictPrefs.setCFDictionary(prefs.getCFDictionary());
 		DictionaryManager.initDictionaries(dictPrefs);
-		SyntaxDictionary cfdic = DictionaryManager.getDictionary("CF_DICTIONARY");
-		Set<Tag> cfTags = cfdic.getAllTags();
-		CFMLStartTag cftag;
-		for (Tag tag : cfTags) {
-			if (!tag.getName().equals("cfif") && tag.getName().equals("cfcomment")) {
-				if (tag.isSingle()) {
-					cftag = new CFMLStartTag(tag.getHelp(), "<" + tag.getName(), ">", null, false, tag.hasParameters(),
-							tag.isXMLStyle());
-				} else {
-					cftag = new CFMLStartTag(tag.getHelp(), "<" + tag.getName(), ">", EndTagType.NORMAL, false,
-							tag.hasParameters(), tag.isXMLStyle());
+		SyntaxDictionary cfdic = DictionaryManager.getDictionaryByVersion(prefs.getCFDictionary());
+		if (cfdic == null) {
+			cfdic = DictionaryManager.getDictionary("CF_DICTIONARY");
+		}
+		return register(cfdic);
+	}
+	
+	/**
+	 * Registers the tags of a dictionary with Jericho, once per dictionary. Jericho keeps tag types in static
+	 * registries, so the tags of every dictionary registered add up; what each registry knows is only its own tags.
+	 * Registering is safe from any thread, waits for sources being built by {@link #newSource(CharSequence, Logger)} to finish,
+	 * and after the first time for a dictionary costs a map lookup.
+	 * 
+	 * @param cfdic the CF dictionary
+	 * @return the registry of the dictionary
+	 */
+	public static CFMLTagRegistry register(SyntaxDictionary cfdic) {
+		CFMLTagRegistry registry = registries.get(cfdic);
+		if (registry != null) {
+			return registry;
+		}
+		synchronized (LOCK) {
+			registry = registries.get(cfdic);
+			if (registry == null) {
+				registry = new CFMLTagRegistry(cfdic);
+				final Lock write = JERICHO.writeLock();
+				write.lock();
+				try {
+					install(registry);
+				} finally {
+					write.unlock();
 				}
-				cftag.register();
+				Map<SyntaxDictionary, CFMLTagRegistry> next = new IdentityHashMap<SyntaxDictionary, CFMLTagRegistry>(
+						registries);
+				next.put(cfdic, registry);
+				registries = Collections.unmodifiableMap(next);
 			}
+			return registry;
+		}
+	}
+	
+	/**
+	 * Builds a Jericho source and parses it through to its element hierarchy, all while no tags are being installed.
+	 * Register the dictionary first.
+	 * 
+	 * @param text the CFML
+	 * @param logger gets what Jericho reports while parsing, or null for Jericho's default
+	 * @return the parsed source
+	 */
+	public static Source newSource(CharSequence text, Logger logger) {
+		final Lock read = JERICHO.readLock();
+		read.lock();
+		try {
+			return parse(new Source(text), logger);
+		} finally {
+			read.unlock();
+		}
+	}
+	
+	/**
+	 * Builds a Jericho source from a URL, with Jericho's encoding detection, and parses it as
+	 * {@link #newSource(CharSequence, Logger)} does.
+	 * 
+	 * @param url where the CFML is
+	 * @param logger gets what Jericho reports while parsing, or null for Jericho's default
+	 * @return the parsed source
+	 * @throws IOException if the URL cannot be read
+	 */
+	public static Source newSource(URL url, Logger logger) throws IOException {
+		final Lock read = JERICHO.readLock();
+		read.lock();
+		try {
+			return parse(new Source(url), logger);
+		} finally {
+			read.unlock();
+		}
+	}
+	
+	/**
+	 * Looks up every tag and builds the element hierarchy, so that later calls on the source read only its caches.
+	 */
+	private static Source parse(Source source, Logger logger) {
+		if (logger != null) {
+			source.setLogger(logger);
+		}
+		source.fullSequentialParse();
+		source.getChildElements();
+		return source;
+	}
+	
+	/**
+	 * Adds the tags of a registry to Jericho's static registries. Only called under both locks.
+	 */
+	private static void install(CFMLTagRegistry registry) {
+		Set<String> endTagForbidden = HTMLElements.getEndTagForbiddenElementNames();
+		for (String name : registry.getEndTagForbiddenNames()) {
+			if (!endTagForbidden.contains(name)) {
+				endTagForbidden.add(name);
+			}
+		}
+		for (CFMLStartTag cftag : registry.getTagTypes()) {
+			cftag.register();
 		}
 		// we register these last so they override anything in the syntax dictionary
 		for (TagType tagType : TAG_TYPES)
 			tagType.register();
-		registered = true;
 	}
 	
 }
@@ -0,0 +1,223 @@
+package cfml.parsing.cfml;
+
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.TokenStream;
+import org.antlr.v4.runtime.UnbufferedTokenStream;
+import org.antlr.v4.runtime.atn.PredictionMode;
+
+import cfml.CFMLLexer;
+import cfml.CFMLParser.AttributeContext;
+import cfml.CFMLParser.CfmlCommentContext;
+import cfml.CFMLParser.CfscriptContext;
+import cfml.CFMLParser.CfsetContext;
+import cfml.CFMLParser.EndTagContext;
+import cfml.CFMLParser.TagContext;
+import cfml.CFMLParserBaseListener;
+import cfml.parsing.util.CharSequenceCharStream;
+
+/**
+ * A {@link CFMLTagScanner} built on the CFMLLexer and CFMLParser grammars rather than written by hand. It reports the
+ * same events, in the same order, for any well formed document; where a document is broken, the two may disagree on
+ * how far a string or tag runs.
+ *
+ * The lexer does the work: a tag, its attributes and its end are one token each, and text and cfscript bodies are
+ * skipped without making tokens, so that the lexer's DFA, which is shared by every lexer in the JVM, is soon warm for
+ * every tag a code base uses. The parser only orders the tokens into tags, and reports each tag from a parse listener
+ * as it ends, without building a parse tree. The tokens are not buffered, so as with the hand written scanner memory
+ * use does not grow with the size of the document.
+ *
+ * A scanner has no fields, so one instance may scan any number of documents, from any number of threads.
+ */
+public class CFMLGrammarScanner extends CFMLTagScanner {
+
+	@Override
+	public void scan(CharSequence source, CFMLScanHandler handler) throws Exception {
+		final CFMLLexer lexer = new CFMLLexer(new CharSequenceCharStream(source, 0, source.length()));
+		lexer.removeErrorListeners();
+		final TokenStream tokens = new UnbufferedTokenStream(lexer);
+		final cfml.CFMLParser parser = new cfml.CFMLParser(tokens);
+		parser.removeErrorListeners();
+		parser.setBuildParseTree(false);
+		// every decision is LL(1), so SLL never needs to fall back
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.addParseListener(new Events(source, handler, tokens));
+		try {
+			parser.htmlDocument();
+		} catch (HandlerException e) {
+			throw (Exception) e.getCause();
+		}
+	}
+
+	/**
+	 * Carries what a handler threw out through the parser, which only lets unchecked exceptions through.
+	 */
+	private static final class HandlerException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		HandlerException(Exception cause) {
+			super(cause);
+		}
+	}
+
+	/**
+	 * Turns the rules the parser enters and leaves into the handler's events.
+	 */
+	private static final class Events extends CFMLParserBaseListener {
+
+		private final CharSequence source;
+		private final CFMLScanHandler handler;
+		private final TokenStream tokens;
+
+		Events(CharSequence source, CFMLScanHandler handler, TokenStream tokens) {
+			this.source = source;
+			this.handler = handler;
+			this.tokens = tokens;
+		}
+
+		@Override
+		public void enterCfscript(CfscriptContext ctx) {
+			startTag(ctx.getStart());
+		}
+
+		@Override
+		public void exitCfscript(CfscriptContext ctx) {
+			final int end = startTagEnd(ctx.open, ctx.close);
+			if (ctx.close != null && ctx.close.getType() == CFMLLexer.TAG_CLOSE && end < source.length()) {
+				try {
+					// the end tag, or the end of the document, is next
+					handler.script(source, end, tokens.LT(1).getStartIndex());
+				} catch (Exception e) {
+					throw new HandlerException(e);
+				}
+			}
+		}
+
+		@Override
+		public void enterCfset(CfsetContext ctx) {
+			startTag(ctx.getStart());
+		}
+
+		@Override
+		public void exitCfset(CfsetContext ctx) {
+			final int begin = ctx.open.getStopIndex() + 1;
+			final int close = ctx.close == null ? source.length() : ctx.close.getStartIndex();
+			int exprEnd = close;
+			boolean selfClosing = false;
+			if (ctx.close != null) {
+				// the slash of a self-closing tag is left out, as the tag scanner does
+				int last = close - 1;
+				while (last >= begin && Character.isWhitespace(source.charAt(last))) {
+					last--;
+				}
+				if (last >= begin && source.charAt(last) == '/') {
+					selfClosing = true;
+					exprEnd = last;
+				}
+			}
+			try {
+				handler.expression(source, begin, exprEnd);
+				handler.startTagEnd(source, ctx.open.getStartIndex(),
+						ctx.close == null ? source.length() : close + 1, selfClosing);
+			} catch (Exception e) {
+				throw new HandlerException(e);
+			}
+		}
+
+		@Override
+		public void enterTag(TagContext ctx) {
+			startTag(ctx.getStart());
+		}
+
+		@Override
+		public void exitTag(TagContext ctx) {
+			startTagEnd(ctx.open, ctx.close);
+		}
+
+		@Override
+		public void exitAttribute(AttributeContext ctx) {
+			if (ctx.name == null) {
+				return;
+			}
+			final int nameBegin = ctx.name.getStartIndex();
+			final int nameEnd = ctx.name.getStopIndex() + 1;
+			int valueBegin = -1;
+			int valueEnd = -1;
+			if (ctx.value != null) {
+				valueBegin = ctx.value.getStartIndex();
+				valueEnd = ctx.value.getStopIndex() + 1;
+				final char quote = source.charAt(valueBegin);
+				if (quote == '"' || quote == '\'') {
+					// an unterminated value runs to the end of the document
+					valueBegin++;
+					if (valueEnd > valueBegin && source.charAt(valueEnd - 1) == quote) {
+						valueEnd--;
+					}
+				}
+			} else if (ctx.eq != null) {
+				// an empty value, where the '>' or the end of the document is
+				valueBegin = tokens.LT(1).getStartIndex();
+				valueEnd = valueBegin;
+			}
+			try {
+				handler.attribute(source, nameBegin, nameEnd, valueBegin, valueEnd);
+			} catch (Exception e) {
+				throw new HandlerException(e);
+			}
+		}
+
+		@Override
+		public void exitEndTag(EndTagContext ctx) {
+			final Token token = ctx.getStart();
+			final int begin = token.getStartIndex();
+			int nameEnd = begin + 2;
+			while (nameEnd <= token.getStopIndex() && isNameChar(source.charAt(nameEnd))) {
+				nameEnd++;
+			}
+			try {
+				handler.endTag(source, begin, nameEnd, token.getStopIndex() + 1);
+			} catch (Exception e) {
+				throw new HandlerException(e);
+			}
+		}
+
+		@Override
+		public void exitCfmlComment(CfmlCommentContext ctx) {
+			final Token token = ctx.getStart();
+			try {
+				handler.comment(source, token.getStartIndex(), token.getStopIndex() + 1);
+			} catch (Exception e) {
+				throw new HandlerException(e);
+			}
+		}
+
+		/**
+		 * @param open the token of the '&lt;' and the tag name
+		 */
+		private void startTag(Token open) {
+			try {
+				handler.startTag(source, open.getStartIndex(), open.getStopIndex() + 1);
+			} catch (Exception e) {
+				throw new HandlerException(e);
+			}
+		}
+
+		/**
+		 * @return the end of the start tag
+		 */
+		private int startTagEnd(Token open, Token close) {
+			final int end = close == null ? source.length() : close.getStopIndex() + 1;
+			try {
+				handler.startTagEnd(source, open.getStartIndex(), end,
+						close != null && close.getType() == CFMLLexer.TAG_SLASH_CLOSE);
+			} catch (Exception e) {
+				throw new HandlerException(e);
+			}
+			return end;
+		}
+
+		private static boolean isNameChar(char c) {
+			return Character.isLetterOrDigit(c) || c == '_' || c == ':' || c == '-' || c == '.';
+		}
+	}
+}
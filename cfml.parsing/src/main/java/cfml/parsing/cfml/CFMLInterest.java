@@ -0,0 +1,161 @@
+package cfml.parsing.cfml;
+
+import java.util.Locale;
+
+/**
+ * What a {@link CFMLVisitor} wants from a document, so that the parser can leave the rest alone rather than parse it
+ * only for the visitor to throw it away. The parser asks for it once, when it starts on a document or element, through
+ * {@link CFMLVisitor#getInterest()}.
+ *
+ * <ul>
+ * <li>tags: the elements reported to visitElementStart and visitElementEnd. The children of an element that is not
+ * reported are still walked, so a cfquery inside a cffunction is found either way.</li>
+ * <li>expressions: the tags (cfset, cfif, cfelseif, cfreturn) whose expressions are parsed and visited.</li>
+ * <li>scripts: whether cfscript bodies are parsed and visited.</li>
+ * <li>function bodies: whether anything inside a cffunction other than its cfarguments is walked.</li>
+ * <li>pre-parse text: whether a tag's expression is copied out of the document and handed to
+ * {@link CFMLVisitor#visitPreParseExpression(String, String)} before it is parsed. Off unless asked for, as most
+ * visitors have no use for the copy.</li>
+ * </ul>
+ *
+ * Instances are immutable; the with methods return a copy.
+ */
+public final class CFMLInterest {
+
+	/** Every tag, expression, script and function body, which is what a visitor gets unless it says otherwise. */
+	public static final CFMLInterest EVERYTHING = new CFMLInterest(null, null, true, true, false);
+	/** No tags, expressions or scripts, to build on with the with methods. Function bodies are walked. */
+	public static final CFMLInterest NOTHING = new CFMLInterest(new String[0], new String[0], false, true, false);
+
+	/** lower case tag names, or null for all of them */
+	private final String[] tags;
+	private final String[] expressions;
+	private final boolean scripts;
+	private final boolean functionBodies;
+	private final boolean preParseText;
+
+	private CFMLInterest(String[] tags, String[] expressions, boolean scripts, boolean functionBodies,
+			boolean preParseText) {
+		this.tags = tags;
+		this.expressions = expressions;
+		this.scripts = scripts;
+		this.functionBodies = functionBodies;
+		this.preParseText = preParseText;
+	}
+
+	/**
+	 * @param names the tags whose elements are reported, in any case
+	 */
+	public CFMLInterest withTags(String... names) {
+		return new CFMLInterest(lowerCase(names), expressions, scripts, functionBodies, preParseText);
+	}
+
+	/**
+	 * Reports the elements of every tag.
+	 */
+	public CFMLInterest withAllTags() {
+		return new CFMLInterest(null, expressions, scripts, functionBodies, preParseText);
+	}
+
+	/**
+	 * @param names the tags whose expressions are parsed, out of cfset, cfif, cfelseif and cfreturn, in any case
+	 */
+	public CFMLInterest withExpressions(String... names) {
+		return new CFMLInterest(tags, lowerCase(names), scripts, functionBodies, preParseText);
+	}
+
+	/**
+	 * Parses the expressions of every tag that has one.
+	 */
+	public CFMLInterest withAllExpressions() {
+		return new CFMLInterest(tags, null, scripts, functionBodies, preParseText);
+	}
+
+	public CFMLInterest withScripts(boolean scripts) {
+		return new CFMLInterest(tags, expressions, scripts, functionBodies, preParseText);
+	}
+
+	public CFMLInterest withFunctionBodies(boolean functionBodies) {
+		return new CFMLInterest(tags, expressions, scripts, functionBodies, preParseText);
+	}
+
+	/**
+	 * @return true if elements of the tag are reported
+	 */
+	public boolean wantsTag(String name) {
+		return contains(tags, name, 0, name.length());
+	}
+
+	/**
+	 * @return true if the tag whose name lies between begin and end in source is reported
+	 */
+	public boolean wantsTag(CharSequence source, int begin, int end) {
+		return contains(tags, source, begin, end);
+	}
+
+	/**
+	 * @return true if the expression of the tag is parsed
+	 */
+	public boolean wantsExpression(String name) {
+		return contains(expressions, name, 0, name.length());
+	}
+
+	/**
+	 * @return true if the expression of the tag whose name lies between begin and end in source is parsed
+	 */
+	public boolean wantsExpression(CharSequence source, int begin, int end) {
+		return contains(expressions, source, begin, end);
+	}
+
+	public boolean wantsScripts() {
+		return scripts;
+	}
+
+	/**
+	 * @param preParseText true to have each tag expression handed to
+	 *            {@link CFMLVisitor#visitPreParseExpression(String, String)} as a String
+	 */
+	public CFMLInterest withPreParseText(boolean preParseText) {
+		return new CFMLInterest(tags, expressions, scripts, functionBodies, preParseText);
+	}
+
+	public boolean wantsFunctionBodies() {
+		return functionBodies;
+	}
+
+	public boolean wantsPreParseText() {
+		return preParseText;
+	}
+
+	private static String[] lowerCase(String[] names) {
+		final String[] lower = new String[names.length];
+		for (int i = 0; i < names.length; i++) {
+			lower[i] = names[i].toLowerCase(Locale.ENGLISH);
+		}
+		return lower;
+	}
+
+	/**
+	 * Looks the name up without copying it out of the source. The sets are a handful of names at most, so a scan does.
+	 */
+	private static boolean contains(String[] names, CharSequence source, int begin, int end) {
+		if (names == null) {
+			return true;
+		}
+		for (String name : names) {
+			if (name.length() == end - begin && regionMatchesIgnoreCase(source, begin, name)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean regionMatchesIgnoreCase(CharSequence source, int begin, String lowerCase) {
+		for (int i = 0; i < lowerCase.length(); i++) {
+			if (Character.toLowerCase(source.charAt(begin + i)) != lowerCase.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -0,0 +1,87 @@
+package cfml.parsing.cfml;
+
+/**
+ * Receives the events of a {@link CFMLTagScanner}. Every event is a range of offsets into the scanned text, begin
+ * inclusive and end exclusive, so nothing is copied out of the source unless the handler asks for it with
+ * {@link CharSequence#subSequence(int, int)}.
+ *
+ * All events do nothing by default; override the ones of interest.
+ */
+public abstract class CFMLScanHandler {
+
+	/**
+	 * A start tag has been opened. Its attributes, or its expression, follow, and then {@link #startTagEnd}.
+	 *
+	 * @param source the scanned text
+	 * @param begin offset of the '&lt;'
+	 * @param nameEnd end of the tag name, which starts at begin + 1
+	 */
+	public void startTag(CharSequence source, int begin, int nameEnd) throws Exception {
+	}
+
+	/**
+	 * An attribute of the current start tag.
+	 *
+	 * @param source the scanned text
+	 * @param nameBegin start of the attribute name
+	 * @param nameEnd end of the attribute name
+	 * @param valueBegin start of the value, without its quotes, or -1 if the attribute has no value
+	 * @param valueEnd end of the value, or -1 if the attribute has no value
+	 */
+	public void attribute(CharSequence source, int nameBegin, int nameEnd, int valueBegin, int valueEnd)
+			throws Exception {
+	}
+
+	/**
+	 * The body of a tag whose content is a CFML expression rather than attributes (cfset, cfif, cfelseif and
+	 * cfreturn), with the slash of a self-closing tag already left out. The range is not trimmed.
+	 *
+	 * @param source the scanned text
+	 * @param begin start of the expression, just after the tag name
+	 * @param end end of the expression
+	 */
+	public void expression(CharSequence source, int begin, int end) throws Exception {
+	}
+
+	/**
+	 * The current start tag has been closed.
+	 *
+	 * @param source the scanned text
+	 * @param begin offset of the tag's '&lt;'
+	 * @param end offset just past the '&gt;', or the length of the text if the tag is never closed
+	 * @param selfClosing true if the tag ended with "/&gt;"
+	 */
+	public void startTagEnd(CharSequence source, int begin, int end, boolean selfClosing) throws Exception {
+	}
+
+	/**
+	 * An end tag.
+	 *
+	 * @param source the scanned text
+	 * @param begin offset of the '&lt;'
+	 * @param nameEnd end of the tag name, which starts at begin + 2
+	 * @param end offset just past the '&gt;'
+	 */
+	public void endTag(CharSequence source, int begin, int nameEnd, int end) throws Exception {
+	}
+
+	/**
+	 * A CFML comment, including its nested comments.
+	 *
+	 * @param source the scanned text
+	 * @param begin offset of the "&lt;!---"
+	 * @param end offset just past the "---&gt;", or the length of the text if the comment is never closed
+	 */
+	public void comment(CharSequence source, int begin, int end) throws Exception {
+	}
+
+	/**
+	 * The body of a cfscript tag. The end tag is reported separately, straight after.
+	 *
+	 * @param source the scanned text
+	 * @param begin offset just past the cfscript start tag
+	 * @param end offset of the "&lt;/cfscript", or the length of the text if there is no end tag
+	 */
+	public void script(CharSequence source, int begin, int end) throws Exception {
+	}
+}
@@ -0,0 +1,328 @@
+package cfml.parsing.cfml;
+
+/**
+ * Single pass, event based scanner for CFML documents. Unlike {@link cfml.parsing.CFMLSource}, which builds Jericho's
+ * element and tag caches for the whole document, the scanner keeps no state beyond its position: tags, attributes,
+ * comments and cfscript bodies are reported to a {@link CFMLScanHandler} as offset ranges as soon as they are found,
+ * so memory use does not grow with the size of the document.
+ *
+ * The scanner does not pair start and end tags or build a tree; a handler that needs nesting keeps its own stack.
+ * Text between tags, including HTML comments (whose CFML tags the server still runs), is scanned for tags but not
+ * reported.
+ *
+ * A scanner has no fields, so one instance may scan any number of documents, from any number of threads.
+ */
+public class CFMLTagScanner {
+
+	private static final String COMMENT_START = "<!---";
+	private static final String COMMENT_END = "--->";
+	private static final String SCRIPT_END = "</cfscript";
+
+	/**
+	 * Scans a whole document.
+	 *
+	 * @param source the document
+	 * @param handler receives the events, in document order
+	 * @throws Exception whatever the handler throws
+	 */
+	public void scan(CharSequence source, CFMLScanHandler handler) throws Exception {
+		final int length = source.length();
+		int pos = 0;
+		while (pos < length) {
+			if (source.charAt(pos) != '<') {
+				pos++;
+			} else if (regionMatches(source, pos, COMMENT_START)) {
+				pos = scanComment(source, pos, handler);
+			} else if (pos + 2 < length && source.charAt(pos + 1) == '/' && isNameStart(source.charAt(pos + 2))) {
+				pos = scanEndTag(source, pos, handler);
+			} else if (pos + 1 < length && isNameStart(source.charAt(pos + 1))) {
+				pos = scanStartTag(source, pos, handler);
+			} else {
+				pos++;
+			}
+		}
+	}
+
+	private int scanComment(CharSequence source, int begin, CFMLScanHandler handler) throws Exception {
+		final int length = source.length();
+		// CFML comments nest, unlike HTML ones.
+		int depth = 1;
+		int pos = begin + COMMENT_START.length();
+		while (pos < length && depth > 0) {
+			if (regionMatches(source, pos, COMMENT_START)) {
+				depth++;
+				pos += COMMENT_START.length();
+			} else if (regionMatches(source, pos, COMMENT_END)) {
+				depth--;
+				pos += COMMENT_END.length();
+			} else {
+				pos++;
+			}
+		}
+		handler.comment(source, begin, pos);
+		return pos;
+	}
+
+	private int scanEndTag(CharSequence source, int begin, CFMLScanHandler handler) throws Exception {
+		final int nameEnd = nameEnd(source, begin + 2);
+		final int end = indexOf(source, '>', nameEnd);
+		handler.endTag(source, begin, nameEnd, end < 0 ? source.length() : end + 1);
+		return end < 0 ? source.length() : end + 1;
+	}
+
+	private int scanStartTag(CharSequence source, int begin, CFMLScanHandler handler) throws Exception {
+		final int length = source.length();
+		final int nameBegin = begin + 1;
+		final int nameEnd = nameEnd(source, nameBegin);
+		final boolean cfTag = nameEnd - nameBegin > 2 && regionMatches(source, nameBegin, "cf");
+		handler.startTag(source, begin, nameEnd);
+
+		int end = length;
+		boolean selfClosing = false;
+		if (cfTag && isExpressionTag(source, nameBegin, nameEnd)) {
+			final int close = expressionEnd(source, nameEnd);
+			int exprEnd = close;
+			if (close < length) {
+				end = close + 1;
+				// Dropping the '>' leaves the slash of a self-closing tag behind. An expression can never
+				// legitimately end in '/' - division needs a right operand - so removing it is safe.
+				int last = close - 1;
+				while (last >= nameEnd && Character.isWhitespace(source.charAt(last))) {
+					last--;
+				}
+				if (last >= nameEnd && source.charAt(last) == '/') {
+					selfClosing = true;
+					exprEnd = last;
+				}
+			}
+			handler.expression(source, nameEnd, exprEnd);
+		} else {
+			int pos = nameEnd;
+			while (pos < length) {
+				final char c = source.charAt(pos);
+				if (c == '>') {
+					end = pos + 1;
+					break;
+				}
+				if (c == '/' && pos + 1 < length && source.charAt(pos + 1) == '>') {
+					selfClosing = true;
+					end = pos + 2;
+					break;
+				}
+				if (c == '"' || c == '\'') {
+					// A value without a name, as in <cfinclude "x.cfm">; skip it whole.
+					pos = afterQuoted(source, pos, cfTag);
+					continue;
+				}
+				if (Character.isWhitespace(c) || isAttributeNameEnd(c)) {
+					pos++;
+					continue;
+				}
+				pos = scanAttribute(source, pos, cfTag, handler);
+			}
+		}
+		handler.startTagEnd(source, begin, end, selfClosing);
+
+		if (!selfClosing && end < length && nameEnd - nameBegin == "cfscript".length()
+				&& regionMatches(source, nameBegin, "cfscript")) {
+			// The body is script, not markup, so nothing in it is scanned for tags.
+			final int close = indexOf(source, SCRIPT_END, end);
+			handler.script(source, end, close < 0 ? length : close);
+			return close < 0 ? length : scanEndTag(source, close, handler);
+		}
+		return end;
+	}
+
+	private int scanAttribute(CharSequence source, int nameBegin, boolean cfTag, CFMLScanHandler handler)
+			throws Exception {
+		final int length = source.length();
+		int pos = nameBegin;
+		while (pos < length && !Character.isWhitespace(source.charAt(pos)) && !isAttributeNameEnd(source.charAt(pos))) {
+			pos++;
+		}
+		final int nameEnd = pos;
+		pos = skipWhitespace(source, pos);
+		if (pos >= length || source.charAt(pos) != '=') {
+			handler.attribute(source, nameBegin, nameEnd, -1, -1);
+			return pos;
+		}
+		pos = skipWhitespace(source, pos + 1);
+		if (pos >= length) {
+			handler.attribute(source, nameBegin, nameEnd, pos, pos);
+			return pos;
+		}
+		final char c = source.charAt(pos);
+		if (c == '"' || c == '\'') {
+			final int close = closingQuote(source, pos, cfTag);
+			// An unterminated value runs to the end of the document.
+			handler.attribute(source, nameBegin, nameEnd, pos + 1, close < 0 ? length : close);
+			return close < 0 ? length : close + 1;
+		}
+		final int valueBegin = pos;
+		while (pos < length) {
+			final char v = source.charAt(pos);
+			if (Character.isWhitespace(v) || v == '>' || (v == '/' && pos + 1 < length && source.charAt(pos + 1) == '>')) {
+				break;
+			}
+			pos++;
+		}
+		handler.attribute(source, nameBegin, nameEnd, valueBegin, pos);
+		return pos;
+	}
+
+	/**
+	 * @return the offset just past the string opening at quote, or the length of the text if it is never closed
+	 */
+	private int afterQuoted(CharSequence source, int quote, boolean cfTag) {
+		final int close = closingQuote(source, quote, cfTag);
+		return close < 0 ? source.length() : close + 1;
+	}
+
+	/**
+	 * @return the offset of the quote closing the string opening at quote, or -1 if it is never closed
+	 */
+	private int closingQuote(CharSequence source, int quote, boolean cfTag) {
+		final int length = source.length();
+		final char q = source.charAt(quote);
+		int pos = quote + 1;
+		while (pos < length) {
+			final char c = source.charAt(pos);
+			if (c == q) {
+				if (pos + 1 < length && source.charAt(pos + 1) == q) {
+					// A doubled quote is an escaped one.
+					pos += 2;
+					continue;
+				}
+				return pos;
+			}
+			if (c == '#' && cfTag) {
+				if (pos + 1 < length && source.charAt(pos + 1) == '#') {
+					pos += 2;
+					continue;
+				}
+				// Quotes inside #...# belong to the expression, as in value="#fn("x")#".
+				final int close = poundEnd(source, pos);
+				if (close > 0) {
+					pos = close;
+					continue;
+				}
+			}
+			pos++;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the offset just past the '#' closing the expression opened at pound, or -1 if there is none on the same
+	 *         line, in which case the '#' is taken literally
+	 */
+	private int poundEnd(CharSequence source, int pound) {
+		final int length = source.length();
+		int pos = pound + 1;
+		while (pos < length) {
+			final char c = source.charAt(pos);
+			if (c == '#') {
+				return pos + 1;
+			}
+			if (c == '\n') {
+				return -1;
+			}
+			pos = c == '"' || c == '\'' ? afterQuoted(source, pos, true) : pos + 1;
+		}
+		return -1;
+	}
+
+	/**
+	 * @return the offset of the '>' closing an expression tag, or the length of the text
+	 */
+	private int expressionEnd(CharSequence source, int pos) {
+		final int length = source.length();
+		while (pos < length) {
+			final char c = source.charAt(pos);
+			if (c == '"' || c == '\'') {
+				pos = afterQuoted(source, pos, true);
+			} else if (c == '<' && pos + 1 < length && source.charAt(pos + 1) == '>') {
+				// The <> operator, as in <cfif a <> b>.
+				pos += 2;
+			} else if (c == '>') {
+				return pos;
+			} else {
+				pos++;
+			}
+		}
+		return length;
+	}
+
+	private static boolean isExpressionTag(CharSequence source, int nameBegin, int nameEnd) {
+		switch (nameEnd - nameBegin) {
+		case 4:
+			return regionMatches(source, nameBegin, "cfif");
+		case 5:
+			return regionMatches(source, nameBegin, "cfset");
+		case 8:
+			return regionMatches(source, nameBegin, "cfelseif") || regionMatches(source, nameBegin, "cfreturn");
+		default:
+			return false;
+		}
+	}
+
+	private static boolean isNameStart(char c) {
+		return Character.isLetter(c) || c == '_';
+	}
+
+	private static int nameEnd(CharSequence source, int pos) {
+		final int length = source.length();
+		while (pos < length) {
+			final char c = source.charAt(pos);
+			if (!Character.isLetterOrDigit(c) && c != '_' && c != ':' && c != '-' && c != '.') {
+				break;
+			}
+			pos++;
+		}
+		return pos;
+	}
+
+	private static boolean isAttributeNameEnd(char c) {
+		return c == '=' || c == '>' || c == '/' || c == '"' || c == '\'';
+	}
+
+	private static int skipWhitespace(CharSequence source, int pos) {
+		while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+			pos++;
+		}
+		return pos;
+	}
+
+	private static int indexOf(CharSequence source, char c, int from) {
+		for (int i = from; i < source.length(); i++) {
+			if (source.charAt(i) == c) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private static int indexOf(CharSequence source, String s, int from) {
+		for (int i = from; i <= source.length() - s.length(); i++) {
+			if (regionMatches(source, i, s)) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Case insensitive comparison of part of the source with s, which must be lower case.
+	 */
+	private static boolean regionMatches(CharSequence source, int pos, String s) {
+		if (pos + s.length() > source.length()) {
+			return false;
+		}
+		for (int i = 0; i < s.length(); i++) {
+			if (Character.toLowerCase(source.charAt(pos + i)) != s.charAt(i)) {
+				return false;
+			}
+		}
+		return true;
+	}
+}
@@ -53,16 +53,62 @@ public abstract class CFMLVisitor implements ANTLRErrorListener {
 		
 	}
 	
+	/**
+	 * What the parser should hand this visitor, asked once per document or element visited. Anything left out is
+	 * skipped rather than parsed.
+	 * 
+	 * @return {@link CFMLInterest#EVERYTHING} unless overridden
+	 */
+	public CFMLInterest getInterest() {
+		return CFMLInterest.EVERYTHING;
+	}
+	
 	public abstract void visitElementStart(Element elem);
 	
 	public abstract void visitElementEnd(Element elem);
 	
+	/**
+	 * Called after {@link #visitElementStart(Element)} and the element's own expression or script. A visitor that has
+	 * no interest in what an element holds returns false, and its children are not walked; visitElementEnd is still
+	 * called.
+	 * 
+	 * @return false to skip the element's children
+	 */
+	public boolean visitChildren(Element elem) {
+		return true;
+	}
+	
+	/**
+	 * Called with each expression parsed. Expressions parsed from a tag in a document carry the positions they have in
+	 * the document: their offsets count from the start of the document, and their lines and columns are the document's.
+	 */
 	public abstract void visitExpression(String context, CFExpression expression);
 	
 	public abstract void visitScript(CFScriptStatement scriptStatement);
 	
+	/**
+	 * Called with the text of a tag's expression before it is parsed. Parsers that read expressions straight from the
+	 * document call it only if the visitor's interest asks for the text with
+	 * {@link CFMLInterest#withPreParseText(boolean)}, and call
+	 * {@link #visitPreParseExpression(String, CharSequence, int, int)} otherwise.
+	 * 
+	 * @return false to skip parsing the expression
+	 */
 	public boolean visitPreParseExpression(String context, String cfscript) {
 		return true;
 	}
 	
+	/**
+	 * Called before a tag's expression is parsed, by parsers that read expressions straight from the document, unless
+	 * the visitor's interest asks for the text as a String. Nothing is copied out of the document.
+	 * 
+	 * @param source the document
+	 * @param begin the offset of the expression
+	 * @param end the offset just past the expression
+	 * @return false to skip parsing the expression
+	 */
+	public boolean visitPreParseExpression(String context, CharSequence source, int begin, int end) {
+		return true;
+	}
+	
 }
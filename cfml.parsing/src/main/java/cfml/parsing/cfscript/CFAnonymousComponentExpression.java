@@ -6,6 +6,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.script.CFCompDeclStatement;
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 /**
@@ -53,4 +54,9 @@ public class CFAnonymousComponentExpression extends CFExpression {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement(componentDeclaration);
 	}
+
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitAnonymousComponentExpression(this);
+	}
 }
@@ -4,6 +4,7 @@ import java.util.List;
 
 import cfml.parsing.cfscript.script.CFFuncDeclStatement;
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 /**
@@ -50,4 +51,9 @@ public class CFAnonymousFunctionExpression extends CFExpression {
 		return ArrayBuilder.createCFScriptStatement(funcDeclStatement);
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitAnonymousFunctionExpression(this);
+	}
+	
 }
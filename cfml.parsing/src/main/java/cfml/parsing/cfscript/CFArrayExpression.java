@@ -6,6 +6,7 @@ import java.util.List;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFArrayExpression extends CFExpression {
@@ -59,4 +60,9 @@ public class CFArrayExpression extends CFExpression {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitArrayExpression(this);
+	}
 }
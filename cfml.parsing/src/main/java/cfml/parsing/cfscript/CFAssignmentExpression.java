@@ -7,6 +7,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.CFSCRIPTParser;
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFAssignmentExpression extends CFExpression {
@@ -140,4 +141,9 @@ public class CFAssignmentExpression extends CFExpression {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitAssignmentExpression(this);
+	}
 }
@@ -6,6 +6,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.CFSCRIPTLexer;
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFBinaryExpression extends CFExpression {
@@ -77,4 +78,9 @@ public class CFBinaryExpression extends CFExpression {
 		return ArrayBuilder.createCFScriptStatement();
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitBinaryExpression(this);
+	}
+	
 }
@@ -2,6 +2,8 @@ package cfml.parsing.cfscript;
 
 import org.antlr.v4.runtime.Token;
 
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
+
 public class CFElvisExpression extends CFBinaryExpression {
 	
 	private static final long serialVersionUID = 1L;
@@ -16,4 +18,9 @@ public class CFElvisExpression extends CFBinaryExpression {
 		return "" + _left.Decompile(indent) + " " + operatorImage + " " + _right.Decompile(indent);
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitElvisExpression(this);
+	}
+	
 }
@@ -1,5 +1,7 @@
 package cfml.parsing.cfscript;
 
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
+
 public abstract class CFExpression extends CFParsedStatement {
 	private static final long serialVersionUID = 1L;
 	
@@ -18,4 +20,12 @@ public abstract class CFExpression extends CFParsedStatement {
 		super(t);
 	}
 	
+	/**
+	 * Passes this expression to the method of the visitor for its class. Subclasses of this library override this;
+	 * any other comes to visitExpression.
+	 */
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitExpression(this);
+	}
+	
 }
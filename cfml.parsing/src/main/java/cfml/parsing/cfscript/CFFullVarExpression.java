@@ -9,6 +9,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.CFSCRIPTLexer;
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFFullVarExpression extends CFIdentifier {
@@ -134,4 +135,9 @@ public class CFFullVarExpression extends CFIdentifier {
 	public String toString() {
 		return Decompile(0);
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitFullVarExpression(this);
+	}
 }
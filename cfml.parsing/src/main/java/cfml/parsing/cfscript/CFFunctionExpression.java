@@ -6,6 +6,7 @@ import java.util.List;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.reporting.ParseException;
 import cfml.parsing.util.ArrayBuilder;
 
@@ -115,4 +116,9 @@ public class CFFunctionExpression extends CFMember {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement(body);
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitFunctionExpression(this);
+	}
 }
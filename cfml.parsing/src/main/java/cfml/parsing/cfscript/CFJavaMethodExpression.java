@@ -12,6 +12,7 @@ import java.util.List;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFJavaMethodExpression extends CFExpression {
@@ -97,4 +98,9 @@ public class CFJavaMethodExpression extends CFExpression {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitJavaMethodExpression(this);
+	}
 }
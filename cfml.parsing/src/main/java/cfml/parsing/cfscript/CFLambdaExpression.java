@@ -6,6 +6,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.script.CFFuncDeclStatement;
 import cfml.parsing.cfscript.script.CFFunctionParameter;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 
 /**
  * An arrow function: <code>(a, b) =&gt; a + b</code> or <code>(a) =&gt; { return a; }</code>.
@@ -77,4 +78,9 @@ public class CFLambdaExpression extends CFAnonymousFunctionExpression {
 		return sb.toString();
 	}
 
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitLambdaExpression(this);
+	}
+
 }
@@ -6,6 +6,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.CFSCRIPTLexer;
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFLiteral extends CFExpression {
@@ -94,4 +95,9 @@ public class CFLiteral extends CFExpression {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitLiteral(this);
+	}
 }
@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.List;
 
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFMultipartIdentifier extends CFIdentifier {
@@ -54,4 +55,9 @@ public class CFMultipartIdentifier extends CFIdentifier {
 		return ArrayBuilder.createCFScriptStatement();
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitMultipartIdentifier(this);
+	}
+	
 }
@@ -3,6 +3,7 @@ package cfml.parsing.cfscript;
 import java.util.List;
 
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 /**
@@ -50,4 +51,9 @@ public class CFNestedExpression extends CFExpression {
 		return ArrayBuilder.createCFScriptStatement();
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitNestedExpression(this);
+	}
+	
 }
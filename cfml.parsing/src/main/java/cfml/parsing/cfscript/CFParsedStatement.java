@@ -76,6 +76,18 @@ public abstract class CFParsedStatement implements CFStatement, java.io.Serializ
 		return col;
 	}
 	
+	/**
+	 * Moves this expression by the given number of characters and lines, for splicing an edit into an existing tree.
+	 * Only this expression moves, not its children or its token.
+	 * 
+	 * @param offsetDelta characters to add to the offset
+	 * @param lineDelta lines to add to the line number
+	 */
+	public void shiftPosition(int offsetDelta, int lineDelta) {
+		offset += offsetDelta;
+		line += lineDelta;
+	}
+	
 	public String Indent(int indent) {
 		StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < indent; i++) {
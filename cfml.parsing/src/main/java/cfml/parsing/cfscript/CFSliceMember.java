@@ -5,6 +5,8 @@ import java.util.List;
 
 import org.antlr.v4.runtime.Token;
 
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
+
 /**
  * A slice subscript: <code>s[4:13]</code>, <code>s[4:13:2]</code>, or with either bound left out,
  * <code>s[:6]</code> and <code>s[4:]</code>.
@@ -72,4 +74,9 @@ public class CFSliceMember extends CFMember {
 		}
 		return retval;
 	}
+
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitSliceMember(this);
+	}
 }
@@ -6,6 +6,7 @@ import java.util.List;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFStringExpression extends CFExpression {
@@ -61,4 +62,9 @@ public class CFStringExpression extends CFExpression {
 		return ArrayBuilder.createCFScriptStatement();
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitStringExpression(this);
+	}
+	
 }
@@ -6,6 +6,7 @@ import java.util.List;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFStructExpression extends CFExpression {
@@ -87,4 +88,9 @@ public class CFStructExpression extends CFExpression {
 	public String getEmptyMarker() {
 		return emptyMarker;
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitStructExpression(this);
+	}
 }
@@ -4,6 +4,7 @@ import java.util.List;
 
 import org.antlr.v4.runtime.Token;
 
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFTernaryExpression extends CFAssignmentExpression {
@@ -66,4 +67,9 @@ public class CFTernaryExpression extends CFAssignmentExpression {
 		return ArrayBuilder.createCFExpression(_cond, _left, _right);
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitTernaryExpression(this);
+	}
+	
 }
@@ -4,6 +4,7 @@ import java.util.List;
 
 import cfml.CFSCRIPTLexer;
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 /**
@@ -119,4 +120,9 @@ public class CFUnaryExpression extends CFExpression {
 		return ArrayBuilder.createCFScriptStatement();
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitUnaryExpression(this);
+	}
+	
 }
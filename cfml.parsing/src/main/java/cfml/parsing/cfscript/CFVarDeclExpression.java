@@ -6,6 +6,7 @@ import java.util.List;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFVarDeclExpression extends CFExpression {
@@ -105,4 +106,9 @@ public class CFVarDeclExpression extends CFExpression {
 			return ((CFIdentifier) var).getName();
 		return var.Decompile(0);
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitVarDeclExpression(this);
+	}
 }
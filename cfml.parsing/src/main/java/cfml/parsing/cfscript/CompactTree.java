@@ -0,0 +1,448 @@
+package cfml.parsing.cfscript;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.antlr.v4.runtime.Token;
+
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFFunctionParameter;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptWalker;
+
+/**
+ * A parsed script or expression flattened into arrays, for holding the trees of a whole project in memory at once.
+ * Each node is an index, and all a node has is a handful of ints: its kind, its parent, the end of its subtree, its
+ * start and stop offsets, its line and column, and its text, as an index into a table of the distinct strings of the
+ * tree. There is no object per node, no token and no token stream, so a tree costs a small fraction of the statements
+ * it was built from, which may be dropped once it is built.
+ *
+ * Nodes are numbered in pre-order, the root being 0, so the subtree of a node is the run of indexes from the node to
+ * {@link #end(int)}. The first child and next sibling follow from that without being stored.
+ *
+ * The children of a node are those {@link CFScriptWalker} gives it, so the cases of a switch and the body, catches and
+ * finally of a try are there, except that the body of a function from a skeleton parse that has not been parsed is
+ * left out rather than parsed. A tree is immutable, so any number of threads may read it.
+ */
+public final class CompactTree {
+
+	/** the kinds, by the class of the node they stand for, shared by every tree so that kinds compare across trees */
+	private static final Map<Class<?>, Integer> KINDS = new HashMap<Class<?>, Integer>();
+	private static volatile Class<?>[] kindClasses = new Class<?>[0];
+
+	private final int size;
+	private final int[] kinds;
+	private final int[] parents;
+	private final int[] ends;
+	private final int[] starts;
+	private final int[] stops;
+	private final int[] lines;
+	private final int[] columns;
+	/** an index into strings, or -1 */
+	private final int[] texts;
+	private final String[] strings;
+
+	private CompactTree(Builder builder) {
+		size = builder.size;
+		kinds = Arrays.copyOf(builder.kinds, size);
+		parents = Arrays.copyOf(builder.parents, size);
+		ends = Arrays.copyOf(builder.ends, size);
+		starts = Arrays.copyOf(builder.starts, size);
+		stops = Arrays.copyOf(builder.stops, size);
+		lines = Arrays.copyOf(builder.lines, size);
+		columns = Arrays.copyOf(builder.columns, size);
+		texts = Arrays.copyOf(builder.texts, size);
+		strings = new String[builder.strings.size()];
+		for (Map.Entry<String, Integer> entry : builder.strings.entrySet()) {
+			strings[entry.getValue()] = entry.getKey();
+		}
+	}
+
+	/**
+	 * Flattens a parsed script. The statement is left as it is.
+	 *
+	 * @param root the statement to flatten
+	 * @return the tree, or null if root is null
+	 */
+	public static CompactTree of(CFScriptStatement root) {
+		return root == null ? null : new Builder().build(root);
+	}
+
+	/**
+	 * Flattens a parsed expression. The expression is left as it is.
+	 *
+	 * @param root the expression to flatten
+	 * @return the tree, or null if root is null
+	 */
+	public static CompactTree of(CFExpression root) {
+		return root == null ? null : new Builder().build(root);
+	}
+
+	/**
+	 * @return the kind of the nodes built from statements or expressions of the given class
+	 */
+	public static int kindOf(Class<?> type) {
+		synchronized (KINDS) {
+			final Integer kind = KINDS.get(type);
+			if (kind != null) {
+				return kind;
+			}
+			final int added = KINDS.size();
+			KINDS.put(type, added);
+			final Class<?>[] classes = Arrays.copyOf(kindClasses, added + 1);
+			classes[added] = type;
+			kindClasses = classes;
+			return added;
+		}
+	}
+
+	/**
+	 * @return the class of the statements or expressions the nodes of the kind were built from
+	 */
+	public static Class<?> kindClass(int kind) {
+		return kindClasses[kind];
+	}
+
+	/**
+	 * @return the number of nodes
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return the kind of the node, as {@link #kindOf(Class)} gives it
+	 */
+	public int kind(int node) {
+		return kinds[node];
+	}
+
+	/**
+	 * @return the parent of the node, or -1 for the root
+	 */
+	public int parent(int node) {
+		return parents[node];
+	}
+
+	/**
+	 * @return the index just past the last node of the subtree of the node
+	 */
+	public int end(int node) {
+		return ends[node];
+	}
+
+	/**
+	 * @return the first child of the node, or -1 if it has none
+	 */
+	public int firstChild(int node) {
+		return ends[node] > node + 1 ? node + 1 : -1;
+	}
+
+	/**
+	 * @return the next sibling of the node, or -1 if it is the last child or the root
+	 */
+	public int nextSibling(int node) {
+		final int parent = parents[node];
+		return parent >= 0 && ends[node] < ends[parent] ? ends[node] : -1;
+	}
+
+	/**
+	 * @return the offset of the first character of the node or any of its children
+	 */
+	public int start(int node) {
+		return starts[node];
+	}
+
+	/**
+	 * @return the offset just past the last character of the tokens the node and its children were built from, as
+	 *         far as they are known, which is never before the start
+	 */
+	public int stop(int node) {
+		return stops[node];
+	}
+
+	/**
+	 * @return the line of the node, as getLine() of its statement or expression gives it
+	 */
+	public int line(int node) {
+		return lines[node];
+	}
+
+	/**
+	 * @return the column of the node, as getColumn() of its statement or expression gives it, which counts from 0
+	 *         for a statement and from 1 for an expression
+	 */
+	public int column(int node) {
+		return columns[node];
+	}
+
+	/**
+	 * @return the text of the token the node was built from, such as the name of an identifier, the image of a literal
+	 *         or the operator of a binary expression, or null if it has none
+	 */
+	public String text(int node) {
+		final int text = texts[node];
+		return text < 0 ? null : strings[text];
+	}
+
+	/**
+	 * @return a cursor on the root
+	 */
+	public Cursor cursor() {
+		return new Cursor();
+	}
+
+	/**
+	 * A position in the tree, for walking it without allocating anything. Moves that cannot be made return false and
+	 * leave the cursor where it was.
+	 */
+	public final class Cursor {
+
+		private int node;
+
+		private Cursor() {
+		}
+
+		public CompactTree getTree() {
+			return CompactTree.this;
+		}
+
+		/**
+		 * @return the node the cursor is on
+		 */
+		public int node() {
+			return node;
+		}
+
+		public int kind() {
+			return kinds[node];
+		}
+
+		public Class<?> kindClass() {
+			return CompactTree.kindClass(kinds[node]);
+		}
+
+		public int start() {
+			return starts[node];
+		}
+
+		public int stop() {
+			return stops[node];
+		}
+
+		public int line() {
+			return lines[node];
+		}
+
+		public int column() {
+			return columns[node];
+		}
+
+		public String text() {
+			return CompactTree.this.text(node);
+		}
+
+		/**
+		 * @return the number of parents the node has
+		 */
+		public int depth() {
+			int depth = 0;
+			for (int n = parents[node]; n >= 0; n = parents[n]) {
+				depth++;
+			}
+			return depth;
+		}
+
+		/**
+		 * Moves to a node.
+		 *
+		 * @param node the node, which must be in the tree
+		 */
+		public void reset(int node) {
+			if (node < 0 || node >= size) {
+				throw new IndexOutOfBoundsException("node " + node + " of " + size);
+			}
+			this.node = node;
+		}
+
+		public boolean gotoFirstChild() {
+			final int child = firstChild(node);
+			if (child < 0) {
+				return false;
+			}
+			node = child;
+			return true;
+		}
+
+		public boolean gotoNextSibling() {
+			final int sibling = nextSibling(node);
+			if (sibling < 0) {
+				return false;
+			}
+			node = sibling;
+			return true;
+		}
+
+		public boolean gotoParent() {
+			final int parent = parents[node];
+			if (parent < 0) {
+				return false;
+			}
+			node = parent;
+			return true;
+		}
+
+		/**
+		 * Moves to the next node in pre-order.
+		 *
+		 * @return false at the last node
+		 */
+		public boolean next() {
+			if (node + 1 >= size) {
+				return false;
+			}
+			node++;
+			return true;
+		}
+
+		/**
+		 * Moves to the first node in pre-order after the subtree of the node the cursor is on.
+		 *
+		 * @return false if there is no such node
+		 */
+		public boolean skipSubtree() {
+			if (ends[node] >= size) {
+				return false;
+			}
+			node = ends[node];
+			return true;
+		}
+	}
+
+	/**
+	 * Numbers the nodes in pre-order as a {@link CFScriptWalker} enters them, so that deep trees do not need a deep Java
+	 * stack.
+	 */
+	private static final class Builder {
+
+		int size;
+		int[] kinds = new int[64];
+		int[] parents = new int[64];
+		int[] ends = new int[64];
+		int[] starts = new int[64];
+		int[] stops = new int[64];
+		int[] lines = new int[64];
+		int[] columns = new int[64];
+		int[] texts = new int[64];
+		final Map<String, Integer> strings = new HashMap<String, Integer>();
+		/** the nodes entered and not yet left, by depth */
+		private int[] path = new int[64];
+
+		CompactTree build(HasToken root) {
+			add(root, -1, 0);
+			// a subtree follows its root, so each node widens its parent, the last first
+			for (int node = size - 1; node > 0; node--) {
+				final int parent = parents[node];
+				ends[parent] = Math.max(ends[parent], ends[node]);
+				starts[parent] = Math.min(starts[parent], starts[node]);
+				stops[parent] = Math.max(stops[parent], stops[node]);
+			}
+			return new CompactTree(this);
+		}
+
+		/**
+		 * Numbers a subtree, whose root is a child of parent at the given depth.
+		 */
+		private void add(HasToken root, int parent, int base) {
+			final CFScriptWalker walker = new CFScriptWalker();
+			walker.reset(root);
+			while (walker.next()) {
+				if (!walker.isEntering()) {
+					continue;
+				}
+				final int depth = base + walker.depth();
+				final HasToken statement = walker.node();
+				final int node;
+				if (statement instanceof CFExpression) {
+					final CFExpression expression = (CFExpression) statement;
+					node = add(expression, expression.getToken(), expression.getOffset(), expression.getLine(),
+							expression.getColumn(), depth == base ? parent : path[depth - 1]);
+				} else {
+					final CFScriptStatement script = (CFScriptStatement) statement;
+					node = add(script, script.getToken(), script.getOffset(), script.getLine(), script.getColumn(),
+							depth == base ? parent : path[depth - 1]);
+				}
+				if (depth == path.length) {
+					path = Arrays.copyOf(path, depth * 2);
+				}
+				path[depth] = node;
+				if (statement instanceof CFFuncDeclStatement && !((CFFuncDeclStatement) statement).isBodyParsed()) {
+					// the walker would parse the body, so the rest of the function is numbered on its own
+					walker.skipSubtree();
+					outline((CFFuncDeclStatement) statement, node, depth + 1);
+				}
+			}
+		}
+
+		/**
+		 * Numbers the children of a function but its body, as the walker has them.
+		 */
+		private void outline(CFFuncDeclStatement function, int node, int depth) {
+			if (function.getName() != null) {
+				add(function.getName(), node, depth);
+			}
+			for (Map.Entry<CFExpression, CFExpression> attribute : function.getAttributes().entrySet()) {
+				if (attribute.getKey() != null) {
+					add(attribute.getKey(), node, depth);
+				}
+				if (attribute.getValue() != null) {
+					add(attribute.getValue(), node, depth);
+				}
+			}
+			final List<CFFunctionParameter> formals = function.getFormals();
+			for (int i = 0; i < formals.size(); i++) {
+				if (formals.get(i).getDefaultExpression() != null) {
+					add(formals.get(i).getDefaultExpression(), node, depth);
+				}
+			}
+		}
+
+		private int add(Object statement, Token token, int offset, int line, int column, int parent) {
+			if (size == kinds.length) {
+				final int capacity = size * 2;
+				kinds = Arrays.copyOf(kinds, capacity);
+				parents = Arrays.copyOf(parents, capacity);
+				ends = Arrays.copyOf(ends, capacity);
+				starts = Arrays.copyOf(starts, capacity);
+				stops = Arrays.copyOf(stops, capacity);
+				lines = Arrays.copyOf(lines, capacity);
+				columns = Arrays.copyOf(columns, capacity);
+				texts = Arrays.copyOf(texts, capacity);
+			}
+			final int node = size++;
+			kinds[node] = kindOf(statement.getClass());
+			parents[node] = parent;
+			ends[node] = node + 1;
+			starts[node] = offset;
+			stops[node] = Math.max(offset, token == null ? -1 : token.getStopIndex() + 1);
+			lines[node] = line;
+			columns[node] = column;
+			texts[node] = token == null ? -1 : string(token.getText());
+			return node;
+		}
+
+		private int string(String text) {
+			if (text == null) {
+				return -1;
+			}
+			Integer index = strings.get(text);
+			if (index == null) {
+				index = strings.size();
+				strings.put(text, index);
+			}
+			return index;
+		}
+	}
+}
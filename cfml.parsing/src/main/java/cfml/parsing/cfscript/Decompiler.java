@@ -0,0 +1,745 @@
+package cfml.parsing.cfscript;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.antlr.v4.runtime.Token;
+
+import cfml.CFSCRIPTLexer;
+import cfml.parsing.cfscript.script.CFBreakStatement;
+import cfml.parsing.cfscript.script.CFCase;
+import cfml.parsing.cfscript.script.CFCatchStatement;
+import cfml.parsing.cfscript.script.CFCompDeclStatement;
+import cfml.parsing.cfscript.script.CFCompoundStatement;
+import cfml.parsing.cfscript.script.CFContinueStatement;
+import cfml.parsing.cfscript.script.CFDoWhileStatement;
+import cfml.parsing.cfscript.script.CFEmptyStatement;
+import cfml.parsing.cfscript.script.CFExpressionStatement;
+import cfml.parsing.cfscript.script.CFForInStatement;
+import cfml.parsing.cfscript.script.CFForStatement;
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFFunctionParameter;
+import cfml.parsing.cfscript.script.CFIfStatement;
+import cfml.parsing.cfscript.script.CFInterfaceDeclStatement;
+import cfml.parsing.cfscript.script.CFLockStatement;
+import cfml.parsing.cfscript.script.CFMLFunctionStatement;
+import cfml.parsing.cfscript.script.CFParsedAttributeStatement;
+import cfml.parsing.cfscript.script.CFReturnStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.script.CFStaticBlockStatement;
+import cfml.parsing.cfscript.script.CFSwitchStatement;
+import cfml.parsing.cfscript.script.CFTagStatement;
+import cfml.parsing.cfscript.script.CFTagThrowStatement;
+import cfml.parsing.cfscript.script.CFThreadStatement;
+import cfml.parsing.cfscript.script.CFTransactionStatement;
+import cfml.parsing.cfscript.script.CFTryCatchStatement;
+import cfml.parsing.cfscript.script.CFWhileStatement;
+import cfml.parsing.cfscript.script.UserDefinedFunction;
+
+/**
+ * Writes statements and expressions out as Decompile does, in one pass, to an Appendable. Decompile builds the text of
+ * every subtree as a string of its own and copies it into that of its parent, so a deeply nested script is copied
+ * over and over; here each character is written once.
+ *
+ * The text is that of Decompile, character for character, with the default indentation of two spaces. Another
+ * indentation takes the place of each two columns Decompile would indent by.
+ *
+ * Nodes of a class the decompiler does not know, which includes any subclass of the node classes, are written with
+ * their own Decompile, as are leaves such as literals and identifiers. A decompiler has no state, so any number of
+ * threads may share one.
+ */
+public final class Decompiler {
+
+	/** the classes written here rather than with their own Decompile */
+	private static final Set<Class<?>> WRITTEN = new HashSet<Class<?>>(Arrays.<Class<?>> asList(
+			CFBinaryExpression.class, CFElvisExpression.class, CFTernaryExpression.class, CFUnaryExpression.class,
+			CFNestedExpression.class, CFFunctionExpression.class, CFJavaMethodExpression.class, CFNewExpression.class,
+			CFStringExpression.class, CFStructElementExpression.class, CFStructExpression.class,
+			CFArrayExpression.class, CFMember.class, CFSliceMember.class, CFFullVarExpression.class,
+			CFAssignmentExpression.class, CFVarDeclExpression.class, CFAnonymousFunctionExpression.class,
+			CFLambdaExpression.class, CFAnonymousComponentExpression.class, CFCompoundStatement.class,
+			CFExpressionStatement.class, CFReturnStatement.class, CFIfStatement.class, CFForStatement.class,
+			CFForInStatement.class, CFWhileStatement.class, CFDoWhileStatement.class, CFFuncDeclStatement.class,
+			CFCompDeclStatement.class, CFInterfaceDeclStatement.class, CFSwitchStatement.class, CFCase.class,
+			CFTryCatchStatement.class, CFCatchStatement.class, CFStaticBlockStatement.class,
+			CFEmptyStatement.class, CFBreakStatement.class, CFContinueStatement.class, CFThreadStatement.class,
+			CFTransactionStatement.class, CFLockStatement.class, CFMLFunctionStatement.class, CFTagStatement.class,
+			CFTagThrowStatement.class));
+
+	private static final Comparator<CFIdentifier> BY_NAME = new Comparator<CFIdentifier>() {
+
+		@Override
+		public int compare(CFIdentifier o1, CFIdentifier o2) {
+			return o1.toString().compareTo(o2.toString());
+		}
+	};
+
+	private final String indentation;
+
+	/**
+	 * A decompiler that indents as Decompile does.
+	 */
+	public Decompiler() {
+		this("  ");
+	}
+
+	/**
+	 * @param indentation what to write for each level of nesting, such as a tab
+	 */
+	public Decompiler(String indentation) {
+		if (indentation == null) {
+			throw new IllegalArgumentException("indentation is null");
+		}
+		this.indentation = indentation;
+	}
+
+	/**
+	 * Writes a statement as {@link CFScriptStatement#Decompile(int)} would give it.
+	 *
+	 * @param statement the statement to write
+	 * @param indent the indent, in the columns Decompile counts, which this decompiler writes in its own indentation
+	 * @param out where to write it
+	 */
+	public void decompile(CFScriptStatement statement, int indent, Appendable out) throws IOException {
+		new Sink(out).statement(statement, indent);
+	}
+
+	/**
+	 * Writes an expression as {@link CFExpression#Decompile(int)} would give it.
+	 *
+	 * @param expression the expression to write
+	 * @param indent the indent, in the columns Decompile counts, which this decompiler writes in its own indentation
+	 * @param out where to write it
+	 */
+	public void decompile(CFExpression expression, int indent, Appendable out) throws IOException {
+		new Sink(out).expression(expression, indent);
+	}
+
+	/**
+	 * @return the statement as {@link #decompile(CFScriptStatement, int, Appendable)} writes it
+	 */
+	public String toString(CFScriptStatement statement, int indent) {
+		final StringBuilder sb = new StringBuilder();
+		try {
+			decompile(statement, indent, sb);
+		} catch (IOException e) {
+			// a StringBuilder does not throw
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * @return the expression as {@link #decompile(CFExpression, int, Appendable)} writes it
+	 */
+	public String toString(CFExpression expression, int indent) {
+		final StringBuilder sb = new StringBuilder();
+		try {
+			decompile(expression, indent, sb);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * One decompile: the Appendable, and how much has been written to it, which some nodes write differently after
+	 * an empty start.
+	 */
+	private final class Sink {
+
+		private final Appendable out;
+		private long written;
+
+		Sink(Appendable out) {
+			this.out = out;
+		}
+
+		private Sink append(CharSequence text) throws IOException {
+			if (text == null) {
+				// as a StringBuilder has it
+				text = "null";
+			}
+			out.append(text);
+			written += text.length();
+			return this;
+		}
+
+		private Sink append(char c) throws IOException {
+			out.append(c);
+			written++;
+			return this;
+		}
+
+		private Sink append(Object o) throws IOException {
+			return append(String.valueOf(o));
+		}
+
+		private Sink indent(int indent) throws IOException {
+			for (int i = 0; i < indent / 2; i++) {
+				append(indentation);
+			}
+			if (indent % 2 == 1) {
+				append(' ');
+			}
+			return this;
+		}
+
+		void expression(CFExpression node, int indent) throws IOException {
+			if (!WRITTEN.contains(node.getClass())) {
+				append(node.Decompile(indent));
+			} else if (node instanceof CFFullVarExpression) {
+				fullVar((CFFullVarExpression) node);
+			} else if (node instanceof CFElvisExpression) {
+				final CFElvisExpression elvis = (CFElvisExpression) node;
+				expression(elvis.getLeft(), indent);
+				append(' ').append(elvis.getOperatorImage()).append(' ');
+				expression(elvis.getRight(), indent);
+			} else if (node instanceof CFBinaryExpression) {
+				final CFBinaryExpression binary = (CFBinaryExpression) node;
+				expression(binary.getLeft(), indent);
+				append(' ').append(binary.getOperatorImage()).append(' ');
+				expression(binary.getRight(), indent);
+				if (binary.getKind() == CFSCRIPTLexer.LEFTBRACKET) {
+					append(']');
+				}
+			} else if (node instanceof CFFunctionExpression) {
+				final CFFunctionExpression function = (CFFunctionExpression) node;
+				if (function.getNameId() != null) {
+					expression(function.getNameId(), indent);
+				}
+				append('(');
+				expressions(function.getArgs(), indent, ", ");
+				append(')');
+				if (function.getBody() != null) {
+					statement(function.getBody(), indent + 2);
+				}
+			} else if (node instanceof CFTernaryExpression) {
+				final CFTernaryExpression ternary = (CFTernaryExpression) node;
+				expression(ternary.getCond(), indent);
+				append('?');
+				expression(ternary.getLeft(), indent);
+				append(':');
+				expression(ternary.getRight(), indent);
+			} else if (node instanceof CFAssignmentExpression) {
+				final CFAssignmentExpression assignment = (CFAssignmentExpression) node;
+				if (assignment.getLeft() != null) {
+					expression(assignment.getLeft(), indent);
+				}
+				append(' ').append(assignment.getOperatorImage()).append(' ');
+				for (CFIdentifier id : assignment.getOtherIds()) {
+					expression(id, indent);
+					append(" = ");
+				}
+				if (assignment.getRight() != null) {
+					expression(assignment.getRight(), indent);
+				}
+			} else if (node instanceof CFSliceMember) {
+				final CFSliceMember slice = (CFSliceMember) node;
+				append('[');
+				if (slice.getFrom() != null) {
+					expression(slice.getFrom(), 0);
+				}
+				append(':');
+				if (slice.getTo() != null) {
+					expression(slice.getTo(), 0);
+				}
+				if (slice.getBy() != null) {
+					append(':');
+					expression(slice.getBy(), 0);
+				}
+				append(']');
+			} else if (node instanceof CFMember) {
+				append('[');
+				expression(((CFMember) node).getExpression(), 0);
+				append(']');
+			} else if (node instanceof CFUnaryExpression) {
+				unary((CFUnaryExpression) node);
+			} else if (node instanceof CFStringExpression) {
+				append('\'');
+				for (CFExpression expression : ((CFStringExpression) node).getSubExpressions()) {
+					if (expression instanceof CFLiteral) {
+						final String txt = expression.Decompile(0);
+						if (txt != null && txt.length() > 0) {
+							append(txt.substring(1, txt.length() - 1));
+						}
+					} else {
+						append('#');
+						expression(expression, 0);
+						append('#');
+					}
+				}
+				append('\'');
+			} else if (node instanceof CFStructExpression) {
+				final CFStructExpression struct = (CFStructExpression) node;
+				append(struct.isOrdered() ? '[' : '{');
+				if (struct.getElements().isEmpty() && struct.getEmptyMarker() != null) {
+					append(struct.getEmptyMarker());
+				}
+				expressions(struct.getElements(), 0, ",");
+				append(struct.isOrdered() ? ']' : '}');
+			} else if (node instanceof CFStructElementExpression) {
+				final CFStructElementExpression element = (CFStructElementExpression) node;
+				expression(element.getKey(), 0);
+				append(':');
+				expression(element.getValue(), 0);
+			} else if (node instanceof CFArrayExpression) {
+				append('[');
+				expressions(((CFArrayExpression) node).getElements(), 0, ",");
+				append(']');
+			} else if (node instanceof CFNestedExpression) {
+				append('#');
+				expression(((CFNestedExpression) node).getSub(), 0);
+				append('#');
+			} else if (node instanceof CFVarDeclExpression) {
+				varDecl((CFVarDeclExpression) node, indent);
+			} else if (node instanceof CFNewExpression) {
+				final CFNewExpression newExpression = (CFNewExpression) node;
+				append("new ");
+				if (newExpression.getPathPrefix() != null) {
+					append(newExpression.getPathPrefix()).append(':');
+				}
+				expression(newExpression.getComponentPath(), 0);
+				append('(');
+				final List<?> args = newExpression.getArgs();
+				for (int i = 0; i < args.size(); i++) {
+					expression((CFExpression) args.get(i), 0);
+					if (i < args.size() - 1) {
+						append(", ");
+					}
+				}
+				append(')');
+			} else if (node instanceof CFJavaMethodExpression) {
+				final CFJavaMethodExpression method = (CFJavaMethodExpression) node;
+				expression(method.getName(), indent);
+				append('(');
+				final List<CFExpression> args = method.getArgs();
+				for (int i = 0; i < args.size(); i++) {
+					// Decompile writes the arguments with toString
+					append(args.get(i));
+					if (i < args.size() - 1) {
+						append(", ");
+					}
+				}
+				append(')');
+			} else if (node instanceof CFLambdaExpression) {
+				lambda((CFLambdaExpression) node, indent);
+			} else if (node instanceof CFAnonymousFunctionExpression) {
+				statement(((CFAnonymousFunctionExpression) node).getFuncDeclStatement(), 0);
+			} else if (node instanceof CFAnonymousComponentExpression) {
+				append("new ");
+				statement(((CFAnonymousComponentExpression) node).getComponentDeclaration(), 0);
+			} else {
+				append(node.Decompile(indent));
+			}
+		}
+
+		private void expressions(List<? extends CFExpression> expressions, int indent, String separator)
+				throws IOException {
+			for (int i = 0; i < expressions.size(); i++) {
+				if (i > 0) {
+					append(separator);
+				}
+				expression(expressions.get(i), indent);
+			}
+		}
+
+		private void fullVar(CFFullVarExpression fullVar) throws IOException {
+			final long start = written;
+			for (CFExpression expression : fullVar.getExpressions()) {
+				if (written > start) {
+					if (expression.getType() == CFExpression.IDENTIFIER
+							&& expression.getToken().getType() == CFSCRIPTLexer.LEFTBRACKET) {
+						// Array notation []
+					} else if (expression.getType() == CFExpression.IDENTIFIER
+							|| expression.getType() == CFExpression.LITERAL) {
+						append(fullVar.getMemberOperator(expression));
+					} else if (expression instanceof CFFunctionExpression
+							&& ((CFFunctionExpression) expression).getIdentifier() != null) {
+						append(fullVar.getMemberOperator(expression));
+					}
+				}
+				expression(expression, 0);
+			}
+		}
+
+		private void unary(CFUnaryExpression unary) throws IOException {
+			final CFExpression sub = unary.getSub();
+			switch (unary.getKind()) {
+			case CFSCRIPTLexer.LEFTPAREN:
+				append('(');
+				expression(sub, 0);
+				append(')');
+				break;
+			case CFSCRIPTLexer.MINUS:
+				append('-');
+				expression(sub, 0);
+				break;
+			case CFSCRIPTLexer.NOT:
+				append("NOT ");
+				expression(sub, 0);
+				break;
+			case CFSCRIPTLexer.NOTOP:
+				append('!');
+				expression(sub, 0);
+				break;
+			case CFSCRIPTLexer.NOTNOTOP:
+				append("!!");
+				expression(sub, 0);
+				break;
+			case CFSCRIPTLexer.PLUS:
+				append('+');
+				expression(sub, 0);
+				break;
+			case CFSCRIPTLexer.PLUSPLUS:
+				if (unary.isPrefixop())
+					append("++");
+				expression(sub, 0);
+				if (!unary.isPrefixop())
+					append("++");
+				break;
+			case CFSCRIPTLexer.MINUSMINUS:
+				if (unary.isPrefixop())
+					append("--");
+				expression(sub, 0);
+				if (!unary.isPrefixop())
+					append("--");
+				break;
+			default:
+				expression(sub, 0);
+				break;
+			}
+		}
+
+		private void varDecl(CFVarDeclExpression varDecl, int indent) throws IOException {
+			indent(indent);
+			append(varDecl.isStatic() ? "static " : varDecl.isFinal() ? "final " : "var ");
+			expression(varDecl.getVar(), 0);
+			for (CFIdentifier id : varDecl.getOtherVars()) {
+				append(" = var ");
+				expression(id, indent);
+			}
+			for (CFIdentifier id : varDecl.getOtherIds()) {
+				append(" = ");
+				expression(id, indent);
+			}
+			if (varDecl.getInit() != null) {
+				append(" = ");
+				expression(varDecl.getInit(), indent + 2);
+			}
+		}
+
+		private void lambda(CFLambdaExpression lambda, int indent) throws IOException {
+			final CFFuncDeclStatement declaration = lambda.getFuncDeclStatement();
+			append('(');
+			final List<CFFunctionParameter> formals = declaration.getFormals();
+			for (int i = 0; i < formals.size(); i++) {
+				if (i > 0) {
+					append(", ");
+				}
+				parameter(formals.get(i));
+			}
+			final Token operator = lambda.getOperator();
+			append(") ").append(operator == null ? "=>" : operator.getText()).append(' ');
+			if (lambda.getExpressionBody() != null) {
+				expression(lambda.getExpressionBody(), 0);
+			} else {
+				statement(declaration.getBody(), indent);
+			}
+		}
+
+		private void parameter(CFFunctionParameter parameter) throws IOException {
+			if (parameter.getClass() != CFFunctionParameter.class) {
+				append(parameter);
+				return;
+			}
+			if (parameter.isRequired()) {
+				append("required ");
+			}
+			append(parameter.getName());
+			if (parameter.getDefaultExpression() != null) {
+				append('=');
+				expression(parameter.getDefaultExpression(), 0);
+			}
+		}
+
+		void statement(CFScriptStatement node, int indent) throws IOException {
+			if (!WRITTEN.contains(node.getClass())) {
+				append(node.Decompile(indent));
+			} else if (node instanceof CFExpressionStatement) {
+				expression(((CFExpressionStatement) node).getExpression(), indent);
+			} else if (node instanceof CFCompoundStatement) {
+				final CFCompoundStatement compound = (CFCompoundStatement) node;
+				indent(indent).append("{\n");
+				for (CFScriptStatement statement : compound.getStatements()) {
+					// prevent endless loop
+					if (statement != compound) {
+						statement(statement, indent + 2);
+						append(";\n");
+					}
+				}
+				append('\n');
+				indent(indent).append('}');
+			} else if (node instanceof CFReturnStatement) {
+				indent(indent).append("return ");
+				final CFExpression ret = ((CFReturnStatement) node).getExpression();
+				if (ret != null) {
+					expression(ret, indent);
+				}
+			} else if (node instanceof CFIfStatement) {
+				final CFIfStatement ifStatement = (CFIfStatement) node;
+				indent(indent).append("if(");
+				expression(ifStatement.getCond(), indent);
+				append(" ) ");
+				if (ifStatement.getThenStatement() != null) {
+					statement(ifStatement.getThenStatement(), indent + 2);
+				}
+				if (ifStatement.getElseStatement() != null) {
+					append('\n');
+					indent(indent).append("else ");
+					statement(ifStatement.getElseStatement(), indent + 2);
+				}
+			} else if (node instanceof CFFuncDeclStatement) {
+				function((CFFuncDeclStatement) node, indent);
+			} else if (node instanceof CFForStatement) {
+				final CFForStatement forStatement = (CFForStatement) node;
+				indent(indent).append("for(");
+				if (forStatement.getInit() != null) {
+					expression(forStatement.getInit(), indent);
+				}
+				append(';');
+				if (forStatement.getCond() != null) {
+					expression(forStatement.getCond(), indent);
+				}
+				append(';');
+				if (forStatement.getNext() != null) {
+					expression(forStatement.getNext(), indent);
+				}
+				append(')');
+				statement(forStatement.getBody(), indent + 2);
+			} else if (node instanceof CFForInStatement) {
+				final CFForInStatement forIn = (CFForInStatement) node;
+				indent(indent).append("for( ");
+				expression(forIn.getVariable(), 0);
+				append(" in ");
+				expression(forIn.getStructure(), indent);
+				append(" ) ");
+				statement(forIn.getBody(), indent + 2);
+			} else if (node instanceof CFWhileStatement) {
+				final CFWhileStatement whileStatement = (CFWhileStatement) node;
+				indent(indent).append("while(");
+				expression(whileStatement.getCond(), indent);
+				append(" ) ");
+				statement(whileStatement.getBody(), indent + 2);
+			} else if (node instanceof CFDoWhileStatement) {
+				final CFDoWhileStatement doWhile = (CFDoWhileStatement) node;
+				indent(indent).append("do");
+				statement(doWhile.getBody(), indent + 2);
+				append("while(");
+				expression(doWhile.getCondition(), indent);
+				append(" ) ");
+			} else if (node instanceof CFInterfaceDeclStatement) {
+				// Decompile writes the component at no indent, and then swaps the keyword
+				component((CFCompDeclStatement) node, 0, "interface ");
+			} else if (node instanceof CFCompDeclStatement) {
+				component((CFCompDeclStatement) node, indent, "component ");
+			} else if (node instanceof CFSwitchStatement) {
+				final CFSwitchStatement switchStatement = (CFSwitchStatement) node;
+				append("switch (");
+				expression(switchStatement.getVariable(), 0);
+				append("){\n");
+				for (CFCase switchCase : switchStatement.getCases()) {
+					statement(switchCase, 0);
+				}
+				append("\n}");
+			} else if (node instanceof CFCase) {
+				final CFCase switchCase = (CFCase) node;
+				if (switchCase.isDefault()) {
+					append("default:");
+				} else if (switchCase.getConstant() != null) {
+					append("case ");
+					expression(switchCase.getConstant(), 0);
+					append(':');
+				}
+				for (CFScriptStatement statement : switchCase.getStatements()) {
+					statement(statement, 0);
+					append(';');
+				}
+			} else if (node instanceof CFTryCatchStatement) {
+				final CFTryCatchStatement tryCatch = (CFTryCatchStatement) node;
+				tryCatch.validate();
+				append("try");
+				statement(tryCatch.getBody(), 0);
+				for (CFCatchStatement clause : tryCatch.getCatchStatements()) {
+					statement(clause, indent);
+				}
+			} else if (node instanceof CFCatchStatement) {
+				final CFCatchStatement clause = (CFCatchStatement) node;
+				append("catch(");
+				if (clause.getType() != null) {
+					append(clause.getType()).append(' ');
+				}
+				append(clause.getVariable()).append(")\n");
+				statement(clause.getCatchBody(), 0);
+			} else if (node instanceof CFStaticBlockStatement) {
+				final CFStaticBlockStatement block = (CFStaticBlockStatement) node;
+				final List<CFScriptStatement> members = block.getMembers();
+				final List<String> accessTypes = block.getAccessTypes();
+				indent(indent).append("static {\n");
+				for (int i = 0; i < members.size(); i++) {
+					indent(indent + 2);
+					final String accessType = i < accessTypes.size() ? accessTypes.get(i) : null;
+					if (accessType != null) {
+						append(accessType).append(' ');
+					}
+					statement(members.get(i), 0);
+					append(";\n");
+				}
+				indent(indent).append('}');
+			} else if (node instanceof CFEmptyStatement) {
+				indent(indent).append(';');
+			} else if (node instanceof CFBreakStatement) {
+				indent(indent).append("break");
+			} else if (node instanceof CFContinueStatement) {
+				indent(indent).append("continue");
+			} else if (node instanceof CFThreadStatement) {
+				append("thread ");
+				attributes((CFParsedAttributeStatement) node);
+				optionalBody(((CFThreadStatement) node).getBody(), 0);
+			} else if (node instanceof CFTransactionStatement) {
+				append("transaction ");
+				attributes((CFParsedAttributeStatement) node);
+				optionalBody(((CFTransactionStatement) node).getBody(), 0);
+			} else if (node instanceof CFLockStatement) {
+				final CFLockStatement lock = (CFLockStatement) node;
+				lock.validate();
+				indent(indent).append("lock ");
+				attributes(lock);
+				statement(lock.getBody(), 0);
+			} else if (node instanceof CFMLFunctionStatement) {
+				final CFMLFunctionStatement function = (CFMLFunctionStatement) node;
+				append(function.getType().getText());
+				attributes(function);
+				optionalBody(function.getBody(), 0);
+			} else if (node instanceof CFTagThrowStatement) {
+				indent(indent).append("throw ");
+				attributes((CFParsedAttributeStatement) node);
+			} else if (node instanceof CFTagStatement) {
+				indent(indent).append(node.getToken().getText()).append(' ');
+				attributes((CFParsedAttributeStatement) node);
+			} else {
+				append(node.Decompile(indent));
+			}
+		}
+
+		private void attributes(CFParsedAttributeStatement statement) throws IOException {
+			final Map<CFIdentifier, CFExpression> attributes = statement.getAttributes();
+			final List<CFIdentifier> sorted = new ArrayList<CFIdentifier>(attributes.keySet());
+			Collections.sort(sorted, BY_NAME);
+			for (CFIdentifier key : sorted) {
+				append(' ');
+				expression(key, 0);
+				append('=');
+				expression(attributes.get(key), 0);
+			}
+		}
+
+		private void function(CFFuncDeclStatement function, int indent) throws IOException {
+			indent(indent);
+			if (function.isFinal()) {
+				append("final ");
+			}
+			if (function.isAbstract()) {
+				append("abstract ");
+			}
+			if (function.isStatic()) {
+				append("static ");
+			}
+			if (function.getName() != null) {
+				switch (function.getAccess()) {
+				case UserDefinedFunction.ACCESS_PUBLIC:
+					append("public");
+					break;
+				case UserDefinedFunction.ACCESS_PRIVATE:
+					append("private");
+					break;
+				case UserDefinedFunction.ACCESS_REMOTE:
+					append("remote");
+					break;
+				case UserDefinedFunction.ACCESS_PACKAGE:
+					append("package");
+					break;
+				}
+			}
+			if (function.getReturnType() != null) {
+				append(' ');
+				expression(function.getReturnType(), indent);
+			}
+			append(" function ");
+			if (function.getName() != null) {
+				expression(function.getName(), 0);
+			}
+			append('(');
+			final List<CFFunctionParameter> formals = function.getFormals();
+			for (int i = 0; i < formals.size(); i++) {
+				parameter(formals.get(i));
+				if (i != formals.size() - 1) {
+					append(", ");
+				}
+			}
+			append(") ");
+			final Map<CFExpression, CFExpression> attributes = function.getAttributes();
+			final Iterator<CFExpression> attribs = attributes.keySet().iterator();
+			while (attribs.hasNext()) {
+				final CFExpression key = attribs.next();
+				append(key.Decompile(0).replace('.', ':'));
+				if (attributes.get(key) != null) {
+					append('=');
+					expression(attributes.get(key), 0);
+				}
+				if (attribs.hasNext()) {
+					append(' ');
+				}
+			}
+			optionalBody(function.getBody(), indent + 2);
+		}
+
+		private void optionalBody(CFScriptStatement body, int indent) throws IOException {
+			if (body == null) {
+				append(';');
+			} else {
+				statement(body, indent);
+			}
+		}
+
+		private void component(CFCompDeclStatement component, int indent, String keyword) throws IOException {
+			indent(indent);
+			if (component.getModifier() != null) {
+				append(component.getModifier()).append(' ');
+			}
+			append(keyword);
+			for (Map.Entry<CFExpression, CFExpression> entry : component.getAttributes().entrySet()) {
+				expression(entry.getKey(), 0);
+				if (entry.getValue() != null) {
+					append('=');
+					expression(entry.getValue(), 0);
+				}
+				append(' ');
+			}
+			append("{\n");
+			if (component.getBody() != null) {
+				statement(component.getBody(), indent + 2);
+				append('\n');
+			}
+			append('}');
+		}
+	}
+}
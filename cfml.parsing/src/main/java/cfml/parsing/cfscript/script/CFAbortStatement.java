@@ -3,6 +3,7 @@ package cfml.parsing.cfscript.script;
 import java.util.List;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFAbortStatement extends CFParsedStatement {
@@ -43,4 +44,9 @@ public class CFAbortStatement extends CFParsedStatement {
 		return ArrayBuilder.createCFScriptStatement();
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitAbortStatement(this);
+	}
+	
 }
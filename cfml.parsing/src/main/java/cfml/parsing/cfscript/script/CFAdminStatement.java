@@ -5,6 +5,7 @@ import java.util.Map;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 
 public class CFAdminStatement extends CFParsedAttributeStatement {
 	
@@ -36,4 +37,9 @@ public class CFAdminStatement extends CFParsedAttributeStatement {
 		return validAttributes;
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitAdminStatement(this);
+	}
+	
 }
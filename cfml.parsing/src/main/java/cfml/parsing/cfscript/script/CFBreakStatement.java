@@ -3,6 +3,7 @@ package cfml.parsing.cfscript.script;
 import java.util.List;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFBreakStatement extends CFParsedStatement {
@@ -26,4 +27,9 @@ public class CFBreakStatement extends CFParsedStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitBreakStatement(this);
+	}
 }
@@ -11,6 +11,7 @@ import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFCase implements CFScriptStatement, java.io.Serializable {
@@ -59,6 +60,17 @@ public class CFCase implements CFScriptStatement, java.io.Serializable {
 		return statements;
 	}
 	
+	/**
+	 * Moves this case label by the given number of characters and lines. The constant and statements do not move.
+	 * 
+	 * @param offsetDelta characters to add to the offset
+	 * @param lineDelta lines to add to the line number
+	 */
+	public void shiftPosition(int offsetDelta, int lineDelta) {
+		offset += offsetDelta;
+		line += lineDelta;
+	}
+	
 	public boolean isDefault() {
 		return isDefault;
 	}
@@ -141,4 +153,9 @@ public class CFCase implements CFScriptStatement, java.io.Serializable {
 	public int getColumn() {
 		return col;
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitCase(this);
+	}
 }
@@ -7,17 +7,20 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
-public class CFCatchStatement implements CFScriptStatement {
+public class CFCatchStatement implements CFScriptStatement, java.io.Serializable {
+	
+	private static final long serialVersionUID = 1L;
 	
 	private CFIdentifier var;
 	private CFScriptStatement body;
 	CommonTokenStream tokens;
 	final Token token;
 	Object parent;
-	final int offset;
-	final int line;
+	int offset;
+	int line;
 	final int col;
 	
 	public String getType() {
@@ -102,8 +105,19 @@ public class CFCatchStatement implements CFScriptStatement {
 	
 	@Override
 	public Token getToken() {
-		// Auto-generated method stub
-		return null;
+		return token;
+	}
+	
+	/**
+	 * Moves this catch by the given number of characters and lines. The variable and body do not move, nor does the
+	 * token, which is theirs.
+	 * 
+	 * @param offsetDelta characters to add to the offset
+	 * @param lineDelta lines to add to the line number
+	 */
+	public void shiftPosition(int offsetDelta, int lineDelta) {
+		offset += offsetDelta;
+		line += lineDelta;
 	}
 	
 	@Override
@@ -127,19 +141,21 @@ public class CFCatchStatement implements CFScriptStatement {
 	
 	@Override
 	public int getOffset() {
-		// Auto-generated method stub
-		return 0;
+		return offset;
 	}
 	
 	@Override
 	public int getLine() {
-		// Auto-generated method stub
-		return 0;
+		return line;
 	}
 	
 	@Override
 	public int getColumn() {
-		// Auto-generated method stub
-		return 0;
+		return col;
+	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitCatchStatement(this);
 	}
 }
@@ -9,6 +9,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFContext;
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFCompDeclStatement extends CFParsedStatement {
@@ -117,4 +118,9 @@ public class CFCompDeclStatement extends CFParsedStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement(body);
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitCompDeclStatement(this);
+	}
 }
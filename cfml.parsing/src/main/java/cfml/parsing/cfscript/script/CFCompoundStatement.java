@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFCompoundStatement extends CFParsedStatement {
@@ -75,4 +76,9 @@ public class CFCompoundStatement extends CFParsedStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return statements;
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitCompoundStatement(this);
+	}
 }
@@ -22,6 +22,7 @@ package cfml.parsing.cfscript.script;
 import java.util.List;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFExitStatement extends CFParsedStatement {
@@ -57,4 +58,9 @@ public class CFExitStatement extends CFParsedStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitExitStatement(this);
+	}
 }
@@ -3,6 +3,7 @@ package cfml.parsing.cfscript.script;
 import java.util.List;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFExpressionStatement extends CFParsedStatement {
@@ -38,4 +39,9 @@ public class CFExpressionStatement extends CFParsedStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitExpressionStatement(this);
+	}
 }
@@ -5,12 +5,14 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.function.Supplier;
 
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFContext;
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.reporting.ParseException;
 import cfml.parsing.util.ArrayBuilder;
 
@@ -22,6 +24,8 @@ public class CFFuncDeclStatement extends CFParsedStatement {
 	private List<CFFunctionParameter> formals; // List of String's
 	private Map<CFExpression, CFExpression> attributes;
 	private CFScriptStatement body;
+	/** parses the body on first use, for a function from a skeleton parse */
+	private transient Supplier<CFScriptStatement> lazyBody;
 	
 	private byte access;
 	private CFIdentifier returnType;
@@ -68,18 +72,43 @@ public class CFFuncDeclStatement extends CFParsedStatement {
 		
 	}
 	
-	public CFScriptStatement getBody() {
+	/**
+	 * @return the body, which for a function from a skeleton parse is parsed now if it has not been already, or null
+	 *         if the function has none
+	 */
+	public synchronized CFScriptStatement getBody() {
+		if (lazyBody != null) {
+			body = lazyBody.get();
+			lazyBody = null;
+		}
 		return body;
 	}
 	
+	/**
+	 * Leaves the body to be parsed when it is first asked for, rather than with the rest of the script.
+	 * 
+	 * @param lazyBody parses the body
+	 */
+	public synchronized void setLazyBody(Supplier<CFScriptStatement> lazyBody) {
+		this.lazyBody = lazyBody;
+		this.body = null;
+	}
+	
+	/**
+	 * @return false if the body is yet to be parsed
+	 */
+	public synchronized boolean isBodyParsed() {
+		return lazyBody == null;
+	}
+	
 	@Override
 	public void checkIndirectAssignments(String[] scriptSource) {
-		body.checkIndirectAssignments(scriptSource);
+		getBody().checkIndirectAssignments(scriptSource);
 	}
 	
 	@Deprecated
 	public UserDefinedFunction getUDF() {
-		return new UserDefinedFunction(name, access, returnType.Decompile(0), formals, attributes, body);
+		return new UserDefinedFunction(name, access, returnType.Decompile(0), formals, attributes, getBody());
 	}
 	
 	public CFStatementResult Exec(CFContext context) {
@@ -147,6 +176,7 @@ public class CFFuncDeclStatement extends CFParsedStatement {
 				sb.append(" ");
 			}
 		}
+		final CFScriptStatement body = getBody();
 		if (body == null) {
 			sb.append(";");
 		} else {
@@ -202,6 +232,11 @@ public class CFFuncDeclStatement extends CFParsedStatement {
 	
 	@Override
 	public List<CFScriptStatement> decomposeScript() {
-		return ArrayBuilder.createCFScriptStatement(body);
+		return ArrayBuilder.createCFScriptStatement(getBody());
+	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitFuncDeclStatement(this);
 	}
 }
@@ -6,7 +6,9 @@ import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
 import cfml.parsing.cfscript.HasToken;
 
-public class CFFunctionParameter implements HasToken {
+public class CFFunctionParameter implements HasToken, java.io.Serializable {
+	
+	private static final long serialVersionUID = 1L;
 	
 	private int offset; // offset of parameter
 	private String name; // the name of the parameter
@@ -49,6 +51,20 @@ public class CFFunctionParameter implements HasToken {
 		return offset;
 	}
 	
+	/**
+	 * Moves this parameter and its name by the given number of characters and lines. The default expression does not
+	 * move.
+	 * 
+	 * @param offsetDelta characters to add to the offset
+	 * @param lineDelta lines to add to the line number
+	 */
+	public void shiftPosition(int offsetDelta, int lineDelta) {
+		offset += offsetDelta;
+		if (token != null) {
+			token.shiftPosition(offsetDelta, lineDelta);
+		}
+	}
+	
 	@Override
 	public String toString() {
 		StringBuilder sb = new StringBuilder();
@@ -3,6 +3,7 @@ package cfml.parsing.cfscript.script;
 import java.util.List;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFIfStatement extends CFParsedStatement {
@@ -67,4 +68,9 @@ public class CFIfStatement extends CFParsedStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement(thenStatement, elseStatement);
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitIfStatement(this);
+	}
 }
@@ -8,6 +8,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFIncludeStatement extends CFParsedAttributeStatement {
@@ -76,4 +77,9 @@ public class CFIncludeStatement extends CFParsedAttributeStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitCFIncludeStatement(this);
+	}
 }
@@ -5,6 +5,7 @@ import java.util.Map;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 
 public class CFInterfaceDeclStatement extends CFCompDeclStatement {
 	
@@ -21,4 +22,9 @@ public class CFInterfaceDeclStatement extends CFCompDeclStatement {
 	public String Decompile(int indent) {
 		return super.Decompile(0).replaceFirst("component", "interface");
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitInterfaceDeclStatement(this);
+	}
 }
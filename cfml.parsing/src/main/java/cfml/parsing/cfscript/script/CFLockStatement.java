@@ -6,6 +6,7 @@ import java.util.Map;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.reporting.ParseException;
 import cfml.parsing.util.ArrayBuilder;
 
@@ -69,4 +70,9 @@ public class CFLockStatement extends CFParsedAttributeStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement(body);
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitLockStatement(this);
+	}
 }
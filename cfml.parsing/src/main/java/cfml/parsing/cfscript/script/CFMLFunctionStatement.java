@@ -8,6 +8,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFMLFunctionStatement extends CFParsedAttributeStatement {
@@ -64,4 +65,9 @@ public class CFMLFunctionStatement extends CFParsedAttributeStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement(body);
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitMLFunctionStatement(this);
+	}
 }
@@ -6,6 +6,7 @@ import java.util.Map;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 
 public class CFParamStatement extends CFParsedAttributeStatement {
 	
@@ -110,4 +111,9 @@ public class CFParamStatement extends CFParsedAttributeStatement {
 		}
 		return retval;
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitParamStatement(this);
+	}
 }
@@ -14,6 +14,7 @@ import org.antlr.v4.runtime.Token;
 import cfml.parsing.cfscript.CFContext;
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.reporting.ParseException;
 import cfml.parsing.util.ArrayBuilder;
 import cfml.parsing.util.CFException;
@@ -118,4 +119,9 @@ abstract public class CFParsedAttributeStatement extends CFParsedStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return ArrayBuilder.createCFScriptStatement();
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitAttributeStatement(this);
+	}
 }
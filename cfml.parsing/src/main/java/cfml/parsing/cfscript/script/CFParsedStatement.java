@@ -50,6 +50,18 @@ abstract public class CFParsedStatement implements CFScriptStatement, java.io.Se
 		return _col;
 	}
 	
+	/**
+	 * Moves this statement by the given number of characters and lines, for splicing an edit into an existing tree.
+	 * Only this statement moves, not its children or its token.
+	 * 
+	 * @param offsetDelta characters to add to the offset
+	 * @param lineDelta lines to add to the line number
+	 */
+	public void shiftPosition(int offsetDelta, int lineDelta) {
+		_offset += offsetDelta;
+		_line += lineDelta;
+	}
+	
 	public String Indent(int indent) {
 		StringBuilder sb = new StringBuilder();
 		for (int i = 0; i < indent; i++) {
@@ -6,6 +6,7 @@ import java.util.Map;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 
 public class CFPropertyStatement extends CFParsedAttributeStatement {
 	
@@ -154,4 +155,9 @@ public class CFPropertyStatement extends CFParsedAttributeStatement {
 	public CFExpression getPropertyType() {
 		return propertyType;
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitPropertyStatement(this);
+	}
 }
@@ -6,6 +6,7 @@ import org.antlr.v4.runtime.CommonTokenStream;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.HasToken;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 
 public interface CFScriptStatement extends HasToken {
 	
@@ -29,4 +30,12 @@ public interface CFScriptStatement extends HasToken {
 	
 	public int getColumn();
 	
+	/**
+	 * Passes this statement to the method of the visitor for its class. The statements of this library override this;
+	 * any other comes to visitStatement.
+	 */
+	default <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitStatement(this);
+	}
+	
 }
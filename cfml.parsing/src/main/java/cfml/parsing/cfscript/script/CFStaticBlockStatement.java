@@ -6,6 +6,7 @@ import java.util.List;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 /**
@@ -77,4 +78,9 @@ public class CFStaticBlockStatement extends CFParsedStatement {
 	public List<CFScriptStatement> decomposeScript() {
 		return members;
 	}
+
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitStaticBlockStatement(this);
+	}
 }
@@ -11,6 +11,7 @@ import java.util.List;
 import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFSwitchStatement extends CFParsedStatement {
@@ -66,4 +67,9 @@ public class CFSwitchStatement extends CFParsedStatement {
 		
 		return retval;
 	}
+	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitSwitchStatement(this);
+	}
 }
@@ -23,6 +23,7 @@ import java.util.Map;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 
 public class CFTagStatement extends CFParsedAttributeStatement {
 	
@@ -43,4 +44,9 @@ public class CFTagStatement extends CFParsedAttributeStatement {
 		return sb.toString();
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitTagStatement(this);
+	}
+	
 }
@@ -23,6 +23,7 @@ import java.util.Map;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 
 public class CFTagThrowStatement extends CFParsedAttributeStatement {
 	
@@ -42,4 +43,9 @@ public class CFTagThrowStatement extends CFParsedAttributeStatement {
 		return sb.toString();
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitTagThrowStatement(this);
+	}
+	
 }
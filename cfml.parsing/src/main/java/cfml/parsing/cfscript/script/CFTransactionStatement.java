@@ -8,6 +8,7 @@ import org.antlr.v4.runtime.Token;
 
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.walker.CFScriptNodeVisitor;
 import cfml.parsing.util.ArrayBuilder;
 
 public class CFTransactionStatement extends CFParsedAttributeStatement {
@@ -58,4 +59,9 @@ public class CFTransactionStatement extends CFParsedAttributeStatement {
 		return ArrayBuilder.createCFScriptStatement(body);
 	}
 	
+	@Override
+	public <R> R accept(CFScriptNodeVisitor<R> visitor) {
+		return visitor.visitTransactionStatement(this);
+	}
+	
 }
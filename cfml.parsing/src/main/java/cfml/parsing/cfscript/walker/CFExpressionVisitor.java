@@ -1,6 +1,8 @@
 package cfml.parsing.cfscript.walker;
 
 import java.util.Stack;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
@@ -21,6 +23,7 @@ import cfml.CFSCRIPTParser.ComponentAttributeContext;
 import cfml.CFSCRIPTParser.ComponentDeclarationContext;
 import cfml.CFSCRIPTParser.ComponentGutsContext;
 import cfml.CFSCRIPTParser.ComponentPathContext;
+import cfml.CFSCRIPTParser.CompoundStatementContext;
 import cfml.CFSCRIPTParser.ConditionContext;
 import cfml.CFSCRIPTParser.ConstantExpressionContext;
 import cfml.CFSCRIPTParser.FloatingPointExpressionContext;
@@ -85,11 +88,14 @@ import cfml.parsing.cfscript.CFVarDeclExpression;
 import cfml.parsing.cfscript.script.CFCompDeclStatement;
 import cfml.parsing.cfscript.script.CFFuncDeclStatement;
 import cfml.parsing.cfscript.script.CFReturnStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
 
 public class CFExpressionVisitor extends CFSCRIPTParserBaseVisitor<CFExpression> {
 	
 	private Stack<CFExpression> aggregator = new Stack<CFExpression>();
 	private CFScriptStatementVisitor scriptStatementVisitor = null;
+	/** passed on to the statement visitor, for the function declarations of a skeleton parse */
+	Function<CompoundStatementContext, Supplier<CFScriptStatement>> lazyBodies;
 	
 	public CFExpressionVisitor() {
 		super();
@@ -659,7 +665,7 @@ public class CFExpressionVisitor extends CFSCRIPTParserBaseVisitor<CFExpression>
 	
 	public synchronized CFScriptStatementVisitor getCFScriptStatementVisitor() {
 		if (scriptStatementVisitor == null) {
-			scriptStatementVisitor = new CFScriptStatementVisitor();
+			scriptStatementVisitor = new CFScriptStatementVisitor(lazyBodies);
 		}
 		return scriptStatementVisitor;
 	}
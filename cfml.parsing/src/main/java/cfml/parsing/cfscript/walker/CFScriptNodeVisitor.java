@@ -0,0 +1,338 @@
+package cfml.parsing.cfscript.walker;
+
+import cfml.parsing.cfscript.CFAnonymousComponentExpression;
+import cfml.parsing.cfscript.CFAnonymousFunctionExpression;
+import cfml.parsing.cfscript.CFArrayExpression;
+import cfml.parsing.cfscript.CFAssignmentExpression;
+import cfml.parsing.cfscript.CFBinaryExpression;
+import cfml.parsing.cfscript.CFElvisExpression;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.CFFullVarExpression;
+import cfml.parsing.cfscript.CFFunctionExpression;
+import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.CFJavaMethodExpression;
+import cfml.parsing.cfscript.CFLambdaExpression;
+import cfml.parsing.cfscript.CFLiteral;
+import cfml.parsing.cfscript.CFMember;
+import cfml.parsing.cfscript.CFMultipartIdentifier;
+import cfml.parsing.cfscript.CFNestedExpression;
+import cfml.parsing.cfscript.CFNewExpression;
+import cfml.parsing.cfscript.CFSliceMember;
+import cfml.parsing.cfscript.CFStringExpression;
+import cfml.parsing.cfscript.CFStructElementExpression;
+import cfml.parsing.cfscript.CFStructExpression;
+import cfml.parsing.cfscript.CFTernaryExpression;
+import cfml.parsing.cfscript.CFUnaryExpression;
+import cfml.parsing.cfscript.CFVarDeclExpression;
+import cfml.parsing.cfscript.script.CFAbortStatement;
+import cfml.parsing.cfscript.script.CFAdminStatement;
+import cfml.parsing.cfscript.script.CFBreakStatement;
+import cfml.parsing.cfscript.script.CFCase;
+import cfml.parsing.cfscript.script.CFCatchStatement;
+import cfml.parsing.cfscript.script.CFCompDeclStatement;
+import cfml.parsing.cfscript.script.CFCompoundStatement;
+import cfml.parsing.cfscript.script.CFContinueStatement;
+import cfml.parsing.cfscript.script.CFDoWhileStatement;
+import cfml.parsing.cfscript.script.CFEmptyStatement;
+import cfml.parsing.cfscript.script.CFExitStatement;
+import cfml.parsing.cfscript.script.CFExpressionStatement;
+import cfml.parsing.cfscript.script.CFForInStatement;
+import cfml.parsing.cfscript.script.CFForStatement;
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFIfStatement;
+import cfml.parsing.cfscript.script.CFImportStatement;
+import cfml.parsing.cfscript.script.CFIncludeStatement;
+import cfml.parsing.cfscript.script.CFInterfaceDeclStatement;
+import cfml.parsing.cfscript.script.CFLockStatement;
+import cfml.parsing.cfscript.script.CFMLFunctionStatement;
+import cfml.parsing.cfscript.script.CFParamStatement;
+import cfml.parsing.cfscript.script.CFParsedAttributeStatement;
+import cfml.parsing.cfscript.script.CFPropertyStatement;
+import cfml.parsing.cfscript.script.CFReThrowStatement;
+import cfml.parsing.cfscript.script.CFReturnStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.script.CFStaticBlockStatement;
+import cfml.parsing.cfscript.script.CFSwitchStatement;
+import cfml.parsing.cfscript.script.CFTagStatement;
+import cfml.parsing.cfscript.script.CFTagThrowStatement;
+import cfml.parsing.cfscript.script.CFTemplateBlockStatement;
+import cfml.parsing.cfscript.script.CFThreadStatement;
+import cfml.parsing.cfscript.script.CFThrowStatement;
+import cfml.parsing.cfscript.script.CFTransactionStatement;
+import cfml.parsing.cfscript.script.CFTryCatchStatement;
+import cfml.parsing.cfscript.script.CFWhileStatement;
+import cfml.parsing.cfscript.script.IncludeStatement;
+
+/**
+ * A visitor of parsed statements and expressions, which each pass themselves to the method for their class with
+ * accept(). Every method falls back to that for the superclass, and those for CFExpression and CFScriptStatement
+ * return null, so a visitor overrides only what it is interested in: visitBinaryExpression alone sees every binary
+ * expression, Elvis expressions included. A class that has no method of its own, such as one from outside this
+ * library, comes to that of the nearest superclass that has.
+ *
+ * Visiting a node does not visit its children; see {@link CFScriptWalker} for that.
+ *
+ * @param <R> what the visit methods return
+ */
+public interface CFScriptNodeVisitor<R> {
+
+	default R visitExpression(CFExpression expression) {
+		return null;
+	}
+
+	default R visitStatement(CFScriptStatement statement) {
+		return null;
+	}
+
+	//
+	// expressions
+	//
+
+	default R visitLiteral(CFLiteral literal) {
+		return visitExpression(literal);
+	}
+
+	default R visitIdentifier(CFIdentifier identifier) {
+		return visitExpression(identifier);
+	}
+
+	default R visitMultipartIdentifier(CFMultipartIdentifier identifier) {
+		return visitIdentifier(identifier);
+	}
+
+	default R visitFullVarExpression(CFFullVarExpression expression) {
+		return visitIdentifier(expression);
+	}
+
+	default R visitMember(CFMember member) {
+		return visitExpression(member);
+	}
+
+	default R visitFunctionExpression(CFFunctionExpression expression) {
+		return visitMember(expression);
+	}
+
+	default R visitSliceMember(CFSliceMember member) {
+		return visitMember(member);
+	}
+
+	default R visitBinaryExpression(CFBinaryExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitElvisExpression(CFElvisExpression expression) {
+		return visitBinaryExpression(expression);
+	}
+
+	default R visitAssignmentExpression(CFAssignmentExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitTernaryExpression(CFTernaryExpression expression) {
+		return visitAssignmentExpression(expression);
+	}
+
+	default R visitUnaryExpression(CFUnaryExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitNestedExpression(CFNestedExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitArrayExpression(CFArrayExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitStructExpression(CFStructExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitStructElementExpression(CFStructElementExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitStringExpression(CFStringExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitNewExpression(CFNewExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitJavaMethodExpression(CFJavaMethodExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitVarDeclExpression(CFVarDeclExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitAnonymousFunctionExpression(CFAnonymousFunctionExpression expression) {
+		return visitExpression(expression);
+	}
+
+	default R visitLambdaExpression(CFLambdaExpression expression) {
+		return visitAnonymousFunctionExpression(expression);
+	}
+
+	default R visitAnonymousComponentExpression(CFAnonymousComponentExpression expression) {
+		return visitExpression(expression);
+	}
+
+	//
+	// statements
+	//
+
+	default R visitCompoundStatement(CFCompoundStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitExpressionStatement(CFExpressionStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitEmptyStatement(CFEmptyStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitIfStatement(CFIfStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitForStatement(CFForStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitForInStatement(CFForInStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitWhileStatement(CFWhileStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitDoWhileStatement(CFDoWhileStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitSwitchStatement(CFSwitchStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitCase(CFCase statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitTryCatchStatement(CFTryCatchStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitCatchStatement(CFCatchStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitBreakStatement(CFBreakStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitContinueStatement(CFContinueStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitReturnStatement(CFReturnStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitThrowStatement(CFThrowStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitReThrowStatement(CFReThrowStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitAbortStatement(CFAbortStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitExitStatement(CFExitStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitImportStatement(CFImportStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitIncludeStatement(IncludeStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitTemplateBlockStatement(CFTemplateBlockStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitStaticBlockStatement(CFStaticBlockStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitFuncDeclStatement(CFFuncDeclStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitCompDeclStatement(CFCompDeclStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitInterfaceDeclStatement(CFInterfaceDeclStatement statement) {
+		return visitCompDeclStatement(statement);
+	}
+
+	//
+	// statements written as a tag, with attributes
+	//
+
+	default R visitAttributeStatement(CFParsedAttributeStatement statement) {
+		return visitStatement(statement);
+	}
+
+	default R visitAdminStatement(CFAdminStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitCFIncludeStatement(CFIncludeStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitLockStatement(CFLockStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitMLFunctionStatement(CFMLFunctionStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitParamStatement(CFParamStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitPropertyStatement(CFPropertyStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitTagStatement(CFTagStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitTagThrowStatement(CFTagThrowStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitThreadStatement(CFThreadStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+
+	default R visitTransactionStatement(CFTransactionStatement statement) {
+		return visitAttributeStatement(statement);
+	}
+}
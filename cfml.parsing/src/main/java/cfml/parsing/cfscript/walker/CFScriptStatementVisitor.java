@@ -6,6 +6,8 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
@@ -114,6 +116,22 @@ public class CFScriptStatementVisitor extends CFSCRIPTParserBaseVisitor<CFScript
 	
 	Stack<Object> aggregator = new Stack<Object>();
 	CFExpressionVisitor cfExpressionVisitor = new CFExpressionVisitor();
+	/** the function bodies a skeleton parse left out, null for a full parse */
+	private Function<CompoundStatementContext, Supplier<CFScriptStatement>> lazyBodies;
+	
+	public CFScriptStatementVisitor() {
+	}
+	
+	/**
+	 * A visitor for a skeleton parse, whose function declarations have empty bodies standing in for the real ones.
+	 * 
+	 * @param lazyBodies for the body of a function declaration, something that parses the real body when asked, or
+	 *            null if the body is the real one
+	 */
+	public CFScriptStatementVisitor(Function<CompoundStatementContext, Supplier<CFScriptStatement>> lazyBodies) {
+		this.lazyBodies = lazyBodies;
+		cfExpressionVisitor.lazyBodies = lazyBodies;
+	}
 	
 	@Override
 	public CFScriptStatement visitScriptBlock(ScriptBlockContext ctx) {
@@ -204,10 +222,15 @@ public class CFScriptStatementVisitor extends CFSCRIPTParserBaseVisitor<CFScript
 			}
 		}
 
+		final Supplier<CFScriptStatement> lazyBody = lazyBodies == null || ctx.body == null ? null
+				: lazyBodies.apply(ctx.body);
 		CFFuncDeclStatement funcDeclStatement = new CFFuncDeclStatement(ctx.FUNCTION().getSymbol(),
 				(CFIdentifier) visitExpression(ctx.identifier()), getText(ctx.accessType()),
 				(CFIdentifier) visitExpression(ctx.typeSpec()), parameters, attributes,
-				ctx.body == null ? null : visit(ctx.body), isAbstract, isFinal, isStatic);
+				ctx.body == null || lazyBody != null ? null : visit(ctx.body), isAbstract, isFinal, isStatic);
+		if (lazyBody != null) {
+			funcDeclStatement.setLazyBody(lazyBody);
+		}
 		return funcDeclStatement;
 	}
 	
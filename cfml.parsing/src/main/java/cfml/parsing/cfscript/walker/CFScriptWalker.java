@@ -0,0 +1,637 @@
+package cfml.parsing.cfscript.walker;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import cfml.parsing.cfscript.CFAnonymousComponentExpression;
+import cfml.parsing.cfscript.CFAnonymousFunctionExpression;
+import cfml.parsing.cfscript.CFArrayExpression;
+import cfml.parsing.cfscript.CFAssignmentExpression;
+import cfml.parsing.cfscript.CFBinaryExpression;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.CFFullVarExpression;
+import cfml.parsing.cfscript.CFFunctionExpression;
+import cfml.parsing.cfscript.CFIdentifier;
+import cfml.parsing.cfscript.CFJavaMethodExpression;
+import cfml.parsing.cfscript.CFLiteral;
+import cfml.parsing.cfscript.CFMember;
+import cfml.parsing.cfscript.CFMultipartIdentifier;
+import cfml.parsing.cfscript.CFNestedExpression;
+import cfml.parsing.cfscript.CFNewExpression;
+import cfml.parsing.cfscript.CFSliceMember;
+import cfml.parsing.cfscript.CFStringExpression;
+import cfml.parsing.cfscript.CFStructElementExpression;
+import cfml.parsing.cfscript.CFStructExpression;
+import cfml.parsing.cfscript.CFTernaryExpression;
+import cfml.parsing.cfscript.CFUnaryExpression;
+import cfml.parsing.cfscript.CFVarDeclExpression;
+import cfml.parsing.cfscript.HasToken;
+import cfml.parsing.cfscript.script.CFAbortStatement;
+import cfml.parsing.cfscript.script.CFCase;
+import cfml.parsing.cfscript.script.CFCatchStatement;
+import cfml.parsing.cfscript.script.CFCompDeclStatement;
+import cfml.parsing.cfscript.script.CFCompoundStatement;
+import cfml.parsing.cfscript.script.CFDoWhileStatement;
+import cfml.parsing.cfscript.script.CFExitStatement;
+import cfml.parsing.cfscript.script.CFExpressionStatement;
+import cfml.parsing.cfscript.script.CFForInStatement;
+import cfml.parsing.cfscript.script.CFForStatement;
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFFunctionParameter;
+import cfml.parsing.cfscript.script.CFIfStatement;
+import cfml.parsing.cfscript.script.CFImportStatement;
+import cfml.parsing.cfscript.script.CFIncludeStatement;
+import cfml.parsing.cfscript.script.CFLockStatement;
+import cfml.parsing.cfscript.script.CFMLFunctionStatement;
+import cfml.parsing.cfscript.script.CFParamStatement;
+import cfml.parsing.cfscript.script.CFParsedAttributeStatement;
+import cfml.parsing.cfscript.script.CFPropertyStatement;
+import cfml.parsing.cfscript.script.CFReturnStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.script.CFStaticBlockStatement;
+import cfml.parsing.cfscript.script.CFSwitchStatement;
+import cfml.parsing.cfscript.script.CFTemplateBlockStatement;
+import cfml.parsing.cfscript.script.CFThreadStatement;
+import cfml.parsing.cfscript.script.CFThrowStatement;
+import cfml.parsing.cfscript.script.CFTransactionStatement;
+import cfml.parsing.cfscript.script.CFTryCatchStatement;
+import cfml.parsing.cfscript.script.CFWhileStatement;
+import cfml.parsing.cfscript.script.IncludeStatement;
+
+/**
+ * Walks a parsed script or expression depth first, from an explicit stack, so that deep trees do not need a deep Java
+ * stack. Nodes are reached once on the way down and once on the way up:
+ *
+ * <pre>
+ * walker.reset(root);
+ * while (walker.next()) {
+ * 	if (walker.isEntering() &amp;&amp; walker.node() instanceof CFFuncDeclStatement) {
+ * 		walker.skipSubtree();
+ * 	}
+ * }
+ * </pre>
+ *
+ * or with visitors, through {@link #walk(HasToken, CFScriptNodeVisitor, CFScriptNodeVisitor)}. A walk allocates nothing
+ * per node but the iterator over the attributes of a declaration, and the stack, which only grows, to the largest it
+ * has been; one walker may walk any number of trees, one after another. A walker is for one thread.
+ *
+ * The children of a node are those of decomposeExpression() followed by those of decomposeScript(), without the
+ * lists, except that the cases of a switch and the body, catches and finally of a try are children too, which
+ * decomposeScript() leaves out. A function body a skeleton parse left out is parsed when it is reached, as
+ * decomposeScript() would. A node that comes to visitExpression or visitStatement, such as one of a class from outside
+ * this library, is taken apart with decomposeExpression() and decomposeScript().
+ */
+public final class CFScriptWalker {
+
+	/** the nodes still to be entered or left, the top last */
+	private HasToken[] nodes = new HasToken[64];
+	/** for each node of the stack, its depth times two, plus one if it is to be left rather than entered */
+	private int[] marks = new int[64];
+	private int size;
+
+	private HasToken node;
+	private int depth;
+	private boolean entering;
+	/** whether the children of the node just entered are still to be pushed */
+	private boolean expand;
+	private int childDepth;
+
+	private final Children children = new Children();
+
+	/**
+	 * Starts a walk: the next call to {@link #next()} enters the root.
+	 *
+	 * @param root a CFExpression or CFScriptStatement, or null for an empty walk
+	 */
+	public void reset(HasToken root) {
+		Arrays.fill(nodes, 0, size, null);
+		size = 0;
+		node = null;
+		depth = 0;
+		entering = false;
+		expand = false;
+		if (root != null) {
+			push(root, 0);
+		}
+	}
+
+	/**
+	 * Moves to the next node to enter or leave.
+	 *
+	 * @return false once the root has been left
+	 */
+	public boolean next() {
+		if (expand) {
+			expand = false;
+			childDepth = depth + 1;
+			final int base = size;
+			accept(node, children);
+			// the children were pushed in order, and are to be popped in order
+			for (int i = base, j = size - 1; i < j; i++, j--) {
+				final HasToken n = nodes[i];
+				nodes[i] = nodes[j];
+				nodes[j] = n;
+				final int m = marks[i];
+				marks[i] = marks[j];
+				marks[j] = m;
+			}
+		}
+		if (size == 0) {
+			node = null;
+			return false;
+		}
+		size--;
+		node = nodes[size];
+		nodes[size] = null;
+		final int mark = marks[size];
+		depth = mark >> 1;
+		entering = (mark & 1) == 0;
+		if (entering) {
+			push(node, (depth << 1) | 1);
+			expand = true;
+		}
+		return true;
+	}
+
+	/**
+	 * @return the node entered or left, or null before the walk starts and after it ends
+	 */
+	public HasToken node() {
+		return node;
+	}
+
+	/**
+	 * @return the number of nodes above the node, 0 for the root
+	 */
+	public int depth() {
+		return depth;
+	}
+
+	/**
+	 * @return true if the node is being entered, false if it is being left
+	 */
+	public boolean isEntering() {
+		return entering;
+	}
+
+	/**
+	 * Passes over the children of the node being entered: the node is left next.
+	 */
+	public void skipSubtree() {
+		if (node == null || !entering) {
+			throw new IllegalStateException("only the subtree of a node being entered can be skipped");
+		}
+		expand = false;
+	}
+
+	/**
+	 * Walks a tree, passing each node to a visitor as it is entered and to another as it is left. The subtree of a node
+	 * is skipped if the visitor that enters it returns false.
+	 *
+	 * @param root the root of the tree
+	 * @param enter the visitor of nodes entered, or null
+	 * @param leave the visitor of nodes left, or null
+	 */
+	public void walk(HasToken root, CFScriptNodeVisitor<Boolean> enter, CFScriptNodeVisitor<?> leave) {
+		reset(root);
+		while (next()) {
+			if (entering) {
+				if (enter != null && Boolean.FALSE.equals(accept(node, enter))) {
+					skipSubtree();
+				}
+			} else if (leave != null) {
+				accept(node, leave);
+			}
+		}
+	}
+
+	/**
+	 * Passes a node to the method of the visitor for its class.
+	 *
+	 * @param node a CFExpression or CFScriptStatement
+	 * @return what the visitor returned
+	 */
+	public static <R> R accept(HasToken node, CFScriptNodeVisitor<R> visitor) {
+		if (node instanceof CFExpression) {
+			return ((CFExpression) node).accept(visitor);
+		}
+		return ((CFScriptStatement) node).accept(visitor);
+	}
+
+	private void push(HasToken n, int mark) {
+		if (size == nodes.length) {
+			nodes = Arrays.copyOf(nodes, size * 2);
+			marks = Arrays.copyOf(marks, size * 2);
+		}
+		nodes[size] = n;
+		marks[size] = mark;
+		size++;
+	}
+
+	/**
+	 * Pushes the children of the node passed to it, in order, skipping nulls.
+	 */
+	private final class Children implements CFScriptNodeVisitor<Void> {
+
+		private void child(HasToken child) {
+			if (child != null) {
+				push(child, childDepth << 1);
+			}
+		}
+
+		private void children(List<? extends HasToken> list) {
+			if (list != null) {
+				for (int i = 0; i < list.size(); i++) {
+					child(list.get(i));
+				}
+			}
+		}
+
+		private void attributes(Map<? extends CFExpression, ? extends CFExpression> attributes) {
+			for (Map.Entry<? extends CFExpression, ? extends CFExpression> entry : attributes.entrySet()) {
+				child(entry.getKey());
+				child(entry.getValue());
+			}
+		}
+
+		@Override
+		public Void visitExpression(CFExpression expression) {
+			children(expression.decomposeExpression());
+			children(expression.decomposeScript());
+			return null;
+		}
+
+		@Override
+		public Void visitStatement(CFScriptStatement statement) {
+			children(statement.decomposeExpression());
+			children(statement.decomposeScript());
+			return null;
+		}
+
+		@Override
+		public Void visitLiteral(CFLiteral literal) {
+			return null;
+		}
+
+		@Override
+		public Void visitIdentifier(CFIdentifier identifier) {
+			return null;
+		}
+
+		@Override
+		public Void visitMultipartIdentifier(CFMultipartIdentifier identifier) {
+			children(identifier.getIds());
+			return null;
+		}
+
+		@Override
+		public Void visitFullVarExpression(CFFullVarExpression expression) {
+			children(expression.getExpressions());
+			return null;
+		}
+
+		@Override
+		public Void visitMember(CFMember member) {
+			child(member.getExpression());
+			return null;
+		}
+
+		@Override
+		public Void visitFunctionExpression(CFFunctionExpression expression) {
+			final List<CFExpression> args = expression.getArgs();
+			for (int i = 0; i < args.size(); i++) {
+				final CFExpression arg = args.get(i);
+				if (arg instanceof CFAssignmentExpression && !(arg instanceof CFTernaryExpression)) {
+					// only the value of a named argument
+					child(((CFAssignmentExpression) arg).getRight());
+				} else {
+					child(arg);
+				}
+			}
+			child(expression.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitSliceMember(CFSliceMember member) {
+			child(member.getFrom());
+			child(member.getTo());
+			child(member.getBy());
+			return null;
+		}
+
+		@Override
+		public Void visitBinaryExpression(CFBinaryExpression expression) {
+			child(expression.getLeft());
+			child(expression.getRight());
+			return null;
+		}
+
+		@Override
+		public Void visitAssignmentExpression(CFAssignmentExpression expression) {
+			child(expression.getLeft());
+			child(expression.getRight());
+			children(expression.getOtherIds());
+			return null;
+		}
+
+		@Override
+		public Void visitTernaryExpression(CFTernaryExpression expression) {
+			child(expression.getCond());
+			child(expression.getLeft());
+			child(expression.getRight());
+			return null;
+		}
+
+		@Override
+		public Void visitUnaryExpression(CFUnaryExpression expression) {
+			child(expression.getSub());
+			return null;
+		}
+
+		@Override
+		public Void visitNestedExpression(CFNestedExpression expression) {
+			child(expression.getSub());
+			return null;
+		}
+
+		@Override
+		public Void visitArrayExpression(CFArrayExpression expression) {
+			children(expression.getElements());
+			return null;
+		}
+
+		@Override
+		public Void visitStructExpression(CFStructExpression expression) {
+			children(expression.getElements());
+			return null;
+		}
+
+		@Override
+		public Void visitStructElementExpression(CFStructElementExpression expression) {
+			child(expression.getKey());
+			child(expression.getValue());
+			return null;
+		}
+
+		@Override
+		public Void visitStringExpression(CFStringExpression expression) {
+			children(expression.getSubExpressions());
+			return null;
+		}
+
+		@Override
+		public Void visitNewExpression(CFNewExpression expression) {
+			child(expression.getComponentPath());
+			final List<?> args = expression.getArgs();
+			for (int i = 0; i < args.size(); i++) {
+				child((CFExpression) args.get(i));
+			}
+			return null;
+		}
+
+		@Override
+		public Void visitJavaMethodExpression(CFJavaMethodExpression expression) {
+			child(expression.getName());
+			children(expression.getArgs());
+			return null;
+		}
+
+		@Override
+		public Void visitVarDeclExpression(CFVarDeclExpression expression) {
+			child(expression.getVar());
+			child(expression.getInit());
+			children(expression.getOtherIds());
+			children(expression.getOtherVars());
+			return null;
+		}
+
+		@Override
+		public Void visitAnonymousFunctionExpression(CFAnonymousFunctionExpression expression) {
+			child(expression.getFuncDeclStatement());
+			return null;
+		}
+
+		@Override
+		public Void visitAnonymousComponentExpression(CFAnonymousComponentExpression expression) {
+			child(expression.getComponentDeclaration());
+			return null;
+		}
+
+		@Override
+		public Void visitCompoundStatement(CFCompoundStatement statement) {
+			final List<CFScriptStatement> statements = statement.getStatements();
+			for (int i = 0; i < statements.size(); i++) {
+				// as Decompile, prevent an endless loop
+				if (statements.get(i) != statement) {
+					child(statements.get(i));
+				}
+			}
+			return null;
+		}
+
+		@Override
+		public Void visitExpressionStatement(CFExpressionStatement statement) {
+			child(statement.getExpression());
+			return null;
+		}
+
+		@Override
+		public Void visitIfStatement(CFIfStatement statement) {
+			child(statement.getCond());
+			child(statement.getThenStatement());
+			child(statement.getElseStatement());
+			return null;
+		}
+
+		@Override
+		public Void visitForStatement(CFForStatement statement) {
+			child(statement.getInit());
+			child(statement.getCond());
+			child(statement.getNext());
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitForInStatement(CFForInStatement statement) {
+			child(statement.getVariable());
+			child(statement.getStructure());
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitWhileStatement(CFWhileStatement statement) {
+			child(statement.getCond());
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitDoWhileStatement(CFDoWhileStatement statement) {
+			child(statement.getCondition());
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitSwitchStatement(CFSwitchStatement statement) {
+			child(statement.getVariable());
+			children(statement.getCases());
+			return null;
+		}
+
+		@Override
+		public Void visitCase(CFCase statement) {
+			child(statement.getConstant());
+			children(statement.getStatements());
+			return null;
+		}
+
+		@Override
+		public Void visitTryCatchStatement(CFTryCatchStatement statement) {
+			child(statement.getBody());
+			children(statement.getCatchStatements());
+			child(statement.getFinallyStatement());
+			return null;
+		}
+
+		@Override
+		public Void visitCatchStatement(CFCatchStatement statement) {
+			child(statement.getVariable());
+			child(statement.getCatchBody());
+			return null;
+		}
+
+		@Override
+		public Void visitReturnStatement(CFReturnStatement statement) {
+			child(statement.getExpression());
+			return null;
+		}
+
+		@Override
+		public Void visitThrowStatement(CFThrowStatement statement) {
+			child(statement.getMessage());
+			return null;
+		}
+
+		@Override
+		public Void visitAbortStatement(CFAbortStatement statement) {
+			child(statement.getMessage());
+			return null;
+		}
+
+		@Override
+		public Void visitExitStatement(CFExitStatement statement) {
+			child(statement.getMethod());
+			return null;
+		}
+
+		@Override
+		public Void visitImportStatement(CFImportStatement statement) {
+			child(statement.getPath());
+			return null;
+		}
+
+		@Override
+		public Void visitIncludeStatement(IncludeStatement statement) {
+			child(statement.getTemplate());
+			return null;
+		}
+
+		@Override
+		public Void visitTemplateBlockStatement(CFTemplateBlockStatement statement) {
+			children(statement.getExpressions());
+			return null;
+		}
+
+		@Override
+		public Void visitStaticBlockStatement(CFStaticBlockStatement statement) {
+			children(statement.getMembers());
+			return null;
+		}
+
+		@Override
+		public Void visitFuncDeclStatement(CFFuncDeclStatement statement) {
+			child(statement.getName());
+			attributes(statement.getAttributes());
+			final List<CFFunctionParameter> formals = statement.getFormals();
+			for (int i = 0; i < formals.size(); i++) {
+				child(formals.get(i).getDefaultExpression());
+			}
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitCompDeclStatement(CFCompDeclStatement statement) {
+			attributes(statement.getAttributes());
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitAttributeStatement(CFParsedAttributeStatement statement) {
+			attributes(statement.getAttributes());
+			return null;
+		}
+
+		@Override
+		public Void visitCFIncludeStatement(CFIncludeStatement statement) {
+			// in the attribute form the template is one of the attribute values
+			if (statement.getAttributes().isEmpty()) {
+				child(statement.getTemplate());
+			} else {
+				attributes(statement.getAttributes());
+			}
+			return null;
+		}
+
+		@Override
+		public Void visitLockStatement(CFLockStatement statement) {
+			attributes(statement.getAttributes());
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitMLFunctionStatement(CFMLFunctionStatement statement) {
+			attributes(statement.getAttributes());
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitParamStatement(CFParamStatement statement) {
+			attributes(statement.getAttributes());
+			child(statement.getParamName());
+			child(statement.getParamType());
+			child(statement.getDefaultExpression());
+			return null;
+		}
+
+		@Override
+		public Void visitPropertyStatement(CFPropertyStatement statement) {
+			attributes(statement.getAttributes());
+			child(statement.getPropertyName());
+			child(statement.getPropertyType());
+			return null;
+		}
+
+		@Override
+		public Void visitThreadStatement(CFThreadStatement statement) {
+			attributes(statement.getAttributes());
+			child(statement.getBody());
+			return null;
+		}
+
+		@Override
+		public Void visitTransactionStatement(CFTransactionStatement statement) {
+			attributes(statement.getAttributes());
+			child(statement.getBody());
+			return null;
+		}
+	}
+}
@@ -0,0 +1,317 @@
+package cfml.parsing.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.CodePointBuffer;
+import org.antlr.v4.runtime.CodePointCharStream;
+
+/**
+ * Reads CFML source files without the per-file garbage of a Reader, for bulk scans of whole projects.
+ *
+ * Small files are read into a direct byte buffer kept per thread, and large ones are memory mapped. Either way the
+ * bytes are decoded into a char buffer that is also kept per thread, so the only allocation per file is the String or
+ * char stream handed back, or nothing at all with {@link #read(Path, Charset, CharsConsumer)}. Pooled buffers are not
+ * grown past {@link #POOLED_BYTES_LIMIT} and {@link #POOLED_CHARS_LIMIT}, which most CFML files fit, so a thread keeps
+ * under 200 KB; bigger files get heap buffers of their own which are dropped afterwards.
+ *
+ * A file of {@link #MAP_THRESHOLD} bytes or more stays mapped until the garbage collector frees its buffer, not just
+ * until the read returns. On Windows a mapped file cannot be saved over or deleted, so an editor may fail to write
+ * such a file for a while after it was read.
+ *
+ * The encoding comes from a byte order mark if there is one, else from a pageencoding near the top of the file
+ * (&lt;cfprocessingdirective pageencoding="..."&gt;, or pageencoding "..."; in a script component), else from the
+ * default passed in. Malformed input is replaced rather than failing the read, as a Reader would.
+ */
+public final class CFMLFileReader {
+
+	/** Files at least this many bytes long are memory mapped rather than read. */
+	static final int MAP_THRESHOLD = 1 << 20;
+	/** The most bytes the pooled direct byte buffer is allowed to grow to. */
+	static final int POOLED_BYTES_LIMIT = 64 << 10;
+	/** The most chars a pooled char buffer is allowed to grow to. */
+	static final int POOLED_CHARS_LIMIT = 64 << 10;
+	/** How far into the file a pageencoding is looked for. */
+	static final int ENCODING_SCAN_LIMIT = 4096;
+
+	private static final byte[] PAGE_ENCODING = "pageencoding".getBytes(StandardCharsets.US_ASCII);
+
+	private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
+	/**
+	 * Receives the decoded contents of a file.
+	 */
+	public interface CharsConsumer {
+		/**
+		 * @param chars the contents, only valid until this method returns
+		 */
+		void accept(CharBuffer chars) throws Exception;
+	}
+
+	private CFMLFileReader() {
+	}
+
+	/**
+	 * @param file the file to read
+	 * @return its contents, decoded with the platform charset unless the file says otherwise
+	 * @throws IOException if the file cannot be read
+	 */
+	public static String readString(Path file) throws IOException {
+		return readString(file, Charset.defaultCharset());
+	}
+
+	/**
+	 * @param file the file to read
+	 * @param defaultCharset the charset to use if the file has no byte order mark or pageencoding
+	 * @return its contents
+	 * @throws IOException if the file cannot be read
+	 */
+	public static String readString(Path file, Charset defaultCharset) throws IOException {
+		final Buffers buffers = BUFFERS.get();
+		final boolean pooled = buffers.acquire();
+		try {
+			return decode(file, defaultCharset, buffers, pooled).toString();
+		} finally {
+			buffers.release(pooled);
+		}
+	}
+
+	/**
+	 * Reads a file straight into a char stream for an ANTLR lexer, without going through a String.
+	 *
+	 * @param file the file to read
+	 * @param defaultCharset the charset to use if the file has no byte order mark or pageencoding
+	 * @return its contents, named after the file
+	 * @throws IOException if the file cannot be read
+	 */
+	public static CharStream readCharStream(Path file, Charset defaultCharset) throws IOException {
+		final Buffers buffers = BUFFERS.get();
+		final boolean pooled = buffers.acquire();
+		try {
+			final CharBuffer chars = decode(file, defaultCharset, buffers, pooled);
+			final CodePointBuffer.Builder builder = CodePointBuffer.builder(chars.remaining());
+			builder.append(chars);
+			return CodePointCharStream.fromBuffer(builder.build(), file.toString());
+		} finally {
+			buffers.release(pooled);
+		}
+	}
+
+	/**
+	 * Decodes a file into a buffer and passes it to consumer, copying nothing. The buffer is reused for the next file
+	 * read on this thread, so consumer must not keep it, or anything that shares its chars, once it returns. Reading
+	 * another file from inside consumer is allowed; that read simply does not use the pooled buffers.
+	 *
+	 * @param file the file to read
+	 * @param defaultCharset the charset to use if the file has no byte order mark or pageencoding
+	 * @param consumer receives the contents
+	 * @throws Exception if the file cannot be read, or whatever consumer throws
+	 */
+	public static void read(Path file, Charset defaultCharset, CharsConsumer consumer) throws Exception {
+		final Buffers buffers = BUFFERS.get();
+		final boolean pooled = buffers.acquire();
+		try {
+			consumer.accept(decode(file, defaultCharset, buffers, pooled));
+		} finally {
+			buffers.release(pooled);
+		}
+	}
+
+	/**
+	 * Works out the encoding of a file from its first bytes. If there is a byte order mark, bytes is positioned just
+	 * past it; otherwise it is left untouched.
+	 *
+	 * @param bytes the file's contents, from its current position
+	 * @param defaultCharset the charset to return if the file does not say
+	 * @return the charset to decode with
+	 */
+	public static Charset detectCharset(ByteBuffer bytes, Charset defaultCharset) {
+		final int pos = bytes.position();
+		final int remaining = bytes.remaining();
+		if (remaining >= 3 && (bytes.get(pos) & 0xff) == 0xef && (bytes.get(pos + 1) & 0xff) == 0xbb
+				&& (bytes.get(pos + 2) & 0xff) == 0xbf) {
+			bytes.position(pos + 3);
+			return StandardCharsets.UTF_8;
+		}
+		if (remaining >= 2 && (bytes.get(pos) & 0xff) == 0xfe && (bytes.get(pos + 1) & 0xff) == 0xff) {
+			bytes.position(pos + 2);
+			return StandardCharsets.UTF_16BE;
+		}
+		if (remaining >= 2 && (bytes.get(pos) & 0xff) == 0xff && (bytes.get(pos + 1) & 0xff) == 0xfe) {
+			bytes.position(pos + 2);
+			return StandardCharsets.UTF_16LE;
+		}
+		final Charset declared = pageEncoding(bytes, pos, pos + Math.min(remaining, ENCODING_SCAN_LIMIT));
+		return declared != null ? declared : defaultCharset;
+	}
+
+	/**
+	 * Finds the value of the first pageencoding between start and end. Only ASCII is compared, which every charset a
+	 * CFML file can declare agrees on.
+	 */
+	private static Charset pageEncoding(ByteBuffer bytes, int start, int end) {
+		for (int i = start; i <= end - PAGE_ENCODING.length; i++) {
+			if (!matchesIgnoreCase(bytes, i, PAGE_ENCODING)) {
+				continue;
+			}
+			int pos = skipSpaces(bytes, i + PAGE_ENCODING.length, end);
+			if (pos < end && bytes.get(pos) == '=') {
+				pos = skipSpaces(bytes, pos + 1, end);
+			}
+			if (pos >= end || (bytes.get(pos) != '"' && bytes.get(pos) != '\'')) {
+				continue;
+			}
+			final byte quote = bytes.get(pos);
+			final StringBuilder name = new StringBuilder();
+			for (pos++; pos < end && bytes.get(pos) != quote && name.length() < 64; pos++) {
+				name.append((char) (bytes.get(pos) & 0x7f));
+			}
+			try {
+				return Charset.forName(name.toString().trim());
+			} catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+				return null;
+			}
+		}
+		return null;
+	}
+
+	private static boolean matchesIgnoreCase(ByteBuffer bytes, int pos, byte[] lowerCase) {
+		for (int i = 0; i < lowerCase.length; i++) {
+			final int b = bytes.get(pos + i);
+			if ((b >= 'A' && b <= 'Z' ? b + ('a' - 'A') : b) != lowerCase[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int skipSpaces(ByteBuffer bytes, int pos, int end) {
+		while (pos < end && Character.isWhitespace(bytes.get(pos))) {
+			pos++;
+		}
+		return pos;
+	}
+
+	private static CharBuffer decode(Path file, Charset defaultCharset, Buffers buffers, boolean pooled)
+			throws IOException {
+		final ByteBuffer bytes;
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			final long size = channel.size();
+			if (size > Integer.MAX_VALUE) {
+				throw new IOException(file + " is too large to parse");
+			}
+			if (size >= MAP_THRESHOLD) {
+				// The mapping outlives the channel, and is released once the buffer is collected.
+				bytes = channel.map(MapMode.READ_ONLY, 0, size);
+			} else {
+				bytes = pooled ? buffers.bytes((int) size) : ByteBuffer.allocate((int) size);
+				while (bytes.hasRemaining() && channel.read(bytes) >= 0) {
+				}
+				bytes.flip();
+			}
+		}
+		final Charset charset = detectCharset(bytes, defaultCharset);
+		final CharsetDecoder decoder = pooled ? buffers.decoder(charset) : newDecoder(charset);
+		final int capacity = (int) Math.min(Integer.MAX_VALUE,
+				(long) Math.ceil(bytes.remaining() * (double) decoder.maxCharsPerByte()) + 16);
+		final CharBuffer chars = pooled ? buffers.chars(capacity) : CharBuffer.allocate(capacity);
+		CoderResult result = decoder.decode(bytes, chars, true);
+		if (!result.isUnderflow()) {
+			throwResult(result, file);
+		}
+		result = decoder.flush(chars);
+		if (!result.isUnderflow()) {
+			throwResult(result, file);
+		}
+		chars.flip();
+		return chars;
+	}
+
+	private static void throwResult(CoderResult result, Path file) throws IOException {
+		try {
+			result.throwException();
+		} catch (CharacterCodingException e) {
+			throw new IOException("Could not decode " + file, e);
+		}
+		throw new IOException("Could not decode " + file);
+	}
+
+	private static CharsetDecoder newDecoder(Charset charset) {
+		return charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE)
+				.onUnmappableCharacter(CodingErrorAction.REPLACE);
+	}
+
+	/**
+	 * The buffers and decoder one thread reuses from file to file.
+	 */
+	private static final class Buffers {
+		private ByteBuffer bytes;
+		private CharBuffer chars;
+		private CharsetDecoder decoder;
+		private boolean inUse;
+
+		/**
+		 * @return true if the caller now owns the pooled buffers, false if an outer read on this thread already does
+		 */
+		boolean acquire() {
+			if (inUse) {
+				return false;
+			}
+			inUse = true;
+			return true;
+		}
+
+		void release(boolean pooled) {
+			if (pooled) {
+				inUse = false;
+			}
+		}
+
+		ByteBuffer bytes(int size) {
+			if (size > POOLED_BYTES_LIMIT) {
+				return ByteBuffer.allocate(size);
+			}
+			if (bytes == null || bytes.capacity() < size) {
+				bytes = ByteBuffer.allocateDirect(
+						Math.min(POOLED_BYTES_LIMIT, Math.max(size, bytes == null ? 8192 : bytes.capacity() * 2)));
+			}
+			bytes.clear();
+			bytes.limit(size);
+			return bytes;
+		}
+
+		CharBuffer chars(int capacity) {
+			if (capacity > POOLED_CHARS_LIMIT) {
+				return CharBuffer.allocate(capacity);
+			}
+			if (chars == null || chars.capacity() < capacity) {
+				chars = CharBuffer.allocate(
+						Math.min(POOLED_CHARS_LIMIT, Math.max(capacity, chars == null ? 8192 : chars.capacity() * 2)));
+			}
+			chars.clear();
+			return chars;
+		}
+
+		CharsetDecoder decoder(Charset charset) {
+			if (decoder == null || !decoder.charset().equals(charset)) {
+				decoder = newDecoder(charset);
+			}
+			decoder.reset();
+			return decoder;
+		}
+	}
+}
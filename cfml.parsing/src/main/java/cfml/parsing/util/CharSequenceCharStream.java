@@ -0,0 +1,118 @@
+package cfml.parsing.util;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.misc.Interval;
+
+/**
+ * A char stream over a range of a CharSequence, for lexing an expression where it sits in its document rather than
+ * copying it out into a String and then into a code point buffer.
+ *
+ * Indexes are offsets into the whole sequence: the stream starts at begin, {@link #size()} is end, and so the start
+ * and stop indexes of the tokens lexed from it are offsets into the document. The sequence is read a char at a time,
+ * so a character outside the basic multilingual plane is two symbols, one per surrogate, as it was with the
+ * ANTLRInputStream of old. Tokens keep a reference to the stream and read their text from it when asked, so the
+ * sequence must not change for as long as they are used.
+ */
+public final class CharSequenceCharStream implements CharStream {
+
+	private final CharSequence source;
+	private final int begin;
+	private final int end;
+	private final String name;
+	private int index;
+
+	/**
+	 * @param source the document
+	 * @param begin the offset of the first char to read
+	 * @param end the offset just past the last char to read
+	 */
+	public CharSequenceCharStream(CharSequence source, int begin, int end) {
+		this(source, begin, end, IntStream.UNKNOWN_SOURCE_NAME);
+	}
+
+	/**
+	 * @param source the document
+	 * @param begin the offset of the first char to read
+	 * @param end the offset just past the last char to read
+	 * @param name the name of the document, for error messages
+	 */
+	public CharSequenceCharStream(CharSequence source, int begin, int end, String name) {
+		if (begin < 0 || end < begin || end > source.length()) {
+			throw new IndexOutOfBoundsException("range " + begin + " to " + end + " of " + source.length());
+		}
+		this.source = source;
+		this.begin = begin;
+		this.end = end;
+		this.name = name;
+		this.index = begin;
+	}
+
+	@Override
+	public void consume() {
+		if (index >= end) {
+			throw new IllegalStateException("cannot consume EOF");
+		}
+		index++;
+	}
+
+	@Override
+	public int LA(int i) {
+		if (i == 0) {
+			return 0;
+		}
+		// LA(-1) is the char just consumed
+		final int position = i > 0 ? index + i - 1 : index + i;
+		if (position < begin || position >= end) {
+			return IntStream.EOF;
+		}
+		return source.charAt(position);
+	}
+
+	@Override
+	public int mark() {
+		return -1;
+	}
+
+	@Override
+	public void release(int marker) {
+	}
+
+	@Override
+	public int index() {
+		return index;
+	}
+
+	@Override
+	public void seek(int index) {
+		this.index = Math.max(begin, Math.min(index, end));
+	}
+
+	/**
+	 * @return the offset just past the last char, not the number of chars, as indexes start at begin
+	 */
+	@Override
+	public int size() {
+		return end;
+	}
+
+	@Override
+	public String getSourceName() {
+		return name;
+	}
+
+	@Override
+	public String getText(Interval interval) {
+		final int start = Math.max(begin, interval.a);
+		final int stop = Math.min(end - 1, interval.b);
+		if (stop < start) {
+			return "";
+		}
+		return source.subSequence(start, stop + 1).toString();
+	}
+
+	@Override
+	public String toString() {
+		return source.subSequence(begin, end).toString();
+	}
+}
@@ -0,0 +1,109 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Token;
+import org.junit.Test;
+
+import cfml.CFSCRIPTLexer;
+
+/**
+ * The keywords are told apart from identifiers in CFSCRIPTLexer's emit(), these check it gives the tokens the keyword
+ * rules did.
+ */
+public class TestCFSCRIPTLexer {
+
+	private static List<Token> lex(String script) {
+		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(CharStreams.fromString(script));
+		final List<Token> tokens = new ArrayList<Token>();
+		for (Token token = lexer.nextToken(); token.getType() != Token.EOF; token = lexer.nextToken()) {
+			if (token.getChannel() == Token.DEFAULT_CHANNEL) {
+				tokens.add(token);
+			}
+		}
+		return tokens;
+	}
+
+	private static void assertTokens(String script, int... types) {
+		final List<Token> tokens = lex(script);
+		final List<String> expected = new ArrayList<String>();
+		for (int type : types) {
+			expected.add(CFSCRIPTLexer.VOCABULARY.getSymbolicName(type));
+		}
+		final List<String> actual = new ArrayList<String>();
+		for (Token token : tokens) {
+			actual.add(CFSCRIPTLexer.VOCABULARY.getSymbolicName(token.getType()));
+		}
+		assertEquals(script, expected, actual);
+	}
+
+	@Test
+	public void testKeywordsInAnyCase() {
+		assertTokens("if (x) return TRUE; else RETURN no;", CFSCRIPTLexer.IF, CFSCRIPTLexer.LEFTPAREN,
+				CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.RIGHTPAREN, CFSCRIPTLexer.RETURN,
+				CFSCRIPTLexer.BOOLEAN_LITERAL, CFSCRIPTLexer.SEMICOLON, CFSCRIPTLexer.ELSE, CFSCRIPTLexer.RETURN,
+				CFSCRIPTLexer.BOOLEAN_LITERAL, CFSCRIPTLexer.SEMICOLON);
+	}
+
+	@Test
+	public void testKeywordOnlyMatchesWholeWord() {
+		assertTokens("containsx = iffy", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.EQUALSOP, CFSCRIPTLexer.IDENTIFIER);
+		assertTokens("a contains b", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.CONTAINS, CFSCRIPTLexer.IDENTIFIER);
+	}
+
+	@Test
+	public void testOperatorSpellings() {
+		assertTokens("a eq b is c equals d", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.EQ, CFSCRIPTLexer.IDENTIFIER,
+				CFSCRIPTLexer.EQ, CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.EQ, CFSCRIPTLexer.IDENTIFIER);
+		assertTokens("a neq b <> c", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.NEQ, CFSCRIPTLexer.IDENTIFIER,
+				CFSCRIPTLexer.NEQ, CFSCRIPTLexer.IDENTIFIER);
+		assertTokens("a ge b le c", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.GTE, CFSCRIPTLexer.IDENTIFIER,
+				CFSCRIPTLexer.GTE, CFSCRIPTLexer.IDENTIFIER);
+	}
+
+	@Test
+	public void testMultiWordOperators() {
+		final List<Token> tokens = lex("a Does Not  Contain b");
+		assertEquals(3, tokens.size());
+		assertEquals(CFSCRIPTLexer.DOESNOTCONTAIN, tokens.get(1).getType());
+		assertEquals("Does Not  Contain", tokens.get(1).getText());
+		assertEquals(19, tokens.get(2).getCharPositionInLine());
+
+		assertTokens("a less than or equal to b", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.LTE,
+				CFSCRIPTLexer.IDENTIFIER);
+		assertTokens("a greater than b", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.GT, CFSCRIPTLexer.IDENTIFIER);
+		assertTokens("a is not b", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.NEQ, CFSCRIPTLexer.IDENTIFIER);
+		assertTokens("a not equals b", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.NEQ, CFSCRIPTLexer.IDENTIFIER);
+	}
+
+	@Test
+	public void testPartialMultiWordOperator() {
+		// as much of the phrase as follows is taken, the rest lexes word by word
+		assertTokens("a less than or b", CFSCRIPTLexer.IDENTIFIER, CFSCRIPTLexer.LT, CFSCRIPTLexer.OR,
+				CFSCRIPTLexer.IDENTIFIER);
+		final List<Token> tokens = lex("a is nothing");
+		assertEquals(CFSCRIPTLexer.NEQ, tokens.get(1).getType());
+		assertEquals("is not", tokens.get(1).getText());
+		assertEquals("hing", tokens.get(2).getText());
+	}
+
+	@Test
+	public void testTags() {
+		assertTokens("cffile file cfloop", CFSCRIPTLexer.FILE, CFSCRIPTLexer.FILE, CFSCRIPTLexer.LOOP);
+		assertTokens("cfdump cfhttpparam", CFSCRIPTLexer.CFDUMP, CFSCRIPTLexer.CFHTTPPARAM);
+		assertTokens("cf_mytag cf_1", CFSCRIPTLexer.CFCUSTOM_IDENTIFIER, CFSCRIPTLexer.IDENTIFIER);
+	}
+
+	@Test
+	public void testHttp() {
+		final List<Token> tokens = lex("https://x cfhttp");
+		assertEquals(CFSCRIPTLexer.HTTP, tokens.get(0).getType());
+		assertEquals("https://", tokens.get(0).getText());
+		assertEquals(CFSCRIPTLexer.IDENTIFIER, tokens.get(1).getType());
+		assertEquals(CFSCRIPTLexer.CFHTTP, tokens.get(2).getType());
+	}
+}
@@ -0,0 +1,72 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Token;
+import org.junit.Test;
+
+import cfml.CFSCRIPTLexer;
+import cfml.CFSCRIPTReferenceLexer;
+
+/**
+ * Lexes every CFML file of the test resources with CFSCRIPTLexer and with CFSCRIPTReferenceLexer, the lexer from
+ * before keywords were classified from a table, and checks that each token has the same type, channel, start and
+ * stop. Types are compared by vocabulary name, as the two lexers number them differently.
+ */
+public class TestCFSCRIPTLexerGolden {
+
+	private static final Path RESOURCES = Paths.get("src/test/resources");
+
+	@Test
+	public void testSameTokensAsReference() throws Exception {
+		final List<Path> files = sources();
+		assertTrue(files.size() > 0);
+		for (Path file : files) {
+			final String contents = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+			final List<String> expected = lex(new CFSCRIPTReferenceLexer(CharStreams.fromString(contents)));
+			final List<String> actual = lex(new CFSCRIPTLexer(CharStreams.fromString(contents)));
+			final int common = Math.min(expected.size(), actual.size());
+			for (int i = 0; i < common; i++) {
+				assertEquals(file + " token " + i, expected.get(i), actual.get(i));
+			}
+			assertEquals(file + " token count", expected.size(), actual.size());
+		}
+	}
+
+	private static List<Path> sources() throws IOException {
+		try (Stream<Path> paths = Files.walk(RESOURCES)) {
+			return paths.filter(Files::isRegularFile).filter(path -> {
+				final String name = path.getFileName().toString().toLowerCase();
+				return name.endsWith(".cfc") || name.endsWith(".cfm");
+			}).sorted().collect(Collectors.toList());
+		}
+	}
+
+	/**
+	 * @return each token as name/channel/start/stop, up to and including EOF
+	 */
+	private static List<String> lex(Lexer lexer) {
+		lexer.removeErrorListeners();
+		final List<String> tokens = new ArrayList<String>();
+		Token token;
+		do {
+			token = lexer.nextToken();
+			tokens.add(lexer.getVocabulary().getSymbolicName(token.getType()) + '/' + token.getChannel() + '/'
+					+ token.getStartIndex() + '/' + token.getStopIndex());
+		} while (token.getType() != Token.EOF);
+		return tokens;
+	}
+}
@@ -0,0 +1,89 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.reporting.ArrayErrorListener;
+
+/**
+ * A single {@link CFMLParser} shared by several threads must produce the same results as the same
+ * parser used from one thread.
+ */
+public class TestConcurrentParsing {
+
+	private static final int THREADS = 8;
+	private static final int ROUNDS = 50;
+
+	private static final String[] EXPRESSIONS = { "var result = StructNew()", "x = a + b * c",
+			"local.items = [1, 2, { key: 'value' }]", "isDefined('url.id') AND url.id GT 0",
+			"y = foo(bar, baz).qux[1]", "z = a ?: b" };
+
+	private static final String SCRIPT = "component { function f(a) { var x = a + 1; if (x GT 2) { return x; } "
+			+ "for (var i = 1; i <= 10; i++) { x += i; } return x; } }";
+
+	private CFMLParser parser;
+
+	@Before
+	public void setUp() throws Exception {
+		parser = new CFMLParser();
+	}
+
+	private List<String> parseAll(CFMLParser parser) throws Exception {
+		List<String> results = new ArrayList<String>();
+		for (String expression : EXPRESSIONS) {
+			CFExpression cfml = parser.parseCFMLExpression(expression, new ArrayErrorListener(new ArrayList<String>()));
+			CFExpression plain = parser.parseCFExpression(expression, new ArrayErrorListener(new ArrayList<String>()));
+			assertNotNull(cfml);
+			assertNotNull(plain);
+			results.add(cfml.Decompile(0));
+			results.add(plain.Decompile(0));
+		}
+		CFScriptStatement script = parser.parseScript(SCRIPT);
+		assertNotNull(script);
+		results.add(script.Decompile(0));
+		return results;
+	}
+
+	@Test
+	public void testSharedParserMatchesSerialResults() throws Exception {
+		final List<String> expected = parseAll(new CFMLParser());
+
+		ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+			for (int i = 0; i < THREADS * ROUNDS; i++) {
+				futures.add(pool.submit(new Callable<List<String>>() {
+					@Override
+					public List<String> call() throws Exception {
+						return parseAll(parser);
+					}
+				}));
+			}
+			for (Future<List<String>> future : futures) {
+				assertEquals(expected, future.get());
+			}
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testClearDFAWithoutParsingFirst() throws Exception {
+		// Clearing from a thread that has not parsed anything must not fail, and parsing must still
+		// work afterwards.
+		parser.clearDFA();
+		assertNotNull(parser.parseCFMLExpression(EXPRESSIONS[0], new ArrayErrorListener(new ArrayList<String>())));
+	}
+}
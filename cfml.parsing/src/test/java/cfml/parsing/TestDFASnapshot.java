@@ -0,0 +1,120 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.file.Paths;
+import java.util.zip.GZIPOutputStream;
+
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.junit.Before;
+import org.junit.Test;
+
+import cfml.CFSCRIPTLexer;
+import cfml.CFSCRIPTParser;
+
+public class TestDFASnapshot {
+
+	private static final String SCRIPT = "component { function f(a, b) { var x = a ?: b; for (var i = 1; i <= 10; i++) "
+			+ "{ x &= i; } return x; } }";
+
+	private CFMLParser fCfmlParser;
+	private CFSCRIPTLexer lexer;
+	private CFSCRIPTParser parser;
+
+	@Before
+	public void setUp() throws Exception {
+		fCfmlParser = new CFMLParser();
+		fCfmlParser.setExpressionTreeCache(null);
+		lexer = new CFSCRIPTLexer(CharStreams.fromString(""));
+		parser = new CFSCRIPTParser(new CommonTokenStream(lexer));
+	}
+
+	private int stateCount() {
+		int count = 0;
+		for (DFA dfa : lexer.getInterpreter().decisionToDFA) {
+			count += dfa.states.size();
+		}
+		for (DFA dfa : parser.getInterpreter().decisionToDFA) {
+			count += dfa.states.size();
+		}
+		return count;
+	}
+
+	private void clear() {
+		lexer.getInterpreter().clearDFA();
+		parser.getInterpreter().clearDFA();
+	}
+
+	@Test
+	public void testRoundTrip() throws Exception {
+		assertNotNull(fCfmlParser.parseScript(SCRIPT));
+		final int warm = stateCount();
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DFASnapshot.write(out);
+
+		clear();
+		assertEquals(0, stateCount());
+		assertTrue(DFASnapshot.load(new ByteArrayInputStream(out.toByteArray())));
+		assertEquals(warm, stateCount());
+
+		// the loaded states are the ones prediction looks up, so parsing the same script adds none
+		assertNotNull(fCfmlParser.parseScript(SCRIPT));
+		assertEquals(warm, stateCount());
+	}
+
+	@Test
+	public void testTrainedSnapshotMatchesParsing() throws Exception {
+		clear();
+		DFASnapshot.train(fCfmlParser, Paths.get("src/test/resources/cfml"));
+		final int trained = stateCount();
+		assertTrue(trained > 0);
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		DFASnapshot.write(out);
+
+		clear();
+		assertTrue(DFASnapshot.load(new ByteArrayInputStream(out.toByteArray())));
+		DFASnapshot.train(fCfmlParser, Paths.get("src/test/resources/cfml"));
+		assertEquals(trained, stateCount());
+	}
+
+	@Test
+	public void testLoadLeavesWarmDFAAlone() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		clear();
+		fCfmlParser.parseScript("x = 1;");
+		DFASnapshot.write(out);
+
+		fCfmlParser.parseScript(SCRIPT);
+		final int warm = stateCount();
+		assertTrue(DFASnapshot.load(new ByteArrayInputStream(out.toByteArray())));
+		assertEquals(warm, stateCount());
+	}
+
+	@Test
+	public void testRejectsOtherData() throws Exception {
+		final ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (DataOutputStream data = new DataOutputStream(new GZIPOutputStream(out))) {
+			data.writeInt(0xCAFEBABE);
+			data.writeInt(1);
+		}
+		clear();
+		assertFalse(DFASnapshot.load(new ByteArrayInputStream(out.toByteArray())));
+		assertEquals(0, stateCount());
+	}
+
+	@Test
+	public void testClearDFAKeepsSnapshot() throws Exception {
+		fCfmlParser.parseScript(SCRIPT);
+		fCfmlParser.clearDFA();
+		final int bundled = stateCount();
+		assertEquals(DFASnapshot.loadBundled(), bundled > 0);
+	}
+}
@@ -0,0 +1,91 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.junit.Test;
+
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+
+public class TestDetachedTrees {
+
+	private static final String SCRIPT = "component {\n\tfunction f(a) {\n\t\tif (a > 1) { return a + 1; }\n"
+			+ "\t\tvar s = \"x#a#y\";\n\t\treturn s;\n\t}\n\tfunction g() {\n\t\treturn f(2);\n\t}\n}";
+
+	@Test
+	public void testTokensAreDetached() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		parser.setDetachedTrees(true);
+		final CFScriptStatement detached = parser.parseScript(SCRIPT);
+		assertNotNull(detached);
+		assertNull(detached.getTokens());
+		final int tokens = assertDetached(detached);
+		assertTrue(tokens > 0);
+
+		final CFScriptStatement attached = new CFMLParser().parseScript(SCRIPT);
+		assertNotNull(attached.getTokens());
+		assertEquals(attached.Decompile(0), detached.Decompile(0));
+		assertEquals(attached.getToken().getText(), detached.getToken().getText());
+		assertEquals(attached.getToken().getLine(), detached.getToken().getLine());
+		assertEquals(attached.getToken().getStartIndex(), detached.getToken().getStartIndex());
+	}
+
+	@Test
+	public void testSkeletonBodiesAreDetached() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		parser.setDetachedTrees(true);
+		final CFScriptStatement skeleton = parser.parseScriptSkeleton(SCRIPT, null);
+		assertNull(skeleton.getTokens());
+		assertEquals(new CFMLParser().parseScript(SCRIPT).Decompile(0), skeleton.Decompile(0));
+		// Decompile parsed the bodies
+		assertDetached(skeleton);
+	}
+
+	/**
+	 * @return the number of tokens seen
+	 */
+	private static int assertDetached(CFScriptStatement root) {
+		int tokens = 0;
+		final ArrayDeque<Object> stack = new ArrayDeque<Object>();
+		stack.push(root);
+		while (!stack.isEmpty()) {
+			final Object node = stack.pop();
+			final Token token;
+			if (node instanceof CFExpression) {
+				final CFExpression expression = (CFExpression) node;
+				token = expression.getToken();
+				push(expression.decomposeExpression(), stack);
+				push(expression.decomposeScript(), stack);
+			} else {
+				final CFScriptStatement statement = (CFScriptStatement) node;
+				token = statement.getToken();
+				push(statement.decomposeExpression(), stack);
+				push(statement.decomposeScript(), stack);
+			}
+			if (token != null) {
+				tokens++;
+				assertNull(token.getTokenSource());
+				assertNull(token.getInputStream());
+				assertNotNull(token.getText());
+			}
+		}
+		return tokens;
+	}
+
+	private static void push(List<?> children, ArrayDeque<Object> stack) {
+		if (children != null) {
+			for (Object child : children) {
+				if (child != null) {
+					stack.push(child);
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.Token;
+import org.junit.Before;
+import org.junit.Test;
+
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.CFLambdaExpression;
+import cfml.parsing.cfscript.HasToken;
+import cfml.parsing.cfscript.script.CFCompDeclStatement;
+import cfml.parsing.cfscript.script.CFCompoundStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.cfscript.walker.CFScriptWalker;
+import cfml.parsing.reporting.ArrayErrorListener;
+
+public class TestIncrementalScriptParser {
+
+	private static final String COMPONENT = "component {\n" //
+			+ "\tfunction first() {\n" //
+			+ "\t\treturn 1;\n" //
+			+ "\t}\n" //
+			+ "\tfunction second(a) {\n" //
+			+ "\t\tvar x = a + 1;\n" //
+			+ "\t\treturn x;\n" //
+			+ "\t}\n" //
+			+ "\tfunction third(b = 2) {\n" //
+			+ "\t\tif (b GT 1) {\n" //
+			+ "\t\t\treturn b;\n" //
+			+ "\t\t}\n" //
+			+ "\t\treturn 0;\n" //
+			+ "\t}\n" //
+			+ "\tfunction fourth(c) {\n" //
+			+ "\t\ttry {\n" //
+			+ "\t\t\tc = f(c, d = 1);\n" //
+			+ "\t\t} catch (any e) {\n" //
+			+ "\t\t\tc = 0;\n" //
+			+ "\t\t} finally {\n" //
+			+ "\t\t\tc++;\n" //
+			+ "\t\t}\n" //
+			+ "\t\tswitch (c) {\n" //
+			+ "\t\t\tcase 1: return (x) => x;\n" //
+			+ "\t\t\tdefault: return c;\n" //
+			+ "\t\t}\n" //
+			+ "\t}\n" //
+			+ "}\n";
+
+	private IncrementalScriptParser incremental;
+	private List<String> errors;
+
+	@Before
+	public void setUp() throws Exception {
+		incremental = new IncrementalScriptParser(new CFMLParser());
+		errors = new ArrayList<String>();
+	}
+
+	private ScriptDocument edit(String find, String replacement) throws Exception {
+		final ScriptDocument document = incremental.parse(COMPONENT, new ArrayErrorListener(errors));
+		final int offset = COMPONENT.indexOf(find);
+		return incremental.edit(document, offset, find.length(), replacement, new ArrayErrorListener(errors));
+	}
+
+	private void assertSameAsFullParse(ScriptDocument document) throws Exception {
+		final ScriptDocument full = incremental.parse(document.getText(), new ArrayErrorListener(errors));
+		assertEquals(full.getStatement().Decompile(0), document.getStatement().Decompile(0));
+		final List<CFScriptStatement> expected = functions(full);
+		final List<CFScriptStatement> actual = functions(document);
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.get(i).getOffset(), actual.get(i).getOffset());
+			assertEquals(expected.get(i).getLine(), actual.get(i).getLine());
+			assertEquals(expected.get(i).getColumn(), actual.get(i).getColumn());
+		}
+		final List<CFScriptStatement> expectedLast = functions(full).get(2).decomposeScript();
+		final List<CFScriptStatement> actualLast = functions(document).get(2).decomposeScript();
+		assertEquals(expectedLast.get(0).getOffset(), actualLast.get(0).getOffset());
+		assertEquals(expectedLast.get(0).getLine(), actualLast.get(0).getLine());
+		assertSamePositions(full.getStatement(), document.getStatement());
+	}
+
+	/**
+	 * Compares the position of every node and its token, try, catch, finally and switch cases included.
+	 */
+	private static void assertSamePositions(CFScriptStatement expected, CFScriptStatement actual) {
+		final CFScriptWalker expectedWalker = new CFScriptWalker();
+		final CFScriptWalker actualWalker = new CFScriptWalker();
+		expectedWalker.reset(expected);
+		actualWalker.reset(actual);
+		int nodes = 0;
+		while (expectedWalker.next()) {
+			assertTrue(actualWalker.next());
+			final HasToken expectedNode = expectedWalker.node();
+			final HasToken actualNode = actualWalker.node();
+			assertEquals(expectedNode.getClass(), actualNode.getClass());
+			final String where = expectedNode.getClass().getSimpleName() + " " + nodes++;
+			if (expectedNode instanceof CFExpression) {
+				assertEquals(where, ((CFExpression) expectedNode).getOffset(), ((CFExpression) actualNode).getOffset());
+				assertEquals(where, ((CFExpression) expectedNode).getLine(), ((CFExpression) actualNode).getLine());
+			} else {
+				assertEquals(where, ((CFScriptStatement) expectedNode).getOffset(),
+						((CFScriptStatement) actualNode).getOffset());
+				assertEquals(where, ((CFScriptStatement) expectedNode).getLine(),
+						((CFScriptStatement) actualNode).getLine());
+			}
+			final Token expectedToken = expectedNode.getToken();
+			final Token actualToken = actualNode.getToken();
+			if (expectedToken != null) {
+				assertEquals(where, expectedToken.getStartIndex(), actualToken.getStartIndex());
+				assertEquals(where, expectedToken.getLine(), actualToken.getLine());
+			}
+			if (expectedNode instanceof CFLambdaExpression) {
+				assertEquals(where, ((CFLambdaExpression) expectedNode).getOperator().getStartIndex(),
+						((CFLambdaExpression) actualNode).getOperator().getStartIndex());
+			}
+		}
+		assertFalse(actualWalker.next());
+		assertTrue(nodes > 0);
+	}
+
+	private static List<CFScriptStatement> functions(ScriptDocument document) {
+		return ((CFCompoundStatement) ((CFCompDeclStatement) document.getStatement()).getBody()).getStatements();
+	}
+
+	@Test
+	public void testEditInsideBodyIsIncremental() throws Exception {
+		final ScriptDocument document = edit("var x = a + 1;", "var x = a + 100;\n\t\tvar y = x * 2;");
+		assertTrue(document.isIncremental());
+		assertFalse(document.hadErrors());
+		assertTrue(document.getStatement().Decompile(0).contains("y = x * 2"));
+		assertSameAsFullParse(document);
+	}
+
+	@Test
+	public void testDeletingLinesShiftsLaterFunctions() throws Exception {
+		final ScriptDocument document = edit("\t\tvar x = a + 1;\n", "");
+		assertTrue(document.isIncremental());
+		assertSameAsFullParse(document);
+	}
+
+	@Test
+	public void testEditToSignatureFallsBackToFullParse() throws Exception {
+		final ScriptDocument document = edit("second(a)", "second(a, c)");
+		assertFalse(document.isIncremental());
+		assertSameAsFullParse(document);
+	}
+
+	@Test
+	public void testSyntaxErrorFallsBackToFullParse() throws Exception {
+		final ScriptDocument document = edit("return x;", "return x +;");
+		assertFalse(document.isIncremental());
+		assertTrue(document.hadErrors());
+	}
+}
@@ -0,0 +1,134 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.BitSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TestPredictionStats {
+
+	private CFMLParser fCfmlParser;
+	private PredictionStats stats;
+
+	@Before
+	public void setUp() throws Exception {
+		fCfmlParser = new CFMLParser();
+		fCfmlParser.setExpressionTreeCache(null);
+		stats = new PredictionStats(16);
+		fCfmlParser.setPredictionStats(stats);
+	}
+
+	@Test
+	public void testCountsPerRule() throws Exception {
+		assertNotNull(fCfmlParser.parseCFMLExpression("x = 1 + 2", null));
+		assertNotNull(fCfmlParser.parseCFExpression("a.b(c)", null));
+		assertEquals(2, stats.getTotals().getParseCount());
+		assertEquals(1, stats.getRuleStats().get("cfmlExpression").getParseCount());
+		assertEquals(1, stats.getRuleStats().get("expression").getParseCount());
+		assertTrue(stats.getFileStats().isEmpty());
+	}
+
+	@Test
+	public void testCountsPerFile() throws Exception {
+		final String path = "src/test/resources/cfml/ScriptComponent.cfc";
+		assertNotNull(fCfmlParser.parseScriptFile(path));
+		final PredictionStats.Counters file = stats.getFileStats().get(path);
+		assertNotNull(file);
+		assertEquals(1, file.getParseCount());
+		assertEquals(1, stats.getRuleStats().get("scriptBlock").getParseCount());
+	}
+
+	@Test
+	public void testFilesAreOptIn() throws Exception {
+		final PredictionStats rulesOnly = new PredictionStats();
+		fCfmlParser.setPredictionStats(rulesOnly);
+		assertNotNull(fCfmlParser.parseScriptFile("src/test/resources/cfml/ScriptComponent.cfc"));
+		assertEquals(1, rulesOnly.getRuleStats().get("scriptBlock").getParseCount());
+		assertTrue(rulesOnly.getFileStats().isEmpty());
+	}
+
+	@Test
+	public void testFileLimit() throws Exception {
+		final PredictionStats oneFile = new PredictionStats(1);
+		fCfmlParser.setPredictionStats(oneFile);
+		assertNotNull(fCfmlParser.parseScriptFile("src/test/resources/cfml/ScriptComponent.cfc"));
+		assertNotNull(fCfmlParser.parseScriptFile("src/test/resources/cfml/ScriptComponentHarder.cfc"));
+		assertEquals(2, oneFile.getRuleStats().get("scriptBlock").getParseCount());
+		assertEquals(1, oneFile.getFileStats().size());
+		assertNotNull(oneFile.getFileStats().get("src/test/resources/cfml/ScriptComponent.cfc"));
+	}
+
+	@Test
+	public void testNothingCountedByDefault() {
+		assertNull(new CFMLParser().getPredictionStats());
+	}
+
+	@Test
+	public void testFallbackIsCounted() throws Exception {
+		// SLL bails on the syntax error, so the block is parsed again in LL
+		fCfmlParser.parseScript("x = ;");
+		final PredictionStats.Counters block = stats.getRuleStats().get("scriptBlock");
+		assertEquals(1, block.getFallbackCount());
+		assertTrue(block.getLLNanos() > 0);
+	}
+
+	@Test
+	public void testAdaptiveSkipsSLL() throws Exception {
+		fCfmlParser.setAdaptivePrediction(new AdaptivePrediction());
+		for (int i = 0; i < AdaptivePrediction.MIN_SAMPLES + 4; i++) {
+			fCfmlParser.parseScript("x = ;");
+		}
+		final PredictionStats.Counters block = stats.getRuleStats().get("scriptBlock");
+		assertEquals(AdaptivePrediction.MIN_SAMPLES + 4, block.getParseCount());
+		assertTrue(block.getDirectLLCount() > 0);
+	}
+
+	@Test
+	public void testAdaptiveLearnsFiles() {
+		final AdaptivePrediction adaptive = new AdaptivePrediction();
+		final BitSet signature = new BitSet();
+		signature.set(1);
+		assertFalse(adaptive.prefersLL("scriptBlock", "a.cfc", signature));
+		adaptive.learn("scriptBlock", "a.cfc", signature, true);
+		assertTrue(adaptive.prefersLL("scriptBlock", "a.cfc", signature));
+		assertFalse(adaptive.prefersLL("scriptBlock", "b.cfc", signature));
+		adaptive.learn("scriptBlock", "a.cfc", signature, false);
+		assertFalse(adaptive.prefersLL("scriptBlock", "a.cfc", signature));
+	}
+
+	@Test
+	public void testAdaptiveFileLimit() {
+		final AdaptivePrediction adaptive = new AdaptivePrediction(AdaptivePrediction.DEFAULT_THRESHOLD_PERCENT, 1);
+		final BitSet signature = new BitSet();
+		adaptive.learn("scriptBlock", "a.cfc", signature, true);
+		adaptive.learn("scriptBlock", "b.cfc", signature, true);
+		assertTrue(adaptive.prefersLL("scriptBlock", "a.cfc", signature));
+		assertFalse(adaptive.prefersLL("scriptBlock", "b.cfc", signature));
+		adaptive.learn("scriptBlock", "a.cfc", signature, false);
+		adaptive.learn("scriptBlock", "b.cfc", signature, true);
+		assertTrue(adaptive.prefersLL("scriptBlock", "b.cfc", signature));
+	}
+
+	@Test
+	public void testAdaptiveLearnsTokenTypes() {
+		final AdaptivePrediction adaptive = new AdaptivePrediction();
+		final BitSet risky = new BitSet();
+		risky.set(1);
+		risky.set(2);
+		final BitSet safe = new BitSet();
+		safe.set(2);
+		for (int i = 0; i < AdaptivePrediction.MIN_SAMPLES; i++) {
+			adaptive.learn("expression", null, risky, true);
+			adaptive.learn("expression", null, safe, false);
+		}
+		assertTrue(adaptive.prefersLL("expression", null, risky));
+		assertFalse(adaptive.prefersLL("expression", null, safe));
+		assertFalse(adaptive.prefersLL("scriptBlock", null, risky));
+	}
+}
@@ -0,0 +1,126 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestProjectParser {
+
+	private static final File TESTS_DIR = new File("src/test/resources/cfml/tests");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void testEveryFileReportedOnce() throws Exception {
+		final List<File> files = ProjectParser.findSources(TESTS_DIR);
+		assertTrue(files.size() > 0);
+
+		final Map<File, ProjectParseResult> results = new ConcurrentHashMap<File, ProjectParseResult>();
+		try (ProjectParser projectParser = new ProjectParser(new CFMLParser(), 4)) {
+			projectParser.parse(files, result -> assertNull(results.put(result.getFile(), result)));
+		}
+		assertEquals(files.size(), results.size());
+		for (ProjectParseResult result : results.values()) {
+			assertTrue(result.getElapsedNanos() >= 0);
+		}
+	}
+
+	@Test
+	public void testParallelMatchesSerial() throws Exception {
+		final List<File> files = ProjectParser.findSources(TESTS_DIR);
+		final Map<File, ProjectParseResult> results = new ConcurrentHashMap<File, ProjectParseResult>();
+		final CFMLParser parser = new CFMLParser();
+		try (ProjectParser projectParser = new ProjectParser(parser, 4)) {
+			projectParser.parse(files, result -> results.put(result.getFile(), result));
+			for (File file : files) {
+				final ProjectParseResult serial = projectParser.parseFile(file);
+				final ProjectParseResult parallel = results.get(file);
+				assertNotNull(parallel);
+				assertEquals(file.getPath(), serial.getScripts().size(), parallel.getScripts().size());
+				assertEquals(file.getPath(), serial.getExpressions().size(), parallel.getExpressions().size());
+				assertEquals(file.getPath(), serial.getMessages().size(), parallel.getMessages().size());
+			}
+		}
+	}
+
+	@Test
+	public void testMissingFileReportsError() throws Exception {
+		try (ProjectParser projectParser = new ProjectParser(new CFMLParser(), 1)) {
+			final ProjectParseResult result = projectParser.parseFile(new File(TESTS_DIR, "does-not-exist.cfc"));
+			assertNotNull(result.getError());
+			assertTrue(result.hasErrors());
+		}
+	}
+
+	@Test
+	public void testUnclosedScriptDoesNotSkipNextFile() throws Exception {
+		// the cfscript in the string leaves the outer one without an end tag of its own
+		final File unclosed = write("unclosed.cfm", "<cfscript>\nx = \"<cfscript>\";\n</cfscript>");
+		final File next = write("next.cfm", "<cfset a = 1>\n<cfset b = 2>");
+		try (ProjectParser projectParser = new ProjectParser(new CFMLParser(), 1)) {
+			assertEquals(1, projectParser.parseFile(unclosed).getScripts().size());
+			// parsed on the same thread
+			assertEquals(2, projectParser.parseFile(next).getExpressions().size());
+		}
+	}
+
+	@Test
+	public void testScriptErrorsInTagFileReported() throws Exception {
+		final File file = write("broken.cfm", "<cfset a = 1>\n<cfscript>\nx = ;\n</cfscript>");
+		try (ProjectParser projectParser = new ProjectParser(new CFMLParser(), 1)) {
+			assertTrue(projectParser.parseFile(file).getMessages().size() > 0);
+		}
+	}
+
+	@Test
+	public void testScriptComponentWithMarkupInString() throws Exception {
+		final File file = write("Markup.cfc",
+				"/** renders */\nimport foo.bar;\ncomponent {\n\tfunction f() { return \"<div>\"; }\n}");
+		try (ProjectParser projectParser = new ProjectParser(new CFMLParser(), 1)) {
+			final ProjectParseResult result = projectParser.parseFile(file);
+			assertNull(result.getSource());
+			assertEquals(1, result.getScripts().size());
+			assertTrue(result.getMessages().isEmpty());
+		}
+	}
+
+	@Test
+	public void testTextOnlyPageIsNotScript() throws Exception {
+		final File file = write("text.cfm", "Nothing here but text; not a script at all.");
+		try (ProjectParser projectParser = new ProjectParser(new CFMLParser(), 1)) {
+			final ProjectParseResult result = projectParser.parseFile(file);
+			assertNotNull(result.getSource());
+			assertTrue(result.getScripts().isEmpty());
+			assertTrue(result.getMessages().isEmpty());
+		}
+	}
+
+	@Test
+	public void testIsScriptComponent() {
+		assertTrue(ProjectParser.isScriptComponent("A.cfc", "// c\nabstract component {}"));
+		assertTrue(ProjectParser.isScriptComponent("A.CFC", "pageencoding \"utf-8\";\ninterface {}"));
+		assertFalse(ProjectParser.isScriptComponent("A.cfc", "<cfcomponent></cfcomponent>"));
+		assertFalse(ProjectParser.isScriptComponent("a.cfm", "component {}"));
+		assertFalse(ProjectParser.isScriptComponent("A.cfc", "/* unclosed component {}"));
+	}
+
+	private File write(String name, String contents) throws Exception {
+		final File file = folder.newFile(name);
+		Files.write(file.toPath(), contents.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+}
@@ -0,0 +1,83 @@
+package cfml.parsing;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cfml.parsing.cfscript.script.CFCompDeclStatement;
+import cfml.parsing.cfscript.script.CFCompoundStatement;
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+
+public class TestScriptSkeleton {
+
+	private static final String COMPONENT = "component {\n\tproperty name=\"p\";\n"
+			+ "\tpublic function f(a) output=false {\n\t\tif (a) { return a + 1; }\n\t\treturn 0;\n\t}\n"
+			+ "\tfunction g() {\n\t\tvar h = function(b) { return b; };\n\t\treturn h(2);\n\t}\n}";
+
+	@Test
+	public void testBodiesParsedOnDemand() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		final CFScriptStatement skeleton = parser.parseScriptSkeleton(COMPONENT, null);
+		assertNotNull(skeleton);
+		final List<CFFuncDeclStatement> functions = functions(skeleton);
+		assertEquals(2, functions.size());
+		for (CFFuncDeclStatement function : functions) {
+			assertFalse(function.isBodyParsed());
+		}
+		assertEquals("f", functions.get(0).getName().Decompile(0));
+
+		final CFScriptStatement full = parser.parseScript(COMPONENT);
+		assertEquals(full.Decompile(0), skeleton.Decompile(0));
+		for (CFFuncDeclStatement function : functions) {
+			assertTrue(function.isBodyParsed());
+		}
+	}
+
+	@Test
+	public void testBodyPositions() throws Exception {
+		final CFFuncDeclStatement skeleton = functions(new CFMLParser().parseScriptSkeleton(COMPONENT, null)).get(0);
+		final CFFuncDeclStatement full = functions(new CFMLParser().parseScript(COMPONENT)).get(0);
+		assertEquals(full.getBody().getLine(), skeleton.getBody().getLine());
+		assertEquals(full.getBody().getColumn(), skeleton.getBody().getColumn());
+		assertEquals(full.getBody().getOffset(), skeleton.getBody().getOffset());
+	}
+
+	@Test
+	public void testFallsBackToFullParse() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		final CFScriptStatement noFunctions = parser.parseScriptSkeleton("a = 1;", null);
+		assertNotNull(noFunctions);
+		assertEquals(parser.parseScript("a = 1;").Decompile(0), noFunctions.Decompile(0));
+
+		final String unclosed = "function f() { return 1;";
+		final CFScriptStatement broken = parser.parseScriptSkeleton(unclosed, null);
+		for (CFFuncDeclStatement function : functions(broken)) {
+			assertTrue(function.isBodyParsed());
+		}
+	}
+
+	private static List<CFFuncDeclStatement> functions(CFScriptStatement statement) {
+		final List<CFFuncDeclStatement> functions = new ArrayList<CFFuncDeclStatement>();
+		collect(statement, functions);
+		return functions;
+	}
+
+	private static void collect(CFScriptStatement statement, List<CFFuncDeclStatement> functions) {
+		if (statement instanceof CFFuncDeclStatement) {
+			functions.add((CFFuncDeclStatement) statement);
+		} else if (statement instanceof CFCompDeclStatement) {
+			collect(((CFCompDeclStatement) statement).getBody(), functions);
+		} else if (statement instanceof CFCompoundStatement) {
+			for (CFScriptStatement child : ((CFCompoundStatement) statement).getStatements()) {
+				collect(child, functions);
+			}
+		}
+	}
+}
@@ -24,6 +24,7 @@ import org.junit.runners.Parameterized;
 import cfml.CFSCRIPTLexer;
 import cfml.CFSCRIPTParser;
 import cfml.CFSCRIPTParser.ExpressionContext;
+import cfml.parsing.cfml.CFMLInterest;
 import cfml.parsing.cfml.CFMLVisitor;
 import cfml.parsing.cfscript.CFExpression;
 import cfml.parsing.cfscript.script.CFScriptStatement;
@@ -134,6 +135,11 @@ public class TestTagFiles {
 			return output.toString();
 		}
 		
+		@Override
+		public CFMLInterest getInterest() {
+			return CFMLInterest.EVERYTHING.withPreParseText(true);
+		}
+		
 		@Override
 		public boolean visitPreParseExpression(String context, String cfscript) {
 			try {
@@ -0,0 +1,78 @@
+package cfml.parsing.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+import cfml.CFSCRIPTParser.CfmlExpressionContext;
+
+public class TestExpressionTreeCache {
+
+	private static CfmlExpressionContext tree() {
+		return new CfmlExpressionContext(null, 0);
+	}
+
+	@Test
+	public void testEvictsLeastRecentlyUsedByWeight() {
+		final ExpressionTreeCache cache = new ExpressionTreeCache(10, 1);
+		final CfmlExpressionContext a = tree();
+		cache.put("a", a, 4);
+		cache.put("b", tree(), 4);
+		// Touch a, so b is now the least recently used.
+		assertSame(a, cache.get("a"));
+		cache.put("c", tree(), 4);
+
+		assertNotNull(cache.get("a"));
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("c"));
+		assertEquals(8, cache.getWeight());
+		assertEquals(1, cache.getEvictionCount());
+	}
+
+	@Test
+	public void testOverweightTreeIsNotCached() {
+		final ExpressionTreeCache cache = new ExpressionTreeCache(10, 1);
+		cache.put("big", tree(), 11);
+		assertNull(cache.get("big"));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	public void testReplacingEntryKeepsWeightExact() {
+		final ExpressionTreeCache cache = new ExpressionTreeCache(100, 1);
+		cache.put("a", tree(), 5);
+		cache.put("a", tree(), 7);
+		assertEquals(1, cache.size());
+		assertEquals(7, cache.getWeight());
+	}
+
+	@Test
+	public void testLoweringMaxWeightEvicts() {
+		final ExpressionTreeCache cache = new ExpressionTreeCache(100, 1);
+		for (int i = 0; i < 10; i++) {
+			cache.put("e" + i, tree(), 10);
+		}
+		cache.setMaxWeight(30);
+		assertEquals(30, cache.getWeight());
+		assertNotNull(cache.get("e9"));
+		assertNull(cache.get("e0"));
+	}
+
+	@Test
+	public void testCounters() {
+		final ExpressionTreeCache cache = new ExpressionTreeCache(100);
+		cache.get("missing");
+		cache.put("present", tree(), 1);
+		cache.get("present");
+		cache.get("present");
+		assertEquals(1, cache.getMissCount());
+		assertEquals(2, cache.getHitCount());
+
+		cache.resetStats();
+		assertEquals(0, cache.getMissCount());
+		assertEquals(0, cache.getHitCount());
+	}
+}
@@ -0,0 +1,209 @@
+package cfml.parsing.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.ParseError;
+import cfml.parsing.ParseMessage;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.reporting.ArrayErrorListener;
+
+public class TestParseCache {
+
+	private static final String SCRIPT = "component { function f(a) { var x = a + 1; if (x GT 2) { return x; } "
+			+ "return x; } }";
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File dir;
+
+	@Before
+	public void setUp() throws Exception {
+		dir = folder.newFolder("cache");
+	}
+
+	@Test
+	public void testHitMatchesParse() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		final ParseCache cache = new ParseCache(dir, "test");
+		parser.setParseCache(cache);
+
+		final CFScriptStatement parsed = parser.parseScript(SCRIPT);
+		assertNotNull(parsed);
+		assertNotNull(parsed.getTokens());
+		assertNotNull(cache.get(ParseCache.KIND_SCRIPT, SCRIPT));
+
+		final CFScriptStatement cached = parser.parseScript(SCRIPT);
+		assertNotNull(cached);
+		assertNull(cached.getTokens());
+		assertEquals(parsed.Decompile(0), cached.Decompile(0));
+	}
+
+	@Test
+	public void testHitReplaysErrors() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		parser.setParseCache(new ParseCache(dir, "test"));
+		final String broken = "component { function f( { } }";
+
+		final List<String> first = new ArrayList<String>();
+		parser.parseScript(broken, new ArrayErrorListener(first));
+		assertFalse(syntaxErrors(first).isEmpty());
+
+		final List<String> second = new ArrayList<String>();
+		parser.parseScript(broken, new ArrayErrorListener(second));
+		// Only syntax errors are replayed; ambiguity reports are diagnostics of the parse itself.
+		assertEquals(syntaxErrors(first), syntaxErrors(second));
+	}
+
+	@Test
+	public void testHitReplaysColumn() throws Exception {
+		final ParseCache cache = new ParseCache(dir, "test");
+		final String script = "x = 1;";
+		final ParseMessage message = new ParseError(3, 40, 40, "bad", "bad");
+		message.setColumn(7);
+		cache.put(ParseCache.KIND_SCRIPT, script, new CachedParse(Collections.<CFScriptStatement> emptyList(),
+				Collections.<CFExpression> emptyList(), Collections.singletonList(message)));
+		final CFMLParser parser = new CFMLParser();
+		parser.setParseCache(cache);
+
+		final List<String> errors = new ArrayList<String>();
+		parser.parseScript(script, new ArrayErrorListener(errors));
+		assertEquals(Collections.singletonList("SyntaxError: Line3:7 bad"), errors);
+	}
+
+	private static List<String> syntaxErrors(List<String> errors) {
+		final List<String> syntaxErrors = new ArrayList<String>();
+		for (String error : errors) {
+			if (error.startsWith("SyntaxError")) {
+				syntaxErrors.add(error);
+			}
+		}
+		return syntaxErrors;
+	}
+
+	@Test
+	public void testKeyDependsOnVersionAndKind() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		parser.setParseCache(new ParseCache(dir, "one"));
+		parser.parseScript(SCRIPT);
+
+		assertNull(new ParseCache(dir, "two").get(ParseCache.KIND_SCRIPT, SCRIPT));
+		assertNull(new ParseCache(dir, "one").get(ParseCache.KIND_FILE, SCRIPT));
+		assertNotNull(new ParseCache(dir, "one").get(ParseCache.KIND_SCRIPT, SCRIPT));
+	}
+
+	@Test
+	public void testCorruptEntryIsAMiss() throws Exception {
+		final ParseCache cache = new ParseCache(dir, "test");
+		final String key = cache.key(ParseCache.KIND_SCRIPT, null, SCRIPT);
+		final File bucket = new File(dir, key.substring(0, 2));
+		assertTrue(bucket.mkdirs());
+		final File entry = new File(bucket, key + ".ser.gz");
+		Files.write(entry.toPath(), new byte[] { 1, 2, 3 });
+
+		assertNull(cache.get(ParseCache.KIND_SCRIPT, SCRIPT));
+		assertFalse(entry.exists());
+	}
+
+	@Test
+	public void testKeyDependsOnParserDictionary() throws Exception {
+		final ParseCache cache = new ParseCache(dir);
+		cache.put(ParseCache.KIND_SCRIPT, "one", SCRIPT, new CachedParse(Collections.<CFScriptStatement> emptyList(),
+				Collections.<CFExpression> emptyList(), Collections.<ParseMessage> emptyList()));
+
+		assertNotNull(cache.get(ParseCache.KIND_SCRIPT, "one", SCRIPT));
+		assertNull(cache.get(ParseCache.KIND_SCRIPT, "two", SCRIPT));
+	}
+
+	@Test
+	public void testFailingWriteIsNotCached() throws Exception {
+		final ParseCache cache = new ParseCache(dir, "test");
+		cache.put(ParseCache.KIND_SCRIPT, SCRIPT, new CachedParse(Collections.<CFScriptStatement> emptyList(),
+				Collections.<CFExpression> emptyList(), Collections.<ParseMessage> singletonList(new Unwritable())));
+
+		assertNull(cache.get(ParseCache.KIND_SCRIPT, SCRIPT));
+	}
+
+	@Test
+	public void testOtherCollectionIsNotRead() throws Exception {
+		final ParseCache cache = new ParseCache(dir, "test");
+		final String key = cache.key(ParseCache.KIND_SCRIPT, null, SCRIPT);
+		final File bucket = new File(dir, key.substring(0, 2));
+		assertTrue(bucket.mkdirs());
+		final File entry = new File(bucket, key + ".ser.gz");
+		try (ObjectOutputStream out = new ObjectOutputStream(
+				new GZIPOutputStream(Files.newOutputStream(entry.toPath())))) {
+			out.writeObject(new TreeMap<String, String>());
+		}
+
+		assertNull(cache.get(ParseCache.KIND_SCRIPT, SCRIPT));
+		assertFalse(entry.exists());
+	}
+
+	@Test
+	public void testForeignClassIsNotRead() throws Exception {
+		final ParseCache cache = new ParseCache(dir, "test");
+		final String key = cache.key(ParseCache.KIND_SCRIPT, null, SCRIPT);
+		final File bucket = new File(dir, key.substring(0, 2));
+		assertTrue(bucket.mkdirs());
+		final File entry = new File(bucket, key + ".ser.gz");
+		try (ObjectOutputStream out = new ObjectOutputStream(
+				new GZIPOutputStream(Files.newOutputStream(entry.toPath())))) {
+			final List<Object> planted = new ArrayList<Object>();
+			planted.add(new Planted());
+			out.writeObject(planted);
+		}
+
+		assertNull(cache.get(ParseCache.KIND_SCRIPT, SCRIPT));
+		assertFalse(Planted.read);
+		assertFalse(entry.exists());
+	}
+
+	private static final class Unwritable extends ParseMessage {
+
+		private static final long serialVersionUID = 1L;
+
+		Unwritable() {
+			super(1, 0, 0, "x", "x");
+		}
+
+		private void writeObject(ObjectOutputStream out) throws IOException {
+			throw new IllegalStateException("not writable");
+		}
+	}
+
+	private static final class Planted implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		static volatile boolean read;
+
+		private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+			in.defaultReadObject();
+			read = true;
+		}
+	}
+}
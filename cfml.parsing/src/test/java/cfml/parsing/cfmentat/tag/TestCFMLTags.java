@@ -0,0 +1,95 @@
+package cfml.parsing.cfmentat.tag;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import cfml.dictionary.DictionaryManager;
+import cfml.dictionary.SyntaxDictionary;
+import cfml.parsing.CFMLSource;
+import net.htmlparser.jericho.Element;
+import net.htmlparser.jericho.HTMLElements;
+
+public class TestCFMLTags {
+
+	@Test
+	public void testRegisterIsIdempotent() {
+		CFMLTagRegistry registry = CFMLTags.register();
+		assertNotNull(registry);
+		assertSame(registry, CFMLTags.register());
+		assertTrue(registry.isCFMLTag("CFQUERY"));
+		assertFalse(registry.isCFMLTag("cfnosuchtag"));
+		for (String name : registry.getEndTagForbiddenNames()) {
+			assertTrue(name, HTMLElements.getEndTagForbiddenElementNames().contains(name));
+		}
+	}
+
+	@Test
+	public void testConcurrentFirstUse() throws Exception {
+		final SyntaxDictionary cfdic = DictionaryManager.getDictionaryByVersion("cf11");
+		ExecutorService pool = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<CFMLTagRegistry>> results = new ArrayList<Future<CFMLTagRegistry>>();
+			for (int t = 0; t < 8; t++) {
+				results.add(pool.submit(new Callable<CFMLTagRegistry>() {
+					@Override
+					public CFMLTagRegistry call() {
+						return CFMLTags.register(cfdic);
+					}
+				}));
+			}
+			CFMLTagRegistry first = results.get(0).get();
+			for (Future<CFMLTagRegistry> result : results) {
+				assertSame(first, result.get());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	@Test
+	public void testRegistryPerDictionary() {
+		SyntaxDictionary lucee = DictionaryManager.getDictionaryByVersion("lucee5");
+		SyntaxDictionary cf11 = DictionaryManager.getDictionaryByVersion("cf11");
+		CFMLTagRegistry luceeTags = CFMLTags.register(lucee);
+		CFMLTagRegistry cfTags = CFMLTags.register(cf11);
+		assertNotSame(luceeTags, cfTags);
+		assertSame(lucee, luceeTags.getDictionary());
+		assertSame(cf11, cfTags.getDictionary());
+		assertSame(luceeTags, CFMLTags.register(lucee));
+
+		CFMLSource source = new CFMLSource("<cfset x = 1>");
+		assertSame(CFMLTags.register(), source.getTagRegistry());
+	}
+
+	@Test
+	public void testSourceParsedBeforeLaterRegistration() throws Exception {
+		final CFMLSource source = new CFMLSource("<cfset x = 1>\n<cfoutput>#x#</cfoutput>");
+		final List<Element> before = new ArrayList<Element>(source.getChildElements());
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			pool.submit(new Callable<CFMLTagRegistry>() {
+				@Override
+				public CFMLTagRegistry call() {
+					return CFMLTags.register(DictionaryManager.getDictionaryByVersion("lucee5"));
+				}
+			}).get();
+		} finally {
+			pool.shutdown();
+		}
+		assertEquals(before, source.getChildElements());
+		assertEquals(2, before.size());
+	}
+}
@@ -0,0 +1,30 @@
+package cfml.parsing.cfml;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Runs the tag scanner's tests against the grammar based scanner, which must report the same events.
+ */
+public class TestCFMLGrammarScanner extends TestCFMLTagScanner {
+
+	@Override
+	CFMLTagScanner scanner() {
+		return new CFMLGrammarScanner();
+	}
+
+	@Test
+	public void testMatchesTagScanner() throws Exception {
+		final String source = "<cfcomponent output=\"false\">\n<!--- <cfset skipped = 1> --->\n"
+				+ "<cffunction name=\"f\" access=public><cfargument name=\"a\" default=\"#b("x")#\" />\n"
+				+ "<cfset var c = a & \"/>\" /><cfif c eq 'x' or c <> \"y\"><cfreturn c></cfif>\n"
+				+ "<cfquery name=\"q\">select * from t where id = <cfqueryparam value=#a#></cfquery>\n"
+				+ "</cffunction><cfscript>d = 1 < 2;</cfscript><br/><img src=x.png alt=>\n</cfcomponent>";
+		final RecordingHandler expected = new RecordingHandler();
+		new CFMLTagScanner().scan(source, expected);
+		final RecordingHandler actual = new RecordingHandler();
+		new CFMLGrammarScanner().scan(source, actual);
+		assertEquals(expected.events.toString(), actual.events.toString());
+	}
+}
@@ -0,0 +1,184 @@
+package cfml.parsing.cfml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.CFMLSource;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import net.htmlparser.jericho.Element;
+
+public class TestCFMLTagScanner {
+
+	/** Records every event as text, one per line. */
+	static final class RecordingHandler extends CFMLScanHandler {
+
+		final StringBuilder events = new StringBuilder();
+
+		@Override
+		public void startTag(CharSequence source, int begin, int nameEnd) {
+			events.append("start ").append(source.subSequence(begin + 1, nameEnd)).append('\n');
+		}
+
+		@Override
+		public void attribute(CharSequence source, int nameBegin, int nameEnd, int valueBegin, int valueEnd) {
+			events.append("  attr ").append(source.subSequence(nameBegin, nameEnd));
+			if (valueBegin >= 0) {
+				events.append("=[").append(source.subSequence(valueBegin, valueEnd)).append(']');
+			}
+			events.append('\n');
+		}
+
+		@Override
+		public void expression(CharSequence source, int begin, int end) {
+			events.append("  expr [").append(source.subSequence(begin, end).toString().trim()).append("]\n");
+		}
+
+		@Override
+		public void startTagEnd(CharSequence source, int begin, int end, boolean selfClosing) {
+			events.append(selfClosing ? "/>" : ">").append('\n');
+		}
+
+		@Override
+		public void endTag(CharSequence source, int begin, int nameEnd, int end) {
+			events.append("end ").append(source.subSequence(begin + 2, nameEnd)).append('\n');
+		}
+
+		@Override
+		public void comment(CharSequence source, int begin, int end) {
+			events.append("comment ").append(source.subSequence(begin, end)).append('\n');
+		}
+
+		@Override
+		public void script(CharSequence source, int begin, int end) {
+			events.append("script [").append(source.subSequence(begin, end).toString().trim()).append("]\n");
+		}
+	}
+
+	/**
+	 * @return the scanner under test
+	 */
+	CFMLTagScanner scanner() {
+		return new CFMLTagScanner();
+	}
+
+	private String scan(String source) throws Exception {
+		final RecordingHandler handler = new RecordingHandler();
+		scanner().scan(source, handler);
+		return handler.events.toString();
+	}
+
+	@Test
+	public void testAttributes() throws Exception {
+		assertEquals("start cfargument\n  attr name=[xyz]\n  attr required=[true]\n  attr default=[]\n/>\n",
+				scan("<cfargument name=\"xyz\" required=true default='' />"));
+	}
+
+	@Test
+	public void testAttributeWithoutValue() throws Exception {
+		assertEquals("start input\n  attr disabled\n  attr type=[text]\n>\n",
+				scan("<input disabled type=\"text\">"));
+	}
+
+	@Test
+	public void testQuotedGreaterThan() throws Exception {
+		assertEquals("start cfparam\n  attr name=[a]\n  attr default=[x > y]\n>\nend cfparam\n",
+				scan("<cfparam name=\"a\" default=\"x > y\"></cfparam>"));
+	}
+
+	@Test
+	public void testQuotesInsidePounds() throws Exception {
+		assertEquals("start cfoutput\n  attr value=[#fn(\"x\")#]\n>\n",
+				scan("<cfoutput value=\"#fn(\"x\")#\">"));
+	}
+
+	@Test
+	public void testPoundsIgnoredOutsideCFTags() throws Exception {
+		assertEquals("start div\n  attr style=[color:#fff]\n>\nend div\n",
+				scan("<div style=\"color:#fff\"></div>"));
+	}
+
+	@Test
+	public void testExpressionTags() throws Exception {
+		assertEquals("start cfset\n  expr [a = 1]\n/>\nstart cfif\n  expr [a <> b]\n>\nstart cfelseif\n"
+				+ "  expr [a eq \">\"]\n>\nend cfif\nstart cfreturn\n  expr [a]\n>\n",
+				scan("<cfset a = 1 /><cfif a <> b>x<cfelseif a eq \">\">y</cfif><cfreturn a>"));
+	}
+
+	@Test
+	public void testNestedComments() throws Exception {
+		assertEquals("comment <!--- a <!--- <cfset x=1> ---> b --->\nstart cfset\n  expr [y=2]\n>\n",
+				scan("<!--- a <!--- <cfset x=1> ---> b ---><cfset y=2>"));
+	}
+
+	@Test
+	public void testHtmlCommentsAreScanned() throws Exception {
+		assertEquals("start cfset\n  expr [y=2]\n>\n", scan("<!-- <cfset y=2> -->"));
+	}
+
+	@Test
+	public void testScriptBodyIsNotScanned() throws Exception {
+		assertEquals("start cfscript\n>\nscript [if (a < b) { x = \"<cfset>\"; }]\nend CFSCRIPT\n",
+				scan("<cfscript> if (a < b) { x = \"<cfset>\"; } </CFSCRIPT>"));
+	}
+
+	@Test
+	public void testUnterminated() throws Exception {
+		assertEquals("start cfscript\n>\nscript [x = 1;]\n", scan("<cfscript>x = 1;"));
+		assertEquals("comment <!--- a\n", scan("<!--- a"));
+		assertEquals("start cfparam\n  attr name=[a>]\n>\n", scan("<cfparam name=\"a>"));
+	}
+
+	@Test
+	public void testTextIsSkipped() throws Exception {
+		assertEquals("start b\n>\nend b\n", scan("a < b and 1<2 <b>bold</b> <> < /x"));
+	}
+
+	@Test
+	public void testParserScanMatchesVisit() throws Exception {
+		final String source = "<cfcomponent>\n<cffunction name=\"test\">\n<cfargument name=\"xyz\" default=\"\">\n"
+				+ "<cfset xyz=123/>\n<cfif xyz gt 1><cfreturn xyz></cfif>\n</cffunction>\n"
+				+ "<cfscript>function f() { return 1; }</cfscript>\n</cfcomponent>";
+		final CFMLParser parser = new CFMLParser();
+		parser.setTagScanner(scanner());
+
+		final CollectingVisitor scanned = new CollectingVisitor();
+		parser.scan(source, scanned);
+
+		final CollectingVisitor visited = new CollectingVisitor();
+		for (Element element : new CFMLSource(source).getChildElements()) {
+			parser.visit(element, 0, visited);
+		}
+
+		assertEquals(4, scanned.parsed.size());
+		assertEquals(visited.parsed, scanned.parsed);
+	}
+
+	static final class CollectingVisitor extends CFMLVisitor {
+
+		final List<String> parsed = new ArrayList<String>();
+
+		@Override
+		public void visitElementStart(Element elem) {
+		}
+
+		@Override
+		public void visitElementEnd(Element elem) {
+		}
+
+		@Override
+		public void visitExpression(String context, CFExpression expression) {
+			parsed.add(expression.Decompile(0));
+		}
+
+		@Override
+		public void visitScript(CFScriptStatement scriptStatement) {
+			parsed.add(scriptStatement.Decompile(0));
+		}
+	}
+}
@@ -0,0 +1,159 @@
+package cfml.parsing.cfml;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.CFMLSource;
+import cfml.parsing.cfscript.CFAssignmentExpression;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import net.htmlparser.jericho.Element;
+
+public class TestCFMLVisit {
+
+	private static final String SOURCE = "<cffunction name=\"f\">\n<cfset a = 1>\n<cfif a><cfset b = 2></cfif>\n"
+			+ "<cfquery name=\"q\">select <cfif c>x</cfif></cfquery>\n</cffunction>";
+
+	private static String visit(RecordingVisitor visitor) throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		for (Element element : new CFMLSource(SOURCE).getChildElements()) {
+			parser.visit(element, 0, visitor);
+		}
+		return visitor.events.toString();
+	}
+
+	@Test
+	public void testOrder() throws Exception {
+		assertEquals("<cffunction <cfset a = 1 cfset> <cfif a <cfset b = 2 cfset> cfif> <cfquery <cfif c cfif> "
+				+ "cfquery> cffunction> ", visit(new RecordingVisitor()));
+	}
+
+	@Test
+	public void testPrune() throws Exception {
+		final RecordingVisitor visitor = new RecordingVisitor() {
+			@Override
+			public boolean visitChildren(Element elem) {
+				return !elem.getName().equalsIgnoreCase("cfif") && !elem.getName().equalsIgnoreCase("cfquery");
+			}
+		};
+		assertEquals("<cffunction <cfset a = 1 cfset> <cfif a cfif> <cfquery cfquery> cffunction> ",
+				visit(visitor));
+	}
+
+	@Test
+	public void testInterestInTags() throws Exception {
+		assertEquals("<cfquery cfquery> ", visit(new RecordingVisitor(CFMLInterest.NOTHING.withTags("CFQUERY"))));
+	}
+
+	@Test
+	public void testInterestInExpressions() throws Exception {
+		assertEquals("<cffunction <cfset a = 1 cfset> <cfif <cfset b = 2 cfset> cfif> <cfquery <cfif cfif> "
+				+ "cfquery> cffunction> ",
+				visit(new RecordingVisitor(CFMLInterest.EVERYTHING.withExpressions("cfset"))));
+	}
+
+	@Test
+	public void testInterestInFunctionBodies() throws Exception {
+		assertEquals("<cffunction cffunction> ",
+				visit(new RecordingVisitor(CFMLInterest.EVERYTHING.withFunctionBodies(false))));
+	}
+
+	@Test
+	public void testScanInterest() throws Exception {
+		final String source = "<cfset a = 1><cfif b><cfscript>c = 2;</cfscript></cfif>"
+				+ "<cffunction name=\"f\"><cfset d = 3></cffunction>";
+		final RecordingVisitor visitor = new RecordingVisitor(
+				CFMLInterest.NOTHING.withExpressions("cfset").withFunctionBodies(false));
+		new CFMLParser().scan(source, visitor);
+		assertEquals("a = 1 ", visitor.events.toString());
+	}
+
+	@Test
+	public void testExpressionPositions() throws Exception {
+		final String source = "<cfset a = 1>\n  <cfset total = price * 2>";
+		final List<CFExpression> expressions = new ArrayList<CFExpression>();
+		final RecordingVisitor visitor = new RecordingVisitor() {
+			@Override
+			public void visitExpression(String context, CFExpression expression) {
+				expressions.add(expression);
+			}
+		};
+		final CFMLParser parser = new CFMLParser();
+		for (Element element : new CFMLSource(source).getChildElements()) {
+			parser.visit(element, 0, visitor);
+		}
+		final CFExpression total = ((CFAssignmentExpression) expressions.get(1)).getLeft();
+		assertEquals(source.indexOf("total"), total.getOffset());
+		assertEquals(2, total.getLine());
+		assertEquals(10, total.getColumn());
+		assertEquals(source.indexOf("total"), total.getToken().getStartIndex());
+		assertEquals(2, total.getToken().getLine());
+		assertEquals(9, total.getToken().getCharPositionInLine());
+	}
+
+	@Test
+	public void testPreParseTextIsOptIn() throws Exception {
+		final List<String> texts = new ArrayList<String>();
+		final RecordingVisitor visitor = new RecordingVisitor() {
+			@Override
+			public boolean visitPreParseExpression(String context, String cfscript) {
+				texts.add(cfscript.trim());
+				return true;
+			}
+		};
+		visit(visitor);
+		assertEquals(0, texts.size());
+		visit(new RecordingVisitor(CFMLInterest.EVERYTHING.withPreParseText(true)) {
+			@Override
+			public boolean visitPreParseExpression(String context, String cfscript) {
+				texts.add(cfscript.trim());
+				return true;
+			}
+		});
+		assertEquals("[a = 1, a, b = 2, c]", texts.toString());
+	}
+
+	static class RecordingVisitor extends CFMLVisitor {
+
+		final StringBuilder events = new StringBuilder();
+		final CFMLInterest interest;
+
+		RecordingVisitor() {
+			this(CFMLInterest.EVERYTHING);
+		}
+
+		RecordingVisitor(CFMLInterest interest) {
+			this.interest = interest;
+		}
+
+		@Override
+		public CFMLInterest getInterest() {
+			return interest;
+		}
+
+		@Override
+		public void visitElementStart(Element elem) {
+			events.append('<').append(elem.getName()).append(' ');
+		}
+
+		@Override
+		public void visitElementEnd(Element elem) {
+			events.append(elem.getName()).append("> ");
+		}
+
+		@Override
+		public void visitExpression(String context, CFExpression expression) {
+			events.append(expression.Decompile(0)).append(' ');
+		}
+
+		@Override
+		public void visitScript(CFScriptStatement scriptStatement) {
+			events.append("script ");
+		}
+	}
+}
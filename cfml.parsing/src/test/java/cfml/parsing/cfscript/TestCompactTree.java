@@ -0,0 +1,107 @@
+package cfml.parsing.cfscript;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.cfscript.script.CFCase;
+import cfml.parsing.cfscript.script.CFCatchStatement;
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+
+public class TestCompactTree {
+
+	@Test
+	public void testExpression() throws Exception {
+		final CFExpression expression = new CFMLParser().parseCFExpression("a + b * 2", null);
+		final CompactTree tree = CompactTree.of(expression);
+		assertEquals(CFBinaryExpression.class, CompactTree.kindClass(tree.kind(0)));
+		assertEquals("+", tree.text(0));
+		assertEquals(0, tree.start(0));
+		assertEquals(9, tree.stop(0));
+
+		final CompactTree.Cursor cursor = tree.cursor();
+		assertTrue(cursor.gotoFirstChild());
+		assertEquals("a", cursor.text());
+		assertTrue(cursor.gotoNextSibling());
+		assertEquals("*", cursor.text());
+		assertFalse(cursor.gotoNextSibling());
+		assertTrue(cursor.gotoParent());
+		assertEquals(0, cursor.node());
+	}
+
+	@Test
+	public void testPreOrder() throws Exception {
+		final CompactTree tree = new CFMLParser().parseScriptCompact(
+				"function f(x) { if (x) { return x + 1; } return 0; } y = f(2);", null);
+		final CompactTree.Cursor cursor = tree.cursor();
+		int nodes = 1;
+		while (cursor.next()) {
+			nodes++;
+			final int node = cursor.node();
+			final int parent = tree.parent(node);
+			// a node lies within the subtree of its parent, and the parent comes first
+			assertTrue(parent < node && node < tree.end(parent));
+			assertTrue(tree.start(parent) <= tree.start(node) && tree.stop(node) <= tree.stop(parent));
+		}
+		assertEquals(tree.size(), nodes);
+		assertEquals(tree.size(), tree.end(0));
+
+		cursor.reset(0);
+		int functions = 0;
+		do {
+			if (cursor.kindClass() == CFFuncDeclStatement.class) {
+				functions++;
+			}
+		} while (cursor.next());
+		assertEquals(1, functions);
+	}
+
+	@Test
+	public void testSkipSubtree() throws Exception {
+		final CompactTree tree = new CFMLParser().parseScriptCompact("a = [1, 2, 3]; b = 4;", null);
+		final CompactTree.Cursor cursor = tree.cursor();
+		assertTrue(cursor.gotoFirstChild());
+		final int first = cursor.node();
+		assertTrue(cursor.skipSubtree());
+		assertEquals(tree.end(first), cursor.node());
+		assertEquals(tree.nextSibling(first), cursor.node());
+	}
+
+	@Test
+	public void testUnparsedBodiesAreLeftOut() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		final String script = "component { function f() { return 1 + 2; } }";
+		final CFScriptStatement skeleton = parser.parseScriptSkeleton(script, null);
+		final CompactTree outline = CompactTree.of(skeleton);
+		final CompactTree full = CompactTree.of(parser.parseScript(script));
+		assertTrue(outline.size() < full.size());
+	}
+
+	@Test
+	public void testTryAndSwitch() throws Exception {
+		final CFScriptStatement statement = new CFMLParser().parseScript(
+				"try { a = 1; } catch (any e) { b = 2; } finally { c = 3; }\n"
+						+ "switch (d) { case 4: e = 5; break; default: f = 6; }");
+		final CompactTree tree = CompactTree.of(statement);
+		final CompactTree.Cursor cursor = tree.cursor();
+		int catches = 0;
+		int cases = 0;
+		final StringBuilder literals = new StringBuilder();
+		do {
+			if (cursor.kindClass() == CFCatchStatement.class) {
+				catches++;
+			} else if (cursor.kindClass() == CFCase.class) {
+				cases++;
+			} else if (cursor.kindClass() == CFLiteral.class) {
+				literals.append(cursor.text());
+			}
+		} while (cursor.next());
+		assertEquals(1, catches);
+		assertEquals(2, cases);
+		assertEquals("123456", literals.toString());
+	}
+}
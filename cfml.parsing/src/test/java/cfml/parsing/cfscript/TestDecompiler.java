@@ -0,0 +1,84 @@
+package cfml.parsing.cfscript;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+import cfml.parsing.utils.TestUtils;
+
+public class TestDecompiler {
+
+	private static final String SCRIPT = "component extends=\"base\" {\n"
+			+ "\tpublic string function f(required a, b = 2) output=false {\n"
+			+ "\t\tvar s = \"x#a#y\";\n\t\tif (a > 1 && !b) { return a ?: b; } else { s &= [1, 2][1]; }\n"
+			+ "\t\tfor (var i = 1; i <= 3; i++) { continue; }\n\t\tfor (k in {a: 1, \"b\": [2]}) { break; }\n"
+			+ "\t\tswitch (a) { case 1: s = 1; break; default: s = a.b().c[1]; }\n"
+			+ "\t\ttry { x = new foo.Bar(1, 2); } catch (any e) { rethrow; }\n"
+			+ "\t\tvar g = (x) => x * 2;\n\t\tvar h = function(y) { return y; };\n"
+			+ "\t\twhile (a--) { a = a ? 1 : 0; }\n\t\tdo { a++; } while (a < 10);\n"
+			+ "\t\tlock timeout=1 name=\"l\" { s = -a; }\n\t\treturn s;\n\t}\n}";
+
+	@Test
+	public void testSameAsDecompile() throws Exception {
+		final CFScriptStatement statement = new CFMLParser().parseScript(SCRIPT);
+		assertEquals(statement.Decompile(0), new Decompiler().toString(statement, 0));
+		assertEquals(statement.Decompile(4), new Decompiler().toString(statement, 4));
+	}
+
+	@Test
+	public void testSameAsDecompileOnFiles() throws Exception {
+		final List<File> files = new ArrayList<File>();
+		listScripts(new File("src/test/resources/cfml"), files);
+		int compared = 0;
+		for (File file : files) {
+			final CFScriptStatement statement = new CFMLParser().parseScript(TestUtils.loadFile(file));
+			if (statement == null) {
+				continue;
+			}
+			final String expected;
+			try {
+				expected = statement.Decompile(0);
+			} catch (RuntimeException e) {
+				continue;
+			}
+			assertEquals(file.getPath(), expected, new Decompiler().toString(statement, 0));
+			compared++;
+		}
+		assertTrue(compared > 0);
+	}
+
+	@Test
+	public void testExpression() throws Exception {
+		final CFExpression expression = new CFMLParser().parseCFExpression("a.b(c, \"d#e#\")[1] + -f ?: {g: [1]}",
+				null);
+		final StringWriter out = new StringWriter();
+		new Decompiler().decompile(expression, 0, out);
+		assertEquals(expression.Decompile(0), out.toString());
+	}
+
+	@Test
+	public void testIndentation() throws Exception {
+		final CFScriptStatement statement = new CFMLParser().parseScript(SCRIPT);
+		final String tabbed = new Decompiler("\t").toString(statement, 0);
+		assertTrue(tabbed.contains("\t"));
+		assertEquals(statement.Decompile(0), tabbed.replace("\t", "  "));
+	}
+
+	private static void listScripts(File file, List<File> files) {
+		if (file.isDirectory()) {
+			for (File child : file.listFiles()) {
+				listScripts(child, files);
+			}
+		} else if (file.getName().toLowerCase().endsWith(".cfc")) {
+			files.add(file);
+		}
+	}
+}
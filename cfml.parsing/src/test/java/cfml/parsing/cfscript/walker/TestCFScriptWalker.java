@@ -0,0 +1,159 @@
+package cfml.parsing.cfscript.walker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import cfml.parsing.CFMLParser;
+import cfml.parsing.cfscript.CFBinaryExpression;
+import cfml.parsing.cfscript.CFExpression;
+import cfml.parsing.cfscript.CFLiteral;
+import cfml.parsing.cfscript.HasToken;
+import cfml.parsing.cfscript.script.CFCatchStatement;
+import cfml.parsing.cfscript.script.CFCase;
+import cfml.parsing.cfscript.script.CFFuncDeclStatement;
+import cfml.parsing.cfscript.script.CFScriptStatement;
+
+public class TestCFScriptWalker {
+
+	private static final String SCRIPT = "component {\n"
+			+ "\tfunction f(a, b = 2) {\n\t\tvar s = \"x#a#y\";\n"
+			+ "\t\tif (a > 1 && !b) { return a ?: b; } else { s &= [1, 2][1]; }\n"
+			+ "\t\tfor (var i = 1; i <= 3; i++) { s = s & i; }\n\t\treturn s;\n\t}\n"
+			+ "\tfunction g() { return 1 + 2; }\n}";
+
+	@Test
+	public void testSameOrderAsDecompose() throws Exception {
+		final CFScriptStatement statement = new CFMLParser().parseScript(SCRIPT);
+		final List<HasToken> expected = new ArrayList<HasToken>();
+		decompose(statement, expected);
+		final List<HasToken> entered = new ArrayList<HasToken>();
+		int left = 0;
+		final CFScriptWalker walker = new CFScriptWalker();
+		walker.reset(statement);
+		while (walker.next()) {
+			if (walker.isEntering()) {
+				entered.add(walker.node());
+			} else {
+				left++;
+			}
+		}
+		assertEquals(expected, entered);
+		assertEquals(entered.size(), left);
+	}
+
+	@Test
+	public void testDepth() throws Exception {
+		final CFExpression expression = new CFMLParser().parseCFExpression("a + 1", null);
+		final StringBuilder events = new StringBuilder();
+		final CFScriptWalker walker = new CFScriptWalker();
+		walker.reset(expression);
+		while (walker.next()) {
+			events.append(walker.isEntering() ? '+' : '-').append(walker.depth());
+		}
+		assertEquals("+0+1-1+1-1-0", events.toString());
+	}
+
+	@Test
+	public void testSkipSubtree() throws Exception {
+		final CFScriptStatement statement = new CFMLParser().parseScript(SCRIPT);
+		final List<HasToken> entered = new ArrayList<HasToken>();
+		new CFScriptWalker().walk(statement, new CFScriptNodeVisitor<Boolean>() {
+			@Override
+			public Boolean visitStatement(CFScriptStatement node) {
+				entered.add(node);
+				return Boolean.TRUE;
+			}
+
+			@Override
+			public Boolean visitExpression(CFExpression node) {
+				entered.add(node);
+				return Boolean.TRUE;
+			}
+
+			@Override
+			public Boolean visitFuncDeclStatement(CFFuncDeclStatement node) {
+				entered.add(node);
+				return Boolean.FALSE;
+			}
+		}, null);
+		for (HasToken node : entered) {
+			assertFalse(node instanceof CFLiteral);
+		}
+		assertEquals(2, entered.stream().filter(CFFuncDeclStatement.class::isInstance).count());
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void testSkipSubtreeOnLeave() throws Exception {
+		final CFScriptWalker walker = new CFScriptWalker();
+		walker.reset(new CFMLParser().parseCFExpression("1", null));
+		walker.next();
+		walker.next();
+		walker.skipSubtree();
+	}
+
+	@Test
+	public void testDispatch() throws Exception {
+		final CFExpression expression = new CFMLParser().parseCFExpression("a ?: b + c", null);
+		final int[] binaries = new int[1];
+		new CFScriptWalker().walk(expression, null, new CFScriptNodeVisitor<Void>() {
+			@Override
+			public Void visitBinaryExpression(CFBinaryExpression node) {
+				binaries[0]++;
+				return null;
+			}
+		});
+		assertEquals(2, binaries[0]);
+	}
+
+	@Test
+	public void testSwitchAndTry() throws Exception {
+		final CFScriptStatement statement = new CFMLParser().parseScript(
+				"switch (a) { case 1: b = 1; break; default: b = 2; }\n"
+						+ "try { c = 1; } catch (any e) { d = 2; } finally { e = 3; }");
+		final List<HasToken> entered = new ArrayList<HasToken>();
+		final CFScriptWalker walker = new CFScriptWalker();
+		walker.reset(statement);
+		while (walker.next()) {
+			if (walker.isEntering()) {
+				entered.add(walker.node());
+			}
+		}
+		assertEquals(2, entered.stream().filter(CFCase.class::isInstance).count());
+		assertEquals(1, entered.stream().filter(CFCatchStatement.class::isInstance).count());
+		final StringBuilder literals = new StringBuilder();
+		for (HasToken node : entered) {
+			if (node instanceof CFLiteral) {
+				literals.append(((CFLiteral) node).Decompile(0));
+			}
+		}
+		assertEquals("112123", literals.toString());
+	}
+
+	private static void decompose(HasToken node, List<HasToken> nodes) {
+		nodes.add(node);
+		final List<? extends Object> expressions;
+		final List<? extends Object> statements;
+		if (node instanceof CFExpression) {
+			expressions = ((CFExpression) node).decomposeExpression();
+			statements = ((CFExpression) node).decomposeScript();
+		} else {
+			expressions = ((CFScriptStatement) node).decomposeExpression();
+			statements = ((CFScriptStatement) node).decomposeScript();
+		}
+		for (Object child : expressions) {
+			if (child != null) {
+				decompose((HasToken) child, nodes);
+			}
+		}
+		for (Object child : statements) {
+			if (child != null) {
+				decompose((HasToken) child, nodes);
+			}
+		}
+	}
+}
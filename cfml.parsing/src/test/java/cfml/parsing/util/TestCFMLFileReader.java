@@ -0,0 +1,129 @@
+package cfml.parsing.util;
+
+import static org.junit.Assert.assertEquals;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.antlr.v4.runtime.CharStream;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TestCFMLFileReader {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Path write(byte[] bytes) throws Exception {
+		final Path file = folder.newFile().toPath();
+		Files.write(file, bytes);
+		return file;
+	}
+
+	private static byte[] concat(byte[] a, byte[] b) {
+		final byte[] result = new byte[a.length + b.length];
+		System.arraycopy(a, 0, result, 0, a.length);
+		System.arraycopy(b, 0, result, a.length, b.length);
+		return result;
+	}
+
+	@Test
+	public void testUtf8ByteOrderMark() throws Exception {
+		final Path file = write(concat(new byte[] { (byte) 0xef, (byte) 0xbb, (byte) 0xbf },
+				"<cfset x = \"é\">".getBytes(StandardCharsets.UTF_8)));
+		assertEquals("<cfset x = \"é\">", CFMLFileReader.readString(file, StandardCharsets.ISO_8859_1));
+	}
+
+	@Test
+	public void testUtf16ByteOrderMark() throws Exception {
+		final Path file = write(concat(new byte[] { (byte) 0xff, (byte) 0xfe },
+				"<cfset x = \"€\">".getBytes(StandardCharsets.UTF_16LE)));
+		assertEquals("<cfset x = \"€\">", CFMLFileReader.readString(file, StandardCharsets.ISO_8859_1));
+	}
+
+	@Test
+	public void testProcessingDirective() throws Exception {
+		final String source = "<cfprocessingdirective pageEncoding=\"utf-8\">\n<cfset x = \"é\">";
+		final Path file = write(source.getBytes(StandardCharsets.UTF_8));
+		assertEquals(source, CFMLFileReader.readString(file, StandardCharsets.ISO_8859_1));
+	}
+
+	@Test
+	public void testScriptPageEncoding() throws Exception {
+		final String source = "pageencoding 'iso-8859-1';\ncomponent { x = \"é\"; }";
+		final Path file = write(source.getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals(source, CFMLFileReader.readString(file, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testDefaultCharset() throws Exception {
+		final Path file = write("<cfset x = \"é\">".getBytes(StandardCharsets.ISO_8859_1));
+		assertEquals("<cfset x = \"é\">", CFMLFileReader.readString(file, StandardCharsets.ISO_8859_1));
+	}
+
+	@Test
+	public void testUnknownPageEncodingFallsBack() throws Exception {
+		final ByteBuffer bytes = ByteBuffer
+				.wrap("<cfprocessingdirective pageencoding=\"nonsense\">".getBytes(StandardCharsets.US_ASCII));
+		assertEquals(StandardCharsets.UTF_8, CFMLFileReader.detectCharset(bytes, StandardCharsets.UTF_8));
+		assertEquals(0, bytes.position());
+	}
+
+	@Test
+	public void testMappedFile() throws Exception {
+		final StringBuilder source = new StringBuilder();
+		while (source.length() <= CFMLFileReader.MAP_THRESHOLD) {
+			source.append("<cfset x = \"é\">\n");
+		}
+		final Path file = write(source.toString().getBytes(StandardCharsets.UTF_8));
+		assertEquals(source.toString(), CFMLFileReader.readString(file, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testFileOverPooledLimit() throws Exception {
+		final StringBuilder source = new StringBuilder();
+		while (source.length() <= CFMLFileReader.POOLED_BYTES_LIMIT) {
+			source.append("<cfset x = 1>\n");
+		}
+		final Path large = write(source.toString().getBytes(StandardCharsets.UTF_8));
+		final Path small = write("<cfset x=1>".getBytes(StandardCharsets.UTF_8));
+		assertEquals(source.toString(), CFMLFileReader.readString(large, StandardCharsets.UTF_8));
+		assertEquals("<cfset x=1>", CFMLFileReader.readString(small, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void testBuffersAreReusedSafely() throws Exception {
+		final Path longer = write("<cfset longer = 1>".getBytes(StandardCharsets.UTF_8));
+		final Path shorter = write("<cfset x=1>".getBytes(StandardCharsets.UTF_8));
+		assertEquals("<cfset longer = 1>", CFMLFileReader.readString(longer));
+		assertEquals("<cfset x=1>", CFMLFileReader.readString(shorter));
+	}
+
+	@Test
+	public void testNestedRead() throws Exception {
+		final Path outer = write("outer".getBytes(StandardCharsets.UTF_8));
+		final Path inner = write("inner".getBytes(StandardCharsets.UTF_8));
+		final List<String> seen = new ArrayList<String>();
+		CFMLFileReader.read(outer, StandardCharsets.UTF_8, chars -> {
+			CFMLFileReader.read(inner, StandardCharsets.UTF_8, innerChars -> seen.add(innerChars.toString()));
+			seen.add(chars.toString());
+		});
+		assertEquals("[inner, outer]", seen.toString());
+	}
+
+	@Test
+	public void testCharStream() throws Exception {
+		final String source = "x = \"😀\";";
+		final Path file = write(source.getBytes(StandardCharsets.UTF_8));
+		final CharStream stream = CFMLFileReader.readCharStream(file, StandardCharsets.UTF_8);
+		// The emoji is one code point, so one symbol in the stream.
+		assertEquals(source.codePointCount(0, source.length()), stream.size());
+		assertEquals(source, stream.getText(Interval.of(0, stream.size() - 1)));
+	}
+}
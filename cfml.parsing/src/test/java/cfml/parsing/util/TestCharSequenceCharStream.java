@@ -0,0 +1,72 @@
+package cfml.parsing.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+
+import org.antlr.v4.runtime.IntStream;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
+import org.junit.Test;
+
+import cfml.CFSCRIPTLexer;
+import cfml.parsing.CFMLParser;
+import cfml.parsing.cfscript.CFAssignmentExpression;
+import cfml.parsing.cfscript.CFExpression;
+
+public class TestCharSequenceCharStream {
+
+	private static final String DOCUMENT = "<cfset total = price * 2>";
+
+	@Test
+	public void testReadsOnlyTheRange() {
+		final CharSequenceCharStream stream = new CharSequenceCharStream(DOCUMENT, 7, 12);
+		assertEquals(7, stream.index());
+		assertEquals(12, stream.size());
+		assertEquals('t', stream.LA(1));
+		assertEquals(IntStream.EOF, stream.LA(-1));
+		stream.seek(11);
+		assertEquals('l', stream.LA(1));
+		assertEquals('a', stream.LA(-1));
+		stream.consume();
+		assertEquals(IntStream.EOF, stream.LA(1));
+		assertEquals("total", stream.getText(Interval.of(0, 100)));
+		assertEquals("total", stream.toString());
+	}
+
+	@Test
+	public void testTokensAreDocumentOffsets() {
+		final CFSCRIPTLexer lexer = new CFSCRIPTLexer(new CharSequenceCharStream(DOCUMENT, 7, 24));
+		final Token total = lexer.nextToken();
+		assertEquals("total", total.getText());
+		assertEquals(7, total.getStartIndex());
+		Token token = total;
+		while (token.getType() != Token.EOF && !"price".equals(token.getText())) {
+			token = lexer.nextToken();
+		}
+		assertEquals(15, token.getStartIndex());
+		assertEquals(19, token.getStopIndex());
+	}
+
+	@Test
+	public void testParseExpressionInPlace() throws Exception {
+		final CFMLParser parser = new CFMLParser();
+		final CFExpression expression = parser.parseCFExpression(DOCUMENT, 7, 24, null);
+		assertNotNull(expression);
+		assertEquals("total = price * 2", expression.Decompile(0));
+		// positions are offsets into the document, not into the expression
+		assertEquals(7, ((CFAssignmentExpression) expression).getLeft().getOffset());
+	}
+
+	@Test
+	public void testParseExpressionLineAndColumn() throws Exception {
+		final String document = "<cfset a = 1>\n\t<cfset b = 2>";
+		final CFAssignmentExpression expression = (CFAssignmentExpression) new CFMLParser()
+				.parseCFExpression(document, 22, 27, null);
+		final CFExpression left = expression.getLeft();
+		assertEquals(22, left.getOffset());
+		assertEquals(2, left.getLine());
+		assertEquals(9, left.getColumn());
+		assertEquals(2, left.getToken().getLine());
+		assertEquals(8, left.getToken().getCharPositionInLine());
+	}
+}